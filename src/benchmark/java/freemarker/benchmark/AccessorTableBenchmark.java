@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * Measures bean property reads with and without the accessor tables; see
+ * {@link BeansWrapper#setAccessorTableThreshold(int)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessorTableBenchmark {
+
+    @Param({ "0", "1" })
+    public int accessorTableThreshold;
+
+    private Template staticKeyTemplate;
+    private Template dynamicKeyTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        DefaultObjectWrapperBuilder owBuilder = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_31);
+        owBuilder.setAccessorTableThreshold(accessorTableThreshold);
+        cfg.setObjectWrapper(owBuilder.build());
+
+        staticKeyTemplate = new Template("staticKey.ftl",
+                "<#list beans as b>${b.name}${b.city}${b.age}</#list>", cfg);
+        dynamicKeyTemplate = new Template("dynamicKey.ftl",
+                "<#list beans as b><#list keys as k>${b[k]}</#list></#list>", cfg);
+
+        Person[] beans = new Person[10];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = new Person("n" + i, "c" + i, i);
+        }
+        dataModel = new HashMap<>();
+        dataModel.put("beans", beans);
+        dataModel.put("keys", Arrays.asList("name", "city", "age"));
+    }
+
+    @Benchmark
+    public void staticKey() throws TemplateException, IOException {
+        staticKeyTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void dynamicKey() throws TemplateException, IOException {
+        dynamicKeyTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    public static class Person {
+        private final String name;
+        private final String city;
+        private final int age;
+
+        public Person(String name, String city, int age) {
+            this.name = name;
+            this.city = city;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.core.HTMLOutputFormat;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * HTML auto-escaping ({@link HTMLOutputFormat}) of strings that need no escaping, and of strings that need a lot,
+ * compared to printing the same strings with {@code ?no_esc}. Also, building markup with {@code ?esc} and markup
+ * concatenation, and gathering markup and strings piece by piece with {@code +=}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutoEscapingBenchmark {
+
+    private static final int STRING_COUNT = 20;
+
+    @Param({ "plain", "markup" })
+    public String content;
+
+    private Template autoEscapingTemplate;
+    private Template noEscapingTemplate;
+    private Template markupConcatenationTemplate;
+    private Template markupAccumulationTemplate;
+    private Template stringAccumulationTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        autoEscapingTemplate = new Template("autoEscaping.ftlh",
+                "<#list xs as x><p>${x}</p></#list>", cfg);
+        noEscapingTemplate = new Template("noEscaping.ftlh",
+                "<#list xs as x><p>${x?no_esc}</p></#list>", cfg);
+        markupConcatenationTemplate = new Template("markupConcatenation.ftlh",
+                "<#list xs as x>${'<p>'?no_esc + x?esc + '</p>'?no_esc}</#list>", cfg);
+        markupAccumulationTemplate = new Template("markupAccumulation.ftlh",
+                "<#assign html = ''?no_esc>"
+                + "<#list xs as x><#assign html += '<p>'?no_esc + x + '</p>'?no_esc></#list>"
+                + "${html}", cfg);
+        stringAccumulationTemplate = new Template("stringAccumulation.ftlh",
+                "<#assign s = ''><#list xs as x><#assign s += x + ', '></#list>${s}", cfg);
+
+        String s;
+        if (content.equals("plain")) {
+            s = "The quick brown fox jumps over the lazy dog, again and again and again";
+        } else if (content.equals("markup")) {
+            s = "<a href=\"/q?a=1&b='2'\">The quick brown fox</a> & <b>the lazy dog</b>";
+        } else {
+            throw new IllegalArgumentException(content);
+        }
+        List<String> xs = new ArrayList<>(STRING_COUNT);
+        for (int i = 0; i < STRING_COUNT; i++) {
+            xs.add(s);
+        }
+        dataModel = Collections.<String, Object>singletonMap("xs", xs);
+    }
+
+    @Benchmark
+    public void autoEscaping() throws TemplateException, IOException {
+        autoEscapingTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void noEscaping() throws TemplateException, IOException {
+        noEscapingTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void markupConcatenation() throws TemplateException, IOException {
+        markupConcatenationTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void markupAccumulation() throws TemplateException, IOException {
+        markupAccumulationTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void stringAccumulation() throws TemplateException, IOException {
+        stringAccumulationTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateExceptionHandler;
+
+/**
+ * Shared setup of the benchmarks: the {@link Configuration}, the template fixtures (which are in the
+ * {@code freemarker/benchmark} class loader resource directory), and the data-model.
+ */
+public final class BenchmarkFixtures {
+
+    /** A fixed date-time (used as {@link Timestamp}, so it's known to have both date and time part). */
+    static final long TIMESTAMP = 1600000000000L;
+
+    private BenchmarkFixtures() {
+        // Not meant to be instantiated
+    }
+
+    /**
+     * Creates a configuration that loads the fixtures, with the settings that a typical production configuration
+     * would have (no update checks, fixed locale and time zone).
+     */
+    static Configuration newConfiguration() {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(new ClassTemplateLoader(BenchmarkFixtures.class, ""));
+        cfg.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+        cfg.setLocale(Locale.US);
+        cfg.setTimeZone(TimeZone.getTimeZone("UTC"));
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setLogTemplateExceptions(false);
+        return cfg;
+    }
+
+    /**
+     * Reads the source of a template fixture, so that it can be parsed without the {@link freemarker.cache.TemplateCache}
+     * being involved.
+     */
+    static String readFixture(String name) throws IOException {
+        InputStream in = BenchmarkFixtures.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Fixture not found: " + name);
+        }
+        try (Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[4096];
+            int ln;
+            while ((ln = r.read(buf)) != -1) {
+                sb.append(buf, 0, ln);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Creates the data-model of {@code page.ftlh}.
+     */
+    static Map<String, Object> createPageDataModel(int productCount) {
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products.add(new Product(
+                    1000 + i,
+                    i % 5 == 0 ? "Tea & Biscuits <" + i + ">" : "Product " + i,
+                    new BigDecimal(i * 37 % 1000).movePointLeft(1),
+                    i * 7 % 50,
+                    i % 11 != 0));
+        }
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("shop", new Shop(
+                "Benchmark \"Corner\" Shop", new Timestamp(TIMESTAMP), "EUR", Arrays.asList("food", "drinks", "misc")));
+        dataModel.put("products", products);
+        return dataModel;
+    }
+
+    public static class Shop {
+        private final String name;
+        private final Date updated;
+        private final String currency;
+        private final List<String> tags;
+
+        public Shop(String name, Date updated, String currency, List<String> tags) {
+            this.name = name;
+            this.updated = updated;
+            this.currency = currency;
+            this.tags = tags;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Date getUpdated() {
+            return updated;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    public static class Product {
+        private final int id;
+        private final String name;
+        private final BigDecimal price;
+        private final int stock;
+        private final boolean available;
+
+        public Product(int id, String name, BigDecimal price, int stock, boolean available) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.stock = stock;
+            this.available = available;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+    }
+
+}
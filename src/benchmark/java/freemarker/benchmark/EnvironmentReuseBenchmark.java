@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.core.Environment;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * Rendering a small template with a new {@link Environment} for each rendering, compared to reusing the same one (see
+ * {@link Template#createProcessingEnvironment(Object, java.io.Writer, freemarker.template.ObjectWrapper,
+ * Environment)}). Best run with {@code -prof gc}, as the difference is mostly in the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnvironmentReuseBenchmark {
+
+    private Template template;
+    private Map<String, Object> dataModel;
+    private Environment reusedEnvironment;
+
+    @Setup
+    public void setup() throws IOException {
+        template = new Template("small.ftl",
+                "<#macro greet name>Hello ${name}!</#macro><@greet user /> You have ${count} messages.",
+                BenchmarkFixtures.newConfiguration());
+        dataModel = new HashMap<>();
+        dataModel.put("user", "Joe");
+        dataModel.put("count", 3);
+    }
+
+    @Benchmark
+    public void newEnvironment() throws TemplateException, IOException {
+        template.createProcessingEnvironment(dataModel, NullWriter.INSTANCE).process();
+    }
+
+    @Benchmark
+    public void reusedEnvironment() throws TemplateException, IOException {
+        reusedEnvironment = template.createProcessingEnvironment(
+                dataModel, NullWriter.INSTANCE, null, reusedEnvironment);
+        reusedEnvironment.process();
+    }
+
+}
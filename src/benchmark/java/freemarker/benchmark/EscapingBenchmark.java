@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.benchmark;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.core.CommonMarkupOutputFormat;
+import freemarker.core.HTMLOutputFormat;
+import freemarker.core.RTFOutputFormat;
+import freemarker.core.XMLOutputFormat;
+import freemarker.template.TemplateModelException;
+
+/**
+ * Escaping with the {@link CommonMarkupOutputFormat}-s, directly to a {@link java.io.Writer}, and to a
+ * {@link String}, of content typical for web pages: prose (rarely needs escaping), user comments with some markup in
+ * them, and source code (needs a lot of escaping).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EscapingBenchmark {
+
+    private static final String PROSE
+            = "FreeMarker is a template engine: a Java library to generate text output (HTML web pages, e-mails, "
+            + "configuration files, source code, etc.) based on templates and changing data. Templates are written "
+            + "in the FreeMarker Template Language (FTL), which is a simple, specialized language, not a full-blown "
+            + "programming language like PHP. Usually, a general-purpose programming language (like Java) is used "
+            + "to prepare the data (issue database queries, do business calculations). Then, Apache FreeMarker "
+            + "displays that prepared data using templates. In the template you are focusing on how to present the "
+            + "data, and outside the template you are focusing on what data to present.";
+
+    private static final String COMMENT
+            = "Thanks, that's exactly what I needed! I've tried <code>?html</code> first, but it's deprecated, "
+            + "so I went with the \"HTML\" output format. One thing: if you use <b>&lt;#ftl&gt;</b>, "
+            + "don't forget the header. See https://example.com/docs?page=2&section=3 for more - or ask "
+            + "on the list. :-)";
+
+    private static final String CODE
+            = "public static <T extends Comparable<? super T>> void sort(List<T> list) {\n"
+            + "    if (list.size() < 2 && list != null) { return; }\n"
+            + "    Map<String, List<T>> m = new HashMap<>();\n"
+            + "    String s = \"a<b\" + 'c' + \"&d\\\\\";\n"
+            + "    for (int i = 0; i < list.size(); i++) { m.put(\"k\" + i, list); }\n"
+            + "}\n";
+
+    @Param({ "HTML", "XML", "RTF" })
+    public String format;
+
+    @Param({ "prose", "comment", "code" })
+    public String content;
+
+    private CommonMarkupOutputFormat<?> outputFormat;
+    private String text;
+    private final CharArrayWriter out = new CharArrayWriter(4096);
+
+    @Setup
+    public void setup() {
+        if (format.equals("HTML")) {
+            outputFormat = HTMLOutputFormat.INSTANCE;
+        } else if (format.equals("XML")) {
+            outputFormat = XMLOutputFormat.INSTANCE;
+        } else if (format.equals("RTF")) {
+            outputFormat = RTFOutputFormat.INSTANCE;
+        } else {
+            throw new IllegalArgumentException(format);
+        }
+
+        if (content.equals("prose")) {
+            text = PROSE;
+        } else if (content.equals("comment")) {
+            text = COMMENT;
+        } else if (content.equals("code")) {
+            text = CODE;
+        } else {
+            throw new IllegalArgumentException(content);
+        }
+    }
+
+    @Benchmark
+    public int outputToWriter() throws IOException, TemplateModelException {
+        out.reset();
+        outputFormat.output(text, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public String escapePlainText() throws TemplateModelException {
+        return outputFormat.escapePlainText(text);
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.core.CompiledDecimalTemplateNumberFormatFactory;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * Number and date/time formatting with {@code ?string}, and with the default formats; each template formats 10
+ * values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormattingBenchmark {
+
+    private static final int VALUE_COUNT = 10;
+
+    private Template defaultNumberFormatTemplate;
+    private Template numberPatternTemplate;
+    private Template numberComputerFormatTemplate;
+    private Template compiledNumberPatternTemplate;
+    private Template defaultDateTimeFormatTemplate;
+    private Template dateTimePatternTemplate;
+    private Template isoDateTimeFormatTemplate;
+    private Template isoDefaultDateTimeFormatTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        cfg.setCustomNumberFormats(Collections.singletonMap(
+                "decimal", CompiledDecimalTemplateNumberFormatFactory.INSTANCE));
+        defaultNumberFormatTemplate = new Template("defaultNumberFormat.ftl",
+                "<#list numbers as n>${n} </#list>", cfg);
+        numberPatternTemplate = new Template("numberPattern.ftl",
+                "<#list numbers as n>${n?string('0.00')} </#list>", cfg);
+        numberComputerFormatTemplate = new Template("numberComputerFormat.ftl",
+                "<#list numbers as n>${n?c} </#list>", cfg);
+        compiledNumberPatternTemplate = new Template("compiledNumberPattern.ftl",
+                "<#list numbers as n>${n?string('@decimal 0.00')} </#list>", cfg);
+        defaultDateTimeFormatTemplate = new Template("defaultDateTimeFormat.ftl",
+                "<#list dates as d>${d} </#list>", cfg);
+        dateTimePatternTemplate = new Template("dateTimePattern.ftl",
+                "<#list dates as d>${d?string('yyyy-MM-dd HH:mm')} </#list>", cfg);
+        isoDateTimeFormatTemplate = new Template("isoDateTimeFormat.ftl",
+                "<#list dates as d>${d?string.iso} </#list>", cfg);
+        isoDefaultDateTimeFormatTemplate = new Template("isoDefaultDateTimeFormat.ftl",
+                "<#setting datetime_format='iso'><#list dates as d>${d} </#list>", cfg);
+
+        List<Double> numbers = new ArrayList<>(VALUE_COUNT);
+        List<Date> dates = new ArrayList<>(VALUE_COUNT);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            numbers.add(i * 1234.5678);
+            dates.add(new Timestamp(BenchmarkFixtures.TIMESTAMP + i * 3600000L * 25));
+        }
+        dataModel = new HashMap<>();
+        dataModel.put("numbers", numbers);
+        dataModel.put("dates", dates);
+    }
+
+    @Benchmark
+    public void defaultNumberFormat() throws TemplateException, IOException {
+        defaultNumberFormatTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void numberPattern() throws TemplateException, IOException {
+        numberPatternTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void numberComputerFormat() throws TemplateException, IOException {
+        numberComputerFormatTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void compiledNumberPattern() throws TemplateException, IOException {
+        compiledNumberPatternTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void defaultDateTimeFormat() throws TemplateException, IOException {
+        defaultDateTimeFormatTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void dateTimePattern() throws TemplateException, IOException {
+        dateTimePatternTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void isoDateTimeFormat() throws TemplateException, IOException {
+        isoDateTimeFormatTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void isoDefaultDateTimeFormat() throws TemplateException, IOException {
+        isoDefaultDateTimeFormatTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+}
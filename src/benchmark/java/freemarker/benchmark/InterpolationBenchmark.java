@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * {@code ${...}} of a top-level data-model variable, with plain text output format (so no escaping), and with the
+ * default number format. Also, {@code ${...}} of a {@link Map} item, and comparing a {@link Map} item.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterpolationBenchmark {
+
+    private static final int INTERPOLATION_COUNT = 10;
+
+    @Param({ "string", "int", "double", "bigDecimal" })
+    public String valueType;
+
+    private Template template;
+    private Template hashItemTemplate;
+    private Template hashItemComparisonTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < INTERPOLATION_COUNT; i++) {
+            source.append("x=${x}\n");
+        }
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        template = new Template("interpolation.ftl", source.toString(), cfg);
+        hashItemTemplate = new Template("hashItem.ftl", source.toString().replace("${x}", "${m.x}"), cfg);
+        hashItemComparisonTemplate = new Template("hashItemComparison.ftl",
+                source.toString().replace("${x}", "<#if m.x == m.y>same</#if>"), cfg);
+
+        Object value;
+        if (valueType.equals("string")) {
+            value = "Hello World!";
+        } else if (valueType.equals("int")) {
+            value = 123456;
+        } else if (valueType.equals("double")) {
+            value = 1234.5678;
+        } else if (valueType.equals("bigDecimal")) {
+            value = new BigDecimal("1234.5678");
+        } else {
+            throw new IllegalArgumentException(valueType);
+        }
+        Map<String, Object> m = new HashMap<>();
+        m.put("x", value);
+        m.put("y", value);
+        dataModel = new HashMap<>();
+        dataModel.put("x", value);
+        dataModel.put("m", m);
+    }
+
+    @Benchmark
+    public void interpolate() throws TemplateException, IOException {
+        template.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void interpolateHashItem() throws TemplateException, IOException {
+        hashItemTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void compareHashItems() throws TemplateException, IOException {
+        hashItemComparisonTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+}
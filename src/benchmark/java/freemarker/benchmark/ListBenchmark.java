@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultListAdapter;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * {@code #list} over a {@link DefaultListAdapter}, which is how {@link DefaultObjectWrapper} wraps {@link List}-s
+ * by default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListBenchmark {
+
+    @Param({ "10", "1000" })
+    public int size;
+
+    private Template plainListTemplate;
+    private Template listWithLoopVariableBuiltInsTemplate;
+    private Template sequenceBuiltInsTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        plainListTemplate = new Template("plain.ftl",
+                "<#list xs as x>${x}</#list>", cfg);
+        listWithLoopVariableBuiltInsTemplate = new Template("loopVarBuiltIns.ftl",
+                "<#list xs as x>${x?counter}. ${x}<#if x?is_even_item>!</#if><#sep>, </#list>", cfg);
+        sequenceBuiltInsTemplate = new Template("seqBuiltIns.ftl",
+                "${xs?size} ${xs?first} ${xs?last} ${xs?seq_contains('no such item')?c}", cfg);
+
+        List<String> xs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            xs.add("item" + i);
+        }
+        dataModel = Collections.<String, Object>singletonMap(
+                "xs", DefaultListAdapter.adapt(xs, (DefaultObjectWrapper) cfg.getObjectWrapper()));
+    }
+
+    @Benchmark
+    public void plainList() throws TemplateException, IOException {
+        plainListTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void listWithLoopVariableBuiltIns() throws TemplateException, IOException {
+        listWithLoopVariableBuiltInsTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void sequenceBuiltIns() throws TemplateException, IOException {
+        sequenceBuiltInsTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * Compares member access through {@link java.lang.invoke.MethodHandle}-s with the Java reflection API; see
+ * {@link BeansWrapper#setUseMethodHandles(boolean)}. Each template does 10 accesses of the given kind.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberInvocationBenchmark {
+
+    private static final int ACCESS_COUNT = 10;
+
+    @Param({ "false", "true" })
+    public boolean useMethodHandles;
+
+    private Template propertyReadTemplate;
+    private Template methodCallTemplate;
+    private Template overloadedMethodCallTemplate;
+    private Template fieldReadTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        DefaultObjectWrapperBuilder owBuilder = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_31);
+        owBuilder.setUseMethodHandles(useMethodHandles);
+        owBuilder.setExposeFields(true);
+        cfg.setObjectWrapper(owBuilder.build());
+
+        propertyReadTemplate = new Template("propertyRead.ftl", repeat("${o.name}"), cfg);
+        methodCallTemplate = new Template("methodCall.ftl", repeat("${o.plus(1, 2)}"), cfg);
+        overloadedMethodCallTemplate = new Template("overloadedMethodCall.ftl", repeat("${o.format('s')}"), cfg);
+        fieldReadTemplate = new Template("fieldRead.ftl", repeat("${o.field}"), cfg);
+
+        dataModel = Collections.<String, Object>singletonMap("o", new Members());
+    }
+
+    private static String repeat(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ACCESS_COUNT; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public void propertyRead() throws TemplateException, IOException {
+        propertyReadTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void methodCall() throws TemplateException, IOException {
+        methodCallTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void overloadedMethodCall() throws TemplateException, IOException {
+        overloadedMethodCallTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void fieldRead() throws TemplateException, IOException {
+        fieldReadTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    public static class Members {
+
+        public final String field = "f";
+
+        public String getName() {
+            return "n";
+        }
+
+        public int plus(int a, int b) {
+            return a + b;
+        }
+
+        public String format(String s) {
+            return s;
+        }
+
+        public String format(int i) {
+            return "i";
+        }
+
+    }
+
+}
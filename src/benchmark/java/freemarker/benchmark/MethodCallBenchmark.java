@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * Java method calls from templates through {@link BeansWrapper}; overloaded methods (which are called through
+ * {@code OverloadedMethods}), compared to non-overloaded ones. Also, calling the heavily overloaded
+ * {@link StringBuilder#append} methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MethodCallBenchmark {
+
+    private Template nonOverloadedTemplate;
+    private Template overloadedTemplate;
+    private Template overloadedVarargsTemplate;
+    private Template stringBuilderAppendTemplate;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        Configuration cfg = BenchmarkFixtures.newConfiguration();
+        nonOverloadedTemplate = new Template("nonOverloaded.ftl",
+                "${o.single('a')}${o.single('b')}${o.single('c')}${o.single('d')}", cfg);
+        overloadedTemplate = new Template("overloaded.ftl",
+                "${o.format('a')}${o.format(1)}${o.format(1.5)}${o.format('d', 2)}", cfg);
+        overloadedVarargsTemplate = new Template("overloadedVarargs.ftl",
+                "${o.join('a')}${o.join('a', 'b')}${o.join(1, 'b', 'c')}${o.join('a', 'b', 'c', 'd')}", cfg);
+        stringBuilderAppendTemplate = new Template("stringBuilderAppend.ftl",
+                "${o.newStringBuilder().append('a').append(1).append(1.5).append(true).append(o).length()}", cfg);
+        dataModel = Collections.<String, Object>singletonMap("o", new Methods());
+    }
+
+    @Benchmark
+    public void nonOverloaded() throws TemplateException, IOException {
+        nonOverloadedTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void overloaded() throws TemplateException, IOException {
+        overloadedTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void overloadedVarargs() throws TemplateException, IOException {
+        overloadedVarargsTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    @Benchmark
+    public void stringBuilderAppend() throws TemplateException, IOException {
+        stringBuilderAppendTemplate.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    public static class Methods {
+
+        public String single(String s) {
+            return s;
+        }
+
+        public String format(String s) {
+            return s;
+        }
+
+        public String format(int i) {
+            return "i";
+        }
+
+        public String format(long l) {
+            return "l";
+        }
+
+        public String format(double d) {
+            return "d";
+        }
+
+        public String format(Object o) {
+            return "o";
+        }
+
+        public String format(String s, int i) {
+            return s;
+        }
+
+        public String join(String s) {
+            return s;
+        }
+
+        public String join(String... ss) {
+            return "s";
+        }
+
+        public String join(int i, String... ss) {
+            return "i";
+        }
+
+        public StringBuilder newStringBuilder() {
+            return new StringBuilder();
+        }
+
+        @Override
+        public String toString() {
+            return "o";
+        }
+
+    }
+
+}
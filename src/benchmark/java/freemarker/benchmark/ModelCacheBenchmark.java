@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * Measures {@link BeansWrapper#wrap(Object)} of the same set of beans from multiple threads, with and without the
+ * model cache; see {@link BeansWrapper#setUseCache(boolean)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ModelCacheBenchmark {
+
+    private static final int BEAN_COUNT = 1000;
+
+    @Param({ "false", "true" })
+    public boolean useCache;
+
+    private BeansWrapper beansWrapper;
+    private Object[] beans;
+
+    @Setup
+    public void setup() {
+        beansWrapper = new BeansWrapper(Configuration.VERSION_2_3_31);
+        beansWrapper.setUseCache(useCache);
+        beans = new Object[BEAN_COUNT];
+        for (int i = 0; i < BEAN_COUNT; i++) {
+            beans[i] = new BenchmarkFixtures.Product(i, "p" + i, BigDecimal.valueOf(i), i, true);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BEAN_COUNT)
+    public TemplateModel wrap() throws TemplateModelException {
+        TemplateModel last = null;
+        for (Object bean : beans) {
+            last = beansWrapper.wrap(bean);
+        }
+        return last;
+    }
+
+}
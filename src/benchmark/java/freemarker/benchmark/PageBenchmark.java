@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.core.ByteOutputWriter;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.utility.NullWriter;
+
+/**
+ * End-to-end rendering of {@code page.ftlh}, which mixes most of what the other benchmarks measure in isolation
+ * (macro call, import, listing, bean property reads, formatting, HTML auto-escaping).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageBenchmark {
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    /** Discards everything, like a socket that's infinitely fast. */
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({ "20", "500" })
+    public int productCount;
+
+    private Template template;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() throws IOException {
+        template = BenchmarkFixtures.newConfiguration().getTemplate("page.ftlh");
+        dataModel = BenchmarkFixtures.createPageDataModel(productCount);
+    }
+
+    @Benchmark
+    public void render() throws TemplateException, IOException {
+        template.process(dataModel, NullWriter.INSTANCE);
+    }
+
+    /** Baseline for {@link #renderToByteOutputWriter()}; how a servlet response is written by default. */
+    @Benchmark
+    public void renderToOutputStreamWriter() throws TemplateException, IOException {
+        Writer out = new OutputStreamWriter(NULL_OUTPUT_STREAM, CHARSET);
+        template.process(dataModel, out);
+        out.flush();
+    }
+
+    @Benchmark
+    public void renderToByteOutputWriter() throws TemplateException, IOException {
+        Writer out = new ByteOutputWriter(NULL_OUTPUT_STREAM, CHARSET);
+        template.process(dataModel, out);
+        out.flush();
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.benchmark;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import freemarker.cache.TemplateCache;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * {@link Configuration#getTemplate(String)} when the template is already in the {@link TemplateCache}; with and
+ * without the template update delay being expired (in which case the template loader is asked for the last
+ * modification time on each call).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateCacheBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean checkForUpdates;
+
+    private Configuration cfg;
+
+    @Setup
+    public void setup() throws IOException {
+        cfg = BenchmarkFixtures.newConfiguration();
+        if (checkForUpdates) {
+            cfg.setTemplateUpdateDelayMilliseconds(0);
+        }
+        // Load them into the cache:
+        cfg.getTemplate("page.ftlh");
+        cfg.getTemplate("page.ftlh", Locale.GERMANY);
+    }
+
+    @Benchmark
+    public Template hit() throws IOException {
+        return cfg.getTemplate("page.ftlh");
+    }
+
+    @Benchmark
+    public Template hitWithNonDefaultLocale() throws IOException {
+        return cfg.getTemplate("page.ftlh", Locale.GERMANY);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Template hitConcurrently() throws IOException {
+        return cfg.getTemplate("page.ftlh");
+    }
+
+}
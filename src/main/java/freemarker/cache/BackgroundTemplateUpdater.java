@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import freemarker.log.Logger;
+import freemarker.template.Configuration;
+import freemarker.template.utility.NullArgumentException;
+import freemarker.template.utility.StringUtil;
+
+/**
+ * When set in the {@link TemplateCache} (usually via {@link Configuration#setBackgroundTemplateUpdater(
+ * BackgroundTemplateUpdater)}), templates whose {@linkplain Configuration#setTemplateUpdateDelayMilliseconds(long)
+ * update delay} has expired are returned from the cache immediately, and are checked for changes (and reloaded if
+ * needed) on a background thread. So the thread that requests the template never waits for the
+ * {@link TemplateLoader}, except when the template isn't in the cache at all (or the cache has stored a template
+ * lookup failure or a missing template).
+ *
+ * <p>When the background update finishes, its result replaces the cache entry, just like if the update was done
+ * synchronously. That is, if the update fails, the failure will be cached and thrown by later
+ * {@link TemplateCache#getTemplate(String, Locale, Object, String, boolean)} calls, and if the template was removed,
+ * later calls will find it missing. The failure is also reported to {@link #handleUpdateFailure(String, Locale,
+ * Throwable)}.
+ *
+ * <p>The same template is only updated by one background task at a time; while that's in progress, the stale
+ * template is served to all threads.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @since 2.3.32
+ */
+public class BackgroundTemplateUpdater {
+
+    private static final Logger LOG = Logger.getLogger("freemarker.cache");
+
+    private final Executor executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Creates an instance that uses its own daemon threads for updating templates.
+     *
+     * @param parallelism
+     *            The maximum number of templates updated in parallel; at least 1.
+     */
+    public BackgroundTemplateUpdater(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("\"parallelism\" must be at least 1, but was " + parallelism + ".");
+        }
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+                parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new UpdaterThreadFactory());
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+        this.ownsExecutor = true;
+    }
+
+    /**
+     * Creates an instance that uses the given {@link Executor} for updating templates. The parallelism is then
+     * controlled by the {@link Executor}. If the {@link Executor} rejects a task, the template will be updated
+     * synchronously, just as if there was no {@link BackgroundTemplateUpdater}.
+     */
+    public BackgroundTemplateUpdater(Executor executor) {
+        NullArgumentException.check("executor", executor);
+        this.executor = executor;
+        this.ownsExecutor = false;
+    }
+
+    /**
+     * Submits the update task; package visible as only {@link TemplateCache} should call this.
+     */
+    void execute(Runnable updateTask) {
+        executor.execute(updateTask);
+    }
+
+    /**
+     * Called when a background update has failed. The default implementation logs the exception with WARN level on
+     * the "freemarker.cache" logger. Override this to monitor update failures differently. This method is called on
+     * the background thread, and it shouldn't throw exceptions.
+     *
+     * @param templateName
+     *            The normalized name of the template, as it was passed to {@link TemplateCache}.
+     * @param locale
+     *            The locale that was requested, as it was passed to {@link TemplateCache}.
+     * @param exception
+     *            The exception that the update has thrown, which is also cached as the result of the lookup.
+     */
+    protected void handleUpdateFailure(String templateName, Locale locale, Throwable exception) {
+        LOG.warn("Background update of template " + StringUtil.jQuoteNoXSS(templateName) + " ("
+                + StringUtil.jQuoteNoXSS(locale) + ") has failed.", exception);
+    }
+
+    /**
+     * Stops the threads that were created by this object; does nothing if an {@link Executor} was specified in the
+     * constructor. Templates that are stale when the updater was shut down will be updated synchronously.
+     */
+    public void shutdown() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private static class UpdaterThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "FreeMarker template updater " + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import freemarker.template.Configuration;
+
+/**
+ * Implemented by {@link TemplateLoader}-s that are notified about the changes of the template sources (like by the
+ * operating system), and so can tell cheaply if a template source might have changed since an earlier point of time.
+ * {@link TemplateCache} uses this to consider a cached template stale as soon as its source has changed, without
+ * waiting for the {@linkplain Configuration#setTemplateUpdateDelayMilliseconds(long) update delay} to expire. Thus,
+ * when the change tracking is active, the update delay can be set to a very high value.
+ *
+ * <p>The change tracking uses "change versions", which is a number that the {@link TemplateLoader} increases whenever
+ * it's notified about a change. {@link TemplateCache} records the current change version before it looks up a
+ * template, and later asks if the template source has changed since that version.
+ *
+ * <p>The methods of this interface must be thread-safe, and should be fast, as they are called for each cache hit.
+ *
+ * @see FileTemplateLoader#setWatchFileChanges(boolean)
+ *
+ * @since 2.3.32
+ */
+public interface ChangeTrackingTemplateLoader extends TemplateLoader {
+
+    /**
+     * Returns the current change version, or -1 if change tracking is not active currently. Change versions must be
+     * non-negative, and never decrease during the lifetime of the {@link TemplateLoader} object.
+     */
+    long getChangeVersion();
+
+    /**
+     * Tells if the template source might have changed since the given change version was current. This includes the
+     * template source being deleted, and also new template sources appearing that could change the result of a
+     * template lookup (for example, because of localized lookup), in which case {@code templateSource} is possibly
+     * {@code null}. If change tracking is not active currently, or there was a problem with it, this must return
+     * {@code true}.
+     *
+     * @param templateSource
+     *            The template source object as was returned by {@link #findTemplateSource(String)}, or {@code null}
+     *            if the lookup haven't found a template.
+     * @param changeVersion
+     *            A non-negative value returned by {@link #getChangeVersion()} earlier.
+     */
+    boolean isChangedSince(Object templateSource, long changeVersion);
+
+}
@@ -19,8 +19,18 @@
 
 package freemarker.cache;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
+import freemarker.log.Logger;
 import freemarker.template.utility.NullArgumentException;
 import freemarker.template.utility.StringUtil;
 
@@ -29,8 +39,10 @@ import freemarker.template.utility.StringUtil;
  * anywhere where Java can load classes from. Internally, it uses {@link Class#getResource(String)} or
  * {@link ClassLoader#getResource(String)} to load templates.
  */
-public class ClassTemplateLoader extends URLTemplateLoader {
+public class ClassTemplateLoader extends URLTemplateLoader implements ListableTemplateLoader {
     
+    private static final Logger LOG = Logger.getLogger("freemarker.cache");
+
     private final Class<?> resourceLoaderClass;
     private final ClassLoader classLoader;
     private final String basePackagePath;
@@ -147,6 +159,71 @@ public class ClassTemplateLoader extends URLTemplateLoader {
                 .getResource(fullPath);
     }
 
+    /**
+     * Lists the resources under the base package, where the base package is in a directory or in a jar file; other
+     * kind of class path entries are skipped. For jar files, the base package is only found if the jar contains an
+     * entry for its directory (which is usually the case). As the base package can occur in multiple class path
+     * entries, the resources from all of them are listed.
+     * 
+     * @since 2.3.32
+     */
+    @Override
+    public Set<String> listTemplateNames() throws IOException {
+        final String absoluteBasePath;
+        final ClassLoader resourceClassLoader;
+        if (resourceLoaderClass != null) {
+            if (basePackagePath.startsWith("/")) {
+                absoluteBasePath = basePackagePath.substring(1);
+            } else {
+                String className = resourceLoaderClass.getName();
+                int lastDotIdx = className.lastIndexOf('.');
+                absoluteBasePath = lastDotIdx == -1
+                        ? basePackagePath
+                        : className.substring(0, lastDotIdx + 1).replace('.', '/') + basePackagePath;
+            }
+            resourceClassLoader = resourceLoaderClass.getClassLoader() != null
+                    ? resourceLoaderClass.getClassLoader() : ClassLoader.getSystemClassLoader();
+        } else {
+            absoluteBasePath = basePackagePath;
+            resourceClassLoader = classLoader;
+        }
+
+        Set<String> names = new TreeSet<>();
+        Enumeration<URL> baseDirURLs = resourceClassLoader.getResources(absoluteBasePath);
+        while (baseDirURLs.hasMoreElements()) {
+            URL baseDirURL = baseDirURLs.nextElement();
+            String protocol = baseDirURL.getProtocol();
+            if ("file".equals(protocol)) {
+                try {
+                    TemplateLoaderUtils.addFileNames(new File(baseDirURL.toURI()).toPath(), names);
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    LOG.warn("Couldn't list templates in " + baseDirURL, e);
+                }
+            } else if ("jar".equals(protocol)) {
+                JarURLConnection conn = (JarURLConnection) baseDirURL.openConnection();
+                conn.setUseCaches(false);
+                String entryPrefix = conn.getEntryName();
+                if (entryPrefix == null) {
+                    entryPrefix = "";
+                } else if (!entryPrefix.endsWith("/")) {
+                    entryPrefix += "/";
+                }
+                try (JarFile jarFile = conn.getJarFile()) {
+                    for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+                        JarEntry entry = entries.nextElement();
+                        String entryName = entry.getName();
+                        if (!entry.isDirectory() && entryName.startsWith(entryPrefix)) {
+                            names.add(entryName.substring(entryPrefix.length()));
+                        }
+                    }
+                }
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug("Can't list templates in " + baseDirURL + ", as the URL protocol is not supported.");
+            }
+        }
+        return names;
+    }
+
     private static boolean isSchemeless(String fullPath) {
         int i = 0;
         int ln = fullPath.length();
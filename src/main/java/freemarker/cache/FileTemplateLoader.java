@@ -25,10 +25,22 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import freemarker.log.Logger;
 import freemarker.template.Configuration;
@@ -41,8 +53,12 @@ import freemarker.template.utility.StringUtil;
  * directory. If you want symbolic links that point outside the template directory to work, you need to disable this
  * feature by using {@link #FileTemplateLoader(File, boolean)} with {@code true} second argument, but before that, check
  * the security implications there!
+ * 
+ * <p>By default changes are detected by checking the last modification time of the template files, when the
+ * {@linkplain Configuration#setTemplateUpdateDelayMilliseconds(long) update delay} expires. See
+ * {@link #setWatchFileChanges(boolean)} to be notified about the changes by the operating system instead.
  */
-public class FileTemplateLoader implements TemplateLoader {
+public class FileTemplateLoader implements ChangeTrackingTemplateLoader, ListableTemplateLoader {
     
     /**
      * By setting this Java system property to {@code true}, you can change the default of
@@ -73,6 +89,9 @@ public class FileTemplateLoader implements TemplateLoader {
     private final String canonicalBasePath;
     private boolean emulateCaseSensitiveFileSystem;
     private MruCacheStorage correctCasePaths;
+    /** {@code null} if we don't watch file changes. */
+    private volatile FileWatcher fileWatcher;
+    private final AtomicLong changeVersion = new AtomicLong();
 
     /**
      * Creates a new file template cache that will use the current directory (the value of the system property
@@ -159,6 +178,11 @@ public class FileTemplateLoader implements TemplateLoader {
                 public File run() throws IOException {
                     File source = new File(baseDir, SEP_IS_SLASH ? name : 
                         name.replace('/', File.separatorChar));
+                    FileWatcher fileWatcher = FileTemplateLoader.this.fileWatcher;
+                    if (fileWatcher != null) {
+                        // Even if the file is missing, as then we want to know when it's created.
+                        fileWatcher.watchDirectoryOf(source);
+                    }
                     if (!source.isFile()) {
                         return null;
                     }
@@ -215,6 +239,28 @@ public class FileTemplateLoader implements TemplateLoader {
         }
     }
     
+    /**
+     * Lists the files under the {@linkplain #getBaseDirectory() base directory}, recursively. Symbolic links to
+     * directories aren't followed. Files that can't be accessed are silently skipped.
+     * 
+     * @since 2.3.32
+     */
+    @Override
+    public Set<String> listTemplateNames() throws IOException {
+        try {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<Set<String>>() {
+                @Override
+                public Set<String> run() throws IOException {
+                    final Set<String> names = new TreeSet<>();
+                    TemplateLoaderUtils.addFileNames(baseDir.toPath(), names);
+                    return names;
+                }
+            });
+        } catch (PrivilegedActionException e) {
+            throw (IOException) e.getException();
+        }
+    }
+    
     /**
      * Called by {@link #findTemplateSource(String)} when {@link #getEmulateCaseSensitiveFileSystem()} is {@code true}.
      */
@@ -327,6 +373,84 @@ public class FileTemplateLoader implements TemplateLoader {
         return EMULATE_CASE_SENSITIVE_FILE_SYSTEM_DEFAULT;
     }
 
+    /**
+     * Sets whether to use a {@link WatchService} to be notified about the changes of the template files by the
+     * operating system, instead of relying on polling the last modification time of the files. When this is
+     * {@code true}, a cached template is considered to be stale as soon as the change of its file was reported (see
+     * {@link ChangeTrackingTemplateLoader}), so you can set {@link Configuration#setTemplateUpdateDelayMilliseconds(
+     * long)} to a very high value without serving outdated templates. Note that the notification is asynchronous, so
+     * right after a change the old template might be still served for a short while (depending on the operating
+     * system, even for seconds).
+     * 
+     * <p>Only the directories of the already looked up template files are watched. If the operating system drops
+     * events (the {@link WatchService} overflows), or a template file is created (which possibly changes the result
+     * of a localized or acquisition lookup), all cached templates are considered to be stale, so they will be
+     * checked for modification once again, like when polling. If watching fails, the cached templates are
+     * considered to be always stale, so they are re-checked for each request, as if the update delay was 0. Changes
+     * of files that symbolic links point to are only detected if the link is in the same directory as its target.
+     * 
+     * <p>Watching requires a background thread. Set this back to {@code false} to stop it when the
+     * {@link FileTemplateLoader} is not used anymore.
+     * 
+     * @throws IOException
+     *             If the {@link WatchService} couldn't be created.
+     * 
+     * @since 2.3.32
+     */
+    public void setWatchFileChanges(boolean watchFileChanges) throws IOException {
+        synchronized (this) {
+            if (watchFileChanges == (fileWatcher != null)) {
+                return;
+            }
+            if (watchFileChanges) {
+                try {
+                    fileWatcher = AccessController.doPrivileged(new PrivilegedExceptionAction<FileWatcher>() {
+                        @Override
+                        public FileWatcher run() throws IOException {
+                            return new FileWatcher();
+                        }
+                    });
+                } catch (PrivilegedActionException e) {
+                    throw (IOException) e.getException();
+                }
+            } else {
+                FileWatcher fileWatcher = this.fileWatcher;
+                this.fileWatcher = null;
+                fileWatcher.close();
+            }
+        }
+    }
+
+    /**
+     * Getter pair of {@link #setWatchFileChanges(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public boolean getWatchFileChanges() {
+        return fileWatcher != null;
+    }
+
+    /**
+     * Returns -1 unless {@link #setWatchFileChanges(boolean)} was set to {@code true}.
+     * 
+     * @since 2.3.32
+     */
+    @Override
+    public long getChangeVersion() {
+        return fileWatcher != null ? changeVersion.get() : -1L;
+    }
+
+    /**
+     * Always returns {@code true} unless {@link #setWatchFileChanges(boolean)} was set to {@code true}.
+     * 
+     * @since 2.3.32
+     */
+    @Override
+    public boolean isChangedSince(Object templateSource, long changeVersion) {
+        FileWatcher fileWatcher = this.fileWatcher;
+        return fileWatcher == null || fileWatcher.isChangedSince((File) templateSource, changeVersion);
+    }
+
     /**
      * Show class name and some details that are useful in template-not-found errors.
      * 
@@ -340,7 +464,112 @@ public class FileTemplateLoader implements TemplateLoader {
                 + "baseDir=\"" + baseDir + "\""
                 + (canonicalBasePath != null ? ", canonicalBasePath=\"" + canonicalBasePath + "\"" : "")
                 + (emulateCaseSensitiveFileSystem ? ", emulateCaseSensitiveFileSystem=true" : "")
+                + (fileWatcher != null ? ", watchFileChanges=true" : "")
                 + ")";
     }
     
+    /**
+     * Watches the directories of the template files, and records which files have changed, with which change version.
+     */
+    private class FileWatcher implements Runnable {
+        
+        private final WatchService watchService;
+        private final Set<Path> watchedDirectories = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+        private final ConcurrentMap<File, Long> fileChangeVersions = new ConcurrentHashMap<>();
+        /** Changes of this version or earlier affect all template sources. */
+        private volatile long allChangedVersion;
+        private volatile boolean failed;
+        
+        FileWatcher() throws IOException {
+            watchService = baseDir.toPath().getFileSystem().newWatchService();
+            // Anything cached before we have started watching is possibly outdated:
+            allChangedVersion = changeVersion.incrementAndGet();
+            
+            Thread thread = new Thread(this, "FreeMarker template file watcher for " + baseDir);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        
+        boolean isChangedSince(File templateSource, long sinceVersion) {
+            if (failed || allChangedVersion > sinceVersion) {
+                return true;
+            }
+            if (templateSource == null) {
+                return false;
+            }
+            Long fileChangeVersion = fileChangeVersions.get(templateSource);
+            return fileChangeVersion != null && fileChangeVersion.longValue() > sinceVersion;
+        }
+        
+        /**
+         * Watches the directory of the file, or the closest existing ancestor of that, and all its ancestors up to
+         * the base directory (as creating missing directories also has to be detected).
+         */
+        void watchDirectoryOf(File file) {
+            File dir = file.getParentFile();
+            while (dir != null && !dir.isDirectory()) {
+                dir = dir.getParentFile();
+            }
+            for (; dir != null; dir = dir.getParentFile()) {
+                Path dirPath = dir.toPath();
+                if (!watchedDirectories.contains(dirPath)) {
+                    try {
+                        dirPath.register(watchService,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE,
+                                StandardWatchEventKinds.ENTRY_MODIFY);
+                        watchedDirectories.add(dirPath);
+                    } catch (ClosedWatchServiceException e) {
+                        return; // Watching was stopped
+                    } catch (IOException e) {
+                        LOG.error("Failed to watch template directory " + StringUtil.jQuoteNoXSS(dir)
+                                + "; changes will be checked for each request from now on.", e);
+                        failed = true;
+                        return;
+                    }
+                }
+                if (dir.equals(baseDir)) {
+                    break;
+                }
+            }
+        }
+        
+        @Override
+        public void run() {
+            while (true) {
+                WatchKey watchKey;
+                try {
+                    watchKey = watchService.take();
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    return;
+                }
+                
+                Path dirPath = (Path) watchKey.watchable();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    WatchEvent.Kind<?> kind = event.kind();
+                    if (kind == StandardWatchEventKinds.ENTRY_MODIFY || kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                        File file = dirPath.resolve((Path) event.context()).toFile();
+                        fileChangeVersions.put(file, Long.valueOf(changeVersion.incrementAndGet()));
+                    } else {
+                        if (kind == StandardWatchEventKinds.OVERFLOW) {
+                            LOG.warn("Template file watcher has overflowed; re-checking all cached templates.");
+                        }
+                        allChangedVersion = changeVersion.incrementAndGet();
+                    }
+                }
+                
+                if (!watchKey.reset()) {
+                    // The directory was deleted, or became inaccessible
+                    watchedDirectories.remove(dirPath);
+                    allChangedVersion = changeVersion.incrementAndGet();
+                }
+            }
+        }
+        
+        void close() throws IOException {
+            watchService.close();
+        }
+        
+    }
+    
 }
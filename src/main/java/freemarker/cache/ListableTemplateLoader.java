@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import java.io.IOException;
+import java.util.Set;
+
+import freemarker.template.Configuration;
+
+/**
+ * Implemented by {@link TemplateLoader}-s that can enumerate the template sources they can load. This is used by
+ * {@link Configuration#preloadTemplates(TemplateSourceMatcher, java.util.concurrent.Executor)} to discover the
+ * templates.
+ *
+ * @since 2.3.32
+ */
+public interface ListableTemplateLoader extends TemplateLoader {
+
+    /**
+     * Returns the names of all template sources (and possibly of other files, as the {@link TemplateLoader} doesn't
+     * know what's a template) that this {@link TemplateLoader} can load. The names are in the format that
+     * {@link #findTemplateSource(String)} accepts, that is, they are {@code /}-separated paths relative to the root
+     * of the {@link TemplateLoader}, without leading {@code /}. The returned set is possibly incomplete if some
+     * sources can't be enumerated (like a source that's not a directory or a jar), but each name in it must be
+     * loadable.
+     *
+     * <p>This method can be slow, as it possibly walks a whole directory tree.
+     */
+    Set<String> listTemplateNames() throws IOException;
+
+}
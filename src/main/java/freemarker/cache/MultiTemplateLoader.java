@@ -22,6 +22,8 @@ package freemarker.cache;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import freemarker.template.utility.NullArgumentException;
@@ -35,7 +37,7 @@ import freemarker.template.utility.NullArgumentException;
  * 
  * <p>This class is thread-safe.
  */
-public class MultiTemplateLoader implements StatefulTemplateLoader {
+public class MultiTemplateLoader implements StatefulTemplateLoader, ListableTemplateLoader {
 
     private final TemplateLoader[] templateLoaders;
     private final Map<String, TemplateLoader> lastTemplateLoaderForName
@@ -111,6 +113,23 @@ public class MultiTemplateLoader implements StatefulTemplateLoader {
         ((MultiSource) templateSource).close();
     }
 
+    /**
+     * Returns the union of the names listed by the enclosed {@link TemplateLoader}-s. The enclosed
+     * {@link TemplateLoader}-s that aren't {@link ListableTemplateLoader}-s are skipped.
+     * 
+     * @since 2.3.32
+     */
+    @Override
+    public Set<String> listTemplateNames() throws IOException {
+        Set<String> names = new TreeSet<>();
+        for (TemplateLoader templateLoader : templateLoaders) {
+            if (templateLoader instanceof ListableTemplateLoader) {
+                names.addAll(((ListableTemplateLoader) templateLoader).listTemplateNames());
+            }
+        }
+        return names;
+    }
+
     /**
      * Clears the sickiness memory, also resets the state of all enclosed {@link StatefulTemplateLoader}-s.
      */
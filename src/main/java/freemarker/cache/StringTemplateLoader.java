@@ -23,6 +23,8 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import freemarker.template.utility.StringUtil;
 
@@ -59,7 +61,7 @@ import freemarker.template.utility.StringUtil;
  * want to combine a <tt>StringTemplateLoader</tt> with another loader. You can
  * do so using a {@link freemarker.cache.MultiTemplateLoader}.
  */
-public class StringTemplateLoader implements TemplateLoader {
+public class StringTemplateLoader implements ListableTemplateLoader {
     
     private final Map<String, StringTemplateSource> templates = new HashMap<>();
     
@@ -117,6 +119,16 @@ public class StringTemplateLoader implements TemplateLoader {
         return templates.remove(name) != null;
     }
     
+    /**
+     * Returns the names with which the templates were added.
+     * 
+     * @since 2.3.32
+     */
+    @Override
+    public Set<String> listTemplateNames() {
+        return new TreeSet<>(templates.keySet());
+    }
+    
     @Override
     public void closeTemplateSource(Object templateSource) {
     }
@@ -22,6 +22,7 @@ package freemarker.cache;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Serializable;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.net.URLConnection;
@@ -29,6 +30,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 
 import freemarker.cache.MultiTemplateLoader.MultiSource;
 import freemarker.core.BugException;
@@ -54,6 +59,10 @@ import freemarker.template.utility.UndeclaredThrowableException;
  * {@link Configuration} API-s. Then {@link TemplateLoader} and {@link CacheStorage} can be set with
  * {@link Configuration#setTemplateLoader(TemplateLoader)} and
  * {@link Configuration#setCacheStorage(CacheStorage)}.
+ * 
+ * <p>When multiple threads need the same template that's missing from the cache (or is stale), only one of them will
+ * load it, and the others will wait for its result. Different templates (or different locale, etc.) are loaded in
+ * parallel. If the {@link CacheStorage} is a {@link ConcurrentCacheStorage}, cache hits don't lock at all.
  */
 public class TemplateCache {
     
@@ -69,6 +78,10 @@ public class TemplateCache {
     private static final char SLASH = '/';
     private static final String LOCALE_PART_SEPARATOR = "_";
     private static final Logger LOG = Logger.getLogger("freemarker.cache");
+    
+    /** Source lines are kept for error messages, text is copied into the AST, plus the AST nodes themselves. */
+    private static final int ESTIMATED_BYTES_PER_TEMPLATE_SOURCE_CHAR = 8;
+    private static final int ESTIMATED_CACHE_ENTRY_OVERHEAD_BYTES = 200;
 
     /** Maybe {@code null}. */
     private final TemplateLoader templateLoader;
@@ -80,10 +93,17 @@ public class TemplateCache {
     private final TemplateConfigurationFactory templateConfigurations;
     
     private final boolean isStorageConcurrent;
+    private final boolean isTemplateLoaderChangeTracking;
+    /** The template (re)loadings currently in progress; see {@link PendingLoad}. */
+    private final ConcurrentMap<TemplateKey, PendingLoad> pendingLoads = new ConcurrentHashMap<>();
     /** {@link Configuration#setTemplateUpdateDelayMilliseconds(long)} */
     private long updateDelay = DEFAULT_TEMPLATE_UPDATE_DELAY_MILLIS;
     /** {@link Configuration#setLocalizedLookup(boolean)} */
     private boolean localizedLookup = true;
+    /** {@link Configuration#setBackgroundTemplateUpdater(BackgroundTemplateUpdater)}; maybe {@code null}. */
+    private volatile BackgroundTemplateUpdater backgroundUpdater;
+    /** {@link Configuration#setTemplateSnapshot(TemplateSnapshot)}; maybe {@code null}. */
+    private volatile TemplateSnapshot templateSnapshot;
 
     private Configuration config;
 
@@ -182,6 +202,7 @@ public class TemplateCache {
         this.storage = cacheStorage;
         isStorageConcurrent = cacheStorage instanceof ConcurrentCacheStorage &&
                 ((ConcurrentCacheStorage) cacheStorage).isConcurrent();
+        isTemplateLoaderChangeTracking = templateLoader instanceof ChangeTrackingTemplateLoader;
         
         NullArgumentException.check("templateLookupStrategy", templateLookupStrategy);
         this.templateLookupStrategy = templateLookupStrategy;
@@ -323,22 +344,136 @@ public class TemplateCache {
             final String name, final Locale locale, final Object customLookupCondition,
             final String encoding, final boolean parseAsFTL)
     throws IOException {
-        final boolean debug = LOG.isDebugEnabled();
-        final String debugName = debug
-                ? buildDebugName(name, locale, customLookupCondition, encoding, parseAsFTL)
-                : null;
         final TemplateKey tk = new TemplateKey(name, locale, customLookupCondition, encoding, parseAsFTL);
         
-        CachedTemplate cachedTemplate;
+        CachedTemplate cachedTemplate = getCachedTemplate(tk);
+        if (cachedTemplate != null) {
+            if (isFresh(cachedTemplate, System.currentTimeMillis())) {
+                // Cache hit; no need to coordinate with other threads.
+                return getOrLoadTemplate(tk, cachedTemplate);
+            }
+            
+            BackgroundTemplateUpdater backgroundUpdater = this.backgroundUpdater;
+            if (backgroundUpdater != null && cachedTemplate.templateOrException instanceof Template) {
+                return getStaleTemplateAndUpdateInBackground(tk, cachedTemplate, backgroundUpdater);
+            }
+        }
+        
+        // Only one thread per key should (re)load the template, the others wait for its result. Different keys are
+        // still loaded in parallel.
+        PendingLoad pendingLoad = new PendingLoad();
+        PendingLoad otherPendingLoad = pendingLoads.putIfAbsent(tk, pendingLoad);
+        if (otherPendingLoad == null) {
+            return loadAndCompletePendingLoad(tk, pendingLoad);
+        }
+        if (otherPendingLoad.ownerThread != Thread.currentThread()) {
+            return otherPendingLoad.await();
+        }
+        // Re-entrant lookup of the same key (like from a TemplateLookupStrategy); we mustn't wait for ourselves.
+        return getOrLoadTemplate(tk, cachedTemplate);
+    }
+    
+    private Template getStaleTemplateAndUpdateInBackground(
+            final TemplateKey tk, CachedTemplate staleCachedTemplate,
+            final BackgroundTemplateUpdater backgroundUpdater) throws IOException {
+        final PendingLoad pendingLoad = new PendingLoad();
+        if (pendingLoads.putIfAbsent(tk, pendingLoad) != null) {
+            // Already being updated; serve the stale template meanwhile.
+            return (Template) staleCachedTemplate.templateOrException;
+        }
+        
+        try {
+            backgroundUpdater.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        loadAndCompletePendingLoad(tk, pendingLoad);
+                    } catch (Throwable e) {
+                        backgroundUpdater.handleUpdateFailure(tk.name, tk.locale, e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Background template update was rejected; updating synchronously.", e);
+            }
+            return loadAndCompletePendingLoad(tk, pendingLoad);
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(buildDebugName(tk.name, tk.locale, tk.customLookupCondition, tk.encoding, tk.parse)
+                    + " cached copy is stale; using it while it's updated in the background.");
+        }
+        return (Template) staleCachedTemplate.templateOrException;
+    }
+    
+    /**
+     * (Re)loads the template on the current thread, and publishes the result to the threads waiting for the
+     * {@link PendingLoad}, which was already registered in {@link #pendingLoads} by the caller.
+     */
+    private Template loadAndCompletePendingLoad(TemplateKey tk, PendingLoad pendingLoad) throws IOException {
+        pendingLoad.ownerThread = Thread.currentThread();
+        try {
+            // Re-read, as the previous load might have finished since the caller has looked into the storage.
+            Template template = getOrLoadTemplate(tk, getCachedTemplate(tk));
+            pendingLoad.complete(template, null);
+            return template;
+        } catch (Throwable e) {
+            pendingLoad.complete(null, e);
+            throw e;
+        } finally {
+            pendingLoads.remove(tk, pendingLoad);
+        }
+    }
+    
+    /**
+     * Tells if the cached template can be used without checking if its source has changed.
+     */
+    private boolean isFresh(CachedTemplate cachedTemplate, long now) {
+        if (now - cachedTemplate.lastChecked >= updateDelay) {
+            return false;
+        }
+        if (cachedTemplate.changeVersion == -1L) {
+            // Checked while change tracking wasn't active. If it's active now, we don't know what has changed since.
+            return !isTemplateLoaderChangeTracking
+                    || ((ChangeTrackingTemplateLoader) templateLoader).getChangeVersion() == -1L;
+        }
+        return !((ChangeTrackingTemplateLoader) templateLoader).isChangedSince(
+                cachedTemplate.source, cachedTemplate.changeVersion);
+    }
+    
+    private CachedTemplate getCachedTemplate(TemplateKey tk) {
         if (isStorageConcurrent) {
-            cachedTemplate = (CachedTemplate) storage.get(tk);
+            return (CachedTemplate) storage.get(tk);
         } else {
             synchronized (storage) {
-                cachedTemplate = (CachedTemplate) storage.get(tk);
+                return (CachedTemplate) storage.get(tk);
             }
         }
+    }
+    
+    /**
+     * Returns the template from the cache entry if that's not yet stale, or else (re)loads it, and updates the cache.
+     * 
+     * @param cachedTemplate
+     *            The current cache entry, or {@code null} if there's none.
+     */
+    private Template getOrLoadTemplate(final TemplateKey tk, CachedTemplate cachedTemplate) throws IOException {
+        final String name = tk.name;
+        final Locale locale = tk.locale;
+        final Object customLookupCondition = tk.customLookupCondition;
+        final String encoding = tk.encoding;
+        final boolean parseAsFTL = tk.parse;
+        
+        final boolean debug = LOG.isDebugEnabled();
+        final String debugName = debug
+                ? buildDebugName(name, locale, customLookupCondition, encoding, parseAsFTL)
+                : null;
         
         final long now = System.currentTimeMillis();
+        // Must be queried before the lookup, so that we don't miss changes that happen during the lookup.
+        final long changeVersion = isTemplateLoaderChangeTracking
+                ? ((ChangeTrackingTemplateLoader) templateLoader).getChangeVersion() : -1L;
         
         long lastModified = -1L;
         boolean rethrown = false;
@@ -346,7 +481,7 @@ public class TemplateCache {
         try {
             if (cachedTemplate != null) {
                 // If we're within the refresh delay, return the cached copy
-                if (now - cachedTemplate.lastChecked < updateDelay) {
+                if (isFresh(cachedTemplate, now)) {
                     if (debug) {
                         LOG.debug(debugName + " cached copy not yet stale; using cached.");
                     }
@@ -368,6 +503,7 @@ public class TemplateCache {
                 cachedTemplate = cachedTemplate.cloneCachedTemplate();
                 // Update the last-checked flag
                 cachedTemplate.lastChecked = now;
+                cachedTemplate.changeVersion = changeVersion;
 
                 // Find the template source
                 newLookupResult = lookupTemplate(name, locale, customLookupCondition);
@@ -416,6 +552,7 @@ public class TemplateCache {
                 // a flag that signs it has to be explicitly queried later on.
                 cachedTemplate = new CachedTemplate();
                 cachedTemplate.lastChecked = now;
+                cachedTemplate.changeVersion = changeVersion;
                 
                 newLookupResult = lookupTemplate(name, locale, customLookupCondition);
                 
@@ -461,6 +598,66 @@ public class TemplateCache {
         }
     }
 
+    /**
+     * A template (re)loading that's in progress, which other threads that need the same {@link TemplateKey} can wait
+     * for, instead of loading the same template in parallel.
+     */
+    private static final class PendingLoad {
+        
+        /**
+         * The thread that does the loading; {@code null} until it has started. This isn't necessarily the thread that
+         * has created the object, as with background updates the load is run by the {@link BackgroundTemplateUpdater}.
+         */
+        private volatile Thread ownerThread;
+        private final CountDownLatch doneLatch = new CountDownLatch(1);
+        
+        /** Only set before {@link #doneLatch} is counted down, so no extra synchronization is needed to read it. */
+        private Template template;
+        /** Same as with {@link #template}. */
+        private Throwable failure;
+        
+        void complete(Template template, Throwable failure) {
+            this.template = template;
+            this.failure = failure;
+            doneLatch.countDown();
+        }
+        
+        /**
+         * Waits until the owner thread finishes loading, then returns the same result, or throws the same exception
+         * as it did. The waiting is not interruptible (just like loading on the current thread wouldn't be), but the
+         * interrupted status of the thread is preserved.
+         */
+        Template await() throws IOException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        doneLatch.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            
+            if (failure == null) {
+                return template;
+            } else if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new UndeclaredThrowableException(failure);
+        }
+        
+    }
+    
     private static final Method INIT_CAUSE = getInitCauseMethod();
     
     private static final Method getInitCauseMethod() {
@@ -545,7 +742,7 @@ public class TemplateCache {
             if (parseAsFTL) {
                 try {
                     try (Reader reader = templateLoader.getReader(source, initialEncoding)) {
-                        template = new Template(name, sourceName, reader, config, tc, initialEncoding);
+                        template = parseTemplate(name, sourceName, reader, tc, initialEncoding);
                     }
                 } catch (Template.WrongEncodingException wee) {
                     String actualEncoding = wee.getTemplateSpecifiedEncoding();
@@ -555,25 +752,16 @@ public class TemplateCache {
                     }
 
                     try (Reader reader = templateLoader.getReader(source, actualEncoding)) {
-                        template = new Template(name, sourceName, reader, config, tc, actualEncoding);
+                        template = parseTemplate(name, sourceName, reader, tc, actualEncoding);
                     }
                 }
             } else {
-                // Read the contents into a StringWriter, then construct a single-text-block template from it.
-                final StringWriter sw = new StringWriter();
-                final char[] buf = new char[4096];
+                // Read the contents into a String, then construct a single-text-block template from it.
+                final String content;
                 try (Reader reader = templateLoader.getReader(source, initialEncoding)) {
-                    fetchChars:
-                    while (true) {
-                        int charsRead = reader.read(buf);
-                        if (charsRead > 0) {
-                            sw.write(buf, 0, charsRead);
-                        } else if (charsRead < 0) {
-                            break fetchChars;
-                        }
-                    }
+                    content = readAll(reader);
                 }
-                template = Template.getPlainTextTemplate(name, sourceName, sw.toString(), config);
+                template = Template.getPlainTextTemplate(name, sourceName, content, config);
                 template.setEncoding(initialEncoding);
             }
         }
@@ -587,6 +775,41 @@ public class TemplateCache {
         return template;
     }
 
+    /**
+     * Parses the template, or if there's a {@link TemplateSnapshot}, restores it from that when possible.
+     */
+    private Template parseTemplate(
+            String name, String sourceName, Reader reader, TemplateConfiguration tc, String encoding)
+            throws IOException {
+        TemplateSnapshot templateSnapshot = this.templateSnapshot;
+        if (templateSnapshot == null) {
+            return new Template(name, sourceName, reader, config, tc, encoding);
+        }
+        
+        String sourceText = readAll(reader);
+        Template template = templateSnapshot.restoreTemplate(name, sourceName, sourceText, config, tc, encoding);
+        if (template == null) {
+            template = new Template(name, sourceName, new StringReader(sourceText), config, tc, encoding);
+            templateSnapshot.templateParsed(template, sourceText, tc, encoding);
+        }
+        return template;
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        final StringWriter sw = new StringWriter();
+        final char[] buf = new char[4096];
+        fetchChars:
+        while (true) {
+            int charsRead = reader.read(buf);
+            if (charsRead > 0) {
+                sw.write(buf, 0, charsRead);
+            } else if (charsRead < 0) {
+                break fetchChars;
+            }
+        }
+        return sw.toString();
+    }
+
     /**
      * Gets the delay in milliseconds between checking for newer versions of a
      * template source.
@@ -611,6 +834,44 @@ public class TemplateCache {
         }
     }
 
+    /**
+     * Sets the {@link BackgroundTemplateUpdater} used to update stale templates without blocking the thread that has
+     * requested the template. If {@code null} (the default), stale templates are updated synchronously.
+     * 
+     * @since 2.3.32
+     */
+    public void setBackgroundUpdater(BackgroundTemplateUpdater backgroundUpdater) {
+        this.backgroundUpdater = backgroundUpdater;
+    }
+
+    /**
+     * Getter pair of {@link #setBackgroundUpdater(BackgroundTemplateUpdater)}.
+     * 
+     * @since 2.3.32
+     */
+    public BackgroundTemplateUpdater getBackgroundUpdater() {
+        return backgroundUpdater;
+    }
+
+    /**
+     * Sets the {@link TemplateSnapshot} from which templates are restored instead of parsing them, if the snapshot
+     * contains an up-to-date version of them. If {@code null} (the default), templates are always parsed.
+     * 
+     * @since 2.3.32
+     */
+    public void setTemplateSnapshot(TemplateSnapshot templateSnapshot) {
+        this.templateSnapshot = templateSnapshot;
+    }
+
+    /**
+     * Getter pair of {@link #setTemplateSnapshot(TemplateSnapshot)}.
+     * 
+     * @since 2.3.32
+     */
+    public TemplateSnapshot getTemplateSnapshot() {
+        return templateSnapshot;
+    }
+
     /**
      * Returns if localized template lookup is enabled or not.
      */
@@ -700,6 +961,21 @@ public class TemplateCache {
         }
     }
 
+    /**
+     * Used by {@link TinyLfuCacheStorage#ESTIMATED_TEMPLATE_SIZE_WEIGHER}; see there.
+     */
+    static long estimateRetainedSize(Object cacheStorageValue) {
+        long size = ESTIMATED_CACHE_ENTRY_OVERHEAD_BYTES;
+        if (cacheStorageValue instanceof CachedTemplate) {
+            Object templateOrException = ((CachedTemplate) cacheStorageValue).templateOrException;
+            if (templateOrException instanceof Template) {
+                size += ESTIMATED_BYTES_PER_TEMPLATE_SOURCE_CHAR
+                        * _TemplateAPI.getTemplateSourceLength((Template) templateOrException);
+            }
+        }
+        return size;
+    }
+
     private String buildDebugName(String name, Locale locale, Object customLookupCondition, String encoding,
             boolean parse) {
         return StringUtil.jQuoteNoXSS(name) + "("
@@ -883,6 +1159,8 @@ public class TemplateCache {
         Object source;
         long lastChecked;
         long lastModified;
+        /** {@link ChangeTrackingTemplateLoader#getChangeVersion()} before the last check; -1 if not tracked. */
+        long changeVersion = -1L;
         
         public CachedTemplate cloneCachedTemplate() {
             try {
@@ -19,10 +19,22 @@
 
 package freemarker.cache;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+
+import freemarker.log.Logger;
 import freemarker.template.Configuration;
 
 final class TemplateLoaderUtils {
 
+    private static final Logger LOG = Logger.getLogger("freemarker.cache");
+
     private TemplateLoaderUtils() {
         // Not meant to be instantiated
     }
@@ -34,5 +46,32 @@ final class TemplateLoaderUtils {
                 ? tlClass.getSimpleName() : tlClass.getName();
     }
 
+    /**
+     * Adds the {@code /}-separated paths of the files under the given directory (recursively, relative to the
+     * directory) to the set; used for implementing {@link ListableTemplateLoader#listTemplateNames()}. Symbolic links
+     * to directories aren't followed, and inaccessible files are skipped.
+     */
+    static void addFileNames(final Path dir, final Set<String> names) throws IOException {
+        final boolean sepIsSlash = File.separatorChar == '/';
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (Files.isRegularFile(file)) {
+                    String name = dir.relativize(file).toString();
+                    names.add(sepIsSlash ? name : name.replace(File.separatorChar, '/'));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Skipped inaccessible file when listing templates: " + file, exc);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     
 }
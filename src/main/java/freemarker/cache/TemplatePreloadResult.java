@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import freemarker.template.Configuration;
+
+/**
+ * The result of {@link Configuration#preloadTemplates(TemplateSourceMatcher, Executor)}; contains an entry for each
+ * template that it has tried to load.
+ *
+ * @since 2.3.32
+ */
+public final class TemplatePreloadResult {
+
+    private final List<Entry> entries;
+    private final List<Entry> failedEntries;
+
+    TemplatePreloadResult(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+        List<Entry> failedEntries = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.getFailure() != null) {
+                failedEntries.add(entry);
+            }
+        }
+        this.failedEntries = Collections.unmodifiableList(failedEntries);
+    }
+
+    /**
+     * All the templates that were tried to be loaded, in the order as their loading has finished.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The subset of {@link #getEntries()} where the loading has failed.
+     */
+    public List<Entry> getFailedEntries() {
+        return failedEntries;
+    }
+
+    /**
+     * Describes the loading of a single template.
+     */
+    public static final class Entry {
+
+        private final String templateName;
+        private final boolean dependency;
+        private final long loadTimeNanos;
+        private final Exception failure;
+
+        Entry(String templateName, boolean dependency, long loadTimeNanos, Exception failure) {
+            this.templateName = templateName;
+            this.dependency = dependency;
+            this.loadTimeNanos = loadTimeNanos;
+            this.failure = failure;
+        }
+
+        /**
+         * The normalized name of the template, which can be passed to {@link Configuration#getTemplate(String)}.
+         */
+        public String getTemplateName() {
+            return templateName;
+        }
+
+        /**
+         * Tells if the template wasn't selected by the {@link TemplateSourceMatcher} (or wasn't listed by the
+         * {@link TemplateLoader} at all), but was loaded because another template {@code #include}-s or
+         * {@code #import}-s it.
+         */
+        public boolean isDependency() {
+            return dependency;
+        }
+
+        /**
+         * The time the {@link Configuration#getTemplate(String)} call has taken, which is mostly the time spent with
+         * reading and parsing the template. It's 0 if the loading wasn't even attempted.
+         */
+        public long getLoadTimeNanos() {
+            return loadTimeNanos;
+        }
+
+        /**
+         * The exception that has prevented loading the template (often a {@link freemarker.core.ParseException}, or a
+         * {@link freemarker.template.TemplateNotFoundException}), or {@code null} if the template was loaded
+         * successfully.
+         */
+        public Exception getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return templateName + (dependency ? " (dependency)" : "") + ": "
+                    + (failure == null ? "loaded in " + (loadTimeNanos / 1000000) + " ms" : "failed: " + failure);
+        }
+
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import freemarker.core._CoreAPI;
+import freemarker.template.Configuration;
+import freemarker.template.MalformedTemplateNameException;
+import freemarker.template.Template;
+
+/**
+ * Implements {@link Configuration#preloadTemplates(TemplateSourceMatcher, Executor)}; a new instance is needed for
+ * each call.
+ */
+final class TemplatePreloader {
+
+    private final Configuration cfg;
+    private final Executor executor;
+
+    private final Set<String> scheduledNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    /**
+     * The normalized names of the templates matched by the {@link TemplateSourceMatcher}; filled before any task is
+     * scheduled, and not modified after that.
+     */
+    private final Set<String> matchedNames = new HashSet<>();
+    private final Queue<TemplatePreloadResult.Entry> entries = new ConcurrentLinkedQueue<>();
+    /** Starts from 1, which stands for the thread that schedules the matching templates. */
+    private final AtomicInteger unfinishedTasks = new AtomicInteger(1);
+    private final CountDownLatch allTasksFinished = new CountDownLatch(1);
+
+    TemplatePreloader(Configuration cfg, Executor executor) {
+        this.cfg = cfg;
+        this.executor = executor;
+    }
+
+    TemplatePreloadResult preload(TemplateSourceMatcher matcher) throws IOException, InterruptedException {
+        TemplateLoader templateLoader = cfg.getTemplateLoader();
+        if (!(templateLoader instanceof ListableTemplateLoader)) {
+            throw new IllegalStateException("The template loader must implement "
+                    + ListableTemplateLoader.class.getName() + " for preloading templates, but it was: "
+                    + templateLoader);
+        }
+
+        try {
+            List<String> names = new ArrayList<>();
+            for (String name : ((ListableTemplateLoader) templateLoader).listTemplateNames()) {
+                if (matcher == null || matches(templateLoader, matcher, name)) {
+                    names.add(name);
+                    try {
+                        matchedNames.add(cfg.getTemplateNameFormat().normalizeRootBasedName(name));
+                    } catch (MalformedTemplateNameException e) {
+                        // Reported by schedule
+                    }
+                }
+            }
+            // A matched template can be reached as the dependency of another one before we schedule it, but it
+            // shouldn't be reported as a dependency then, hence matchedNames.
+            for (String name : names) {
+                schedule(name, false);
+            }
+        } finally {
+            taskFinished();
+        }
+        allTasksFinished.await();
+        return new TemplatePreloadResult(new ArrayList<>(entries));
+    }
+
+    private boolean matches(TemplateLoader templateLoader, TemplateSourceMatcher matcher, String name)
+            throws IOException {
+        Object templateSource = templateLoader.findTemplateSource(name);
+        if (templateSource == null) {
+            return false;
+        }
+        try {
+            return matcher.matches(name, templateSource);
+        } finally {
+            templateLoader.closeTemplateSource(templateSource);
+        }
+    }
+
+    private void schedule(String name, final boolean dependency) {
+        final String normalizedName;
+        try {
+            normalizedName = cfg.getTemplateNameFormat().normalizeRootBasedName(name);
+        } catch (MalformedTemplateNameException e) {
+            entries.add(new TemplatePreloadResult.Entry(name, dependency, 0, e));
+            return;
+        }
+        if (dependency && matchedNames.contains(normalizedName) || !scheduledNames.add(normalizedName)) {
+            return;
+        }
+
+        unfinishedTasks.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        load(normalizedName, dependency);
+                    } finally {
+                        taskFinished();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entries.add(new TemplatePreloadResult.Entry(normalizedName, dependency, 0, e));
+            taskFinished();
+        }
+    }
+
+    private void load(String name, boolean dependency) {
+        final long startTime = System.nanoTime();
+        final Template template;
+        try {
+            template = cfg.getTemplate(name);
+        } catch (Exception e) {
+            entries.add(new TemplatePreloadResult.Entry(name, dependency, System.nanoTime() - startTime, e));
+            return;
+        }
+        entries.add(new TemplatePreloadResult.Entry(name, dependency, System.nanoTime() - startTime, null));
+
+        for (String dependencyName : _CoreAPI.getStaticTemplateDependencies(template)) {
+            String rootBasedDependencyName;
+            try {
+                rootBasedDependencyName = cfg.getTemplateNameFormat().toRootBasedName(name, dependencyName);
+            } catch (MalformedTemplateNameException e) {
+                entries.add(new TemplatePreloadResult.Entry(dependencyName, true, 0, e));
+                continue;
+            }
+            schedule(rootBasedDependencyName, true);
+        }
+    }
+
+    private void taskFinished() {
+        if (unfinishedTasks.decrementAndGet() == 0) {
+            allTasksFinished.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import freemarker.core.ParserConfiguration;
+import freemarker.core.TemplateConfiguration;
+import freemarker.log.Logger;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateNotFoundException;
+import freemarker.template._TemplateAPI;
+import freemarker.template.utility.NullArgumentException;
+import freemarker.template.utility.StringUtil;
+
+/**
+ * Stores already parsed templates in serialized form, so that they can be restored much faster than they could be
+ * parsed. This is meant to be used for reducing the application startup time when there are many templates: the
+ * snapshot is created with {@link #compile(Configuration, Iterable)} during the build of the application (or on some
+ * other earlier point), saved with {@link #save(OutputStream)}, and then at runtime it's loaded with
+ * {@link #load(InputStream)} (possibly from a resource bundled into a jar), and set via
+ * {@link Configuration#setTemplateSnapshot(TemplateSnapshot)}.
+ *
+ * <p>{@link TemplateCache} still reads the template source from the {@link TemplateLoader}, but instead of parsing
+ * it, it restores the template from the snapshot if both the source and the settings that influence parsing (the
+ * {@link ParserConfiguration}, and the encoding) are the same as when the snapshot was created. Otherwise, it falls
+ * back to parsing the template source, so a stale snapshot can't cause incorrect output. A snapshot can only be used
+ * with the FreeMarker version that has created it; with other versions all templates will be parsed.
+ *
+ * <p>Templates whose {@code #ftl} header contains custom attributes that aren't serializable will be left out from
+ * the snapshot, so those will be always parsed.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @since 2.3.32
+ */
+public final class TemplateSnapshot {
+
+    private static final Logger LOG = Logger.getLogger("freemarker.cache");
+
+    private static final int FILE_MAGIC = 0x46544c53; // "FTLS"
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private final Map<String, Entry> entries;
+    private final boolean recording;
+
+    private TemplateSnapshot(Map<String, Entry> entries, boolean recording) {
+        this.entries = entries;
+        this.recording = recording;
+    }
+
+    /**
+     * Parses the given templates, and creates a snapshot from them. This uses the template loading and parsing
+     * related settings of the {@link Configuration}, and the {@link Configuration#getLocale() locale} and
+     * {@link Configuration#getEncoding(java.util.Locale) encoding} it specifies. So it should be configured
+     * exactly like the {@link Configuration} that will use the snapshot. The template cache of the
+     * {@link Configuration} is not used or modified by this method.
+     *
+     * @param templateNames
+     *            The names of the templates, as they would be passed to {@link Configuration#getTemplate(String)}.
+     *
+     * @throws TemplateNotFoundException
+     *             If one of the templates doesn't exist
+     * @throws IOException
+     *             If one of the templates couldn't be loaded or parsed; typically a
+     *             {@link freemarker.core.ParseException}.
+     */
+    public static TemplateSnapshot compile(Configuration cfg, Iterable<String> templateNames)
+            throws IOException {
+        NullArgumentException.check("cfg", cfg);
+        NullArgumentException.check("templateNames", templateNames);
+
+        TemplateSnapshot recordingSnapshot = new TemplateSnapshot(new ConcurrentHashMap<String, Entry>(), true);
+        TemplateCache templateCache = new TemplateCache(
+                cfg.getTemplateLoader(), new NullCacheStorage(),
+                cfg.getTemplateLookupStrategy(), cfg.getTemplateNameFormat(),
+                cfg.getTemplateConfigurations(), cfg);
+        templateCache.setLocalizedLookup(cfg.getLocalizedLookup());
+        templateCache.setTemplateSnapshot(recordingSnapshot);
+        for (String templateName : templateNames) {
+            TemplateCache.MaybeMissingTemplate maybeTemp = templateCache.getTemplate(
+                    templateName, cfg.getLocale(), null, cfg.getEncoding(cfg.getLocale()), true);
+            if (maybeTemp.getTemplate() == null) {
+                String reason = maybeTemp.getMissingTemplateReason();
+                throw new TemplateNotFoundException(templateName, null,
+                        "Template not found for name " + StringUtil.jQuote(templateName)
+                        + (reason != null ? ". Reason given: " + reason : "") + ".");
+            }
+        }
+        return new TemplateSnapshot(new HashMap<>(recordingSnapshot.entries), false);
+    }
+
+    /**
+     * Loads a snapshot that was earlier saved with {@link #save(OutputStream)}. If the snapshot was created by a
+     * different FreeMarker version, then a warning is logged, and an empty snapshot is returned.
+     *
+     * @param in
+     *            The stream to read; it won't be closed by this method.
+     */
+    public static TemplateSnapshot load(InputStream in) throws IOException {
+        NullArgumentException.check("in", in);
+        DataInputStream din = new DataInputStream(new GZIPInputStream(in));
+        if (din.readInt() != FILE_MAGIC) {
+            throw new IOException("The input is not a FreeMarker template snapshot.");
+        }
+        int fileFormatVersion = din.readInt();
+        String freeMarkerVersion = din.readUTF();
+        if (fileFormatVersion != FILE_FORMAT_VERSION
+                || !freeMarkerVersion.equals(Configuration.getVersion().toString())) {
+            LOG.warn("Ignoring template snapshot, as it was created by FreeMarker " + freeMarkerVersion
+                    + ", but the current version is " + Configuration.getVersion() + ".");
+            return new TemplateSnapshot(Collections.<String, Entry>emptyMap(), false);
+        }
+
+        int entryCount = din.readInt();
+        Map<String, Entry> entries = new HashMap<>(entryCount * 4 / 3 + 1);
+        for (int i = 0; i < entryCount; i++) {
+            String sourceName = din.readUTF();
+            String parsingFingerprint = din.readUTF();
+            byte[] sourceHash = readByteArray(din);
+            byte[] serializedAst = readByteArray(din);
+            entries.put(sourceName, new Entry(parsingFingerprint, sourceHash, serializedAst));
+        }
+        return new TemplateSnapshot(entries, false);
+    }
+
+    private static byte[] readByteArray(DataInputStream din) throws IOException {
+        byte[] bytes = new byte[din.readInt()];
+        din.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Saves the snapshot, so that it can be loaded with {@link #load(InputStream)} later.
+     *
+     * @param out
+     *            The stream to write; it won't be closed by this method.
+     */
+    public void save(OutputStream out) throws IOException {
+        NullArgumentException.check("out", out);
+        GZIPOutputStream gzOut = new GZIPOutputStream(out);
+        DataOutputStream dout = new DataOutputStream(gzOut);
+        dout.writeInt(FILE_MAGIC);
+        dout.writeInt(FILE_FORMAT_VERSION);
+        dout.writeUTF(Configuration.getVersion().toString());
+        dout.writeInt(entries.size());
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            dout.writeUTF(mapEntry.getKey());
+            dout.writeUTF(entry.parsingFingerprint);
+            dout.writeInt(entry.sourceHash.length);
+            dout.write(entry.sourceHash);
+            dout.writeInt(entry.serializedAst.length);
+            dout.write(entry.serializedAst);
+        }
+        dout.flush();
+        gzOut.finish();
+    }
+
+    /**
+     * Returns the {@linkplain Template#getSourceName() source names} of the templates stored in this snapshot.
+     */
+    public Set<String> getSourceNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Returns the restored template, or {@code null} if the snapshot has no up-to-date template for the given
+     * source. The parameters are the same as of the {@link Template} constructor that parses the template.
+     */
+    Template restoreTemplate(
+            String name, String sourceName, String sourceText,
+            Configuration cfg, TemplateConfiguration tc, String encoding) {
+        Entry entry = entries.get(sourceName);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.parsingFingerprint.equals(getParsingFingerprint(cfg, tc, encoding))
+                || !Arrays.equals(entry.sourceHash, hashSource(sourceText))) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Template snapshot of " + StringUtil.jQuoteNoXSS(sourceName)
+                        + " is outdated; will parse the template.");
+            }
+            return null;
+        }
+        try {
+            return _TemplateAPI.newTemplateFromSerializedAst(name, sourceName, cfg, tc, encoding, entry.serializedAst);
+        } catch (IOException e) {
+            LOG.warn("Failed to restore template " + StringUtil.jQuoteNoXSS(sourceName)
+                    + " from snapshot; will parse the template.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Called by {@link TemplateCache} after it has parsed a template; if this snapshot is being built by
+     * {@link #compile(Configuration, Iterable)}, then it adds the template to it.
+     */
+    void templateParsed(Template template, String sourceText, TemplateConfiguration tc, String encoding)
+            throws IOException {
+        if (!recording) {
+            return;
+        }
+        byte[] serializedAst;
+        try {
+            serializedAst = _TemplateAPI.serializeTemplateAst(template);
+        } catch (NotSerializableException e) {
+            LOG.warn("Template " + StringUtil.jQuoteNoXSS(template.getSourceName())
+                    + " was left out from the snapshot, as it contains a non-serializable value", e);
+            return;
+        }
+        entries.put(template.getSourceName(), new Entry(
+                getParsingFingerprint(template.getConfiguration(), tc, encoding),
+                hashSource(sourceText), serializedAst));
+    }
+
+    /**
+     * Describes everything besides the template source that influences the result of parsing.
+     */
+    private static String getParsingFingerprint(Configuration cfg, TemplateConfiguration tc, String encoding) {
+        ParserConfiguration pCfg = tc != null ? tc : cfg;
+        return pCfg.getIncompatibleImprovements()
+                + ";" + pCfg.getTagSyntax()
+                + ";" + pCfg.getInterpolationSyntax()
+                + ";" + pCfg.getNamingConvention()
+                + ";" + pCfg.getWhitespaceStripping()
+                + ";" + pCfg.getStrictSyntaxMode()
+                + ";" + pCfg.getAutoEscapingPolicy()
+                + ";" + pCfg.getOutputFormat().getName()
+                + ";" + pCfg.getRecognizeStandardFileExtensions()
+                + ";" + pCfg.getTabSize()
+                + ";" + pCfg.getArithmeticEngine().getClass().getName()
+                + ";" + _TemplateAPI.getPreventStrippings(cfg)
+                + ";" + encoding;
+    }
+
+    private static byte[] hashSource(String sourceText) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(sourceText.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String parsingFingerprint;
+        private final byte[] sourceHash;
+        private final byte[] serializedAst;
+
+        Entry(String parsingFingerprint, byte[] sourceHash, byte[] serializedAst) {
+            this.parsingFingerprint = parsingFingerprint;
+            this.sourceHash = sourceHash;
+            this.serializedAst = serializedAst;
+        }
+    }
+
+}
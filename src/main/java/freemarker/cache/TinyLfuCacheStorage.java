@@ -0,0 +1,544 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import freemarker.template.utility.NullArgumentException;
+
+/**
+ * A size bounded cache storage that decides what to keep based on how frequently the entries were used recently
+ * (W-TinyLFU policy). Unlike with {@link SoftCacheStorage}, the working set of templates is not thrashed when the
+ * garbage collector clears soft references under memory pressure, and unlike {@link MruCacheStorage}, a burst of
+ * one-off template lookups can't push out the frequently used templates.
+ *
+ * <p>New entries are added to a small "window" LRU list (1% of the maximum size). Entries that fall out of the window
+ * are only admitted into the main part of the cache if they were used more frequently than the entry that would be
+ * evicted in exchange. The usage frequencies are tracked with a compact probabilistic counter (a count-min sketch with
+ * 4 bit counters), which is periodically halved, so that old popularity fades away. The main part is a segmented LRU,
+ * where entries used at least twice are protected from eviction by the rest.
+ *
+ * <p>The maximum size can be specified in number of entries, or as a maximum total weight, where the weight of the
+ * entries is calculated by a {@link Weigher}. {@link #ESTIMATED_TEMPLATE_SIZE_WEIGHER} gives a rough estimate of the
+ * memory retained by the cached templates.
+ *
+ * <p>This class is thread-safe, and {@link #get(Object)} doesn't lock (it only records the access into a lossy
+ * buffer that's processed later), so {@link TemplateCache} can use it without synchronization. Modifications are
+ * serialized with a lock, but those are rare compared to reads. The lock is not held while templates are loaded.
+ *
+ * <p>In the {@code cache_storage} setting (see {@link freemarker.core.Configurable#setSetting(String, String)}) it
+ * can be selected like {@code "tiny_lfu: 500"} (maximum number of entries), or like
+ * {@code "tiny_lfu_bytes: 50000000"} (maximum estimated size in bytes).
+ *
+ * @see freemarker.template.Configuration#setCacheStorage(CacheStorage)
+ *
+ * @since 2.3.32
+ */
+public class TinyLfuCacheStorage implements ConcurrentCacheStorage, CacheStorageWithGetSize {
+
+    /**
+     * Calculates the weight of an entry, when the maximum size of the {@link TinyLfuCacheStorage} is given as weight.
+     * The weight of an entry is calculated when it's put into the cache, and isn't updated later.
+     */
+    public interface Weigher {
+
+        /**
+         * @return Non-negative weight of the entry.
+         */
+        long weigh(Object key, Object value);
+
+    }
+
+    /**
+     * Estimates the memory (in bytes) retained by the cached templates, based on the length of their source code.
+     * It's a rough estimate, not a measurement. Values that are not {@link TemplateCache} entries have a constant
+     * small weight.
+     */
+    public static final Weigher ESTIMATED_TEMPLATE_SIZE_WEIGHER = new Weigher() {
+        @Override
+        public long weigh(Object key, Object value) {
+            return TemplateCache.estimateRetainedSize(value);
+        }
+    };
+
+    private static final Weigher SINGLETON_WEIGHER = new Weigher() {
+        @Override
+        public long weigh(Object key, Object value) {
+            return 1;
+        }
+    };
+
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    /**
+     * The initial capacity of the frequency sketch; it grows with the number of entries, so a huge maximum size
+     * doesn't allocate a huge sketch in advance.
+     */
+    private static final int INITIAL_SKETCH_CAPACITY = 64;
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+    private static final int IN_WINDOW = 0;
+    private static final int IN_PROBATION = 1;
+    private static final int IN_PROTECTED = 2;
+    private static final int RETIRED = 3;
+
+    private final ConcurrentHashMap<Object, Node> map = new ConcurrentHashMap<>();
+    private final long maximumWeight;
+    private final Weigher weigher;
+    private final ReadBuffer[] readBuffers;
+
+    /** Guards all the fields below, and the links and queue type of all {@link Node}-s. */
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final Node windowHead = new Node();
+    private final Node probationHead = new Node();
+    private final Node protectedHead = new Node();
+    private final long windowMaximumWeight;
+    private final long protectedMaximumWeight;
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+
+    /**
+     * Creates a storage that can hold at most the given number of entries.
+     *
+     * @param maximumSize
+     *            The maximum number of entries; at least 1.
+     */
+    public TinyLfuCacheStorage(int maximumSize) {
+        this(maximumSize, SINGLETON_WEIGHER);
+    }
+
+    /**
+     * Creates a storage where the total weight of the entries is at most the given value.
+     *
+     * @param maximumWeight
+     *            The maximum total weight of the entries; at least 1.
+     * @param weigher
+     *            Calculates the weight of the entries, such as {@link #ESTIMATED_TEMPLATE_SIZE_WEIGHER}; not
+     *            {@code null}.
+     */
+    public TinyLfuCacheStorage(long maximumWeight, Weigher weigher) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximumWeight < 1");
+        }
+        NullArgumentException.check("weigher", weigher);
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+
+        windowMaximumWeight = Math.max(1, maximumWeight * WINDOW_PERCENTAGE / 100);
+        protectedMaximumWeight = (maximumWeight - windowMaximumWeight) * PROTECTED_PERCENTAGE / 100;
+        sketch.ensureCapacity(Math.min(maximumWeight, INITIAL_SKETCH_CAPACITY));
+
+        int readBufferCount = 1;
+        while (readBufferCount < Runtime.getRuntime().availableProcessors()) {
+            readBufferCount <<= 1;
+        }
+        readBuffers = new ReadBuffer[readBufferCount];
+        for (int i = 0; i < readBufferCount; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+
+        windowHead.makeHead();
+        probationHead.makeHead();
+        protectedHead.makeHead();
+    }
+
+    /**
+     * Always returns {@code true}.
+     */
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Node node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        recordRead(node);
+        return node.value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("The weigher has returned a negative weight: " + weight);
+        }
+
+        policyLock.lock();
+        try {
+            drainReadBuffers();
+
+            Node node = map.get(key);
+            if (node != null) {
+                node.value = value;
+                long weightChange = weight - node.weight;
+                node.weight = weight;
+                totalWeight += weightChange;
+                if (node.queue == IN_WINDOW) {
+                    windowWeight += weightChange;
+                } else if (node.queue == IN_PROTECTED) {
+                    protectedWeight += weightChange;
+                }
+                onAccess(node);
+            } else {
+                node = new Node(key, value, weight);
+                map.put(key, node);
+                node.linkBefore(windowHead);
+                node.queue = IN_WINDOW;
+                windowWeight += weight;
+                totalWeight += weight;
+                sketch.ensureCapacity(map.size());
+                sketch.increment(key);
+            }
+
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(Object key) {
+        policyLock.lock();
+        try {
+            Node node = map.remove(key);
+            if (node != null) {
+                retire(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        policyLock.lock();
+        try {
+            drainReadBuffers();
+            map.clear();
+            for (Node head : new Node[] { windowHead, probationHead, protectedHead }) {
+                for (Node node = head.next; node != head; node = node.next) {
+                    node.queue = RETIRED;
+                }
+                head.makeHead();
+            }
+            windowWeight = protectedWeight = totalWeight = 0;
+            sketch.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current number of cache entries.
+     */
+    @Override
+    public int getSize() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum total weight of the entries; this is the maximum number of entries, if the instance was
+     * created with {@link #TinyLfuCacheStorage(int)}.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the total weight of the entries; this is the number of entries, if the instance was created with
+     * {@link #TinyLfuCacheStorage(int)}.
+     */
+    public long getWeight() {
+        policyLock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void recordRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+        long writeCount = buffer.writeCount.getAndIncrement();
+        buffer.slots.lazySet((int) writeCount & READ_BUFFER_MASK, node);
+        if (writeCount - buffer.readCount >= READ_BUFFER_DRAIN_THRESHOLD && policyLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            long writeCount = buffer.writeCount.get();
+            // If the writers have lapped the reader, the oldest records were overwritten, which is acceptable.
+            long readCount = Math.max(buffer.readCount, writeCount - READ_BUFFER_SIZE);
+            for (; readCount < writeCount; readCount++) {
+                Node node = buffer.slots.getAndSet((int) readCount & READ_BUFFER_MASK, null);
+                if (node != null && node.queue != RETIRED) {
+                    sketch.increment(node.key);
+                    onAccess(node);
+                }
+            }
+            buffer.readCount = writeCount;
+        }
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == IN_WINDOW) {
+            node.moveBefore(windowHead);
+        } else if (node.queue == IN_PROBATION) {
+            node.moveBefore(protectedHead);
+            node.queue = IN_PROTECTED;
+            protectedWeight += node.weight;
+            while (protectedWeight > protectedMaximumWeight && protectedHead.next != node) {
+                Node demoted = protectedHead.next;
+                demoted.moveBefore(probationHead);
+                demoted.queue = IN_PROBATION;
+                protectedWeight -= demoted.weight;
+            }
+        } else if (node.queue == IN_PROTECTED) {
+            node.moveBefore(protectedHead);
+        }
+    }
+
+    private void evict() {
+        // The entries that fall out of the window become admission candidates in the probation segment:
+        Node firstCandidate = null;
+        while (windowWeight > windowMaximumWeight && windowHead.next != windowHead) {
+            Node node = windowHead.next;
+            node.moveBefore(probationHead);
+            node.queue = IN_PROBATION;
+            windowWeight -= node.weight;
+            if (firstCandidate == null) {
+                firstCandidate = node;
+            }
+        }
+
+        while (totalWeight > maximumWeight) {
+            Node victim = probationHead.next;
+            Node candidate = probationHead.prev;
+            if (victim == probationHead) {
+                // Probation is empty, so we have to evict from elsewhere:
+                victim = protectedHead.next != protectedHead ? protectedHead.next : windowHead.next;
+                if (victim == windowHead) {
+                    return;
+                }
+                evictNode(victim);
+            } else if (victim == candidate || firstCandidate == null) {
+                evictNode(victim);
+            } else {
+                // TinyLFU admission: the newcomer only stays if it was used more frequently than the victim.
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    if (victim == firstCandidate) {
+                        firstCandidate = victim.next;
+                    }
+                    evictNode(victim);
+                } else {
+                    if (candidate == firstCandidate) {
+                        firstCandidate = null;
+                    }
+                    evictNode(candidate);
+                }
+            }
+        }
+    }
+
+    private void evictNode(Node node) {
+        map.remove(node.key, node);
+        retire(node);
+    }
+
+    private void retire(Node node) {
+        node.unlink();
+        if (node.queue == IN_WINDOW) {
+            windowWeight -= node.weight;
+        } else if (node.queue == IN_PROTECTED) {
+            protectedWeight -= node.weight;
+        }
+        totalWeight -= node.weight;
+        node.queue = RETIRED;
+    }
+
+    private static final class Node {
+        private final Object key;
+        private volatile Object value;
+        private long weight;
+        private int queue;
+        private Node prev;
+        private Node next;
+
+        /** Creates a list head */
+        Node() {
+            key = null;
+        }
+
+        Node(Object key, Object value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        void makeHead() {
+            prev = next = this;
+        }
+
+        /** Links this node as the last (most recently used) element of the list with the given head. */
+        void linkBefore(Node head) {
+            prev = head.prev;
+            next = head;
+            prev.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            next.prev = prev;
+            prev.next = next;
+            prev = next = null;
+        }
+
+        void moveBefore(Node head) {
+            unlink();
+            linkBefore(head);
+        }
+    }
+
+    /**
+     * Lossy buffer of the recent reads of a subset of the threads. Reads are recorded without locking, and are applied
+     * to the policy in batches, while holding the lock.
+     */
+    private static final class ReadBuffer {
+        private final AtomicLong writeCount = new AtomicLong();
+        private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        /** Only accessed while holding the policy lock; reading it without the lock is just a heuristic. */
+        private volatile long readCount;
+    }
+
+    /**
+     * A count-min sketch with 4 bit counters, 16 counters per {@code long}, and 4 counters (in the same {@code long})
+     * per key. When the number of increments reaches 10 times the capacity, all counters are halved, so the sketch
+     * reflects the recent popularity. Not thread-safe.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {
+                0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L };
+        private static final long HALVING_MASK = 0x7777777777777777L;
+        private static final long LOWEST_BITS_MASK = 0x1111111111111111L;
+        private static final int MAXIMUM_TABLE_LENGTH = 1 << 26;
+
+        private long[] table = new long[1];
+        private int tableMask;
+        private int sampleSize = 10;
+        private int incrementCount;
+
+        void ensureCapacity(long capacity) {
+            int newLength = 1;
+            while (newLength < capacity && newLength < MAXIMUM_TABLE_LENGTH) {
+                newLength <<= 1;
+            }
+            if (newLength <= table.length) {
+                return;
+            }
+            table = new long[newLength];
+            tableMask = newLength - 1;
+            sampleSize = 10 * newLength;
+            incrementCount = 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = 0;
+            }
+            incrementCount = 0;
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int counterGroup = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                long counters = table[indexOf(hash, i)];
+                frequency = Math.min(frequency, (int) ((counters >>> ((counterGroup + i) << 2)) & 0xF));
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            int counterGroup = (hash & 3) << 2;
+            boolean incremented = false;
+            for (int i = 0; i < 4; i++) {
+                incremented |= incrementCounter(indexOf(hash, i), counterGroup + i);
+            }
+            if (incremented && ++incrementCount >= sampleSize) {
+                halve();
+            }
+        }
+
+        private boolean incrementCounter(int index, int counterIndex) {
+            int shift = counterIndex << 2;
+            long mask = 0xFL << shift;
+            if ((table[index] & mask) == mask) {
+                return false; // Saturated
+            }
+            table[index] += 1L << shift;
+            return true;
+        }
+
+        private void halve() {
+            int oddCounters = 0;
+            for (int i = 0; i < table.length; i++) {
+                oddCounters += Long.bitCount(table[i] & LOWEST_BITS_MASK);
+                table[i] = (table[i] >>> 1) & HALVING_MASK;
+            }
+            incrementCount = (incrementCount >>> 1) - (oddCounters >>> 2);
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45D9F3B;
+            x = ((x >>> 16) ^ x) * 0x45D9F3B;
+            return (x >>> 16) ^ x;
+        }
+
+    }
+
+}
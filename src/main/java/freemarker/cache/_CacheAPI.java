@@ -19,6 +19,10 @@
 
 package freemarker.cache;
 
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import freemarker.template.Configuration;
 import freemarker.template.MalformedTemplateNameException;
 
 /**
@@ -46,5 +50,11 @@ public final class _CacheAPI {
             throws MalformedTemplateNameException {
         return templateNameFormat.rootBasedNameToAbsoluteName(rootBasedName);
     }
+
+    public static TemplatePreloadResult preloadTemplates(
+            Configuration cfg, TemplateSourceMatcher matcher, Executor executor)
+            throws IOException, InterruptedException {
+        return new TemplatePreloader(cfg, executor).preload(matcher);
+    }
     
 }
@@ -19,6 +19,7 @@
 
 package freemarker.core;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -43,6 +44,14 @@ import freemarker.template._TemplateAPI;
  * since + is overloaded to mean string concatenation.
  */
 final class AddConcatExpression extends Expression {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Above this length string concatenation doesn't copy the characters into a new {@link String}, but creates a
+     * {@link ConcatenatedString}. This is to avoid quadratic time when a string is built piece by piece, like with
+     * {@code <#assign s += item>}.
+     */
+    private static final int EAGER_CONCAT_MAX_LENGTH = 128;
 
     private final Expression left;
     private final Expression right;
@@ -81,36 +90,39 @@ final class AddConcatExpression extends Expression {
                 // We try string addition first. If hash addition is possible, then instead of throwing exception
                 // we return null and do hash addition instead. (We can't simply give hash addition a priority, like
                 // with sequence addition above, as FTL strings are often also FTL hashes.)
-                Object leftOMOrStr = EvalUtil.coerceModelToStringOrMarkup(
-                        leftModel, leftExp, /* returnNullOnNonCoercableType = */ hashConcatPossible, null,
-                        env);
+                // A ConcatenatedString is kept as is (instead of coercing it to String), so that it's not flattened.
+                Object leftOMOrStr = leftModel instanceof ConcatenatedString ? leftModel
+                        : EvalUtil.coerceModelToStringOrMarkup(
+                                leftModel, leftExp, /* returnNullOnNonCoercableType = */ hashConcatPossible, null,
+                                env);
                 if (leftOMOrStr == null) {
                     return _eval_concatenateHashes(leftModel, rightModel);
                 }
 
                 // Same trick with null return as above.
-                Object rightOMOrStr = EvalUtil.coerceModelToStringOrMarkup(
-                        rightModel, rightExp, /* returnNullOnNonCoercableType = */ hashConcatPossible, null,
-                        env);
+                Object rightOMOrStr = rightModel instanceof ConcatenatedString ? rightModel
+                        : EvalUtil.coerceModelToStringOrMarkup(
+                                rightModel, rightExp, /* returnNullOnNonCoercableType = */ hashConcatPossible, null,
+                                env);
                 if (rightOMOrStr == null) {
                     return _eval_concatenateHashes(leftModel, rightModel);
                 }
 
-                if (leftOMOrStr instanceof String) {
-                    if (rightOMOrStr instanceof String) {
-                        return new SimpleScalar(((String) leftOMOrStr).concat((String) rightOMOrStr));
+                if (!(leftOMOrStr instanceof TemplateMarkupOutputModel)) {
+                    if (!(rightOMOrStr instanceof TemplateMarkupOutputModel)) {
+                        return concatenateStrings(leftOMOrStr, rightOMOrStr);
                     } else { // rightOMOrStr instanceof TemplateMarkupOutputModel
                         TemplateMarkupOutputModel<?> rightMO = (TemplateMarkupOutputModel<?>) rightOMOrStr; 
                         return EvalUtil.concatMarkupOutputs(parent,
-                                rightMO.getOutputFormat().fromPlainTextByEscaping((String) leftOMOrStr),
+                                rightMO.getOutputFormat().fromPlainTextByEscaping(toString(leftOMOrStr)),
                                 rightMO);
                     }                    
                 } else { // leftOMOrStr instanceof TemplateMarkupOutputModel 
                     TemplateMarkupOutputModel<?> leftMO = (TemplateMarkupOutputModel<?>) leftOMOrStr; 
-                    if (rightOMOrStr instanceof String) {  // markup output
+                    if (!(rightOMOrStr instanceof TemplateMarkupOutputModel)) {  // markup output
                         return EvalUtil.concatMarkupOutputs(parent,
                                 leftMO,
-                                leftMO.getOutputFormat().fromPlainTextByEscaping((String) rightOMOrStr));
+                                leftMO.getOutputFormat().fromPlainTextByEscaping(toString(rightOMOrStr)));
                     } else { // rightOMOrStr instanceof TemplateMarkupOutputModel
                         return EvalUtil.concatMarkupOutputs(parent,
                                 leftMO,
@@ -129,6 +141,32 @@ final class AddConcatExpression extends Expression {
         }
     }
 
+    /**
+     * @param left
+     *            A {@link String} or a {@link ConcatenatedString}
+     * @param right
+     *            A {@link String} or a {@link ConcatenatedString}
+     */
+    private static TemplateScalarModel concatenateStrings(Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            String leftStr = (String) left;
+            String rightStr = (String) right;
+            if (leftStr.length() + rightStr.length() <= EAGER_CONCAT_MAX_LENGTH) {
+                return new SimpleScalar(leftStr.concat(rightStr));
+            }
+        }
+        return new ConcatenatedString(left, right);
+    }
+
+    /**
+     * @param stringOrConcat
+     *            A {@link String} or a {@link ConcatenatedString}
+     */
+    private static String toString(Object stringOrConcat) {
+        return stringOrConcat instanceof String
+                ? (String) stringOrConcat : ((ConcatenatedString) stringOrConcat).getAsString();
+    }
+
     private static TemplateModel _eval_concatenateHashes(TemplateModel leftModel, TemplateModel rightModel)
             throws TemplateModelException {
         if (leftModel instanceof TemplateHashModelEx && rightModel instanceof TemplateHashModelEx) {
@@ -191,6 +229,64 @@ final class AddConcatExpression extends Expression {
         return ParameterRole.forBinaryOperatorOperand(idx);
     }
 
+    /**
+     * The result of string concatenation that's only flattened to a single {@link String} when the value is read.
+     * Thread-safe after proper publishing.
+     */
+    static final class ConcatenatedString implements TemplateScalarModel {
+        /**
+         * A {@link String} after flattening, otherwise an {@code Object[2]} that stores the left and right operand,
+         * both a {@link String} or a {@link ConcatenatedString}. Once flattened, the operands can be garbage collected.
+         */
+        private volatile Object content;
+        private final int length;
+
+        private ConcatenatedString(Object left, Object right) {
+            content = new Object[] { left, right };
+            length = length(left) + length(right);
+        }
+
+        private static int length(Object stringOrConcat) {
+            return stringOrConcat instanceof String
+                    ? ((String) stringOrConcat).length() : ((ConcatenatedString) stringOrConcat).length;
+        }
+
+        @Override
+        public String getAsString() {
+            Object content = this.content;
+            if (content instanceof String) {
+                return (String) content;
+            }
+
+            // Walks the tree without recursion, as a long chain of concatenations would overflow the stack.
+            StringBuilder sb = new StringBuilder(length);
+            ArrayList<Object> pendingRights = new ArrayList<Object>();
+            Object[] operands = (Object[]) content;
+            pendingRights.add(operands[1]);
+            Object node = operands[0];
+            while (true) {
+                Object nodeContent;
+                while (node instanceof ConcatenatedString
+                        && (nodeContent = ((ConcatenatedString) node).content) instanceof Object[]) {
+                    operands = (Object[]) nodeContent;
+                    pendingRights.add(operands[1]);
+                    node = operands[0];
+                }
+                sb.append(node instanceof String ? (String) node : (String) ((ConcatenatedString) node).content);
+
+                int size = pendingRights.size();
+                if (size == 0) {
+                    break;
+                }
+                node = pendingRights.remove(size - 1);
+            }
+
+            String result = sb.toString();
+            this.content = result;
+            return result;
+        }
+    }
+
     private static final class ConcatenatedSequence
     implements
         TemplateSequenceModel {
@@ -28,6 +28,7 @@ import freemarker.template.TemplateModel;
  * overloaded (does string concatenation and more).
  */
 final class ArithmeticExpression extends Expression {
+    private static final long serialVersionUID = 1L;
 
     static final int TYPE_SUBSTRACTION = 0;
     static final int TYPE_MULTIPLICATION = 1;
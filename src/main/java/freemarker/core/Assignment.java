@@ -30,6 +30,7 @@ import freemarker.template.TemplateScalarModel;
  * like in [#local x=1 x=2].
  */
 final class Assignment extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     // These must not clash with ArithmeticExpression.TYPE_... constants: 
     private static final int OPERATOR_TYPE_EQUALS = 0x10000;
@@ -29,6 +29,7 @@ import freemarker.template.TemplateException;
  * If there's only one assignment, its usually just a {@link Assignment} without parent {@link AssignmentInstruction}.
  */
 final class AssignmentInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private int scope;
     private Expression namespaceExp;
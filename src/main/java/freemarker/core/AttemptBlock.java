@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * Holder for the attempted section of the #attempt element and of the nested #recover element ({@link RecoveryBlock}).
  */
 final class AttemptBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     private TemplateElement attemptedSection;
     private RecoveryBlock recoverySection;
@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * An #autoEsc element
  */
 final class AutoEscBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     AutoEscBlock(TemplateElements children) { 
         setChildren(children);
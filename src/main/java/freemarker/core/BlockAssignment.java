@@ -31,6 +31,7 @@ import freemarker.template.TemplateModelException;
  * Like [#local x]...[/#local].
  */
 final class BlockAssignment extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final String varName;
     private final Expression namespaceExp;
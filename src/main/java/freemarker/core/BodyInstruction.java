@@ -32,6 +32,7 @@ import freemarker.template.TemplateModelException;
  * An instruction that processes the nested block within a macro instruction.
  */
 final class BodyInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     
     private List bodyParameters;
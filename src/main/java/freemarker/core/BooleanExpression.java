@@ -24,6 +24,7 @@ import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
 
 abstract class BooleanExpression extends Expression {
+    private static final long serialVersionUID = 1L;
 
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
@@ -23,6 +23,7 @@ import freemarker.template.TemplateBooleanModel;
 import freemarker.template.TemplateModel;
 
 final class BooleanLiteral extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private final boolean val;
 
@@ -23,6 +23,7 @@ package freemarker.core;
  * Represents a &lt;break&gt; instruction to break out of a loop.
  */
 final class BreakInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     @Override
     TemplateElement[] accept(Environment env) {
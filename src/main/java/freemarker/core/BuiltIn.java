@@ -79,6 +79,7 @@ import freemarker.template.utility.StringUtil;
  * The {@code ?} operator used for things like {@code foo?upper_case}.
  */
 abstract class BuiltIn extends Expression implements Cloneable {
+    private static final long serialVersionUID = 1L;
     
     protected Expression target;
     protected String key;
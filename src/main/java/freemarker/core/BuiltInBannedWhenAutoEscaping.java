@@ -23,5 +23,6 @@ package freemarker.core;
  * This is just a marker; the actual checking is in {@code FTL.jj}. 
  */
 abstract class BuiltInBannedWhenAutoEscaping extends SpecialBuiltIn {
+    private static final long serialVersionUID = 1L;
     
 }
\ No newline at end of file
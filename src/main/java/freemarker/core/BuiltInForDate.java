@@ -26,6 +26,8 @@ import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
 
 abstract class BuiltInForDate extends BuiltIn {
+    private static final long serialVersionUID = 1L;
+
     @Override
     TemplateModel _eval(Environment env)
             throws TemplateException {
@@ -25,6 +25,7 @@ import freemarker.template.TemplateModel;
 import freemarker.template.TemplateModelException;
 
 abstract class BuiltInForHashEx extends BuiltIn {
+    private static final long serialVersionUID = 1L;
 
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
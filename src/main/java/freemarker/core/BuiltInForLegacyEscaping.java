@@ -26,6 +26,7 @@ import freemarker.template.TemplateModel;
  * This is just a marker; the actual checking is in {@code FTL.jj}. 
  */
 abstract class BuiltInForLegacyEscaping extends BuiltInBannedWhenAutoEscaping {
+    private static final long serialVersionUID = 1L;
     
     @Override
     TemplateModel _eval(Environment env)
@@ -24,6 +24,7 @@ import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
 
 abstract class BuiltInForLoopVariable extends SpecialBuiltIn {
+    private static final long serialVersionUID = 1L;
     
     private String loopVarName;
     
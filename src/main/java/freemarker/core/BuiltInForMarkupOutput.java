@@ -24,6 +24,7 @@ import freemarker.template.TemplateModel;
 import freemarker.template.TemplateModelException;
 
 abstract class BuiltInForMarkupOutput extends BuiltIn {
+    private static final long serialVersionUID = 1L;
     
     @Override
     TemplateModel _eval(Environment env)
@@ -24,6 +24,8 @@ import freemarker.template.TemplateModelException;
 import freemarker.template.TemplateNodeModelEx;
 
 public abstract class BuiltInForNodeEx extends BuiltIn {
+    private static final long serialVersionUID = 1L;
+
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
         TemplateModel model = target.eval(env);
@@ -20,6 +20,7 @@
 package freemarker.core;
 
 abstract class BuiltInWithDirectCallOptimization extends SpecialBuiltIn {
+    private static final long serialVersionUID = 1L;
 
     /**
      * Called if the built-in is directly followed by a "(" (ignoring comments and white-space). This can be utilized
@@ -25,6 +25,7 @@ import java.util.List;
  * be processed on parsing time.
  */
 abstract class BuiltInWithParseTimeParameters extends SpecialBuiltIn {
+    private static final long serialVersionUID = 1L;
 
     abstract void bindToParameters(List<Expression> parameters, Token openParen, Token closeParen)
             throws ParseException;
@@ -41,6 +41,7 @@ import freemarker.template.utility.TemplateModelUtils;
 class BuiltInsForCallables {
 
     static abstract class AbstractWithArgsBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
 
         protected abstract boolean isOrderLast();
 
@@ -256,6 +257,8 @@ class BuiltInsForCallables {
     }
 
     static final class with_argsBI extends AbstractWithArgsBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected boolean isOrderLast() {
             return false;
@@ -263,6 +266,8 @@ class BuiltInsForCallables {
     }
 
     static final class with_args_lastBI extends AbstractWithArgsBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected boolean isOrderLast() {
             return true;
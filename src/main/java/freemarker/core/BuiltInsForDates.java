@@ -42,6 +42,7 @@ import freemarker.template.utility.UnrecognizedTimeZoneException;
 class BuiltInsForDates {
     
     static class dateType_if_unknownBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         private final int dateType;
 
@@ -76,6 +77,7 @@ class BuiltInsForDates {
      * Implements {@code ?iso(timeZone)}.
      */
     static class iso_BI extends AbstractISOBI {
+        private static final long serialVersionUID = 1L;
         
         class Result implements TemplateMethodModelEx {
             private final Date date;
@@ -147,6 +149,7 @@ class BuiltInsForDates {
      * {@code ?iso(timeZone)}.
      */
     static class iso_utc_or_local_BI extends AbstractISOBI {
+        private static final long serialVersionUID = 1L;
         
         private final boolean useUTC;
         
@@ -180,6 +183,8 @@ class BuiltInsForDates {
     private BuiltInsForDates() { }
 
     static abstract class AbstractISOBI extends BuiltInForDate {
+        private static final long serialVersionUID = 1L;
+
         protected final Boolean showOffset;
         protected final int accuracy;
     
@@ -36,6 +36,7 @@ class BuiltInsForExistenceHandling {
     private BuiltInsForExistenceHandling() { }
 
     private static abstract class ExistenceBuiltIn extends BuiltIn {
+        private static final long serialVersionUID = 1L;
     
         protected TemplateModel evalMaybeNonexistentTarget(Environment env) throws TemplateException {
             TemplateModel tm;
@@ -57,6 +58,7 @@ class BuiltInsForExistenceHandling {
     }
     
     static class defaultBI extends BuiltInsForExistenceHandling.ExistenceBuiltIn {
+        private static final long serialVersionUID = 1L;
         
         @Override
         TemplateModel _eval(final Environment env) throws TemplateException {
@@ -97,6 +99,8 @@ class BuiltInsForExistenceHandling {
     }
     
     static class existsBI extends BuiltInsForExistenceHandling.ExistenceBuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             return evalMaybeNonexistentTarget(env) == null ? TemplateBooleanModel.FALSE : TemplateBooleanModel.TRUE;
@@ -109,6 +113,8 @@ class BuiltInsForExistenceHandling {
     }
 
     static class has_contentBI extends BuiltInsForExistenceHandling.ExistenceBuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             return Expression.isEmpty(evalMaybeNonexistentTarget(env))
@@ -123,6 +129,8 @@ class BuiltInsForExistenceHandling {
     }
 
     static class if_existsBI extends BuiltInsForExistenceHandling.ExistenceBuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env)
                 throws TemplateException {
@@ -31,6 +31,7 @@ import freemarker.template.TemplateSequenceModel;
 class BuiltInsForHashes {
 
     static class keysBI extends BuiltInForHashEx {
+        private static final long serialVersionUID = 1L;
 
         @Override
         TemplateModel calculateResult(TemplateHashModelEx hashExModel, Environment env)
@@ -43,6 +44,8 @@ class BuiltInsForHashes {
     }
     
     static class valuesBI extends BuiltInForHashEx {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateHashModelEx hashExModel, Environment env)
                 throws TemplateModelException, InvalidReferenceException {
@@ -33,6 +33,7 @@ import freemarker.template.TemplateModelException;
 class BuiltInsForLoopVariables {
     
     static class indexBI extends BuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         TemplateModel calculateResult(IterationContext iterCtx, Environment env) throws TemplateException {
@@ -42,6 +43,7 @@ class BuiltInsForLoopVariables {
     }
     
     static class counterBI extends BuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         TemplateModel calculateResult(IterationContext iterCtx, Environment env) throws TemplateException {
@@ -51,6 +53,7 @@ class BuiltInsForLoopVariables {
     }
 
     static abstract class BooleanBuiltInForLoopVariable extends BuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         final TemplateModel calculateResult(IterationContext iterCtx, Environment env) throws TemplateException {
@@ -62,6 +65,7 @@ class BuiltInsForLoopVariables {
     }
     
     static class has_nextBI extends BooleanBuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected boolean calculateBooleanResult(IterationContext iterCtx, Environment env) {
@@ -71,6 +75,7 @@ class BuiltInsForLoopVariables {
     }
 
     static class is_lastBI extends BooleanBuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected boolean calculateBooleanResult(IterationContext iterCtx, Environment env) {
@@ -80,6 +85,7 @@ class BuiltInsForLoopVariables {
     }
 
     static class is_firstBI extends BooleanBuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected boolean calculateBooleanResult(IterationContext iterCtx, Environment env) {
@@ -89,6 +95,7 @@ class BuiltInsForLoopVariables {
     }
 
     static class is_odd_itemBI extends BooleanBuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected boolean calculateBooleanResult(IterationContext iterCtx, Environment env) {
@@ -98,6 +105,7 @@ class BuiltInsForLoopVariables {
     }
 
     static class is_even_itemBI extends BooleanBuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected boolean calculateBooleanResult(IterationContext iterCtx, Environment env) {
@@ -107,6 +115,7 @@ class BuiltInsForLoopVariables {
     }
     
     static class item_parityBI extends BuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
         
         private static final SimpleScalar ODD = new SimpleScalar("odd");
         private static final SimpleScalar EVEN = new SimpleScalar("even");
@@ -119,6 +128,7 @@ class BuiltInsForLoopVariables {
     }
 
     static class item_parity_capBI extends BuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
         
         private static final SimpleScalar ODD = new SimpleScalar("Odd");
         private static final SimpleScalar EVEN = new SimpleScalar("Even");
@@ -131,6 +141,7 @@ class BuiltInsForLoopVariables {
     }
 
     static class item_cycleBI extends BuiltInForLoopVariable {
+        private static final long serialVersionUID = 1L;
 
         private class BIMethod implements TemplateMethodModelEx {
             
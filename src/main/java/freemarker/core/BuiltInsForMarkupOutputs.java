@@ -29,6 +29,7 @@ import freemarker.template.TemplateModelException;
 class BuiltInsForMarkupOutputs {
     
     static class markup_stringBI extends BuiltInForMarkupOutput {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(TemplateMarkupOutputModel model) throws TemplateModelException {
@@ -56,8 +56,10 @@ import freemarker.template.utility.NumberUtil;
 class BuiltInsForMultipleTypes {
 
     static class cBI extends AbstractCBI implements ICIChainMember {
+        private static final long serialVersionUID = 1L;
         
         static class BIBeforeICI2d3d21 extends AbstractCBI {
+            private static final long serialVersionUID = 1L;
 
             @Override
             protected TemplateModel formatNumber(Environment env, TemplateModel model) throws TemplateModelException {
@@ -138,6 +140,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class dateBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         private class DateParser
         implements
             TemplateDateModel,
@@ -257,6 +261,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class apiBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             if (!env.isAPIBuiltinEnabled()) {
@@ -275,6 +281,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class has_apiBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             final TemplateModel tm = target.eval(env);
@@ -284,6 +292,8 @@ class BuiltInsForMultipleTypes {
     }
     
     static class is_booleanBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -294,6 +304,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_collectionBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -303,6 +315,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_collection_exBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -312,6 +326,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_dateLikeBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -322,6 +338,7 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_dateOfTypeBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         private final int dateType;
         
@@ -339,6 +356,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_directiveBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -350,6 +369,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_enumerableBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -363,6 +384,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_hash_exBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -372,6 +395,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_hashBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -381,6 +406,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_indexableBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -390,6 +417,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_macroBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -401,6 +430,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_markup_outputBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -411,6 +442,8 @@ class BuiltInsForMultipleTypes {
     }
     
     static class is_methodBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -421,6 +454,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_nodeBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -431,6 +466,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_numberBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -441,6 +478,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_sequenceBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -455,6 +494,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_stringBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -465,6 +506,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class is_transformBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -475,6 +518,8 @@ class BuiltInsForMultipleTypes {
     }
 
     static class namespaceBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel tm = target.eval(env);
@@ -490,6 +535,7 @@ class BuiltInsForMultipleTypes {
     }
 
     static class sizeBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected void setTarget(Expression target) {
@@ -571,6 +617,7 @@ class BuiltInsForMultipleTypes {
     }
     
     static class stringBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         private class BooleanFormatter
         implements 
@@ -793,6 +840,7 @@ class BuiltInsForMultipleTypes {
     private BuiltInsForMultipleTypes() { }
 
     static abstract class AbstractCBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
@@ -38,6 +38,8 @@ import freemarker.template._TemplateAPI;
 class BuiltInsForNodes {
     
     static class ancestorsBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             AncestorSequence result = new AncestorSequence(env);
@@ -51,6 +53,8 @@ class BuiltInsForNodes {
     }
     
     static class childrenBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             return nodeModel.getChildNodes();
@@ -58,6 +62,8 @@ class BuiltInsForNodes {
     }
     
     static class node_nameBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             return new SimpleScalar(nodeModel.getNodeName());
@@ -65,6 +71,8 @@ class BuiltInsForNodes {
     }
 
     static class node_namespaceBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             String nsURI = nodeModel.getNodeNamespace();
@@ -73,6 +81,8 @@ class BuiltInsForNodes {
     }
     
     static class node_typeBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             return new SimpleScalar(nodeModel.getNodeType());
@@ -80,6 +90,8 @@ class BuiltInsForNodes {
     }
 
     static class parentBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
        @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             return nodeModel.getParentNode();
@@ -87,6 +99,8 @@ class BuiltInsForNodes {
     }
     
     static class rootBI extends BuiltInForNode {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModel nodeModel, Environment env) throws TemplateModelException {
             TemplateNodeModel result = nodeModel;
@@ -100,6 +114,8 @@ class BuiltInsForNodes {
     }
 
     static class previousSiblingBI extends BuiltInForNodeEx {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModelEx nodeModel, Environment env) throws TemplateModelException {
             return nodeModel.getPreviousSibling();
@@ -107,6 +123,8 @@ class BuiltInsForNodes {
     }
 
     static class nextSiblingBI extends BuiltInForNodeEx {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateNodeModelEx nodeModel, Environment env) throws TemplateModelException {
             return nodeModel.getNextSibling();
@@ -41,6 +41,7 @@ import freemarker.template.utility.StringUtil;
 class BuiltInsForNumbers {
 
     private static abstract class abcBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
 
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) throws TemplateModelException {
@@ -64,6 +65,7 @@ class BuiltInsForNumbers {
     }
 
     static class lower_abcBI extends abcBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected String toABC(int n) {
@@ -73,6 +75,7 @@ class BuiltInsForNumbers {
     }
 
     static class upper_abcBI extends abcBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected String toABC(int n) {
@@ -82,6 +85,8 @@ class BuiltInsForNumbers {
     }
     
     static class absBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) throws TemplateModelException {
             if (num instanceof Integer) {
@@ -147,6 +152,8 @@ class BuiltInsForNumbers {
     }
     
     static class byteBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             if (num instanceof Byte) {
@@ -157,6 +164,8 @@ class BuiltInsForNumbers {
     }
 
     static class ceilingBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             return new SimpleNumber(new BigDecimal(num.doubleValue()).divide(BIG_DECIMAL_ONE, 0, BigDecimal.ROUND_CEILING));
@@ -164,6 +173,8 @@ class BuiltInsForNumbers {
     }
 
     static class doubleBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             if (num instanceof Double) {
@@ -174,6 +185,8 @@ class BuiltInsForNumbers {
     }
 
     static class floatBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             if (num instanceof Float) {
@@ -184,6 +197,8 @@ class BuiltInsForNumbers {
     }
 
     static class floorBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             return new SimpleNumber(new BigDecimal(num.doubleValue()).divide(BIG_DECIMAL_ONE, 0, BigDecimal.ROUND_FLOOR));
@@ -191,6 +206,8 @@ class BuiltInsForNumbers {
     }
 
     static class intBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             if (num instanceof Integer) {
@@ -201,6 +218,8 @@ class BuiltInsForNumbers {
     }
 
     static class is_infiniteBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) throws TemplateModelException {
             return NumberUtil.isInfinite(num) ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
@@ -209,6 +228,8 @@ class BuiltInsForNumbers {
 
 
     static class is_nanBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) throws TemplateModelException {
             return NumberUtil.isNaN(num) ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
@@ -217,6 +238,8 @@ class BuiltInsForNumbers {
 
     // Does both someNumber?long and someDate?long, thus it doesn't extend NumberBuiltIn
     static class longBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env)
                 throws TemplateException {
@@ -236,6 +259,7 @@ class BuiltInsForNumbers {
     }
 
     static class number_to_dateBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
         
         private final int dateType;
         
@@ -251,6 +275,8 @@ class BuiltInsForNumbers {
     }
 
     static class roundBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         private static final BigDecimal half = new BigDecimal("0.5");
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
@@ -259,6 +285,8 @@ class BuiltInsForNumbers {
     }
     
     static class shortBI extends BuiltInForNumber {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(Number num, TemplateModel model) {
             if (num instanceof Short) {
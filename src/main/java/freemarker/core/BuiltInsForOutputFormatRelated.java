@@ -24,6 +24,7 @@ import freemarker.template.TemplateModel;
 class BuiltInsForOutputFormatRelated {
 
     static class no_escBI extends AbstractConverterBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(String lho, MarkupOutputFormat outputFormat, Environment env)
@@ -34,6 +35,7 @@ class BuiltInsForOutputFormatRelated {
     }
 
     static class escBI extends AbstractConverterBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(String lho, MarkupOutputFormat outputFormat, Environment env)
@@ -44,6 +46,7 @@ class BuiltInsForOutputFormatRelated {
     }
     
     static abstract class AbstractConverterBI extends MarkupOutputFormatBoundBuiltIn {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(Environment env) throws TemplateException {
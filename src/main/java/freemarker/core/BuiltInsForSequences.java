@@ -55,6 +55,7 @@ import freemarker.template.utility.StringUtil;
 class BuiltInsForSequences {
     
     static class chunkBI extends BuiltInForSequence {
+        private static final long serialVersionUID = 1L;
 
         private class BIMethod implements TemplateMethodModelEx {
             
@@ -147,6 +148,7 @@ class BuiltInsForSequences {
     }
     
     static class firstBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected void setTarget(Expression target) {
@@ -189,6 +191,7 @@ class BuiltInsForSequences {
     }
 
     static class joinBI extends BuiltInWithDirectCallOptimization {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected void setDirectlyCalled() {
@@ -265,6 +268,8 @@ class BuiltInsForSequences {
     }
 
     static class lastBI extends BuiltInForSequence {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(TemplateSequenceModel tsm)
         throws TemplateModelException {
@@ -277,6 +282,8 @@ class BuiltInsForSequences {
     }
 
     static class reverseBI extends BuiltInForSequence {
+        private static final long serialVersionUID = 1L;
+
         private static class ReverseSequence implements TemplateSequenceModel {
             private final TemplateSequenceModel seq;
 
@@ -306,6 +313,7 @@ class BuiltInsForSequences {
     }
 
     static class seq_containsBI extends BuiltInWithDirectCallOptimization {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected void setDirectlyCalled() {
@@ -352,6 +360,16 @@ class BuiltInsForSequences {
                     throws TemplateModelException {
                 checkMethodArgCount(args, 1);
                 TemplateModel arg = (TemplateModel) args.get(0);
+                if (arg instanceof TemplateNumberModel) {
+                    Object array = PrimitiveNumberArrays.getArray(m_seq, m_env);
+                    if (array != null) {
+                        int foundAtIdx = PrimitiveNumberArrays.indexOf(
+                                array, ((TemplateNumberModel) arg).getAsNumber(), 0, true);
+                        if (foundAtIdx != PrimitiveNumberArrays.UNSUPPORTED) {
+                            return foundAtIdx != -1 ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
+                        }
+                    }
+                }
                 int size = m_seq.size();
                 for (int i = 0; i < size; i++) {
                     if (modelsEqual(i, m_seq.get(i), arg, m_env))
@@ -380,6 +398,7 @@ class BuiltInsForSequences {
     }
     
     static class seq_index_ofBI extends BuiltInWithDirectCallOptimization {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected void setDirectlyCalled() {
@@ -518,6 +537,16 @@ class BuiltInsForSequences {
             private int findInSeq(
                     TemplateModel target, int scanStartIndex, int seqSize)
                     throws TemplateModelException {
+                if (target instanceof TemplateNumberModel && scanStartIndex >= 0) {
+                    Object array = PrimitiveNumberArrays.getArray(m_seq, m_env);
+                    if (array != null) {
+                        int foundAtIdx = PrimitiveNumberArrays.indexOf(
+                                array, ((TemplateNumberModel) target).getAsNumber(), scanStartIndex, findFirst);
+                        if (foundAtIdx != PrimitiveNumberArrays.UNSUPPORTED) {
+                            return foundAtIdx;
+                        }
+                    }
+                }
                 if (findFirst) {
                     for (int i = scanStartIndex; i < seqSize; i++) {
                         if (modelsEqual(i, m_seq.get(i), target, m_env)) return i;
@@ -546,6 +575,8 @@ class BuiltInsForSequences {
     }
 
     static class sort_byBI extends sortBI {
+        private static final long serialVersionUID = 1L;
+
         class BIMethod implements TemplateMethodModelEx {
             TemplateSequenceModel seq;
             
@@ -599,6 +630,7 @@ class BuiltInsForSequences {
     }
 
     static class sortBI extends BuiltInForSequence {
+        private static final long serialVersionUID = 1L;
         
         private static class BooleanKVPComparator implements Comparator, Serializable {
 
@@ -862,12 +894,20 @@ class BuiltInsForSequences {
         @Override
         TemplateModel calculateResult(TemplateSequenceModel seq)
                 throws TemplateModelException {
+            Object array = PrimitiveNumberArrays.getArray(seq, Environment.getCurrentEnvironment());
+            if (array != null) {
+                Object sortedArray = PrimitiveNumberArrays.sortedCopy(array);
+                if (sortedArray != null) {
+                    return PrimitiveNumberArrays.wrapLike(seq, sortedArray);
+                }
+            }
             return sort(seq, null);
         }
         
     }
 
     static class sequenceBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
 
         private boolean lazilyGeneratedResultEnabled;
 
@@ -954,6 +994,7 @@ class BuiltInsForSequences {
     }
  
     private static abstract class MinOrMaxBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         private final int comparatorOperator;
         
@@ -971,6 +1012,14 @@ class BuiltInsForSequences {
         TemplateModel _eval(Environment env)
                 throws TemplateException {
             TemplateModel model = target.eval(env);
+            Object array = PrimitiveNumberArrays.getArray(model, env);
+            if (array != null) {
+                int bestIdx = PrimitiveNumberArrays.indexOfMinOrMax(
+                        array, comparatorOperator == EvalUtil.CMP_OP_GREATER_THAN);
+                if (bestIdx != PrimitiveNumberArrays.UNSUPPORTED) {
+                    return ((TemplateSequenceModel) model).get(bestIdx);
+                }
+            }
             if (model instanceof TemplateCollectionModel) {
                 checkNotRightUnboundedNumericalRange(model);
                 return calculateResultForCollection((TemplateCollectionModel) model, env);
@@ -1013,6 +1062,7 @@ class BuiltInsForSequences {
     }
 
     static class maxBI extends MinOrMaxBI {
+        private static final long serialVersionUID = 1L;
 
         public maxBI() {
             super(EvalUtil.CMP_OP_GREATER_THAN);
@@ -1021,6 +1071,7 @@ class BuiltInsForSequences {
     }
 
     static class minBI extends MinOrMaxBI {
+        private static final long serialVersionUID = 1L;
 
         public minBI() {
             super(EvalUtil.CMP_OP_LESS_THAN);
@@ -1029,6 +1080,8 @@ class BuiltInsForSequences {
     }
 
     private static abstract class FilterLikeBI extends IntermediateStreamOperationLikeBuiltIn {
+        private static final long serialVersionUID = 1L;
+
         protected final boolean elementMatches(TemplateModel element, ElementTransformer elementTransformer,
                 Environment env)
                 throws TemplateException {
@@ -1049,6 +1102,7 @@ class BuiltInsForSequences {
     }
 
     static class filterBI extends FilterLikeBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(
@@ -1127,6 +1181,7 @@ class BuiltInsForSequences {
     }
 
     static class take_whileBI extends FilterLikeBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(
@@ -1205,6 +1260,7 @@ class BuiltInsForSequences {
     }
 
     static class mapBI extends IntermediateStreamOperationLikeBuiltIn {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(
@@ -1263,6 +1319,7 @@ class BuiltInsForSequences {
     }
 
     static class drop_whileBI extends FilterLikeBI {
+        private static final long serialVersionUID = 1L;
 
         @Override
         protected TemplateModel calculateResult(
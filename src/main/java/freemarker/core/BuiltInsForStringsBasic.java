@@ -41,6 +41,8 @@ import freemarker.template.utility.StringUtil;
 class BuiltInsForStringsBasic {
 
     static class cap_firstBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             int i = 0;
@@ -58,6 +60,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class capitalizeBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.capitalize(s));
@@ -65,6 +69,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class chop_linebreakBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.chomp(s));
@@ -72,6 +78,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class containsBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         private class BIMethod implements TemplateMethodModelEx {
             
@@ -97,6 +104,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class ends_withBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
     
         private class BIMethod implements TemplateMethodModelEx {
             private String s;
@@ -120,6 +128,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class ensure_ends_withBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         private class BIMethod implements TemplateMethodModelEx {
             private String s;
@@ -143,6 +152,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class ensure_starts_withBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         private class BIMethod implements TemplateMethodModelEx {
             private String s;
@@ -192,6 +202,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class index_ofBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
         
         private class BIMethod implements TemplateMethodModelEx {
             
@@ -229,6 +240,8 @@ class BuiltInsForStringsBasic {
     }
     
     static class keep_afterBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         class KeepAfterMethod implements TemplateMethodModelEx {
             private String s;
 
@@ -275,6 +288,8 @@ class BuiltInsForStringsBasic {
     }
     
     static class keep_after_lastBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         class KeepAfterMethod implements TemplateMethodModelEx {
             private String s;
 
@@ -328,6 +343,8 @@ class BuiltInsForStringsBasic {
     }
     
     static class keep_beforeBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         class KeepUntilMethod implements TemplateMethodModelEx {
             private String s;
 
@@ -372,6 +389,8 @@ class BuiltInsForStringsBasic {
     
     // TODO
     static class keep_before_lastBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         class KeepUntilMethod implements TemplateMethodModelEx {
             private String s;
 
@@ -422,6 +441,7 @@ class BuiltInsForStringsBasic {
     }
     
     static class lengthBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
     
         @Override
         TemplateModel calculateResult(String s, Environment env) throws TemplateException {
@@ -431,6 +451,8 @@ class BuiltInsForStringsBasic {
     }    
 
     static class lower_caseBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(s.toLowerCase(env.getLocale()));
@@ -438,6 +460,7 @@ class BuiltInsForStringsBasic {
     }    
 
     static class padBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         private class BIMethod implements TemplateMethodModelEx {
             
@@ -489,6 +512,7 @@ class BuiltInsForStringsBasic {
     }
     
     static class remove_beginningBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         private class BIMethod implements TemplateMethodModelEx {
             private String s;
@@ -512,6 +536,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class remove_endingBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
     
         private class BIMethod implements TemplateMethodModelEx {
             private String s;
@@ -535,6 +560,8 @@ class BuiltInsForStringsBasic {
     }
     
     static class split_BI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         class SplitMethod implements TemplateMethodModel {
             private String s;
 
@@ -569,6 +596,7 @@ class BuiltInsForStringsBasic {
     }
     
     static class starts_withBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
     
         private class BIMethod implements TemplateMethodModelEx {
             private String s;
@@ -592,6 +620,7 @@ class BuiltInsForStringsBasic {
     }
 
     static class substringBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         @Override
         TemplateModel calculateResult(final String s, final Environment env) throws TemplateException {
@@ -652,6 +681,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class trimBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(s.trim());
@@ -659,6 +690,8 @@ class BuiltInsForStringsBasic {
     }
 
     static abstract class AbstractTruncateBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(final String s, final Environment env) {
             return new TemplateMethodModelEx() {
@@ -717,6 +750,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class truncateBI extends AbstractTruncateBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected TemplateModel truncate(
                 TruncateBuiltinAlgorithm algorithm, String s, int maxLength,
@@ -732,6 +767,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class truncate_wBI extends AbstractTruncateBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected TemplateModel truncate(
                 TruncateBuiltinAlgorithm algorithm, String s, int maxLength,
@@ -747,6 +784,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class truncate_cBI extends AbstractTruncateBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected TemplateModel truncate(
                 TruncateBuiltinAlgorithm algorithm, String s, int maxLength,
@@ -762,6 +801,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class truncate_mBI extends AbstractTruncateBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected TemplateModel truncate(
                 TruncateBuiltinAlgorithm algorithm, String s, int maxLength,
@@ -777,6 +818,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class truncate_w_mBI extends AbstractTruncateBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected TemplateModel truncate(
                 TruncateBuiltinAlgorithm algorithm, String s, int maxLength,
@@ -792,6 +835,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class truncate_c_mBI extends AbstractTruncateBI {
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected TemplateModel truncate(
                 TruncateBuiltinAlgorithm algorithm, String s, int maxLength,
@@ -807,6 +852,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class uncap_firstBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             int i = 0;
@@ -824,6 +871,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class upper_caseBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(s.toUpperCase(env.getLocale()));
@@ -831,6 +880,8 @@ class BuiltInsForStringsBasic {
     }
 
     static class word_listBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             SimpleSequence result = new SimpleSequence(_TemplateAPI.SAFE_OBJECT_WRAPPER);
@@ -34,8 +34,11 @@ import freemarker.template.utility.StringUtil;
 class BuiltInsForStringsEncoding {
 
     static class htmlBI extends BuiltInForLegacyEscaping implements ICIChainMember {
+        private static final long serialVersionUID = 1L;
         
         static class BIBeforeICI2d3d20 extends BuiltInForLegacyEscaping {
+            private static final long serialVersionUID = 1L;
+
             @Override
             TemplateModel calculateResult(String s, Environment env) {
                 return new SimpleScalar(StringUtil.HTMLEnc(s));
@@ -62,6 +65,8 @@ class BuiltInsForStringsEncoding {
     }
 
     static class j_stringBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.javaStringEnc(s));
@@ -69,6 +74,8 @@ class BuiltInsForStringsEncoding {
     }
 
     static class js_stringBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.javaScriptStringEnc(s));
@@ -76,6 +83,8 @@ class BuiltInsForStringsEncoding {
     }
 
     static class json_stringBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.jsonStringEnc(s));
@@ -83,6 +92,8 @@ class BuiltInsForStringsEncoding {
     }
 
     static class rtfBI extends BuiltInForLegacyEscaping {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.RTFEnc(s));
@@ -90,6 +101,7 @@ class BuiltInsForStringsEncoding {
     }
 
     static class urlBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         static class UrlBIResult extends BuiltInsForStringsEncoding.AbstractUrlBIResult {
     
@@ -112,6 +124,7 @@ class BuiltInsForStringsEncoding {
     }
 
     static class urlPathBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
     
         static class UrlPathBIResult extends BuiltInsForStringsEncoding.AbstractUrlBIResult {
     
@@ -134,6 +147,8 @@ class BuiltInsForStringsEncoding {
     }
 
     static class xhtmlBI extends BuiltInForLegacyEscaping {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.XHTMLEnc(s));
@@ -141,6 +156,8 @@ class BuiltInsForStringsEncoding {
     }
 
     static class xmlBI extends BuiltInForLegacyEscaping {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) {
             return new SimpleScalar(StringUtil.XMLEnc(s));
@@ -35,6 +35,8 @@ import freemarker.template.TemplateScalarModel;
 class BuiltInsForStringsMisc {
 
     static class booleanBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env)  throws TemplateException {
             final boolean b;
@@ -55,6 +57,7 @@ class BuiltInsForStringsMisc {
     }
 
     static class evalBI extends OutputFormatBoundBuiltIn {
+        private static final long serialVersionUID = 1L;
         
         @Override
         protected TemplateModel calculateResult(Environment env) throws TemplateException {
@@ -114,6 +117,8 @@ class BuiltInsForStringsMisc {
     }
 
     static class evalJsonBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env) throws TemplateException {
             try {
@@ -130,6 +135,8 @@ class BuiltInsForStringsMisc {
     }
 
     static class numberBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env)  throws TemplateException {
             try {
@@ -141,6 +148,8 @@ class BuiltInsForStringsMisc {
     }
     
     static class absolute_template_nameBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel calculateResult(String s, Environment env)  throws TemplateException {
             return new AbsoluteTemplateNameResult(s, env);
@@ -45,6 +45,8 @@ import freemarker.template.utility.StringUtil;
 class BuiltInsForStringsRegexp {
 
     static class groupsBI extends BuiltIn {
+        private static final long serialVersionUID = 1L;
+
         @Override
         TemplateModel _eval(Environment env) throws TemplateException {
             TemplateModel targetModel = target.eval(env);
@@ -63,6 +65,8 @@ class BuiltInsForStringsRegexp {
     }
     
     static class matchesBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
+
         class MatcherBuilder implements TemplateMethodModel {
             
             String matchString;
@@ -94,6 +98,7 @@ class BuiltInsForStringsRegexp {
     }
     
     static class replace_reBI extends BuiltInForString {
+        private static final long serialVersionUID = 1L;
         
         class ReplaceMethod implements TemplateMethodModel {
             private String s;
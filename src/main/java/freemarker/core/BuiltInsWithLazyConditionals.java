@@ -31,6 +31,7 @@ final class BuiltInsWithLazyConditionals {
      * Behaves similarly to the ternary operator of Java.
      */
     static class then_BI extends BuiltInWithParseTimeParameters {
+        private static final long serialVersionUID = 1L;
         
         private Expression whenTrueExp;
         private Expression whenFalseExp;
@@ -87,6 +88,7 @@ final class BuiltInsWithLazyConditionals {
     }
 
     static class switch_BI extends BuiltInWithParseTimeParameters {
+        private static final long serialVersionUID = 1L;
         
         private List<Expression> parameters;
 
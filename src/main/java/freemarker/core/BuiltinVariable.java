@@ -19,6 +19,8 @@
 
 package freemarker.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Arrays;
 import java.util.Date;
 
@@ -39,6 +41,7 @@ import freemarker.template.utility.StringUtil;
  * A reference to a built-in identifier, such as .root
  */
 final class BuiltinVariable extends Expression {
+    private static final long serialVersionUID = 1L;
 
     static final String TEMPLATE_NAME_CC = "templateName";
     static final String TEMPLATE_NAME = "template_name";
@@ -126,7 +129,8 @@ final class BuiltinVariable extends Expression {
         VERSION
     };
 
-    private final String name;
+    // Not final, because it's interned again after deserialization
+    private String name;
     private final TemplateModel parseTimeValue;
 
     BuiltinVariable(Token nameTk, FMParserTokenManager tokenManager, TemplateModel parseTimeValue)
@@ -182,6 +186,12 @@ final class BuiltinVariable extends Expression {
         this.name = name.intern();
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // _eval compares the name by identity
+        name = name.intern();
+    }
+
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
         if (parseTimeValue != null) {
@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import freemarker.template.Template;
+import freemarker.template.utility.NullArgumentException;
+
+/**
+ * A {@link Writer} that encodes to an {@link OutputStream}, like an {@link OutputStreamWriter} wrapped into a
+ * {@link java.io.BufferedWriter}, but if you pass it to {@link Template#process(Object, Writer)} (and similar
+ * methods), the static text in the template is printed as bytes that were encoded only once per charset (and then
+ * cached in the template), instead of being encoded again on every processing. The output is exactly the same as with
+ * an {@link OutputStreamWriter}; malformed and unmappable characters are replaced with the replacement of the
+ * {@link CharsetEncoder}.
+ * 
+ * <p>
+ * The static text is only printed pre-encoded for charsets where that surely gives the same bytes as encoding the
+ * whole output at once, which are the UTF-8 and the single-byte charsets. For other charsets this just works as a
+ * buffered {@link OutputStreamWriter}.
+ * 
+ * <p>
+ * This class is not thread-safe. The output is buffered; call {@link #flush()}, {@link #flushBuffer()}, or
+ * {@link #close()} when you are done.
+ * 
+ * @since 2.3.32
+ */
+public final class ByteOutputWriter extends Writer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int CHAR_BUFFER_SIZE = 1024;
+
+    /** Charsets where the characters 0-127 are encoded to themselves, as a single byte. */
+    private static final Set<String> ASCII_COMPATIBLE_CHARSET_NAMES = new HashSet<>(Arrays.asList(
+            "UTF-8", "US-ASCII",
+            "ISO-8859-1", "ISO-8859-2", "ISO-8859-3", "ISO-8859-4", "ISO-8859-5", "ISO-8859-6", "ISO-8859-7",
+            "ISO-8859-8", "ISO-8859-9", "ISO-8859-13", "ISO-8859-15",
+            "windows-1250", "windows-1251", "windows-1252", "windows-1253", "windows-1254", "windows-1255",
+            "windows-1256", "windows-1257", "windows-1258"));
+
+    private final OutputStream out;
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;
+    private final boolean preEncodingSupported;
+
+    private final byte[] bytes;
+    private final ByteBuffer byteBuffer;
+    private final char[] chars = new char[CHAR_BUFFER_SIZE];
+    /** Wraps {@link #chars}; in "write mode", so the position is the end of the characters not yet encoded. */
+    private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+    public ByteOutputWriter(OutputStream out, Charset charset) {
+        this(out, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize
+     *            The size of the byte buffer; at least 16.
+     */
+    public ByteOutputWriter(OutputStream out, Charset charset, int bufferSize) {
+        NullArgumentException.check("out", out);
+        NullArgumentException.check("charset", charset);
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize must be at least 16, but was " + bufferSize);
+        }
+        this.out = out;
+        this.charset = charset;
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        asciiCompatible = ASCII_COMPATIBLE_CHARSET_NAMES.contains(charset.name());
+        preEncodingSupported = charset.name().equals("UTF-8") || encoder.maxBytesPerChar() <= 1f;
+        bytes = new byte[bufferSize];
+        byteBuffer = ByteBuffer.wrap(bytes);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Tells if the {@link #writePreEncoded(byte[])} can be used; see the class documentation.
+     */
+    boolean isPreEncodingSupported() {
+        return preEncodingSupported;
+    }
+
+    /**
+     * Writes bytes that were encoded with {@link #getCharset()}, and where the encoded text doesn't start with a low
+     * surrogate, nor ends with a high surrogate. Can only be called if {@link #isPreEncodingSupported()} returns
+     * {@code true}.
+     */
+    void writePreEncoded(byte[] encoded) throws IOException {
+        if (charBuffer.position() != 0) {
+            // A lone high surrogate is pending; the following text doesn't start with a low surrogate, so it's
+            // replaced, just as OutputStreamWriter would.
+            encodePendingCharsAsEndOfInput();
+        }
+        int ln = encoded.length;
+        if (ln > byteBuffer.remaining()) {
+            flushBuffer();
+            if (ln >= bytes.length) {
+                out.write(encoded);
+                return;
+            }
+        }
+        byteBuffer.put(encoded);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (asciiCompatible && c < 0x80 && charBuffer.position() == 0) {
+            if (!byteBuffer.hasRemaining()) {
+                flushBuffer();
+            }
+            byteBuffer.put((byte) c);
+        } else {
+            charBuffer.put((char) c);
+            encodePendingChars();
+        }
+    }
+
+    @Override
+    public void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    @Override
+    public void write(String s, int off, int len) throws IOException {
+        while (len > 0) {
+            if (asciiCompatible && charBuffer.position() == 0) {
+                int bytePos = byteBuffer.position();
+                int n = Math.min(len, bytes.length - bytePos);
+                int i = 0;
+                while (i < n) {
+                    char c = s.charAt(off + i);
+                    if (c >= 0x80) {
+                        break;
+                    }
+                    bytes[bytePos + i] = (byte) c;
+                    i++;
+                }
+                byteBuffer.position(bytePos + i);
+                off += i;
+                len -= i;
+                if (len == 0) {
+                    break;
+                }
+                if (i == n) {
+                    flushBuffer();
+                    continue;
+                }
+                // Non-ASCII character at off; the CharsetEncoder will deal with it below.
+            }
+
+            int charPos = charBuffer.position();
+            int n = Math.min(len, CHAR_BUFFER_SIZE - charPos);
+            s.getChars(off, off + n, chars, charPos);
+            charBuffer.position(charPos + n);
+            off += n;
+            len -= n;
+            encodePendingChars();
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf) throws IOException {
+        write(cbuf, 0, cbuf.length);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        while (len > 0) {
+            if (asciiCompatible && charBuffer.position() == 0) {
+                int bytePos = byteBuffer.position();
+                int n = Math.min(len, bytes.length - bytePos);
+                int i = 0;
+                while (i < n) {
+                    char c = cbuf[off + i];
+                    if (c >= 0x80) {
+                        break;
+                    }
+                    bytes[bytePos + i] = (byte) c;
+                    i++;
+                }
+                byteBuffer.position(bytePos + i);
+                off += i;
+                len -= i;
+                if (len == 0) {
+                    break;
+                }
+                if (i == n) {
+                    flushBuffer();
+                    continue;
+                }
+                // Non-ASCII character at off; the CharsetEncoder will deal with it below.
+            }
+
+            int charPos = charBuffer.position();
+            int n = Math.min(len, CHAR_BUFFER_SIZE - charPos);
+            System.arraycopy(cbuf, off, chars, charPos, n);
+            charBuffer.position(charPos + n);
+            off += n;
+            len -= n;
+            encodePendingChars();
+        }
+    }
+
+    /**
+     * Encodes the characters in {@link #charBuffer}, except a trailing high surrogate, which remains there, as it
+     * might be followed by its low surrogate pair in the next write.
+     */
+    private void encodePendingChars() throws IOException {
+        charBuffer.flip();
+        // Some JDK encoders (like the single-byte ones) return underflow instead of overflow if there's no room in
+        // the output for the replacement of a lone surrogate, so we can't rely on the result alone.
+        while (encoder.encode(charBuffer, byteBuffer, false).isOverflow()
+                || charBuffer.remaining() > 1 && byteBuffer.position() != 0) {
+            flushBuffer();
+        }
+        charBuffer.compact();
+    }
+
+    private void encodePendingCharsAsEndOfInput() throws IOException {
+        if (charBuffer.position() != 0) {
+            // See the similar issue in encodePendingChars
+            flushBuffer();
+        }
+        charBuffer.flip();
+        while (encoder.encode(charBuffer, byteBuffer, true).isOverflow()) {
+            flushBuffer();
+        }
+        CoderResult r;
+        while ((r = encoder.flush(byteBuffer)).isOverflow()) {
+            flushBuffer();
+        }
+        if (!r.isUnderflow()) {
+            throw new BugException("Unexpected encoder flush result: " + r);
+        }
+        encoder.reset();
+        charBuffer.clear();
+    }
+
+    /**
+     * Writes the buffered bytes into the {@link OutputStream}, but unlike {@link #flush()}, it doesn't flush the
+     * {@link OutputStream} itself. A pending high surrogate (the last written character) remains buffered, as it
+     * might be followed by its low surrogate pair.
+     */
+    public void flushBuffer() throws IOException {
+        int ln = byteBuffer.position();
+        if (ln != 0) {
+            out.write(bytes, 0, ln);
+            byteBuffer.clear();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        encodePendingCharsAsEndOfInput();
+        flushBuffer();
+        out.close();
+    }
+
+}
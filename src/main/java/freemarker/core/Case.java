@@ -23,6 +23,7 @@ package freemarker.core;
  * Represents a case in a switch statement.
  */
 final class Case extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     static final int TYPE_CASE = 0;
     static final int TYPE_DEFAULT = 1;
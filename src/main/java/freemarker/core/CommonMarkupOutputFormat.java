@@ -32,6 +32,13 @@ import freemarker.template.TemplateModelException;
 public abstract class CommonMarkupOutputFormat<MO extends CommonTemplateMarkupOutputModel>
         extends MarkupOutputFormat<MO> {
 
+    /**
+     * Above this length {@link #concat(CommonTemplateMarkupOutputModel, CommonTemplateMarkupOutputModel)} doesn't copy
+     * the content into a new {@link String}, but creates a value that just refers to the concatenated values. This is
+     * to avoid quadratic time when markup is gathered piece by piece, like with {@code <#assign html += item>}.
+     */
+    private static final int EAGER_CONCAT_MAX_LENGTH = 128;
+
     protected CommonMarkupOutputFormat() {
         // Only to decrease visibility
     }
@@ -48,6 +55,19 @@ public abstract class CommonMarkupOutputFormat<MO extends CommonTemplateMarkupOu
 
     @Override
     public final void output(MO mo, Writer out) throws IOException, TemplateModelException {
+        if (mo.isConcatenation()) {
+            // We don't flatten here, as then we had to copy all the content one more time:
+            CommonTemplateMarkupOutputModel.LeafIterator it = mo.leafIterator();
+            for (CommonTemplateMarkupOutputModel<?> leaf; (leaf = it.next()) != null; ) {
+                outputNonConcatenation(leaf, out);
+            }
+        } else {
+            outputNonConcatenation(mo, out);
+        }
+    }
+
+    private void outputNonConcatenation(CommonTemplateMarkupOutputModel<?> mo, Writer out)
+            throws IOException, TemplateModelException {
         String mc = mo.getMarkupContent();
         if (mc != null) {
             out.write(mc);
@@ -61,11 +81,13 @@ public abstract class CommonMarkupOutputFormat<MO extends CommonTemplateMarkupOu
     
     @Override
     public final String getSourcePlainText(MO mo) throws TemplateModelException {
+        mo.flatten();
         return mo.getPlainTextContent();
     }
 
     @Override
     public final String getMarkupString(MO mo) throws TemplateModelException {
+        mo.flatten();
         String mc = mo.getMarkupContent();
         if (mc != null) {
             return mc;
@@ -78,6 +100,11 @@ public abstract class CommonMarkupOutputFormat<MO extends CommonTemplateMarkupOu
     
     @Override
     public final MO concat(MO mo1, MO mo2) throws TemplateModelException {
+        if (mo1.isConcatenation() || mo2.isConcatenation()
+                || getContentLength(mo1) + getContentLength(mo2) > EAGER_CONCAT_MAX_LENGTH) {
+            return CommonTemplateMarkupOutputModel.newConcatenation(mo1, mo2);
+        }
+
         String pc1 = mo1.getPlainTextContent();
         String mc1 = mo1.getMarkupContent();
         String pc2 = mo2.getPlainTextContent();
@@ -96,13 +123,24 @@ public abstract class CommonMarkupOutputFormat<MO extends CommonTemplateMarkupOu
         }
     }
     
+    /**
+     * The length of the content, which must not be a concatenation; if both the plain text and the markup is known,
+     * then of the plain text.
+     */
+    private static int getContentLength(CommonTemplateMarkupOutputModel<?> mo) {
+        String pc = mo.getPlainTextContent();
+        return pc != null ? pc.length() : mo.getMarkupContent().length();
+    }
+
     @Override
     public boolean isEmpty(MO mo) throws TemplateModelException {
-        String s = mo.getPlainTextContent();
-        if (s != null) {
-            return s.length() == 0;
+        CommonTemplateMarkupOutputModel.LeafIterator it = mo.leafIterator();
+        for (CommonTemplateMarkupOutputModel<?> leaf; (leaf = it.next()) != null; ) {
+            if (getContentLength(leaf) != 0) {
+                return false;
+            }
         }
-        return mo.getMarkupContent().length() == 0;
+        return true;
     }
     
     @Override
@@ -18,6 +18,10 @@
  */
 package freemarker.core;
 
+import java.util.ArrayList;
+
+import freemarker.template.TemplateModelException;
+
 /**
  * Common superclass for implementing {@link TemplateMarkupOutputModel}-s that belong to a
  * {@link CommonMarkupOutputFormat} subclass format.
@@ -27,13 +31,27 @@ package freemarker.core;
  * be re-calculated for multiple times if accessed from multiple threads (this only affects performance, not
  * functionality).
  * 
+ * <p>
+ * The result of {@link CommonMarkupOutputFormat#concat(CommonTemplateMarkupOutputModel,
+ * CommonTemplateMarkupOutputModel)} may only refer to the concatenated values, instead of storing the concatenated
+ * content. Such a value is only flattened to a single {@link String} when that's really needed, and then the
+ * references to the concatenated values are released.
+ * 
  * @since 2.3.24
  */
 public abstract class CommonTemplateMarkupOutputModel<MO extends CommonTemplateMarkupOutputModel<MO>>
-        implements TemplateMarkupOutputModel<MO> {
+        implements TemplateMarkupOutputModel<MO>, Cloneable {
 
+    /**
+     * Unused if {@link #concatenation} isn't {@code null}, in which case it's just copied from the left operand.
+     */
     private final String plainTextContent;
     private String markupContent;
+    /**
+     * Non-{@code null} if, and only if this value was created by {@link #newConcatenation}. The mutable state needed
+     * for flattening is stored there, so that the content of other values can be final.
+     */
+    private volatile Concatenation concatenation;
 
     /**
      * A least one of the parameters must be non-{@code null}!
@@ -46,16 +64,123 @@ public abstract class CommonTemplateMarkupOutputModel<MO extends CommonTemplateM
     @Override
     public abstract CommonMarkupOutputFormat<MO> getOutputFormat();
 
-    /** Maybe {@code null}, but then {@link #getMarkupContent()} isn't {@code null}. */
+    /**
+     * Maybe {@code null}, but then {@link #getMarkupContent()} isn't {@code null}, unless {@link #isConcatenation()}
+     * returns {@code true}.
+     */
     final String getPlainTextContent() {
-        return plainTextContent;
+        Concatenation concatenation = this.concatenation;
+        return concatenation == null ? plainTextContent : concatenation.plainTextContent;
     }
 
-    /** Maybe {@code null}, but then {@link #getPlainTextContent()} isn't {@code null}. */
+    /**
+     * Maybe {@code null}, but then {@link #getPlainTextContent()} isn't {@code null}, unless
+     * {@link #isConcatenation()} returns {@code true}.
+     */
     final String getMarkupContent() {
         return markupContent;
     }
 
+    /**
+     * Tells if this value is a concatenation that wasn't yet {@linkplain #flatten() flattened}, in which case both
+     * {@link #getPlainTextContent()} and {@link #getMarkupContent()} return {@code null}.
+     */
+    final boolean isConcatenation() {
+        return getOperands() != null;
+    }
+
+    /**
+     * Returns the concatenated values, or {@code null} if this is not a concatenation, or it was already flattened.
+     */
+    private Operands getOperands() {
+        Concatenation concatenation = this.concatenation;
+        return concatenation != null ? concatenation.operands : null;
+    }
+
+    /**
+     * Creates a value that's the concatenation of the two values, without calculating its content. The result is a
+     * clone of {@code left} (with the content replaced), so it has the same class, and is bound to the same
+     * {@link OutputFormat} instance, without calling {@link CommonMarkupOutputFormat#newTemplateMarkupOutputModel}.
+     */
+    static <T extends CommonTemplateMarkupOutputModel<?>> T newConcatenation(
+            T left, CommonTemplateMarkupOutputModel<?> right) {
+        T result;
+        try {
+            // Object.clone() creates an instance of the same class, which is T.
+            @SuppressWarnings("unchecked")
+            T clone = (T) left.clone();
+            result = clone;
+        } catch (CloneNotSupportedException e) {
+            throw new BugException(e);
+        }
+        CommonTemplateMarkupOutputModel<?> resultModel = result; // Private fields aren't accessible through T
+        resultModel.markupContent = null;
+        // Written last, as it's volatile:
+        resultModel.concatenation = new Concatenation(new Operands(left, right));
+        return result;
+    }
+
+    /**
+     * If this value {@linkplain #isConcatenation() is a concatenation}, calculates the content from the concatenated
+     * values, and after that releases them. If all concatenated values store plain text, the result will be plain
+     * text, otherwise it will be markup.
+     */
+    final void flatten() throws TemplateModelException {
+        Concatenation concatenation = this.concatenation;
+        if (concatenation == null) {
+            return;
+        }
+        Operands operands = concatenation.operands;
+        if (operands == null) {
+            return;
+        }
+
+        boolean allPlainText = true;
+        int length = 0;
+        LeafIterator it = new LeafIterator(operands);
+        for (CommonTemplateMarkupOutputModel<?> leaf; (leaf = it.next()) != null; ) {
+            String pc = leaf.getPlainTextContent();
+            if (pc != null) {
+                length += pc.length();
+            } else {
+                allPlainText = false;
+                length += leaf.markupContent.length();
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(allPlainText ? length : length + length / 4);
+        it = new LeafIterator(operands);
+        for (CommonTemplateMarkupOutputModel<?> leaf; (leaf = it.next()) != null; ) {
+            if (allPlainText) {
+                sb.append(leaf.getPlainTextContent());
+            } else {
+                String mc = leaf.markupContent;
+                if (mc == null) {
+                    mc = getOutputFormat().escapePlainText(leaf.getPlainTextContent());
+                    leaf.markupContent = mc;
+                }
+                sb.append(mc);
+            }
+        }
+
+        if (allPlainText) {
+            concatenation.plainTextContent = sb.toString();
+        } else {
+            markupContent = sb.toString();
+        }
+        // Written last, as it's volatile; releases the concatenated values.
+        concatenation.operands = null;
+    }
+
+    /**
+     * Returns an iterator over the non-concatenation values that make up this value, in order. If this value is not
+     * a concatenation, the iterator will only return this value.
+     */
+    final LeafIterator leafIterator() {
+        Operands operands = getOperands();
+        return operands != null ? new LeafIterator(operands) : new LeafIterator(this);
+    }
+
     /**
      * Use only to set the value calculated from {@link #getPlainTextContent()}, when {@link #getMarkupContent()} was
      * still {@code null}!
@@ -73,8 +198,85 @@ public abstract class CommonTemplateMarkupOutputModel<MO extends CommonTemplateM
      */
     @Override
     public String toString() {
+        try {
+            flatten();
+        } catch (TemplateModelException e) {
+            return "markupOutput(format=" + getOutputFormat().getName() + ", concatenation)";
+        }
+        String plainTextContent = getPlainTextContent();
         return "markupOutput(format=" + getOutputFormat().getName() + ", " + (plainTextContent != null ?
             "plainText=" + plainTextContent : "markup=" + markupContent) + ")";
     }
 
+    /**
+     * The state of a value created by {@link #newConcatenation}.
+     */
+    private static final class Concatenation {
+        /**
+         * The concatenated values, or {@code null} after flattening. It's set to {@code null} after the content was
+         * set, so if this was read as {@code null}, the content is visible for the reader thread.
+         */
+        private volatile Operands operands;
+        /**
+         * The content after flattening, if it's plain text; otherwise the markup is stored in
+         * {@link CommonTemplateMarkupOutputModel#markupContent}.
+         */
+        private String plainTextContent;
+
+        private Concatenation(Operands operands) {
+            this.operands = operands;
+        }
+    }
+
+    private static final class Operands {
+        private final CommonTemplateMarkupOutputModel<?> left;
+        private final CommonTemplateMarkupOutputModel<?> right;
+
+        private Operands(CommonTemplateMarkupOutputModel<?> left, CommonTemplateMarkupOutputModel<?> right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Walks the tree of {@link Concatenation}-s without recursion, as a long chain of concatenations (like from
+     * {@code <#assign html += item>} in a loop) would overflow the stack.
+     */
+    static final class LeafIterator {
+        private final ArrayList<CommonTemplateMarkupOutputModel<?>> pendingRights
+                = new ArrayList<CommonTemplateMarkupOutputModel<?>>();
+        private CommonTemplateMarkupOutputModel<?> nextNode;
+
+        private LeafIterator(Operands operands) {
+            pendingRights.add(operands.right);
+            nextNode = operands.left;
+        }
+
+        private LeafIterator(CommonTemplateMarkupOutputModel<?> leaf) {
+            nextNode = leaf;
+        }
+
+        /**
+         * Returns the next value that's not a concatenation, or {@code null} if there are no more.
+         */
+        CommonTemplateMarkupOutputModel<?> next() {
+            CommonTemplateMarkupOutputModel<?> node = nextNode;
+            if (node != null) {
+                nextNode = null;
+            } else {
+                int size = pendingRights.size();
+                if (size == 0) {
+                    return null;
+                }
+                node = pendingRights.remove(size - 1);
+            }
+            Operands operands;
+            while ((operands = node.getOperands()) != null) {
+                pendingRights.add(operands.right);
+                node = operands.left;
+            }
+            return node;
+        }
+    }
+
 }
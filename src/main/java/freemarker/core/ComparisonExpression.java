@@ -25,6 +25,7 @@ import freemarker.template.TemplateException;
  * A class that handles comparisons.
  */
 final class ComparisonExpression extends BooleanExpression {
+    private static final long serialVersionUID = 1L;
 
     private final Expression left;
     private final Expression right;
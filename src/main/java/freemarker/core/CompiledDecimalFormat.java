@@ -0,0 +1,451 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable, and so thread-safe equivalent of a non-exponential {@link DecimalFormat}, which appends the formatted
+ * number to a {@link StringBuilder}. It gives the same output as {@link DecimalFormat#format(Object)}, including its
+ * rounding quirks, as it follows the same algorithm; only the synchronization, the cloning, and the intermediate
+ * objects ({@link StringBuffer}, {@link java.text.FieldPosition}, etc.) are avoided. Not all {@link DecimalFormat}-s
+ * can be compiled; see {@link #compile(DecimalFormat)}.
+ */
+final class CompiledDecimalFormat {
+
+    // DecimalFormat uses these limits when formatting double-s and long-s:
+    private static final int DOUBLE_INTEGER_DIGITS = 309;
+    private static final int DOUBLE_FRACTION_DIGITS = 340;
+
+    private static final char CURRENCY_SIGN = '\u00A4';
+
+    /**
+     * Doubles whose absolute value is less than this, and that have no fractional part, are converted to
+     * {@code long}, without any loss of precision. 
+     */
+    private static final double MAX_EXACT_LONG_DOUBLE = 9007199254740992.0; // 2^53
+
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final int multiplier;
+    private final BigDecimal bigDecimalMultiplier;
+    private final int groupingSize;  // 0 if there's no grouping
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final boolean decimalSeparatorAlwaysShown;
+    private final int minimumIntegerDigits;
+    private final int minimumFractionDigits;
+    private final int maximumFractionDigits;
+    private final int zeroDelta;
+    private final String infinity;
+    private final String nan;
+    private final RoundingMode roundingMode;
+
+    private CompiledDecimalFormat(DecimalFormat df) {
+        DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+        positivePrefix = df.getPositivePrefix();
+        positiveSuffix = df.getPositiveSuffix();
+        negativePrefix = df.getNegativePrefix();
+        negativeSuffix = df.getNegativeSuffix();
+        multiplier = df.getMultiplier();
+        bigDecimalMultiplier = BigDecimal.valueOf(multiplier);
+        groupingSize = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+        groupingSeparator = symbols.getGroupingSeparator();
+        decimalSeparator = symbols.getDecimalSeparator();
+        decimalSeparatorAlwaysShown = df.isDecimalSeparatorAlwaysShown();
+        minimumIntegerDigits = df.getMinimumIntegerDigits();
+        minimumFractionDigits = df.getMinimumFractionDigits();
+        maximumFractionDigits = df.getMaximumFractionDigits();
+        zeroDelta = symbols.getZeroDigit() - '0';
+        infinity = symbols.getInfinity();
+        nan = symbols.getNaN();
+        roundingMode = df.getRoundingMode();
+    }
+
+    /**
+     * Returns the compiled equivalent of the {@link DecimalFormat}, or {@code null} if it uses a feature that's not
+     * supported here. Those are: exponential notation, currency sign in the pattern (as then the monetary separators
+     * are used, which can't be queried on all supported Java versions), limiting the number of integer digits, and
+     * non-positive multiplier.
+     */
+    static CompiledDecimalFormat compile(DecimalFormat df) {
+        // The maximum integer digits is limited for exponential patterns. 
+        if (df.getMaximumIntegerDigits() != Integer.MAX_VALUE
+                || df.getMinimumIntegerDigits() > DOUBLE_INTEGER_DIGITS
+                || df.getMaximumFractionDigits() > DOUBLE_FRACTION_DIGITS
+                || df.getMultiplier() <= 0
+                || df.toPattern().indexOf(CURRENCY_SIGN) != -1) {
+            return null;
+        }
+        return new CompiledDecimalFormat(df);
+    }
+
+    /**
+     * Same as {@link DecimalFormat#format(Object)}, but appends to a {@link StringBuilder}.
+     * 
+     * @throws ArithmeticException
+     *             If the rounding mode is {@link RoundingMode#UNNECESSARY}, but rounding is needed.
+     */
+    void format(Number number, StringBuilder sb) {
+        // Same type dispatching as in DecimalFormat.format(Object, StringBuffer, FieldPosition)
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte
+                || number instanceof AtomicInteger || number instanceof AtomicLong
+                || number instanceof BigInteger && ((BigInteger) number).bitLength() < 64) {
+            format(number.longValue(), sb);
+        } else if (number instanceof BigDecimal) {
+            format((BigDecimal) number, sb);
+        } else if (number instanceof BigInteger) {
+            format(new BigDecimal((BigInteger) number), sb);
+        } else {
+            format(number.doubleValue(), sb);
+        }
+    }
+
+    /**
+     * Same as {@link DecimalFormat#format(long)}, but appends to a {@link StringBuilder}.
+     */
+    void format(long number, StringBuilder sb) {
+        boolean negative = number < 0;
+        if (multiplier != 1) {
+            if (number == Long.MIN_VALUE || Math.abs(number) > Long.MAX_VALUE / multiplier) {
+                format(BigDecimal.valueOf(number), sb);
+                return;
+            }
+            number *= multiplier;
+        } else if (number == Long.MIN_VALUE) {
+            format(BigDecimal.valueOf(number), sb);
+            return;
+        }
+        if (negative) {
+            number = -number;
+        }
+
+        char[] digits = new char[19];
+        int start = digits.length;
+        while (number != 0) {
+            digits[--start] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        int count = digits.length - start;
+        int decimalAt = count;
+        while (count > 0 && digits[start + count - 1] == '0') {
+            count--;
+        }
+        if (start != 0) {
+            System.arraycopy(digits, start, digits, 0, count);
+        }
+        appendFormatted(negative, true, digits, count, decimalAt, sb);
+    }
+
+    /**
+     * Same as {@link DecimalFormat#format(double)}, but appends to a {@link StringBuilder}.
+     * 
+     * @throws ArithmeticException
+     *             If the rounding mode is {@link RoundingMode#UNNECESSARY}, but rounding is needed.
+     */
+    void format(double number, StringBuilder sb) {
+        if (Double.isNaN(number)) {
+            sb.append(nan);
+            return;
+        }
+
+        boolean negative = number < 0.0 || number == 0.0 && 1 / number < 0.0;
+        if (multiplier != 1) {
+            number *= multiplier;
+        }
+        if (Double.isInfinite(number)) {
+            sb.append(negative ? negativePrefix : positivePrefix);
+            sb.append(infinity);
+            sb.append(negative ? negativeSuffix : positiveSuffix);
+            return;
+        }
+        if (negative) {
+            number = -number;
+        }
+
+        if (number < MAX_EXACT_LONG_DOUBLE && number == Math.rint(number)) {
+            // Whole numbers are common, and Double.toString would give their exact value anyway.
+            long longNumber = (long) number;
+            char[] digits = new char[16];
+            int start = digits.length;
+            while (longNumber != 0) {
+                digits[--start] = (char) ('0' + longNumber % 10);
+                longNumber /= 10;
+            }
+            int count = digits.length - start;
+            int decimalAt = count;
+            while (count > 0 && digits[start + count - 1] == '0') {
+                count--;
+            }
+            if (start != 0) {
+                System.arraycopy(digits, start, digits, 0, count);
+            }
+            appendFormatted(negative, false, digits, count, decimalAt, sb);
+            return;
+        }
+
+        appendFormattedDecimalString(negative, Double.toString(number), number, sb);
+    }
+
+    /**
+     * Same as {@link DecimalFormat#format(Object)} with a {@link BigDecimal} argument, but appends to a
+     * {@link StringBuilder}.
+     * 
+     * @throws ArithmeticException
+     *             If the rounding mode is {@link RoundingMode#UNNECESSARY}, but rounding is needed.
+     */
+    void format(BigDecimal number, StringBuilder sb) {
+        if (multiplier != 1) {
+            number = number.multiply(bigDecimalMultiplier);
+        }
+        boolean negative = number.signum() == -1;
+        if (negative) {
+            number = number.negate();
+        }
+        appendFormattedDecimalString(negative, number.toString(), Double.NaN, sb);
+    }
+
+    /**
+     * Parses the decimal string to digits the same way as {@code java.text.DigitList.set}, then rounds and formats
+     * them.
+     * 
+     * @param s
+     *            A non-negative number in the format of {@link Double#toString(double)} or
+     *            {@link BigDecimal#toString()}
+     * @param doubleSource
+     *            The {@code double} that {@code s} was created from, or {@link Double#NaN} if {@code s} is exact.
+     */
+    private void appendFormattedDecimalString(boolean negative, String s, double doubleSource, StringBuilder sb) {
+        int len = s.length();
+        char[] digits = new char[len];
+        int count = 0;
+        int decimalAt = -1;
+        int exponent = 0;
+        int leadingZerosAfterDecimal = 0;
+        boolean nonZeroDigitSeen = false;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                decimalAt = count;
+            } else if (c == 'E' || c == 'e') {
+                exponent = Integer.parseInt(s.substring(i + (s.charAt(i + 1) == '+' ? 2 : 1)));
+                break;
+            } else {
+                if (!nonZeroDigitSeen) {
+                    nonZeroDigitSeen = c != '0';
+                    if (!nonZeroDigitSeen && decimalAt != -1) {
+                        leadingZerosAfterDecimal++;
+                    }
+                }
+                if (nonZeroDigitSeen) {
+                    digits[count++] = c;
+                }
+            }
+        }
+        if (decimalAt == -1) {
+            decimalAt = count;
+        }
+        if (nonZeroDigitSeen) {
+            decimalAt += exponent - leadingZerosAfterDecimal;
+        }
+
+        if (-decimalAt > maximumFractionDigits) {
+            // Even if the rounding mode would round up, DecimalFormat doesn't.
+            count = 0;
+        } else if (-decimalAt == maximumFractionDigits) {
+            // Note that the trailing zeros weren't removed yet, just like in DigitList.
+            if (shouldRoundUp(0, negative, digits, count, s, doubleSource)) {
+                count = 1;
+                decimalAt++;
+                digits[0] = '1';
+            } else {
+                count = 0;
+            }
+        } else {
+            while (count > 1 && digits[count - 1] == '0') {
+                count--;
+            }
+            int maximumDigits = maximumFractionDigits + decimalAt;
+            if (maximumDigits < count) {
+                if (shouldRoundUp(maximumDigits, negative, digits, count, s, doubleSource)) {
+                    while (true) {
+                        maximumDigits--;
+                        if (maximumDigits < 0) {
+                            digits[0] = '1';
+                            decimalAt++;
+                            maximumDigits = 0;
+                            break;
+                        }
+                        digits[maximumDigits]++;
+                        if (digits[maximumDigits] <= '9') {
+                            break;
+                        }
+                    }
+                    maximumDigits++;
+                }
+                count = maximumDigits;
+                while (count > 1 && digits[count - 1] == '0') {
+                    count--;
+                }
+            }
+        }
+
+        appendFormatted(negative, false, digits, count, decimalAt, sb);
+    }
+
+    /**
+     * Same as {@code java.text.DigitList.shouldRoundUp}.
+     */
+    private boolean shouldRoundUp(int maximumDigits, boolean negative, char[] digits, int count,
+            String s, double doubleSource) {
+        if (maximumDigits >= count) {
+            return false;
+        }
+        switch (roundingMode) {
+        case UP:
+            return hasNonZeroDigit(digits, maximumDigits, count);
+        case DOWN:
+            return false;
+        case CEILING:
+            return hasNonZeroDigit(digits, maximumDigits, count) && !negative;
+        case FLOOR:
+            return hasNonZeroDigit(digits, maximumDigits, count) && negative;
+        case HALF_UP:
+        case HALF_DOWN:
+            if (digits[maximumDigits] > '5') {
+                return true;
+            } else if (digits[maximumDigits] == '5') {
+                if (maximumDigits != count - 1) {
+                    return true;
+                }
+                int exactCmp = compareExactToDecimalString(doubleSource, s);
+                return exactCmp == 0 ? roundingMode == RoundingMode.HALF_UP : exactCmp > 0;
+            }
+            return false;
+        case HALF_EVEN:
+            if (digits[maximumDigits] > '5') {
+                return true;
+            } else if (digits[maximumDigits] == '5') {
+                if (maximumDigits == count - 1) {
+                    int exactCmp = compareExactToDecimalString(doubleSource, s);
+                    return exactCmp == 0
+                            ? maximumDigits > 0 && (digits[maximumDigits - 1] - '0') % 2 != 0
+                            : exactCmp > 0;
+                }
+                return hasNonZeroDigit(digits, maximumDigits + 1, count);
+            }
+            return false;
+        case UNNECESSARY:
+            if (hasNonZeroDigit(digits, maximumDigits, count)) {
+                throw new ArithmeticException(
+                        "Rounding needed with the rounding mode being set to RoundingMode.UNNECESSARY");
+            }
+            return false;
+        default:
+            throw new BugException();
+        }
+    }
+
+    private static boolean hasNonZeroDigit(char[] digits, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (digits[i] != '0') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the exact value of the {@code double} to the decimal string that was created from it. As
+     * {@link Double#toString(double)} gives the shortest decimal that identifies the {@code double}, they usually
+     * differ. This only matters when that decimal is exactly halfway between two rounding candidates.
+     * 
+     * @return Negative if the exact value is less, positive if greater, 0 if equal (or if {@code doubleSource} is
+     *         {@link Double#NaN}, which means that {@code s} is exact).
+     */
+    private static int compareExactToDecimalString(double doubleSource, String s) {
+        if (Double.isNaN(doubleSource)) {
+            return 0;
+        }
+        return new BigDecimal(doubleSource).compareTo(new BigDecimal(s));
+    }
+
+    /**
+     * Same as the non-exponential branch of {@code DecimalFormat.subformat}.
+     * 
+     * @param digits
+     *            The significant digits, without leading and trailing zeros.
+     * @param decimalAt
+     *            The position of the decimal point relatively to the first digit in {@code digits}.
+     */
+    private void appendFormatted(boolean negative, boolean integer, char[] digits, int count, int decimalAt,
+            StringBuilder sb) {
+        sb.append(negative ? negativePrefix : positivePrefix);
+
+        int intDigitCount = minimumIntegerDigits;
+        if (decimalAt > 0 && intDigitCount < decimalAt) {
+            intDigitCount = decimalAt;
+        }
+        int digitIndex = 0;
+        int lengthBeforeIntegerPart = sb.length();
+        for (int i = intDigitCount - 1; i >= 0; i--) {
+            if (i < decimalAt && digitIndex < count) {
+                sb.append((char) (digits[digitIndex++] + zeroDelta));
+            } else {
+                sb.append((char) ('0' + zeroDelta));
+            }
+            if (groupingSize != 0 && i > 0 && i % groupingSize == 0) {
+                sb.append(groupingSeparator);
+            }
+        }
+
+        boolean fractionPresent = minimumFractionDigits > 0 || !integer && digitIndex < count;
+        if (!fractionPresent && sb.length() == lengthBeforeIntegerPart) {
+            sb.append((char) ('0' + zeroDelta));
+        }
+        if (decimalSeparatorAlwaysShown || fractionPresent) {
+            sb.append(decimalSeparator);
+        }
+        for (int i = 0; i < maximumFractionDigits; i++) {
+            if (i >= minimumFractionDigits && (integer || digitIndex >= count)) {
+                break;
+            }
+            if (-1 - i > decimalAt - 1) {
+                sb.append((char) ('0' + zeroDelta));
+            } else if (!integer && digitIndex < count) {
+                sb.append((char) (digits[digitIndex++] + zeroDelta));
+            } else {
+                sb.append((char) ('0' + zeroDelta));
+            }
+        }
+
+        sb.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+}
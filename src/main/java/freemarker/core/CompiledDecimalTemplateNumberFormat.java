@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateNumberModel;
+
+/**
+ * A {@link TemplateNumberFormat} that's backed by a {@link CompiledDecimalFormat}; see
+ * {@link CompiledDecimalTemplateNumberFormatFactory}.
+ * 
+ * @since 2.3.32
+ */
+final class CompiledDecimalTemplateNumberFormat extends BackwardCompatibleTemplateNumberFormat {
+
+    private final String formatString;
+    private final CompiledDecimalFormat compiledFormat;
+
+    CompiledDecimalTemplateNumberFormat(CompiledDecimalFormat compiledFormat, String formatString) {
+        this.formatString = formatString;
+        this.compiledFormat = compiledFormat;
+    }
+
+    @Override
+    public String formatToPlainText(TemplateNumberModel numberModel)
+            throws UnformattableValueException, TemplateModelException {
+        return format(TemplateFormatUtil.getNonNullNumber(numberModel));
+    }
+
+    @Override
+    String format(Number number) throws UnformattableValueException {
+        StringBuilder sb = new StringBuilder(16);
+        try {
+            compiledFormat.format(number, sb);
+        } catch (ArithmeticException e) {
+            throw new UnformattableValueException(
+                    "This format can't format the " + number + " number. Reason: " + e.getMessage(), e);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean isLocaleBound() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return formatString;
+    }
+
+}
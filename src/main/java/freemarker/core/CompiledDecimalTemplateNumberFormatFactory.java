@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+
+import freemarker.cache.TinyLfuCacheStorage;
+
+/**
+ * Creates {@link TemplateNumberFormat}-s that accept the same parameters as the default number format factory (the
+ * {@code "number"}, {@code "percent"}, {@code "computer"} aliases, and the extended {@link DecimalFormat} patterns,
+ * as described for {@link Configurable#setNumberFormat(String)}), and give the same output, but format without
+ * cloning and synchronizing on a {@link DecimalFormat} and without its intermediate objects. The patterns are
+ * compiled into an immutable representation, which is cached globally (with least-frequently-used eviction) and
+ * then shared by all threads.
+ * 
+ * <p>
+ * Patterns using exponential notation or the currency sign, and the {@code "currency"} alias, aren't compiled; for
+ * those the factory falls back to the default {@link DecimalFormat}-based implementation.
+ * 
+ * <p>
+ * To use this factory, register it as a custom number format (see
+ * {@link Configurable#setCustomNumberFormats(java.util.Map)}), like with name {@code "decimal"}, and then use it like
+ * {@code number_format="@decimal 0.##"}, or {@code n?string.@decimal_0.00}.
+ * 
+ * @since 2.3.32
+ */
+public final class CompiledDecimalTemplateNumberFormatFactory extends TemplateNumberFormatFactory {
+
+    public static final CompiledDecimalTemplateNumberFormatFactory INSTANCE
+            = new CompiledDecimalTemplateNumberFormatFactory();
+
+    private static final int CACHE_SIZE = 1024;
+
+    /** Maps {@link CacheKey}-s to {@link CompiledDecimalFormat}-s, or to {@link #UNSUPPORTED}. */
+    private final TinyLfuCacheStorage cache = new TinyLfuCacheStorage(CACHE_SIZE);
+
+    private static final Object UNSUPPORTED = new Object();
+
+    private CompiledDecimalTemplateNumberFormatFactory() {
+        // Not meant to be instantiated
+    }
+
+    @Override
+    public TemplateNumberFormat get(String params, Locale locale, Environment env)
+            throws InvalidFormatParametersException {
+        CacheKey cacheKey = new CacheKey(
+                env != null ? env.transformNumberFormatGlobalCacheKey(params) : params,
+                locale);
+        Object cachedValue = cache.get(cacheKey);
+        if (cachedValue == null) {
+            NumberFormat jFormat;
+            if ("number".equals(params)) {
+                jFormat = NumberFormat.getNumberInstance(locale);
+            } else if ("percent".equals(params)) {
+                jFormat = NumberFormat.getPercentInstance(locale);
+            } else if (JavaTemplateNumberFormatFactory.COMPUTER.equals(params)) {
+                jFormat = env.getCNumberFormat();
+            } else if ("currency".equals(params)) {
+                jFormat = null;
+            } else {
+                try {
+                    jFormat = ExtendedDecimalFormatParser.parse(params, locale);
+                } catch (ParseException e) {
+                    String msg = e.getMessage();
+                    throw new InvalidFormatParametersException(
+                            msg != null ? msg : "Invalid DecimalFormat pattern", e);
+                }
+            }
+
+            CompiledDecimalFormat compiledFormat = jFormat instanceof DecimalFormat
+                    ? CompiledDecimalFormat.compile((DecimalFormat) jFormat) : null;
+            cachedValue = compiledFormat != null ? compiledFormat : UNSUPPORTED;
+            cache.put(cacheKey, cachedValue);
+        }
+
+        if (cachedValue == UNSUPPORTED) {
+            return JavaTemplateNumberFormatFactory.INSTANCE.get(params, locale, env);
+        }
+        return new CompiledDecimalTemplateNumberFormat((CompiledDecimalFormat) cachedValue, params);
+    }
+
+    private static final class CacheKey {
+        private final String pattern;
+        private final Locale locale;
+
+        CacheKey(String pattern, Locale locale) {
+            this.pattern = pattern;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof CacheKey) {
+                CacheKey fk = (CacheKey) o;
+                return fk.pattern.equals(pattern) && fk.locale.equals(locale);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return pattern.hashCode() ^ locale.hashCode();
+        }
+    }
+
+}
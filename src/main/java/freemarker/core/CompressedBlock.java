@@ -30,6 +30,7 @@ import freemarker.template.utility.StandardCompress;
  * @see freemarker.template.utility.StandardCompress
  */
 final class CompressedBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     CompressedBlock(TemplateElements children) { 
         setChildren(children);
@@ -29,6 +29,7 @@ import freemarker.template.TemplateException;
  */
 
 final class ConditionalBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     static final int TYPE_IF = 0;
     static final int TYPE_ELSE = 1;
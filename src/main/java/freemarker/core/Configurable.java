@@ -503,7 +503,55 @@ public class Configurable {
         properties = new Properties(parent.properties);
         customAttributes = new HashMap<>(0);
     }
-    
+
+    /**
+     * Brings back this non-top-level {@link Configurable} to the state it had right after
+     * {@link #Configurable(Configurable)}, where all settings are inherited, and there are no custom attributes. Used
+     * when the {@link Environment} is reused. Keep this in sync with the fields!
+     */
+    void resetToInheritAll(Configurable parent) {
+        if (parent != this.parent || !properties.isEmpty()) {
+            properties = new Properties(parent.properties);
+        }
+        this.parent = parent;
+        customAttributes.clear();
+
+        locale = null;
+        numberFormat = null;
+        timeFormat = null;
+        dateFormat = null;
+        dateTimeFormat = null;
+        timeZone = null;
+        sqlDataAndTimeTimeZone = null;
+        sqlDataAndTimeTimeZoneSet = false;
+        booleanFormat = null;
+        trueStringValue = null;
+        falseStringValue = null;
+        classicCompatible = null;
+        templateExceptionHandler = null;
+        attemptExceptionReporter = null;
+        arithmeticEngine = null;
+        objectWrapper = null;
+        outputEncoding = null;
+        outputEncodingSet = false;
+        urlEscapingCharset = null;
+        urlEscapingCharsetSet = false;
+        autoFlush = null;
+        showErrorTips = null;
+        newBuiltinClassResolver = null;
+        apiBuiltinEnabled = null;
+        truncateBuiltinAlgorithm = null;
+        logTemplateExceptions = null;
+        wrapUncheckedExceptions = null;
+        customDateFormats = null;
+        customNumberFormats = null;
+        autoImports = null;
+        autoIncludes = null;
+        lazyImports = null;
+        lazyAutoImports = null;
+        lazyAutoImportsSet = false;
+    }
+
     @Override
     protected Object clone() throws CloneNotSupportedException {
         Configurable copy = (Configurable) super.clone();
@@ -2445,6 +2493,13 @@ public class Configurable {
      *       <p>The value is not case sensitive. The order of <tt>soft</tt> and <tt>strong</tt>
      *       entries is not significant.
      *       
+     *       <p>Since 2.3.32, if the value is like {@code "tiny_lfu:500"}, then a
+     *       {@link freemarker.cache.TinyLfuCacheStorage} will be used, that holds at most 500 templates,
+     *       and if the value is like {@code "tiny_lfu_bytes:50000000"}, then the same will be used with
+     *       an estimated total template size limit of 50000000 bytes.
+     *       These can't be combined with the <tt>soft</tt> and <tt>strong</tt> entries, and unlike for
+     *       those, the size can't be omitted.
+     *       
      *   <li><p>{@code "template_update_delay"}:
      *       Template update delay in <b>seconds</b> (not in milliseconds) if no unit is specified; see
      *       {@link Configuration#setTemplateUpdateDelayMilliseconds(long)} for more.
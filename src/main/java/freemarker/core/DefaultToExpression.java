@@ -32,6 +32,7 @@ import freemarker.template.utility.Constants;
 
 /** {@code exp!defExp}, {@code (exp)!defExp} and the same two with {@code (exp)!}. */
 class DefaultToExpression extends Expression {
+    private static final long serialVersionUID = 1L;
 	
     private static final TemplateCollectionModel EMPTY_COLLECTION = new SimpleCollection(new java.util.ArrayList(0));
     
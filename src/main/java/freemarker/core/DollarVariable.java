@@ -23,7 +23,10 @@ import java.io.IOException;
 import java.io.Writer;
 
 import freemarker.template.Configuration;
+import freemarker.template.TemplateDateModel;
 import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateNumberModel;
 import freemarker.template.utility.StringUtil;
 
 /**
@@ -33,6 +36,7 @@ import freemarker.template.utility.StringUtil;
  * @see NumericalOutput
  */
 final class DollarVariable extends Interpolation {
+    private static final long serialVersionUID = 1L;
 
     private final Expression expression;
     
@@ -60,8 +64,20 @@ final class DollarVariable extends Interpolation {
      */
     @Override
     TemplateElement[] accept(Environment env) throws TemplateException, IOException {
-        final Object moOrStr = calculateInterpolatedStringOrMarkup(env);
         final Writer out = env.getOut();
+        final Object moOrStr;
+        final Object strOrModel = evalToStringOrModel(env);
+        if (strOrModel instanceof String) {
+            moOrStr = strOrModel;
+        } else {
+            TemplateModel tm = (TemplateModel) strOrModel;
+            // Numbers take precedence over dates in coerceModelToStringOrMarkup, so the same must be true here.
+            if (tm instanceof TemplateDateModel && !(tm instanceof TemplateNumberModel)
+                    && writeDateDirectly((TemplateDateModel) tm, out, env)) {
+                return null;
+            }
+            moOrStr = EvalUtil.coerceModelToStringOrMarkup(tm, escapedExpression, null, env);
+        }
         if (moOrStr instanceof String) {
             final String s = (String) moOrStr;
             if (autoEscape) {
@@ -95,9 +111,52 @@ final class DollarVariable extends Interpolation {
         return null;
     }
 
+    /**
+     * Prints the date with a {@link WriterTemplateDateFormat}, if the current format is such, and its output needn't
+     * be escaped.
+     * 
+     * @return Whether the date was printed; if {@code false}, nothing was written.
+     */
+    private boolean writeDateDirectly(TemplateDateModel tdm, Writer out, Environment env)
+            throws TemplateException, IOException {
+        TemplateDateFormat format = env.getTemplateDateFormat(tdm, escapedExpression, false);
+        if (!(format instanceof WriterTemplateDateFormat)) {
+            return false;
+        }
+        WriterTemplateDateFormat writerFormat = (WriterTemplateDateFormat) format;
+        if (autoEscape && !writerFormat.isUnaffectedByEscaping(markupOutputFormat)) {
+            return false;
+        }
+        try {
+            writerFormat.formatToWriter(tdm, out);
+        } catch (TemplateValueFormatException e) {
+            throw _MessageUtil.newCantFormatDateException(format, escapedExpression, e, false);
+        }
+        return true;
+    }
+
     @Override
     protected Object calculateInterpolatedStringOrMarkup(Environment env) throws TemplateException {
-        return EvalUtil.coerceModelToStringOrMarkup(escapedExpression.eval(env), escapedExpression, null, env);
+        Object strOrModel = evalToStringOrModel(env);
+        if (strOrModel instanceof String) {
+            return strOrModel;
+        }
+        return EvalUtil.coerceModelToStringOrMarkup((TemplateModel) strOrModel, escapedExpression, null, env);
+    }
+
+    /**
+     * Evaluates the (possibly auto-escaped) expression, but unlike {@link #calculateInterpolatedStringOrMarkup}, it
+     * doesn't convert the result to string or markup yet.
+     * 
+     * @return A {@link String}, or a {@link TemplateModel}.
+     */
+    private Object evalToStringOrModel(Environment env) throws TemplateException {
+        if (escapedExpression == expression) { // No #escape
+            Object rawValueOrModel = expression.evalToRawValueOrModel(env);
+            return rawValueOrModel instanceof String
+                    ? rawValueOrModel : EvalUtil.rawValueOrModelToModel(rawValueOrModel);
+        }
+        return escapedExpression.eval(env);
     }
 
     @Override
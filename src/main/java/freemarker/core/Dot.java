@@ -19,6 +19,8 @@
 
 package freemarker.core;
 
+import freemarker.ext.beans.BeanModel;
+import freemarker.ext.beans._BeanMemberInlineCache;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateHashModel;
 import freemarker.template.TemplateModel;
@@ -28,8 +30,12 @@ import freemarker.template.TemplateModel;
  * <code>TemplateHashModel</code>.
  */
 final class Dot extends Expression {
+    private static final long serialVersionUID = 1L;
+
     private final Expression target;
     private final String key;
+    /** Created on demand, when the target is first evaluated to a suitable {@link BeanModel}. */
+    private transient _BeanMemberInlineCache memberInlineCache;
 
     Dot(Expression target, String key) {
         this.target = target;
@@ -38,8 +44,26 @@ final class Dot extends Expression {
 
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
+        return evalOnTargetValue(target.eval(env), env);
+    }
+
+    @Override
+    Object _evalToRawValueOrModel(Environment env) throws TemplateException {
         TemplateModel leftModel = target.eval(env);
+        if (leftModel instanceof _RawValueHashModel) {
+            return ((_RawValueHashModel) leftModel).getRawValueOrModel(key);
+        }
+        return evalOnTargetValue(leftModel, env);
+    }
+
+    /**
+     * Evaluates this expression, with the value of the target expression already known.
+     */
+    TemplateModel evalOnTargetValue(TemplateModel leftModel, Environment env) throws TemplateException {
         if (leftModel instanceof TemplateHashModel) {
+            if (_BeanMemberInlineCache.isApplicable(leftModel)) {
+                return getMemberInlineCache().get((BeanModel) leftModel);
+            }
             return ((TemplateHashModel) leftModel).get(key);
         }
         if (leftModel == null && env.isClassicCompatible()) {
@@ -86,6 +110,24 @@ final class Dot extends Expression {
         return ParameterRole.forBinaryOperatorOperand(idx);
     }
     
+    /**
+     * Can only be used for {@link BeanModel}-s for which {@link _BeanMemberInlineCache#isApplicable(TemplateModel)}
+     * returns {@code true}.
+     */
+    _BeanMemberInlineCache getMemberInlineCache() {
+        _BeanMemberInlineCache memberInlineCache = this.memberInlineCache;
+        if (memberInlineCache == null) {
+            // Multiple threads might create their own instance; that's harmless.
+            memberInlineCache = new _BeanMemberInlineCache(key);
+            this.memberInlineCache = memberInlineCache;
+        }
+        return memberInlineCache;
+    }
+
+    Expression getTarget() {
+        return target;
+    }
+
     String getRHO() {
         return key;
     }
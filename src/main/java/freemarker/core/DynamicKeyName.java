@@ -42,6 +42,7 @@ import freemarker.template.utility.Constants;
  * and {@code target} can be a hash or a sequence.
  */
 final class DynamicKeyName extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private static final int UNKNOWN_RESULT_SIZE = -1;
 
@@ -58,6 +59,15 @@ final class DynamicKeyName extends Expression {
 
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
+        return (TemplateModel) evalMaybeToRawValue(env, false);
+    }
+
+    @Override
+    Object _evalToRawValueOrModel(Environment env) throws TemplateException {
+        return evalMaybeToRawValue(env, true);
+    }
+
+    private Object evalMaybeToRawValue(Environment env, boolean rawValueAllowed) throws TemplateException {
         TemplateModel targetModel = target.eval(env);
         if (targetModel == null) {
             if (env.isClassicCompatible()) {
@@ -77,10 +87,16 @@ final class DynamicKeyName extends Expression {
         }
         if (keyModel instanceof TemplateNumberModel) {
             int index = keyExpression.modelToNumber(keyModel, env).intValue();
+            if (rawValueAllowed && targetModel instanceof _RawValueSequenceModel) {
+                return ((_RawValueSequenceModel) targetModel).getRawValueOrModel(index);
+            }
             return dealWithNumericalKey(targetModel, index, env);
         }
         if (keyModel instanceof TemplateScalarModel) {
             String key = EvalUtil.modelToString((TemplateScalarModel) keyModel, keyExpression, env);
+            if (rawValueAllowed && targetModel instanceof _RawValueHashModel) {
+                return ((_RawValueHashModel) targetModel).getRawValueOrModel(key);
+            }
             return dealWithStringKey(targetModel, key, env);
         }
         if (keyModel instanceof RangeModel) {
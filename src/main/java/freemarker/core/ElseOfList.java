@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * #else element that belongs to a #list, not to an #if.
  */
 final class ElseOfList extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     ElseOfList(TemplateElements children) {
         setChildren(children);
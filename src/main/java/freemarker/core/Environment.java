@@ -30,6 +30,7 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -76,6 +77,7 @@ import freemarker.template.Version;
 import freemarker.template._TemplateAPI;
 import freemarker.template.utility.DateUtil;
 import freemarker.template.utility.DateUtil.DateToISO8601CalendarFactory;
+import freemarker.template.utility.NullArgumentException;
 import freemarker.template.utility.NullWriter;
 import freemarker.template.utility.StringUtil;
 import freemarker.template.utility.TemplateModelUtils;
@@ -127,7 +129,7 @@ public final class Environment extends Configurable {
 
     private final Configuration configuration;
     private final boolean incompatibleImprovementsGE2328;
-    private final TemplateHashModel rootDataModel;
+    private TemplateHashModel rootDataModel;
     private TemplateElement[] instructionStack = new TemplateElement[16];
     private int instructionStackSize = 0;
     private final ArrayList recoveredErrorStack = new ArrayList();
@@ -178,7 +180,7 @@ public final class Environment extends Configurable {
     private Writer out;
     private Macro.Context currentMacroContext;
     private LocalContextStack localContextStack;
-    private final Namespace mainNamespace;
+    private Namespace mainNamespace;
     private Namespace currentNamespace, globalNamespace;
     private HashMap<String, Namespace> loadedLibs;
     private Configurable legacyParent;
@@ -200,6 +202,8 @@ public final class Environment extends Configurable {
 
     private boolean fastInvalidReferenceExceptions;
 
+    private boolean processing;
+
     /**
      * Retrieves the environment object associated with the current thread, or {@code null} if there's no template
      * processing going on in this thread. Data model implementations that need access to the environment can call this
@@ -318,6 +322,7 @@ public final class Environment extends Configurable {
     public void process() throws TemplateException, IOException {
         Object savedEnv = threadEnv.get();
         threadEnv.set(this);
+        processing = true;
         try {
             // Cached values from a previous execution are possibly outdated.
             clearCachedValues();
@@ -333,10 +338,92 @@ public final class Environment extends Configurable {
                 clearCachedValues();
             }
         } finally {
+            processing = false;
             threadEnv.set(savedEnv);
         }
     }
 
+    /**
+     * Brings this {@link Environment} into the same state as if it was newly created for the given template, data
+     * model, and {@link Writer}, so that {@link #process()} can be called again. This is useful when rendering
+     * templates in a high rate, as it spares allocating the {@link Environment} and its internal data structures
+     * (like the instruction stack, and the local context stack) again for each rendering. The typical usage is that a
+     * thread keeps reusing the same {@link Environment}, creating it only for its first rendering.
+     * 
+     * <p>Nothing that was set on this {@link Environment} survives this call, and it's not observable if the
+     * {@link Environment} was reused, or created with {@link Template#createProcessingEnvironment(Object, Writer)}.
+     * In particular, all settings set on the {@link Environment} (by {@code #setting}, or via the Java API), the
+     * custom attributes, the custom state variables, the variables (global, or in any namespace), and the loaded
+     * libraries are discarded.
+     * 
+     * <p>The {@link Environment} must not be reset while it's processing, and after the reset, the values that were
+     * got from it earlier (like namespaces, or {@link Environment#getCurrentEnvironment()}) mustn't be used anymore.
+     * Like {@link Environment} in general, this is not thread safe.
+     * 
+     * @param template
+     *            The template to process; must belong to the same {@link Configuration} as the template for which this
+     *            environment was originally created.
+     * @param rootDataModel
+     *            See {@link #Environment(Template, TemplateHashModel, Writer)}; see
+     *            {@link Template#createProcessingEnvironment(Object, Writer, ObjectWrapper, Environment)} if you have
+     *            a data model that's not a {@link TemplateHashModel}.
+     * @param out
+     *            See {@link #Environment(Template, TemplateHashModel, Writer)}
+     * 
+     * @throws IllegalStateException
+     *             If this method is called while {@link #process()} is running.
+     * @throws IllegalArgumentException
+     *             If the template belongs to a different {@link Configuration}.
+     * 
+     * @since 2.3.32
+     */
+    public void reset(Template template, TemplateHashModel rootDataModel, Writer out) {
+        NullArgumentException.check("template", template);
+        if (processing) {
+            throw new IllegalStateException("Can't reset the Environment while it's processing a template.");
+        }
+        if (template.getConfiguration() != configuration) {
+            throw new IllegalArgumentException(
+                    "The template belongs to a different Configuration than the one the Environment was created with.");
+        }
+
+        resetToInheritAll(template);
+        legacyParent = null;
+
+        this.rootDataModel = rootDataModel;
+        this.out = out;
+
+        Arrays.fill(instructionStack, null);
+        instructionStackSize = 0;
+        recoveredErrorStack.clear();
+        currentMacroContext = null;
+        if (localContextStack != null) {
+            localContextStack.clear();
+        }
+
+        clearCachedValues();
+        cachedSQLDateAndTimeTimeZoneSameAsNormal = null;
+        // cNumberFormat and isoBuiltInCalendarFactory only depend on the Configuration, so we keep them.
+
+        globalNamespace = new Namespace(null);
+        currentNamespace = mainNamespace = new Namespace(template);
+        loadedLibs = null;
+        macroToNamespaceLookup.clear();
+
+        inAttemptBlock = false;
+        lastThrowable = null;
+        lastReturnValue = null;
+        currentVisitorNode = null;
+        nodeNamespaces = null;
+        nodeNamespaceIndex = 0;
+        currentNodeName = null;
+        currentNodeNS = null;
+        fastInvalidReferenceExceptions = false;
+        customStateVariables = null;
+
+        importMacros(template);
+    }
+
     /**
      * "Visit" the template element.
      */
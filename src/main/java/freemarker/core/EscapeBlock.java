@@ -28,6 +28,7 @@ import freemarker.template.TemplateException;
  * Representation of the compile-time #escape directive.
  */
 class EscapeBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final String variable;
     private final Expression expr;
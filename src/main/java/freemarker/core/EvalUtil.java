@@ -24,6 +24,8 @@ import java.util.Date;
 
 import freemarker.ext.beans.BeanModel;
 import freemarker.ext.beans._BeansAPI;
+import freemarker.template.SimpleNumber;
+import freemarker.template.SimpleScalar;
 import freemarker.template.TemplateBooleanModel;
 import freemarker.template.TemplateCollectionModel;
 import freemarker.template.TemplateDateModel;
@@ -110,6 +112,33 @@ class EvalUtil {
             Expression rightExp,
             Expression defaultBlamed,
             Environment env) throws TemplateException {
+        if (env != null) {
+            Object leftValue = leftExp.evalToRawValueOrModel(env);
+            Object rightValue = rightExp.evalToRawValueOrModel(env);
+            if (leftValue instanceof String || leftValue instanceof Number
+                    || rightValue instanceof String || rightValue instanceof Number) {
+                Object leftRawValue = simpleModelToRawValue(leftValue);
+                Object rightRawValue = simpleModelToRawValue(rightValue);
+                if (leftRawValue instanceof Number && rightRawValue instanceof Number) {
+                    return cmpResultToBoolean(operator, compareNumbers(
+                            (Number) leftRawValue, (Number) rightRawValue, env.getArithmeticEngine(),
+                            defaultBlamed, env));
+                }
+                if (leftRawValue instanceof String && rightRawValue instanceof String
+                        && (operator == CMP_OP_EQUALS || operator == CMP_OP_NOT_EQUALS)) {
+                    return cmpResultToBoolean(operator,
+                            compareStrings((String) leftRawValue, (String) rightRawValue, env));
+                }
+            }
+            return compare(
+                    rawValueOrModelToModel(leftValue), leftExp,
+                    operator, operatorString,
+                    rawValueOrModelToModel(rightValue), rightExp,
+                    defaultBlamed, false,
+                    false, false, false,
+                    env);
+        }
+
         TemplateModel ltm = leftExp.eval(env);
         TemplateModel rtm = rightExp.eval(env);
         return compare(
@@ -120,6 +149,34 @@ class EvalUtil {
                 false, false, false,
                 env);
     }
+
+    /**
+     * Converts the return value of {@link Expression#evalToRawValueOrModel(Environment)} to {@link TemplateModel}.
+     */
+    static TemplateModel rawValueOrModelToModel(Object rawValueOrModel) {
+        if (rawValueOrModel instanceof String) {
+            return new SimpleScalar((String) rawValueOrModel);
+        }
+        if (rawValueOrModel instanceof Number) {
+            return new SimpleNumber((Number) rawValueOrModel);
+        }
+        return (TemplateModel) rawValueOrModel;
+    }
+
+    /**
+     * Returns the {@link String} or {@link Number} that a {@link SimpleScalar} or {@link SimpleNumber} stores, or else
+     * returns the argument as is. The wrapped value of other {@link TemplateModel}-s is not returned, as those can
+     * implement multiple types, which the comparison rules must consider.
+     */
+    private static Object simpleModelToRawValue(Object rawValueOrModel) {
+        if (rawValueOrModel instanceof SimpleScalar) {
+            return ((SimpleScalar) rawValueOrModel).getAsString();
+        }
+        if (rawValueOrModel instanceof SimpleNumber) {
+            return ((SimpleNumber) rawValueOrModel).getAsNumber();
+        }
+        return rawValueOrModel;
+    }
     
     /**
      * Compares values according the rules of the FTL comparator operators; if the {@link Expression}-s are
@@ -231,12 +288,7 @@ class EvalUtil {
                         : (leftExp != null
                             ? leftExp.getTemplate().getArithmeticEngine()
                             : ArithmeticEngine.BIGDECIMAL_ENGINE);
-            try {
-                cmpResult = ae.compareNumbers(leftNum, rightNum);
-            } catch (RuntimeException e) {
-                throw new _MiscTemplateException(defaultBlamed, e, env, new Object[]
-                        { "Unexpected error while comparing two numbers: ", e });
-            }
+            cmpResult = compareNumbers(leftNum, rightNum, ae, defaultBlamed, env);
         } else if (leftValue instanceof TemplateDateModel && rightValue instanceof TemplateDateModel) {
             TemplateDateModel leftDateModel = (TemplateDateModel) leftValue;
             TemplateDateModel rightDateModel = (TemplateDateModel) rightValue;
@@ -277,8 +329,7 @@ class EvalUtil {
             }
             String leftString = EvalUtil.modelToString((TemplateScalarModel) leftValue, leftExp, env);
             String rightString = EvalUtil.modelToString((TemplateScalarModel) rightValue, rightExp, env);
-            // FIXME NBC: Don't use the Collator here. That's locale-specific, but ==/!= should not be.
-            cmpResult = env.getCollator().compare(leftString, rightString);
+            cmpResult = compareStrings(leftString, rightString, env);
         } else if (leftValue instanceof TemplateBooleanModel && rightValue instanceof TemplateBooleanModel) {
             if (operator != CMP_OP_EQUALS && operator != CMP_OP_NOT_EQUALS) {
                 throw new _MiscTemplateException(defaultBlamed, env,
@@ -316,6 +367,29 @@ class EvalUtil {
                     ".");
         }
 
+        return cmpResultToBoolean(operator, cmpResult);
+    }
+
+    private static int compareNumbers(
+            Number leftNum, Number rightNum, ArithmeticEngine ae, Expression defaultBlamed, Environment env)
+            throws TemplateException {
+        try {
+            return ae.compareNumbers(leftNum, rightNum);
+        } catch (RuntimeException e) {
+            throw new _MiscTemplateException(defaultBlamed, e, env, new Object[]
+                    { "Unexpected error while comparing two numbers: ", e });
+        }
+    }
+
+    /**
+     * Compares two strings for the {@code ==} and {@code !=} operators.
+     */
+    private static int compareStrings(String leftString, String rightString, Environment env) {
+        // FIXME NBC: Don't use the Collator here. That's locale-specific, but ==/!= should not be.
+        return env.getCollator().compare(leftString, rightString);
+    }
+
+    private static boolean cmpResultToBoolean(int operator, int cmpResult) {
         switch (operator) {
             case CMP_OP_EQUALS: return cmpResult == 0;
             case CMP_OP_NOT_EQUALS: return cmpResult != 0;
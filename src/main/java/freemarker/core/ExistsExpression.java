@@ -26,6 +26,7 @@ import freemarker.template.TemplateModel;
 
 /** {@code exp??} and {@code (exp)??} */
 class ExistsExpression extends Expression {
+    private static final long serialVersionUID = 1L;
 	
 	protected final Expression exp;
 	
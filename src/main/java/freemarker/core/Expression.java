@@ -42,6 +42,7 @@ import freemarker.template.utility.UndeclaredThrowableException;
  */
 @Deprecated
 abstract public class Expression extends TemplateObject {
+    private static final long serialVersionUID = 1L;
 
     /**
      * @param env might be {@code null}, if this kind of expression can be evaluated during parsing (as opposed to
@@ -52,15 +53,20 @@ abstract public class Expression extends TemplateObject {
     abstract boolean isLiteral();
 
     // Used to store a constant return value for this expression. Only if it
-    // is possible, of course.
+    // is possible, of course. It's not serialized, as the value is not necessarily serializable, but it's
+    // recalculated when the expression is deserialized.
     
-    TemplateModel constantValue;
+    transient TemplateModel constantValue;
 
     // Hook in here to set the constant value if possible.
     
     @Override
     final void setLocation(Template template, int beginColumn, int beginLine, int endColumn, int endLine) {
         super.setLocation(template, beginColumn, beginLine, endColumn, endLine);
+        calculateConstantValue();
+    }
+
+    private void calculateConstantValue() {
         if (isLiteral()) {
             try {
                 constantValue = _eval(null);
@@ -70,6 +76,15 @@ abstract public class Expression extends TemplateObject {
         }
     }
 
+    /**
+     * Called by the Java deserialization after the fields of this object (and of the objects it refers to) were
+     * restored.
+     */
+    Object readResolve() {
+        calculateConstantValue();
+        return this;
+    }
+
     /**
      * @deprecated At the moment FreeMarker has no API for this with backward-compatibility promises.
      */
@@ -102,14 +117,45 @@ abstract public class Expression extends TemplateObject {
         } catch (FlowControlException | TemplateException e) {
             throw e;
         } catch (Exception e) {
-            if (env != null && EvalUtil.shouldWrapUncheckedException(e, env)) {
-                throw new _MiscTemplateException(
-                        this, e, env, "Expression has thrown an unchecked exception; see the cause exception.");
-            } else if (e instanceof RuntimeException) {
-                throw (RuntimeException) e;
-            } else {
-                throw new UndeclaredThrowableException(e);
-            }
+            throw wrapUncheckedException(e, env);
+        }
+    }
+
+    /**
+     * Like {@link #eval(Environment)}, but if the value was read from a {@link _RawValueHashModel} or
+     * {@link _RawValueSequenceModel}, it may return the {@link String} or {@link Number} value itself, instead of a
+     * {@link TemplateModel} that wraps it. This is for places that only need the value itself, and so can spare
+     * creating the {@link TemplateModel}; see {@link EvalUtil#rawValueOrModelToModel(Object)} for the other cases.
+     */
+    final Object evalToRawValueOrModel(Environment env) throws TemplateException {
+        try {
+            return constantValue != null ? constantValue : _evalToRawValueOrModel(env);
+        } catch (FlowControlException | TemplateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw wrapUncheckedException(e, env);
+        }
+    }
+
+    /**
+     * Override this for expressions that can return raw values; see {@link #evalToRawValueOrModel(Environment)}.
+     */
+    Object _evalToRawValueOrModel(Environment env) throws TemplateException {
+        return _eval(env);
+    }
+
+    /**
+     * Returns the {@link TemplateException} to throw instead of an unchecked exception thrown during evaluation, or
+     * rethrows the unchecked exception, if it shouldn't be wrapped.
+     */
+    private TemplateException wrapUncheckedException(Exception e, Environment env) {
+        if (env != null && EvalUtil.shouldWrapUncheckedException(e, env)) {
+            return new _MiscTemplateException(
+                    this, e, env, "Expression has thrown an unchecked exception; see the cause exception.");
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else {
+            throw new UndeclaredThrowableException(e);
         }
     }
     
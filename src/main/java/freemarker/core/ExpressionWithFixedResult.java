@@ -26,6 +26,8 @@ import freemarker.template.TemplateModel;
  * Mimics an expression (the "source expression"), but returns the predefined "fixed result" whenever it's evaluated.
  */
 class ExpressionWithFixedResult extends Expression {
+    private static final long serialVersionUID = 1L;
+
     private final TemplateModel fixedResult;
     private final Expression sourceExpression;
 
@@ -24,6 +24,7 @@ import java.io.IOException;
 import freemarker.template.TemplateException;
 
 final class FallbackInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     @Override
     TemplateElement[] accept(Environment env) throws IOException, TemplateException {
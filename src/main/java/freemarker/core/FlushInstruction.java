@@ -25,6 +25,7 @@ import java.io.IOException;
  * An instruction that flushes the output stream.
  */
 final class FlushInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     @Override
     TemplateElement[] accept(Environment env) throws IOException {
@@ -35,6 +35,7 @@ import freemarker.template._TemplateAPI;
 
 @SuppressWarnings("deprecation")
 final class HashLiteral extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private final List<? extends Expression> keys, values;
     private final int size;
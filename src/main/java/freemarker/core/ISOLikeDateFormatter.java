@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.TimeZone;
+
+import freemarker.template.utility.DateUtil;
+
+/**
+ * Formats to the ISO 8601 or XML Schema format, with the same output as
+ * {@link DateUtil#dateToISO8601String(Date, boolean, boolean, boolean, int, TimeZone,
+ * DateUtil.DateToISO8601CalendarFactory)} and {@link DateUtil#dateToXSString(Date, boolean, boolean, boolean, int,
+ * TimeZone, DateUtil.DateToISO8601CalendarFactory)}, but without a {@link java.util.GregorianCalendar} and without
+ * allocating objects (unless the result has to be a {@link String}). The calendar fields are calculated
+ * arithmetically (proleptic Gregorian calendar, just like in {@link DateUtil}), and the time zone offset is looked up
+ * only once per UTC day, if the offset doesn't change during that day.
+ * 
+ * <p>
+ * Not thread-safe, as it reuses its internal buffer and offset cache; use one instance per {@link Environment}.
+ */
+final class ISOLikeDateFormatter {
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    /** Days from 0000-03-01 to 1970-01-01 */
+    private static final long DAYS_0000_03_01_TO_1970_01_01 = 719468;
+    private static final long DAYS_PER_400_YEARS = 146097;
+
+    private final boolean datePart;
+    private final boolean timePart;
+    private final boolean offsetPart;
+    private final int accuracy;
+    private final TimeZone timeZone;
+    private final boolean xsMode;
+    private final boolean utc;
+
+    /** The longest output is like "-292275056-12-31T23:59:59.999+00:00:00". */
+    private final char[] buf = new char[40];
+
+    // The time zone offset valid for the whole [offsetCacheStart, offsetCacheEnd) interval:
+    private long offsetCacheStart;
+    private long offsetCacheEnd;
+    private int cachedOffset;
+
+    /**
+     * See the parameters of {@link DateUtil#dateToISO8601String(Date, boolean, boolean, boolean, int, TimeZone,
+     * DateUtil.DateToISO8601CalendarFactory)}.
+     */
+    ISOLikeDateFormatter(
+            boolean datePart, boolean timePart, boolean offsetPart,
+            int accuracy,
+            TimeZone timeZone, boolean xsMode) {
+        if (!xsMode && !timePart && offsetPart) {
+            throw new IllegalArgumentException(
+                    "ISO 8601:2004 doesn't specify any formats where the "
+                    + "offset is shown but the time isn't.");
+        }
+        this.datePart = datePart;
+        this.timePart = timePart;
+        this.offsetPart = offsetPart;
+        this.accuracy = accuracy;
+        this.timeZone = timeZone != null ? timeZone : DateUtil.UTC;
+        this.xsMode = xsMode;
+        this.utc = this.timeZone == DateUtil.UTC;
+    }
+
+    String format(Date date) {
+        return new String(buf, 0, formatToBuffer(date.getTime()));
+    }
+
+    void format(Date date, Writer out) throws IOException {
+        out.write(buf, 0, formatToBuffer(date.getTime()));
+    }
+
+    /**
+     * @return The length of the output in {@link #buf}.
+     */
+    private int formatToBuffer(long millis) {
+        int offset = utc ? 0 : getOffset(millis);
+
+        long days = floorDiv(millis, MILLIS_PER_DAY);
+        long millisOfDay = millis - days * MILLIS_PER_DAY + offset;
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLIS_PER_DAY;
+        } else if (millisOfDay >= MILLIS_PER_DAY) {
+            days++;
+            millisOfDay -= MILLIS_PER_DAY;
+        }
+
+        char[] buf = this.buf;
+        int dstIdx = 0;
+
+        if (datePart) {
+            // Converting days since epoch to proleptic Gregorian year/month/day, where years start at March 1, so
+            // that the leap day is at the end of the year. 
+            long z = days + DAYS_0000_03_01_TO_1970_01_01;
+            long era = floorDiv(z, DAYS_PER_400_YEARS);
+            int dayOfEra = (int) (z - era * DAYS_PER_400_YEARS);  // [0, 146096]
+            int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;  // [0, 399]
+            int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);  // [0, 365]
+            int shiftedMonth = (5 * dayOfYear + 2) / 153;  // [0, 11], 0 is March
+            int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+            int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+            long year = era * 400 + yearOfEra + (month <= 2 ? 1 : 0);  // 0 is 1 BC
+
+            if (year <= 0 && xsMode) {
+                year--;  // XML Schema has no year 0
+            }
+            if (year >= 0 && year < 9999) {
+                int x = (int) year;
+                buf[dstIdx++] = (char) ('0' + x / 1000);
+                buf[dstIdx++] = (char) ('0' + x % 1000 / 100);
+                buf[dstIdx++] = (char) ('0' + x % 100 / 10);
+                buf[dstIdx++] = (char) ('0' + x % 10);
+            } else {
+                dstIdx = appendLong(buf, dstIdx, year);
+            }
+
+            buf[dstIdx++] = '-';
+            dstIdx = append00(buf, dstIdx, month);
+            buf[dstIdx++] = '-';
+            dstIdx = append00(buf, dstIdx, day);
+
+            if (timePart) {
+                buf[dstIdx++] = 'T';
+            }
+        }
+
+        if (timePart) {
+            int x = (int) millisOfDay;
+            int millisecond = x % 1000;
+            x /= 1000;
+            int second = x % 60;
+            x /= 60;
+            int minute = x % 60;
+            int hour = x / 60;
+
+            dstIdx = append00(buf, dstIdx, hour);
+            if (accuracy >= DateUtil.ACCURACY_MINUTES) {
+                buf[dstIdx++] = ':';
+                dstIdx = append00(buf, dstIdx, minute);
+                if (accuracy >= DateUtil.ACCURACY_SECONDS) {
+                    buf[dstIdx++] = ':';
+                    dstIdx = append00(buf, dstIdx, second);
+                    if (accuracy >= DateUtil.ACCURACY_MILLISECONDS) {
+                        int forcedDigits = accuracy == DateUtil.ACCURACY_MILLISECONDS_FORCED ? 3 : 0;
+                        if (millisecond != 0 || forcedDigits != 0) {
+                            buf[dstIdx++] = '.';
+                            do {
+                                buf[dstIdx++] = (char) ('0' + (millisecond / 100));
+                                forcedDigits--;
+                                millisecond = millisecond % 100 * 10;
+                            } while (millisecond != 0 || forcedDigits > 0);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (offsetPart) {
+            if (offset == 0) {
+                buf[dstIdx++] = 'Z';
+            } else {
+                int dt = offset;
+                boolean positive;
+                if (dt < 0) {
+                    positive = false;
+                    dt = -dt;
+                } else {
+                    positive = true;
+                }
+
+                dt /= 1000;
+                int offS = dt % 60;
+                dt /= 60;
+                int offM = dt % 60;
+                dt /= 60;
+                int offH = dt;
+
+                if (offS == 0 && offM == 0 && offH == 0) {
+                    buf[dstIdx++] = 'Z';
+                } else {
+                    buf[dstIdx++] = positive ? '+' : '-';
+                    dstIdx = append00(buf, dstIdx, offH);
+                    buf[dstIdx++] = ':';
+                    dstIdx = append00(buf, dstIdx, offM);
+                    if (offS != 0) {
+                        buf[dstIdx++] = ':';
+                        dstIdx = append00(buf, dstIdx, offS);
+                    }
+                }
+            }
+        }
+
+        return dstIdx;
+    }
+
+    /**
+     * Same as {@link TimeZone#getOffset(long)}, but if the offset is the same at the beginning and at the end of the
+     * UTC day of {@code millis}, it remembers it for the whole day. (Time zones don't change their offset multiple
+     * times a day, so then there was no change during that day.)
+     */
+    private int getOffset(long millis) {
+        if (millis >= offsetCacheStart && millis < offsetCacheEnd) {
+            return cachedOffset;
+        }
+
+        int offset = timeZone.getOffset(millis);
+        long dayStart = floorDiv(millis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+        if (dayStart <= Long.MAX_VALUE - MILLIS_PER_DAY
+                && timeZone.getOffset(dayStart) == offset
+                && timeZone.getOffset(dayStart + MILLIS_PER_DAY - 1) == offset) {
+            offsetCacheStart = dayStart;
+            offsetCacheEnd = dayStart + MILLIS_PER_DAY;
+            cachedOffset = offset;
+        }
+        return offset;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long r = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            r--;
+        }
+        return r;
+    }
+
+    /** 
+     * Appends a number between 0 and 99 padded to 2 digits.
+     */
+    private static int append00(char[] buf, int dstIdx, int x) {
+        buf[dstIdx++] = (char) ('0' + x / 10);
+        buf[dstIdx++] = (char) ('0' + x % 10);
+        return dstIdx;
+    }
+
+    private static int appendLong(char[] buf, int dstIdx, long x) {
+        if (x < 0) {
+            buf[dstIdx++] = '-';
+            x = -x;
+        }
+        int digitCount = 1;
+        for (long limit = 10; digitCount < 19 && x >= limit; limit *= 10) {
+            digitCount++;
+        }
+        for (int i = dstIdx + digitCount - 1; i >= dstIdx; i--) {
+            buf[i] = (char) ('0' + x % 10);
+            x /= 10;
+        }
+        return dstIdx + digitCount;
+    }
+
+}
@@ -19,6 +19,8 @@
 
 package freemarker.core;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Date;
 import java.util.TimeZone;
 
@@ -28,13 +30,14 @@ import freemarker.template.TemplateModelException;
 import freemarker.template.utility.DateUtil;
 import freemarker.template.utility.DateUtil.CalendarFieldsToDateConverter;
 import freemarker.template.utility.DateUtil.DateParseException;
-import freemarker.template.utility.DateUtil.DateToISO8601CalendarFactory;
 import freemarker.template.utility.StringUtil;
 
-abstract class ISOLikeTemplateDateFormat  extends TemplateDateFormat {
+abstract class ISOLikeTemplateDateFormat  extends WriterTemplateDateFormat {
     
     private static final String XS_LESS_THAN_SECONDS_ACCURACY_ERROR_MESSAGE
             = "Less than seconds accuracy isn't allowed by the XML Schema format";
+    /** All characters that can occur in the output. */
+    private static final String OUTPUT_CHARACTERS = "0123456789-+:.TZ";
     private final ISOLikeTemplateDateFormatFactory factory;
     private final Environment env;
     protected final int dateType;
@@ -43,6 +46,9 @@ abstract class ISOLikeTemplateDateFormat  extends TemplateDateFormat {
     protected final Boolean forceUTC;
     protected final Boolean showZoneOffset;
     protected final int accuracy;
+    private final ISOLikeDateFormatter formatter;
+    private MarkupOutputFormat<?> lastEscapingCheckedOutputFormat;
+    private boolean lastEscapingCheckResult;
 
     /**
      * @param formatString The value of the ..._format setting, like "iso nz".
@@ -167,6 +173,16 @@ abstract class ISOLikeTemplateDateFormat  extends TemplateDateFormat {
         this.showZoneOffset = showZoneOffset;
         this.forceUTC = forceUTC;
         this.timeZone = timeZone;
+
+        boolean timePart = dateType != TemplateDateModel.DATE;
+        boolean offsetPart = showZoneOffset == null ? !zonelessInput : showZoneOffset.booleanValue();
+        this.formatter = new ISOLikeDateFormatter(
+                dateType != TemplateDateModel.TIME,
+                timePart,
+                isXSMode() ? offsetPart : timePart && offsetPart,
+                accuracy,
+                (forceUTC == null ? !zonelessInput : forceUTC.booleanValue()) ? DateUtil.UTC : timeZone,
+                isXSMode());
     }
 
     private void checkForceUTCNotSet(Boolean fourceUTC) throws InvalidFormatParametersException {
@@ -178,24 +194,22 @@ abstract class ISOLikeTemplateDateFormat  extends TemplateDateFormat {
     
     @Override
     public final String formatToPlainText(TemplateDateModel dateModel) throws TemplateModelException {
-        final Date date = TemplateFormatUtil.getNonNullDate(dateModel);
-        return format(
-                date,
-                dateType != TemplateDateModel.TIME,
-                dateType != TemplateDateModel.DATE,
-                showZoneOffset == null
-                        ? !zonelessInput
-                        : showZoneOffset.booleanValue(),
-                accuracy,
-                (forceUTC == null ? !zonelessInput : forceUTC.booleanValue()) ? DateUtil.UTC : timeZone,
-                factory.getISOBuiltInCalendar(env));
+        return formatter.format(TemplateFormatUtil.getNonNullDate(dateModel));
+    }
+
+    @Override
+    final void formatToWriter(TemplateDateModel dateModel, Writer out) throws TemplateModelException, IOException {
+        formatter.format(TemplateFormatUtil.getNonNullDate(dateModel), out);
+    }
+
+    @Override
+    final boolean isUnaffectedByEscaping(MarkupOutputFormat<?> outputFormat) throws TemplateModelException {
+        if (outputFormat != lastEscapingCheckedOutputFormat) {
+            lastEscapingCheckResult = outputFormat.escapePlainText(OUTPUT_CHARACTERS).equals(OUTPUT_CHARACTERS);
+            lastEscapingCheckedOutputFormat = outputFormat;
+        }
+        return lastEscapingCheckResult;
     }
-    
-    protected abstract String format(Date date,
-            boolean datePart, boolean timePart, boolean offsetPart,
-            int accuracy,
-            TimeZone timeZone,
-            DateToISO8601CalendarFactory calendarFactory);
 
     @Override
     @SuppressFBWarnings(value = "RC_REF_COMPARISON_BAD_PRACTICE_BOOLEAN",
@@ -25,7 +25,6 @@ import java.util.TimeZone;
 import freemarker.template.utility.DateUtil;
 import freemarker.template.utility.DateUtil.CalendarFieldsToDateConverter;
 import freemarker.template.utility.DateUtil.DateParseException;
-import freemarker.template.utility.DateUtil.DateToISO8601CalendarFactory;
 
 final class ISOTemplateDateFormat extends ISOLikeTemplateDateFormat {
 
@@ -39,13 +38,6 @@ final class ISOTemplateDateFormat extends ISOLikeTemplateDateFormat {
         super(settingValue, parsingStart, dateType, zonelessInput, timeZone, factory, env);
     }
 
-    @Override
-    protected String format(Date date, boolean datePart, boolean timePart, boolean offsetPart, int accuracy,
-            TimeZone timeZone, DateToISO8601CalendarFactory calendarFactory) {
-        return DateUtil.dateToISO8601String(
-                date, datePart, timePart, timePart && offsetPart, accuracy, timeZone, calendarFactory);
-    }
-
     @Override
     protected Date parseDate(String s, TimeZone tz, CalendarFieldsToDateConverter calToDateConverter)
             throws DateParseException {
@@ -26,9 +26,17 @@ import freemarker.template.TemplateModel;
  * A reference to a top-level variable
  */
 final class Identifier extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private final String name;
 
+    /**
+     * If not {@code null}, this identifier certainly refers to the macro local variable in the {@link #localVarSlot}
+     * slot, when the current macro context is of a macro with this slot layout. Set at most once, during parsing.
+     */
+    private LocalVariableSlots localVarSlots;
+    private int localVarSlot;
+
     Identifier(String name) {
         this.name = name;
     }
@@ -36,6 +44,16 @@ final class Identifier extends Expression {
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
         try {
+            if (localVarSlots != null) {
+                Macro.Context macroCtx = env.getCurrentMacroContext();
+                if (macroCtx != null && macroCtx.getLocalVariableSlots() == localVarSlots) {
+                    TemplateModel value = macroCtx.getLocalVariable(localVarSlot);
+                    if (value != null) {
+                        return value;
+                    }
+                    // Falls back to the namespace and global variables
+                }
+            }
             return env.getVariable(name);
         } catch (NullPointerException e) {
             if (env == null) {
@@ -59,6 +77,11 @@ final class Identifier extends Expression {
     String getName() {
         return name;
     }
+
+    void setLocalVariableSlot(LocalVariableSlots localVarSlots, int localVarSlot) {
+        this.localVarSlots = localVarSlots;
+        this.localVarSlot = localVarSlot;
+    }
     
     @Override
     String getNodeTypeSymbol() {
@@ -29,6 +29,7 @@ import freemarker.template.TemplateException;
  * {@link ConditionalBlock} doesn't need this parent element. 
  */
 final class IfBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     IfBlock(ConditionalBlock block) {
         setChildBufferCapacity(1);
@@ -34,6 +34,7 @@ import freemarker.template.utility.StringUtil;
  * and processes it within the current template.
  */
 final class Include extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final Expression includedTemplateNameExp, encodingExp, parseExp, ignoreMissingExp;
     private final String encoding;
@@ -117,6 +118,18 @@ final class Include extends TemplateElement {
         }
     }
     
+    /**
+     * Returns the name of the included template if it's known on parse time, and the template will be included with
+     * the default encoding, and parsed; otherwise {@code null}. The name is possibly relative.
+     */
+    String getStaticIncludedTemplateName() {
+        if (parse != Boolean.TRUE || encodingExp != null
+                || !(includedTemplateNameExp instanceof StringLiteral) || !includedTemplateNameExp.isLiteral()) {
+            return null;
+        }
+        return ((StringLiteral) includedTemplateNameExp).getAsString();
+    }
+
     @Override
     TemplateElement[] accept(Environment env) throws TemplateException, IOException {
         final String includedTemplateName = includedTemplateNameExp.evalAndCoerceToPlainText(env);
@@ -37,6 +37,7 @@ import freemarker.template.TemplateSequenceModel;
  * usually accept lambda expressions as parameters.
  */
 abstract class IntermediateStreamOperationLikeBuiltIn extends BuiltInWithParseTimeParameters {
+    private static final long serialVersionUID = 1L;
 
     private Expression elementTransformerExp;
     private ElementTransformer precreatedElementTransformer;
@@ -21,6 +21,7 @@ package freemarker.core;
 import freemarker.template.TemplateException;
 
 abstract class Interpolation extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     protected abstract String dump(boolean canonical, boolean inStringLiteral);
 
@@ -45,6 +45,7 @@ import freemarker.template._TemplateAPI;
  * template name suffix is the specified id instead of "anonymous_interpreted".
  */
 class Interpret extends OutputFormatBoundBuiltIn {
+    private static final long serialVersionUID = 1L;
     
     /**
      * Constructs a template on-the-fly and returns it embedded in a
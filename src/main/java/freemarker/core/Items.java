@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * An #items element.
  */
 class Items extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final String loopVarName;
     private final String loopVar2Name;
@@ -42,6 +42,7 @@ import freemarker.template.utility.Constants;
  * A #list (or #foreach) element, or pre-#else section of it inside a {@link ListElseContainer}.
  */
 final class IteratorBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final Expression listedExp;
     private final String loopVar1Name;
@@ -33,6 +33,7 @@ import freemarker.template.TemplateException;
  */
 @Deprecated
 public final class LibraryLoad extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private Expression importedTemplateNameExp;
     private String targetNsVarName;
@@ -49,6 +50,17 @@ public final class LibraryLoad extends TemplateElement {
         this.importedTemplateNameExp = templateName;
     }
 
+    /**
+     * Returns the name of the imported template if it's known on parse time, otherwise {@code null}. The name is
+     * possibly relative.
+     */
+    String getStaticImportedTemplateName() {
+        if (!(importedTemplateNameExp instanceof StringLiteral) || !importedTemplateNameExp.isLiteral()) {
+            return null;
+        }
+        return ((StringLiteral) importedTemplateNameExp).getAsString();
+    }
+
     @Override
     TemplateElement[] accept(Environment env) throws TemplateException, IOException {
         final String importedTemplateName = importedTemplateNameExp.evalAndCoerceToPlainText(env);
@@ -23,6 +23,7 @@ import java.io.IOException;
 import freemarker.template.TemplateException;
 
 class ListElseContainer extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final IteratorBlock listPart;
     private final ElseOfList elsePart;
@@ -34,6 +34,7 @@ import freemarker.template.TemplateSequenceModel;
 import freemarker.template._TemplateAPI;
 
 final class ListLiteral extends Expression {
+    private static final long serialVersionUID = 1L;
 
     final ArrayList<Expression> items;
 
@@ -82,19 +83,18 @@ final class ListLiteral extends Expression {
     /**
      * For {@link TemplateMethodModelEx} calls, returns the list of arguments as {@link TemplateModel}-s.
      */
-    List/*<TemplateModel>*/ getModelList(Environment env) throws TemplateException {
+    List<TemplateModel> getModelList(Environment env) throws TemplateException {
         int size = items.size();
         switch(size) {
             case 0: {
-                return Collections.EMPTY_LIST;
+                return Collections.emptyList();
             }
             case 1: {
                 return Collections.singletonList(items.get(0).eval(env));
             }
             default: {
-                List result = new ArrayList(items.size());
-                for (ListIterator iterator = items.listIterator(); iterator.hasNext(); ) {
-                    Expression exp = (Expression) iterator.next();
+                List<TemplateModel> result = new ArrayList<>(items.size());
+                for (Expression exp : items) {
                     result.add(exp.eval(env));
                 }
                 return result;
@@ -18,6 +18,8 @@
  */
 package freemarker.core;
 
+import java.util.Arrays;
+
 /**
  * Class that's a little bit more efficient than using an {@code ArrayList<LocalContext>}. 
  * 
@@ -46,6 +48,11 @@ final class LocalContextStack {
         buffer[--size] = null;
     }
 
+    void clear() {
+        Arrays.fill(buffer, 0, size, null);
+        size = 0;
+    }
+
     public LocalContext get(int index) {
         return buffer[index];
     }
@@ -33,6 +33,7 @@ import freemarker.template.TemplateModel;
  * such as a loop variable. So that's yet another issue to address if we go for less restricted lambdas.
  */
 final class LocalLambdaExpression extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private final LambdaParameterList lho;
     private final Expression rho;
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parse-time layout of the local variables of a {@link Macro} (which can also be a function): the parameters
+ * (including the catch-all parameter), and the variables that are set with {@code #local} in the macro body, each
+ * get an index, so the macro local variables can be stored in an array in the {@link Macro.Context}. The
+ * {@link Identifier}-s inside the macro body that certainly refer to such a local variable are resolved to the
+ * index, so reading them needs no lookup by name. Local variables whose name is only known at runtime (like those
+ * set by an {@code #include}-d template, or by {@link Environment#setLocalVariable(String,
+ * freemarker.template.TemplateModel)}) aren't in the layout, and are stored by name.
+ *
+ * <p>An {@link Identifier} is only resolved if it can't refer to anything but the macro local variable. As the local
+ * context stack (loop variables, nested content parameters, lambda parameters) is searched before the macro local
+ * variables, names that are declared by such constructs anywhere in the macro aren't resolved. Because
+ * {@code #nested} resets the local context stack and the current macro context to that of the caller, the local
+ * context stack can only contain what the macro body itself has pushed, when an {@link Identifier} of the macro body
+ * is evaluated with the context of the same macro.
+ */
+final class LocalVariableSlots implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] names;
+    private final Map<String, Integer> indexesByName;
+
+    private LocalVariableSlots(String[] names) {
+        this.names = names;
+        indexesByName = new HashMap<>(names.length * 4 / 3 + 1, 1f);
+        for (int i = 0; i < names.length; i++) {
+            indexesByName.put(names[i], Integer.valueOf(i));
+        }
+    }
+
+    /**
+     * Creates the layout for the macro, and resolves the {@link Identifier}-s in its body (including the parameter
+     * default value expressions). The layout starts with the parameters in their declaration order, then comes the
+     * catch-all parameter, if there's one. Must be called when the children of the macro are already set, and before
+     * the macro is published to other threads.
+     */
+    static LocalVariableSlots resolve(Macro macro) {
+        Map<String, Integer> slotsByName = new LinkedHashMap<>();
+        for (String paramName : macro.getArgumentNamesNoCopy()) {
+            slotsByName.put(paramName, Integer.valueOf(slotsByName.size()));
+        }
+        if (macro.getCatchAll() != null) {
+            slotsByName.put(macro.getCatchAll(), Integer.valueOf(slotsByName.size()));
+        }
+
+        Resolution resolution = new Resolution();
+        resolution.visitParameters(macro);
+        resolution.visitChildren(macro);
+
+        for (String localVarName : resolution.localVarNames) {
+            if (!slotsByName.containsKey(localVarName)) {
+                slotsByName.put(localVarName, Integer.valueOf(slotsByName.size()));
+            }
+        }
+        LocalVariableSlots slots = new LocalVariableSlots(slotsByName.keySet().toArray(new String[0]));
+
+        identifiers: for (Identifier identifier : resolution.identifiers) {
+            String name = identifier.getName();
+            Integer slot = slotsByName.get(name);
+            if (slot == null) {
+                continue;
+            }
+            for (String shadowingNamePrefix : resolution.shadowingNamePrefixes) {
+                // Prefix, because of the legacy "loopVar_index" and "loopVar_has_next" variables
+                if (name.startsWith(shadowingNamePrefix)) {
+                    continue identifiers;
+                }
+            }
+            identifier.setLocalVariableSlot(slots, slot.intValue());
+        }
+
+        return slots;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String getName(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * @return The slot index, or -1 if the name has no slot (it still can be a local variable, just not stored in
+     *     slot).
+     */
+    int getSlot(String name) {
+        Integer slot = indexesByName.get(name);
+        return slot != null ? slot.intValue() : -1;
+    }
+
+    /**
+     * Collects what's needed for the resolution while walking the AST of the macro.
+     */
+    private static class Resolution {
+        private final List<Identifier> identifiers = new ArrayList<>();
+        private final List<String> localVarNames = new ArrayList<>();
+        private final List<String> shadowingNamePrefixes = new ArrayList<>();
+
+        private void visit(TemplateObject tObj) {
+            if (tObj instanceof Macro) {
+                // Can't happen in a template that was parsed, but if it would, its identifiers would belong to it
+                return;
+            }
+            if (tObj instanceof Identifier) {
+                identifiers.add((Identifier) tObj);
+            } else if (tObj instanceof LocalLambdaExpression) {
+                for (Identifier param : ((LocalLambdaExpression) tObj).getLambdaParameterList().getParameters()) {
+                    shadowingNamePrefixes.add(param.getName());
+                }
+            }
+
+            if (tObj instanceof Assignment || tObj instanceof BlockAssignment) {
+                addLocalVarName(tObj);
+            }
+
+            visitParameters(tObj);
+            if (tObj instanceof TemplateElement) {
+                visitChildren((TemplateElement) tObj);
+            }
+        }
+
+        private void visitParameters(TemplateObject tObj) {
+            int paramCount = tObj.getParameterCount();
+            for (int i = 0; i < paramCount; i++) {
+                Object paramValue = tObj.getParameterValue(i);
+                if (paramValue instanceof TemplateObject) {
+                    visit((TemplateObject) paramValue);
+                } else if (paramValue instanceof String
+                        && tObj.getParameterRole(i) == ParameterRole.TARGET_LOOP_VARIABLE) {
+                    // #list and #items loop variables, and the nested content parameters of a directive call
+                    shadowingNamePrefixes.add((String) paramValue);
+                }
+            }
+        }
+
+        private void visitChildren(TemplateElement te) {
+            int childCount = te.getChildCount();
+            for (int i = 0; i < childCount; i++) {
+                visit(te.getChild(i));
+            }
+        }
+
+        private void addLocalVarName(TemplateObject assignment) {
+            String name = null;
+            boolean local = false;
+            int paramCount = assignment.getParameterCount();
+            for (int i = 0; i < paramCount; i++) {
+                ParameterRole role = assignment.getParameterRole(i);
+                if (role == ParameterRole.ASSIGNMENT_TARGET) {
+                    name = (String) assignment.getParameterValue(i);
+                } else if (role == ParameterRole.VARIABLE_SCOPE) {
+                    local = ((Integer) assignment.getParameterValue(i)).intValue() == Assignment.LOCAL;
+                }
+            }
+            if (local && name != null) {
+                localVarNames.add(name);
+            }
+        }
+    }
+
+}
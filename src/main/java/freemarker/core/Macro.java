@@ -19,6 +19,7 @@
 
 package freemarker.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -27,8 +28,10 @@ import java.util.List;
 import java.util.Map;
 
 import freemarker.template.Configuration;
+import freemarker.template.SimpleCollection;
 import freemarker.template.SimpleHash;
 import freemarker.template.SimpleSequence;
+import freemarker.template.TemplateCollectionModel;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateHashModelEx;
 import freemarker.template.TemplateHashModelEx2;
@@ -47,6 +50,7 @@ import freemarker.template.utility.Constants;
  */
 @Deprecated
 public final class Macro extends TemplateElement implements TemplateModel {
+    private static final long serialVersionUID = 1L;
 
     static final Macro DO_NOTHING_MACRO = new Macro(".pass", 
             Collections.EMPTY_MAP,
@@ -64,6 +68,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
     private final String catchAllParamName;
     private final boolean function;
     private final Object namespaceLookupKey;
+    private final LocalVariableSlots localVarSlots;
 
     /**
      * @param paramNamesWithDefault Maps the parameter names to its default value expression, or to {@code null} if
@@ -84,6 +89,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
         this.function = function;
         this.setChildren(children);
         this.namespaceLookupKey = this;
+        this.localVarSlots = LocalVariableSlots.resolve(this);
         // Attention! Keep this constructor in sync with the other constructor!
     }
 
@@ -105,6 +111,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
         this.requireArgsSpecialVariable = that.requireArgsSpecialVariable;
         this.function = that.function;
         this.namespaceLookupKey = that.namespaceLookupKey;
+        this.localVarSlots = that.localVarSlots;
         super.copyFieldsFrom(that);
         // Attention! Keep this constructor in sync with the other constructor!
     }
@@ -225,7 +232,15 @@ public final class Macro extends TemplateElement implements TemplateModel {
     }
 
     class Context implements LocalContext {
-        final Environment.Namespace localVars; 
+        /**
+         * The values of the local variables that have a slot in {@link #localVarSlots}. A parameter that was
+         * specified with {@code null} value is stored as {@link TemplateNullModel#INSTANCE}, but it's never returned
+         * as such, as unlike for other {@link LocalContext}-s, a {@code null} macro argument doesn't hide the variable
+         * with the same name in the namespace.
+         */
+        private final TemplateModel[] slotValues;
+        /** The local variables that have no slot; {@code null} until the first such variable is set. */
+        private SimpleHash dynamicLocalVars;
         final TemplateObject callPlace;
         final Environment.Namespace nestedContentNamespace;
         final List<String> nestedContentParameterNames;
@@ -236,7 +251,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
         Context(Environment env, 
                 TemplateObject callPlace,
                 List<String> nestedContentParameterNames) {
-            this.localVars = env.new Namespace(); 
+            this.slotValues = new TemplateModel[localVarSlots.size()];
             this.callPlace = callPlace;
             this.nestedContentNamespace = env.getCurrentNamespace();
             this.nestedContentParameterNames = nestedContentParameterNames;
@@ -248,6 +263,10 @@ public final class Macro extends TemplateElement implements TemplateModel {
             return Macro.this;
         }
 
+        LocalVariableSlots getLocalVariableSlots() {
+            return localVarSlots;
+        }
+
         /**
          * Set default parameters, check if all the required parameters are defined. Also sets the value of
          * {@code .args}, if that was requested.
@@ -269,7 +288,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
                 resolvedADefaultValue = hasUnresolvedDefaultValue = false;
                 for (int paramIndex = 0; paramIndex < paramNames.length; ++paramIndex) {
                     final String argName = paramNames[paramIndex];
-                    final TemplateModel argValue = localVars.get(argName);
+                    final TemplateModel argValue = getLocalVariable(paramIndex);
                     if (argValue == null) {
                         Expression defaultValueExp = paramNamesWithDefault.get(argName);
                         if (defaultValueExp != null) {
@@ -281,7 +300,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
                                         hasUnresolvedDefaultValue = true;
                                     }
                                 } else {
-                                    localVars.put(argName, defaultValue);
+                                    slotValues[paramIndex] = defaultValue;
                                     resolvedADefaultValue = true;
 
                                     if (argsSpecVarDraft != null) {
@@ -295,7 +314,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
                                 }
                             }
                         } else if (!env.isClassicCompatible()) {
-                            boolean argWasSpecified = localVars.containsKey(argName);
+                            boolean argWasSpecified = slotValues[paramIndex] != null;
                             throw new _MiscTemplateException(env,
                                     new _ErrorDescriptionBuilder(
                                             "When calling ", (isFunction() ? "function" : "macro"), " ",
@@ -335,7 +354,7 @@ public final class Macro extends TemplateElement implements TemplateModel {
             if (argsSpecVarDraft != null) {
                 final String catchAllParamName = getMacro().catchAllParamName;
                 final TemplateModel catchAllArgValue = catchAllParamName != null
-                        ? localVars.get(catchAllParamName) : null;
+                        ? getLocalVariable(paramNames.length) : null;
 
                 if (getMacro().isFunction()) {
                     int lengthWithCatchAlls = argsSpecVarDraft.length;
@@ -401,25 +420,59 @@ public final class Macro extends TemplateElement implements TemplateModel {
 
         @Override
         public TemplateModel getLocalVariable(String name) throws TemplateModelException {
-             return localVars.get(name);
+            int slot = localVarSlots.getSlot(name);
+            if (slot != -1) {
+                return getLocalVariable(slot);
+            }
+            return dynamicLocalVars != null ? dynamicLocalVars.get(name) : null;
+        }
+
+        /**
+         * Gets the local variable by its {@link LocalVariableSlots} index.
+         */
+        TemplateModel getLocalVariable(int slot) {
+            TemplateModel value = slotValues[slot];
+            return value != TemplateNullModel.INSTANCE ? value : null;
         }
 
-        Environment.Namespace getLocals() {
-            return localVars;
+        /**
+         * Returns a live view of the local variables.
+         */
+        TemplateHashModelEx getLocals() {
+            return new LocalsHash();
         }
         
         /**
          * Set a local variable in this macro 
          */
         void setLocalVar(String name, TemplateModel var) {
-            localVars.put(name, var);
+            int slot = localVarSlots.getSlot(name);
+            if (slot != -1) {
+                slotValues[slot] = var != null ? var : TemplateNullModel.INSTANCE;
+            } else {
+                if (dynamicLocalVars == null) {
+                    dynamicLocalVars = new SimpleHash(_TemplateAPI.SAFE_OBJECT_WRAPPER);
+                }
+                dynamicLocalVars.put(name, var);
+            }
         }
 
         @Override
         public Collection getLocalVariableNames() throws TemplateModelException {
-            HashSet result = new HashSet();
-            for (TemplateModelIterator it = localVars.keys().iterator(); it.hasNext(); ) {
-                result.add(((TemplateScalarModel) it.next()).getAsString());
+            return new HashSet<>(getLocalVariableNameList());
+        }
+
+        private List<String> getLocalVariableNameList() throws TemplateModelException {
+            List<String> result = new ArrayList<>();
+            for (int slot = 0; slot < slotValues.length; slot++) {
+                if (slotValues[slot] != null) {
+                    result.add(localVarSlots.getName(slot));
+                }
+            }
+            if (dynamicLocalVars != null) {
+                for (TemplateModelIterator it = dynamicLocalVars.keys().iterator(); it.hasNext(); ) {
+                    result.add(((TemplateScalarModel) it.next()).getAsString());
+                }
             }
             return result;
         }
@@ -431,6 +484,43 @@ public final class Macro extends TemplateElement implements TemplateModel {
         void setArgsSpecialVariableValue(TemplateModel argsSpecialVariableValue) {
             this.argsSpecialVariableValue = argsSpecialVariableValue;
         }
+
+        /**
+         * The value of {@code .locals}.
+         */
+        private class LocalsHash implements TemplateHashModelEx {
+
+            @Override
+            public TemplateModel get(String key) throws TemplateModelException {
+                return getLocalVariable(key);
+            }
+
+            @Override
+            public boolean isEmpty() throws TemplateModelException {
+                return size() == 0;
+            }
+
+            @Override
+            public int size() throws TemplateModelException {
+                return getLocalVariableNameList().size();
+            }
+
+            @Override
+            public TemplateCollectionModel keys() throws TemplateModelException {
+                return new SimpleCollection(getLocalVariableNameList(), _TemplateAPI.SAFE_OBJECT_WRAPPER);
+            }
+
+            @Override
+            public TemplateCollectionModel values() throws TemplateModelException {
+                List<String> names = getLocalVariableNameList();
+                List<TemplateModel> values = new ArrayList<>(names.size());
+                for (String name : names) {
+                    values.add(getLocalVariable(name));
+                }
+                return new SimpleCollection(values, _TemplateAPI.SAFE_OBJECT_WRAPPER);
+            }
+
+        }
     }
 
     @Override
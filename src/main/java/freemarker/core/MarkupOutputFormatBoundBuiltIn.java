@@ -23,6 +23,7 @@ import freemarker.template.TemplateModel;
 import freemarker.template.utility.NullArgumentException;
 
 abstract class MarkupOutputFormatBoundBuiltIn extends SpecialBuiltIn {
+    private static final long serialVersionUID = 1L;
     
     protected MarkupOutputFormat outputFormat;
     
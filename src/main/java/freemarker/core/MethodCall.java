@@ -26,6 +26,8 @@ package freemarker.core;
 import java.util.ArrayList;
 import java.util.List;
 
+import freemarker.ext.beans.BeanModel;
+import freemarker.ext.beans._BeanMemberInlineCache;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateMethodModel;
 import freemarker.template.TemplateMethodModelEx;
@@ -37,6 +39,7 @@ import freemarker.template.TemplateModel;
  * <tt>Identifier</tt> or <tt>Dot</tt> to its left.
  */
 final class MethodCall extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private final Expression target;
     private final ListLiteral arguments;
@@ -52,7 +55,23 @@ final class MethodCall extends Expression {
 
     @Override
     TemplateModel _eval(Environment env) throws TemplateException {
-        TemplateModel targetModel = target.eval(env);
+        TemplateModel targetModel;
+        if (target instanceof Dot && target.constantValue == null) {
+            Dot dot = (Dot) target;
+            TemplateModel dotTargetModel = dot.getTarget().eval(env);
+            if (_BeanMemberInlineCache.isApplicable(dotTargetModel)) {
+                // Calls the Java method without creating a method model.
+                BeanModel beanModel = (BeanModel) dotTargetModel;
+                _BeanMemberInlineCache memberInlineCache = dot.getMemberInlineCache();
+                if (memberInlineCache.isMethod(beanModel)) {
+                    Object result = memberInlineCache.call(beanModel, arguments.getModelList(env));
+                    return env.getObjectWrapper().wrap(result);
+                }
+            }
+            targetModel = dot.evalOnTargetValue(dotTargetModel, env);
+        } else {
+            targetModel = target.eval(env);
+        }
         if (targetModel instanceof TemplateMethodModel) {
             TemplateMethodModel targetMethod = (TemplateMethodModel) targetModel;
             List argumentStrings = 
@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * Encapsulates an array of <tt>TemplateElement</tt> objects. 
  */
 final class MixedContent extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     MixedContent() { }
     
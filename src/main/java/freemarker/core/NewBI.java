@@ -35,6 +35,7 @@ import freemarker.template.TemplateModelException;
  * Usage is something like: <tt>&lt;#assign foobar = "foo.bar.MyClass"?new()></tt>;
  */
 class NewBI extends BuiltIn {
+    private static final long serialVersionUID = 1L;
     
     static Class<?> JYTHON_MODEL_CLASS;
     static {
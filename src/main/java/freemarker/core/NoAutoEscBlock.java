@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * An #noAutoEsc element
  */
 final class NoAutoEscBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     NoAutoEscBlock(TemplateElements children) { 
         setChildren(children);
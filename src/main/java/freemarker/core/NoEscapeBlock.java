@@ -26,6 +26,7 @@ import freemarker.template.TemplateException;
 /**
  */
 class NoEscapeBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     NoEscapeBlock(TemplateElements children) {
         setChildren(children);
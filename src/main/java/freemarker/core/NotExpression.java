@@ -22,6 +22,7 @@ package freemarker.core;
 import freemarker.template.TemplateException;
 
 final class NotExpression extends BooleanExpression {
+    private static final long serialVersionUID = 1L;
 
     private final Expression target;
 
@@ -29,6 +29,7 @@ import freemarker.template.TemplateNumberModel;
  * interface. Note that this class is immutable.
  */
 final class NumberLiteral extends Expression implements TemplateNumberModel {
+    private static final long serialVersionUID = 1L;
 
     private final Number value;
 
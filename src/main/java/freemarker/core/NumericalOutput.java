@@ -34,6 +34,7 @@ import freemarker.template.utility.StringUtil;
  * @see DollarVariable
  */
 final class NumericalOutput extends Interpolation {
+    private static final long serialVersionUID = 1L;
 
     private final Expression expression;
     private final boolean hasFormat;
@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * An #outputFormat element
  */
 final class OutputFormatBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     private final Expression paramExp;
 
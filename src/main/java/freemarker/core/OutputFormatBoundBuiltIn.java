@@ -23,6 +23,7 @@ import freemarker.template.TemplateModel;
 import freemarker.template.utility.NullArgumentException;
 
 abstract class OutputFormatBoundBuiltIn extends SpecialBuiltIn {
+    private static final long serialVersionUID = 1L;
     
     protected OutputFormat outputFormat;
     protected int autoEscapingPolicy;
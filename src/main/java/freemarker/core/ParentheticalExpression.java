@@ -23,6 +23,7 @@ import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
 
 final class ParentheticalExpression extends Expression {
+    private static final long serialVersionUID = 1L;
 
     private final Expression nested;
 
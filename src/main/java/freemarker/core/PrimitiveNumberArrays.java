@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import freemarker.ext.beans.ArrayModel;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.ext.beans._BeansAPI;
+import freemarker.template.DefaultArrayAdapter;
+import freemarker.template.ObjectWrapperAndUnwrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateNumberModel;
+import freemarker.template.TemplateSequenceModel;
+
+/**
+ * Fast paths for the built-ins that process sequences that wrap an {@code int[]}, {@code long[]}, or
+ * {@code double[]}. These work on the array directly, instead of getting each item as a {@link TemplateNumberModel},
+ * which would box the number, and then create a {@link TemplateModel} for it. The results must be the same as with
+ * the generic implementation; where that can't be ensured cheaply, the fast path declines, and the caller has to
+ * fall back to the generic implementation.
+ */
+final class PrimitiveNumberArrays {
+
+    /**
+     * Returned by the methods that return an index if the fast path can't be used for the given arguments.
+     */
+    static final int UNSUPPORTED = -2;
+
+    /** Integers whose absolute value is not greater than this are exactly representable as {@code double}. */
+    private static final long MAX_EXACT_DOUBLE_INTEGER = 1L << 53;
+
+    private PrimitiveNumberArrays() {
+        // Not meant to be instantiated
+    }
+
+    /**
+     * Returns the primitive array wrapped into the sequence, if the fast paths can be used with it, otherwise
+     * {@code null}. The fast paths can be used if the sequence is known to wrap the items of the array into
+     * {@link TemplateNumberModel}-s without changing their value, and numbers are compared with the standard
+     * {@link ArithmeticEngine.BigDecimalEngine}.
+     */
+    static Object getArray(TemplateModel model, Environment env) {
+        Object array;
+        if (model instanceof DefaultArrayAdapter) {
+            DefaultArrayAdapter adapter = (DefaultArrayAdapter) model;
+            if (!(adapter.getObjectWrapper() instanceof BeansWrapper)) {
+                return null;
+            }
+            array = adapter.getWrappedObject();
+        } else if (model != null && model.getClass() == ArrayModel.class) {
+            array = ((ArrayModel) model).getWrappedObject();
+        } else {
+            return null;
+        }
+        if (!(array instanceof int[] || array instanceof long[] || array instanceof double[])) {
+            return null;
+        }
+        if (env.getArithmeticEngine().getClass() != ArithmeticEngine.BigDecimalEngine.class) {
+            return null;
+        }
+        return array;
+    }
+
+    /**
+     * Wraps the array the same way as the sequence, from which {@link #getArray(TemplateModel, Environment)} has
+     * returned an array, has wrapped that array.
+     */
+    static TemplateSequenceModel wrapLike(TemplateModel model, Object array) {
+        if (model instanceof DefaultArrayAdapter) {
+            return DefaultArrayAdapter.adapt(array,
+                    (ObjectWrapperAndUnwrapper) ((DefaultArrayAdapter) model).getObjectWrapper());
+        } else {
+            return new ArrayModel(array, _BeansAPI.getBeansWrapper((ArrayModel) model));
+        }
+    }
+
+    /**
+     * Returns the index of the first smallest or greatest item, or {@link #UNSUPPORTED} if the array is empty, or
+     * contains NaN.
+     */
+    static int indexOfMinOrMax(Object array, boolean max) {
+        int bestIdx = 0;
+        if (array instanceof int[]) {
+            int[] ints = (int[]) array;
+            if (ints.length == 0) {
+                return UNSUPPORTED;
+            }
+            int best = ints[0];
+            for (int i = 1; i < ints.length; i++) {
+                int cur = ints[i];
+                if (max ? cur > best : cur < best) {
+                    best = cur;
+                    bestIdx = i;
+                }
+            }
+        } else if (array instanceof long[]) {
+            long[] longs = (long[]) array;
+            if (longs.length == 0) {
+                return UNSUPPORTED;
+            }
+            long best = longs[0];
+            for (int i = 1; i < longs.length; i++) {
+                long cur = longs[i];
+                if (max ? cur > best : cur < best) {
+                    best = cur;
+                    bestIdx = i;
+                }
+            }
+        } else {
+            double[] doubles = (double[]) array;
+            if (doubles.length == 0) {
+                return UNSUPPORTED;
+            }
+            double best = doubles[0];
+            for (int i = 0; i < doubles.length; i++) {
+                double cur = doubles[i];
+                if (cur != cur) {
+                    return UNSUPPORTED; // NaN
+                }
+                if (max ? cur > best : cur < best) {
+                    best = cur;
+                    bestIdx = i;
+                }
+            }
+        }
+        return bestIdx;
+    }
+
+    /**
+     * Returns the index of the first item that's numerically equal to the searched number, or -1 if there's no such
+     * item, or {@link #UNSUPPORTED} if the searched number can't be compared exactly with the primitive values, or a
+     * NaN item was reached.
+     * 
+     * @param startIndex
+     *            The index where the search starts; must be a valid index.
+     * @param forward
+     *            Whether to scan towards the end of the array (or towards the beginning).
+     */
+    static int indexOf(Object array, Number searched, int startIndex, boolean forward) {
+        final boolean integralArray = !(array instanceof double[]);
+        long searchedLong = 0;
+        double searchedDouble = Double.NaN; // NaN isn't equal to any item
+        if (searched instanceof Integer || searched instanceof Long
+                || searched instanceof Short || searched instanceof Byte) {
+            searchedLong = searched.longValue();
+            if (!integralArray) {
+                if (searchedLong > MAX_EXACT_DOUBLE_INTEGER || searchedLong < -MAX_EXACT_DOUBLE_INTEGER) {
+                    return UNSUPPORTED;
+                }
+                searchedDouble = searchedLong;
+            }
+        } else if (searched instanceof Double || searched instanceof Float) {
+            double d = searched.doubleValue();
+            if (Double.isNaN(d)) {
+                return UNSUPPORTED;
+            }
+            if (integralArray) {
+                if (d != Math.rint(d) || d < -0x1p63 || d >= 0x1p63) {
+                    return -1; // Not an integer (or infinite), so it can't be equal to any item
+                }
+                searchedLong = (long) d;
+            } else {
+                searchedDouble = d;
+            }
+        } else if (searched instanceof BigDecimal || searched instanceof BigInteger) {
+            // Number literals in templates are BigDecimal-s, so this is the typical case
+            BigDecimal bd = searched instanceof BigDecimal
+                    ? (BigDecimal) searched : new BigDecimal((BigInteger) searched);
+            if (integralArray) {
+                if (bd.precision() - bd.scale() > 19) {
+                    return -1; // Out of the long range
+                }
+                try {
+                    searchedLong = bd.longValueExact();
+                } catch (ArithmeticException e) {
+                    return -1; // Not an integer, or out of the long range
+                }
+            } else {
+                double d = bd.doubleValue();
+                if (!Double.isInfinite(d) && new BigDecimal(d).compareTo(bd) == 0) {
+                    searchedDouble = d;
+                } // Otherwise no double is equal to it, but we still have to scan for NaN-s
+            }
+        } else {
+            return UNSUPPORTED;
+        }
+
+        final int step = forward ? 1 : -1;
+        if (array instanceof int[]) {
+            int[] ints = (int[]) array;
+            if (searchedLong < Integer.MIN_VALUE || searchedLong > Integer.MAX_VALUE) {
+                return -1;
+            }
+            int searchedInt = (int) searchedLong;
+            for (int i = startIndex; i >= 0 && i < ints.length; i += step) {
+                if (ints[i] == searchedInt) {
+                    return i;
+                }
+            }
+        } else if (array instanceof long[]) {
+            long[] longs = (long[]) array;
+            for (int i = startIndex; i >= 0 && i < longs.length; i += step) {
+                if (longs[i] == searchedLong) {
+                    return i;
+                }
+            }
+        } else {
+            double[] doubles = (double[]) array;
+            for (int i = startIndex; i >= 0 && i < doubles.length; i += step) {
+                double cur = doubles[i];
+                if (cur == searchedDouble) {
+                    return i;
+                }
+                if (cur != cur) {
+                    return UNSUPPORTED; // NaN, which the generic comparison rejects
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a sorted copy of the array, or {@code null} if the array contains NaN or negative zero, as the generic
+     * sorting would order (or reject) those differently.
+     */
+    static Object sortedCopy(Object array) {
+        if (array instanceof int[]) {
+            int[] ints = ((int[]) array).clone();
+            Arrays.sort(ints);
+            return ints;
+        } else if (array instanceof long[]) {
+            long[] longs = ((long[]) array).clone();
+            Arrays.sort(longs);
+            return longs;
+        } else {
+            double[] doubles = ((double[]) array).clone();
+            for (double d : doubles) {
+                if (d != d || d == 0 && Double.doubleToRawLongBits(d) != 0) {
+                    return null; // NaN or -0.0
+                }
+            }
+            Arrays.sort(doubles);
+            return doubles;
+        }
+    }
+
+}
@@ -35,6 +35,7 @@ import freemarker.template.utility.StringUtil;
  * environment.
  */
 final class PropertySetting extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private final String key;
     private final Expression value;
@@ -27,6 +27,7 @@ import freemarker.template._TemplateAPI;
  * A class that represents a Range between two integers.
  */
 final class Range extends Expression {
+    private static final long serialVersionUID = 1L;
 
     static final int END_INCLUSIVE = 0; 
     static final int END_EXCLUSIVE = 1; 
@@ -24,6 +24,7 @@ import java.io.IOException;
 import freemarker.template.TemplateException;
 
 final class RecoveryBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     RecoveryBlock(TemplateElements children) {
         setChildren(children);
@@ -35,6 +35,7 @@ import freemarker.template._TemplateAPI;
  * An instruction to visit the children of a node.
  */
 final class RecurseNode extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     Expression targetNode, namespaces;
     
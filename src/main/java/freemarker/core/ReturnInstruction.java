@@ -25,6 +25,7 @@ import freemarker.template.TemplateException;
  * Represents a &lt;return&gt; instruction to jump out of a macro.
  */
 public final class ReturnInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private Expression exp;
 
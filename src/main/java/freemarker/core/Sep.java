@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * A #sep element.
  */
 class Sep extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     public Sep(TemplateElements children) {
         setChildren(children);
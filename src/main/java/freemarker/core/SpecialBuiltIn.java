@@ -23,5 +23,6 @@ package freemarker.core;
  * Marker class for built-ins that has special treatment during parsing.
  */
 abstract class SpecialBuiltIn extends BuiltIn {
+    private static final long serialVersionUID = 1L;
 
 }
@@ -25,6 +25,7 @@ import freemarker.template.TemplateException;
  * Represents a &lt;stop&gt; instruction to abort template processing.
  */
 final class StopInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private Expression exp;
 
@@ -31,6 +31,7 @@ import freemarker.template.TemplateScalarModel;
 import freemarker.template.utility.StringUtil;
 
 final class StringLiteral extends Expression implements TemplateScalarModel {
+    private static final long serialVersionUID = 1L;
     
     private final String value;
     
@@ -27,6 +27,7 @@ import freemarker.template.TemplateException;
  * An instruction representing a switch-case structure.
  */
 final class SwitchBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private Case defaultCase;
     private final Expression searched;
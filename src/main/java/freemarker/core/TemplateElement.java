@@ -38,6 +38,7 @@ import freemarker.template.TemplateSequenceModel;
  */
 @Deprecated
 abstract public class TemplateElement extends TemplateObject {
+    private static final long serialVersionUID = 1L;
 
     private static final int INITIAL_REGULATED_CHILD_BUFFER_CAPACITY = 6;
 
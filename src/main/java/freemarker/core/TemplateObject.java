@@ -19,12 +19,17 @@
 
 package freemarker.core;
 
+import java.io.Serializable;
+
 import freemarker.template.Template;
 
 /**
  * <b>Internal API - subject to change:</b> Represent a node in the parsed template (either a {@link Expression} or a
  * {@link TemplateElement}).
  * 
+ * <p>AST nodes are {@link Serializable} only so that {@link freemarker.cache.TemplateSnapshot} can store them; the
+ * serialized form is only compatible with the same FreeMarker version.
+ * 
  * @see TemplateElement
  * @see Expression
  * 
@@ -32,7 +37,8 @@ import freemarker.template.Template;
  *             it.
  */
 @Deprecated
-public abstract class TemplateObject {
+public abstract class TemplateObject implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     // ATTENTION! If you add new fields, update #copyFieldsFrom!
     private Template template;
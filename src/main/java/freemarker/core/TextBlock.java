@@ -20,6 +20,8 @@
 package freemarker.core;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
 
 import freemarker.template.utility.CollectionUtils;
 import freemarker.template.utility.StringUtil;
@@ -30,6 +32,7 @@ import freemarker.template.utility.StringUtil;
  * @deprected This is an internal API; don't use it.
  */
 public final class TextBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     // We're using char[] instead of String for storing the text block because
     // Writer.write(String) involves copying the String contents to a char[] 
@@ -39,6 +42,18 @@ public final class TextBlock extends TemplateElement {
     private char[] text;
     private final boolean unparsed;
 
+    /**
+     * Maximum number of charsets for which {@link #preEncodedText} keeps an encoded form.
+     */
+    private static final int MAX_PRE_ENCODED_CHARSETS = 4;
+
+    /**
+     * The {@link #text} encoded for the {@link ByteOutputWriter} charsets that were used recently, as a chain of at
+     * most {@link #MAX_PRE_ENCODED_CHARSETS} entries, most recently added first; see
+     * {@link #getPreEncodedText(ByteOutputWriter)}. It's only a cache, so it's not serialized.
+     */
+    private transient volatile PreEncodedText preEncodedText;
+
     public TextBlock(String text) {
         this(text, false);
     }
@@ -54,6 +69,7 @@ public final class TextBlock extends TemplateElement {
     
     void replaceText(String text) {
         this.text = text.toCharArray();
+        this.preEncodedText = null;
     }
 
     /**
@@ -64,10 +80,62 @@ public final class TextBlock extends TemplateElement {
     @Override
     public TemplateElement[] accept(Environment env)
     throws IOException {
-        env.getOut().write(text);
+        Writer out = env.getOut();
+        if (out instanceof ByteOutputWriter) {
+            ByteOutputWriter byteOut = (ByteOutputWriter) out;
+            byte[] encoded = getPreEncodedText(byteOut);
+            if (encoded != null) {
+                byteOut.writePreEncoded(encoded);
+                return null;
+            }
+        }
+        out.write(text);
         return null;
     }
 
+    /**
+     * Returns the text encoded with the charset of the {@link ByteOutputWriter}, or {@code null} if it can't be
+     * printed pre-encoded.
+     */
+    private byte[] getPreEncodedText(ByteOutputWriter byteOut) {
+        if (!byteOut.isPreEncodingSupported()) {
+            return null;
+        }
+        Charset charset = byteOut.getCharset();
+        PreEncodedText head = this.preEncodedText;
+        int chainLength = 0;
+        for (PreEncodedText entry = head; entry != null; entry = entry.next) {
+            if (entry.charset.equals(charset)) {
+                return entry.bytes;
+            }
+            chainLength++;
+        }
+
+        char[] text = this.text;
+        int ln = text.length;
+        // Surrogate pairs can't be split between separately encoded parts of the output:
+        byte[] bytes = ln != 0 && (Character.isLowSurrogate(text[0]) || Character.isHighSurrogate(text[ln - 1]))
+                ? null
+                : new String(text).getBytes(charset);
+        // Entries are immutable, so concurrent readers of the old chain aren't disturbed. If the chain is full, it's
+        // restarted, which is cheaper than copying it, and only matters with an unusually high number of charsets.
+        this.preEncodedText = new PreEncodedText(charset, bytes, chainLength < MAX_PRE_ENCODED_CHARSETS ? head : null);
+        return bytes;
+    }
+
+    private static final class PreEncodedText {
+        private final Charset charset;
+        /** {@code null} if the text can't be printed pre-encoded */
+        private final byte[] bytes;
+        private final PreEncodedText next;
+
+        PreEncodedText(Charset charset, byte[] bytes, PreEncodedText next) {
+            this.charset = charset;
+            this.bytes = bytes;
+            this.next = next;
+        }
+    }
+
     @Override
     protected String dump(boolean canonical) {
         if (canonical) {
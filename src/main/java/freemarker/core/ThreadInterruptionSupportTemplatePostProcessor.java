@@ -77,6 +77,7 @@ class ThreadInterruptionSupportTemplatePostProcessor extends TemplatePostProcess
      * {@link TemplateProcessingThreadInterruptedException} if it is. We inject this to some points in the AST.
      */
     static class ThreadInterruptionCheck extends TemplateElement {
+        private static final long serialVersionUID = 1L;
         
         private ThreadInterruptionCheck(TemplateElement te) throws ParseException {
             setLocation(te.getTemplate(), te.beginColumn, te.beginLine, te.beginColumn, te.beginLine);
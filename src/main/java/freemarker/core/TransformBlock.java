@@ -38,6 +38,7 @@ import freemarker.template.TemplateTransformModel;
  * TemplateTransformModel
  */
 final class TransformBlock extends TemplateElement {
+    private static final long serialVersionUID = 1L;
 
     private Expression transformExpression;
     Map namedArgs;
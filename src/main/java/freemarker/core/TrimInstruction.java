@@ -24,6 +24,7 @@ package freemarker.core;
  * and trailing whitespace on this line should be trimmed.
  */
 final class TrimInstruction extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     static final int TYPE_T = 0;  
     static final int TYPE_LT = 1;  
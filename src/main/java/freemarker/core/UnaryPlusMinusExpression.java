@@ -25,6 +25,7 @@ import freemarker.template.TemplateModel;
 import freemarker.template.TemplateNumberModel;
 
 final class UnaryPlusMinusExpression extends Expression {
+    private static final long serialVersionUID = 1L;
     
     private static final int TYPE_MINUS = 0;
     private static final int TYPE_PLUS = 1;
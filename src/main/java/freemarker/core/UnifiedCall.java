@@ -40,6 +40,7 @@ import freemarker.template.utility.StringUtil;
  * An element for calling a macro/directive/transform.
  */
 final class UnifiedCall extends TemplateElement implements DirectiveCallPlace {
+    private static final long serialVersionUID = 1L;
 
     private Expression nameExp;
     private Map<String, ? extends Expression> namedArgs;
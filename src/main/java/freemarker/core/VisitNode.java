@@ -34,6 +34,7 @@ import freemarker.template._TemplateAPI;
  * An instruction to visit an XML node.
  */
 final class VisitNode extends TemplateElement {
+    private static final long serialVersionUID = 1L;
     
     Expression targetNode, namespaces;
     
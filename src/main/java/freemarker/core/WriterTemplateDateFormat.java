@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import freemarker.template.TemplateDateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * A {@link TemplateDateFormat} that can print directly to a {@link Writer}, without creating a {@link String} first;
+ * used by interpolations ({@code ${...}}) when possible.
+ * 
+ * @since 2.3.32
+ */
+abstract class WriterTemplateDateFormat extends TemplateDateFormat {
+
+    /**
+     * Prints the same text as {@link #formatToPlainText(TemplateDateModel)} returns.
+     */
+    abstract void formatToWriter(TemplateDateModel dateModel, Writer out)
+            throws TemplateValueFormatException, TemplateModelException, IOException;
+
+    /**
+     * Tells if escaping the output of this format with the given output format would never change it, and so
+     * {@link #formatToWriter(TemplateDateModel, Writer)} can be used even where auto-escaping is in effect.
+     */
+    abstract boolean isUnaffectedByEscaping(MarkupOutputFormat<?> outputFormat) throws TemplateModelException;
+
+}
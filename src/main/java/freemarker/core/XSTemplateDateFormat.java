@@ -25,7 +25,6 @@ import java.util.TimeZone;
 import freemarker.template.utility.DateUtil;
 import freemarker.template.utility.DateUtil.CalendarFieldsToDateConverter;
 import freemarker.template.utility.DateUtil.DateParseException;
-import freemarker.template.utility.DateUtil.DateToISO8601CalendarFactory;
 
 /**
  * XML Schema format.
@@ -43,13 +42,6 @@ final class XSTemplateDateFormat extends ISOLikeTemplateDateFormat {
         super(settingValue, parsingStart, dateType, zonelessInput, timeZone, factory, env);
     }
     
-    @Override
-    protected String format(Date date, boolean datePart, boolean timePart, boolean offsetPart, int accuracy,
-            TimeZone timeZone, DateToISO8601CalendarFactory calendarFactory) {
-        return DateUtil.dateToXSString(
-                date, datePart, timePart, offsetPart, accuracy, timeZone, calendarFactory);
-    }
-
     @Override
     protected Date parseDate(String s, TimeZone tz, CalendarFieldsToDateConverter calToDateConverter)
             throws DateParseException {
@@ -22,6 +22,7 @@ package freemarker.core;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -220,6 +221,39 @@ public class _CoreAPI {
         parser.setPreventStrippings(preventStrippings);
     }
 
+    /**
+     * Returns the names of the templates that the template includes or imports, where the name is known on parse time
+     * (it's a string literal). The names are as they were written in the template, so they are possibly relative to
+     * the name of the template.
+     */
+    public static Set<String> getStaticTemplateDependencies(Template template) {
+        Set<String> names = new LinkedHashSet<>();
+        TemplateElement rootElement = template.getRootTreeNode();
+        if (rootElement != null) {
+            addStaticTemplateDependencies(rootElement, names);
+        }
+        return names;
+    }
+
+    private static void addStaticTemplateDependencies(TemplateElement te, Set<String> names) {
+        String name;
+        if (te instanceof Include) {
+            name = ((Include) te).getStaticIncludedTemplateName();
+        } else if (te instanceof LibraryLoad) {
+            name = ((LibraryLoad) te).getStaticImportedTemplateName();
+        } else {
+            name = null;
+        }
+        if (name != null) {
+            names.add(name);
+        }
+        
+        int childCount = te.getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            addStaticTemplateDependencies(te.getChild(i), names);
+        }
+    }
+
     public static boolean isLazilyGeneratedSequenceModel(TemplateCollectionModel model) {
         return model instanceof LazilyGeneratedCollectionModel && ((LazilyGeneratedCollectionModel) model).isSequence();
     }
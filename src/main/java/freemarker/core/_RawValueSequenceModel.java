@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import freemarker.template.SimpleNumber;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateSequenceModel;
+
+/**
+ * Don't use this; used internally by FreeMarker, might changes without notice.
+ * 
+ * <p>The {@link TemplateSequenceModel} counterpart of {@link _RawValueHashModel}.
+ * 
+ * @since 2.3.32
+ */
+public interface _RawValueSequenceModel extends TemplateSequenceModel {
+
+    /**
+     * Returns the item as a {@link String} or {@link Number}, if {@link #get(int)} would return a
+     * {@link TemplateModel} that's equivalent to a {@link SimpleScalar} or {@link SimpleNumber} that wraps it.
+     * Otherwise returns what {@link #get(int)} would.
+     */
+    Object getRawValueOrModel(int index) throws TemplateModelException;
+
+}
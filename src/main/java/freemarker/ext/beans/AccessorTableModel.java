@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.ext.beans;
+
+import freemarker.ext.util.ModelFactory;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * A {@link StringModel} whose {@link #get(String)} finds the class member with a {@link BeanAccessorTable} that was
+ * created for the class of the wrapped object in advance. Used for the classes that were wrapped often; see
+ * {@link BeansWrapper#setAccessorTableThreshold(int)}. Otherwise it behaves exactly like a {@link StringModel}.
+ */
+final class AccessorTableModel extends StringModel {
+
+    private final BeanAccessorTable accessorTable;
+
+    AccessorTableModel(Object object, BeansWrapper wrapper, BeanAccessorTable accessorTable) {
+        super(object, wrapper);
+        this.accessorTable = accessorTable;
+    }
+
+    @Override
+    public TemplateModel get(String key) throws TemplateModelException {
+        BeanAccessorTable accessorTable = this.accessorTable;
+        if (!accessorTable.isUpToDate(wrapper.getClassIntrospector())) {
+            return super.get(key);
+        }
+        return get(key, accessorTable.getClassInfo(), accessorTable.get(key));
+    }
+
+    /**
+     * Creates {@link AccessorTableModel}-s for the objects of a single class.
+     */
+    static final class Factory implements ModelFactory {
+        private final BeanAccessorTable accessorTable;
+
+        Factory(BeanAccessorTable accessorTable) {
+            this.accessorTable = accessorTable;
+        }
+
+        @Override
+        public TemplateModel create(Object object, ObjectWrapper wrapper) {
+            return new AccessorTableModel(object, (BeansWrapper) wrapper, accessorTable);
+        }
+    }
+
+}
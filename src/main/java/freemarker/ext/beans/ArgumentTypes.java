@@ -67,10 +67,7 @@ final class ArgumentTypes {
         int ln = args.length;
         Class<?>[] typesTmp = new Class[ln];
         for (int i = 0; i < ln; ++i) {
-            Object arg = args[i];
-            typesTmp[i] = arg == null
-                    ? (bugfixed ? Null.class : Object.class)
-                    : arg.getClass();
+            typesTmp[i] = getArgumentType(args[i], bugfixed);
         }
         
         // `typesTmp` is used so the array is only modified before it's stored in the final `types` field (see JSR-133)
@@ -78,6 +75,15 @@ final class ArgumentTypes {
         this.bugfixed = bugfixed;
     }
     
+    /**
+     * Returns the class that represents the type of the argument in an {@link ArgumentTypes}.
+     */
+    static Class<?> getArgumentType(Object arg, boolean bugfixed) {
+        return arg == null
+                ? (bugfixed ? Null.class : Object.class)
+                : arg.getClass();
+    }
+    
     @Override
     public int hashCode() {
         int hash = 0;
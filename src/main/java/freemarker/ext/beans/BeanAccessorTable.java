@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.ext.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link String} keys of the class introspection data of a class, with the member descriptor that belongs to
+ * them, stored in an open addressing hash table, which is populated once, and then only read. This is what
+ * {@link AccessorTableModel#get(String)} uses instead of looking up the class introspection data of the class, and
+ * then the key in that. See {@link BeansWrapper#setAccessorTableThreshold(int)}.
+ * 
+ * <p>Instances are immutable, and so thread-safe.
+ */
+final class BeanAccessorTable {
+
+    private final ClassIntrospector classIntrospector;
+    private final int clearingCounter;
+    private final Map<Object, Object> classInfo;
+
+    private final int mask;
+    private final String[] keys;
+    private final Object[] descriptors;
+
+    private BeanAccessorTable(ClassIntrospector classIntrospector, int clearingCounter, Map<Object, Object> classInfo) {
+        this.classIntrospector = classIntrospector;
+        this.clearingCounter = clearingCounter;
+        this.classInfo = classInfo;
+
+        List<String> stringKeys = new ArrayList<>(classInfo.size());
+        for (Object key : classInfo.keySet()) {
+            if (key instanceof String) {
+                stringKeys.add((String) key);
+            }
+        }
+
+        // At most half full, so that the probe sequences remain short
+        int capacity = 2;
+        while (capacity < stringKeys.size() * 2) {
+            capacity <<= 1;
+        }
+        mask = capacity - 1;
+        keys = new String[capacity];
+        descriptors = new Object[capacity];
+        for (String key : stringKeys) {
+            int index = key.hashCode() & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            descriptors[index] = classInfo.get(key);
+        }
+    }
+
+    /**
+     * Creates the table from the current class introspection data of the class.
+     */
+    static BeanAccessorTable create(ClassIntrospector classIntrospector, Class<?> clazz) {
+        // Must be read before the class introspection data is get, or else we could miss a clearing.
+        int clearingCounter = classIntrospector.getClearingCounter();
+        return new BeanAccessorTable(classIntrospector, clearingCounter, classIntrospector.get(clazz));
+    }
+
+    /**
+     * Tells if the table still reflects the class introspection data that the given {@link ClassIntrospector} would
+     * return.
+     */
+    boolean isUpToDate(ClassIntrospector classIntrospector) {
+        return classIntrospector == this.classIntrospector
+                && classIntrospector.getClearingCounter() == clearingCounter;
+    }
+
+    /**
+     * The class introspection data that this table was created from.
+     */
+    Map<Object, Object> getClassInfo() {
+        return classInfo;
+    }
+
+    /**
+     * Same as {@code getClassInfo().get(key)}.
+     */
+    Object get(String key) {
+        int index = key.hashCode() & mask;
+        String storedKey;
+        while ((storedKey = keys[index]) != null) {
+            if (storedKey == key || storedKey.equals(key)) {
+                return descriptors[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+}
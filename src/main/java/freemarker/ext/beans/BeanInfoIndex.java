@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import java.beans.BeanInfo;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.MethodDescriptor;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import freemarker.log.Logger;
+import freemarker.template.utility.NullArgumentException;
+import freemarker.template.utility.StringUtil;
+
+/**
+ * Stores what {@link Introspector#getBeanInfo(Class)} has returned for a set of classes, so that it can be saved to a
+ * file at build time (or on the first startup), and then loaded on later startups. If set with
+ * {@link BeansWrapper#setBeanInfoIndex(BeanInfoIndex)}, the class introspection uses this instead of calling
+ * {@link Introspector} for the classes in the index, which is a considerable part of the introspection cost. The
+ * {@link MemberAccessPolicy}, the {@link MethodAppearanceFineTuner}, and the other introspection settings are still
+ * applied as usual, so the index doesn't depend on them.
+ * 
+ * <p>For each class a fingerprint of its public method signatures is stored as well. If the class has changed since
+ * the index was created, the fingerprint won't match, and then {@link Introspector} will be used for that class as if
+ * it wasn't in the index. Yet, the index should be recreated whenever the indexed classes change, as it doesn't catch
+ * changes that don't affect the public method signatures (like adding a {@link BeanInfo} class for an indexed class).
+ * 
+ * <p>Instances are immutable, and so thread-safe.
+ * 
+ * @since 2.3.32
+ */
+public final class BeanInfoIndex {
+
+    private static final Logger LOG = Logger.getLogger("freemarker.beans");
+
+    private static final String HEADER = "# FreeMarker BeanInfoIndex 1";
+    private static final String CLASS_LINE_TYPE = "class";
+    private static final String PROPERTY_LINE_TYPE = "property";
+    private static final String METHOD_LINE_TYPE = "method";
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private final Map<String, ClassEntry> classEntriesByName;
+
+    private BeanInfoIndex(Map<String, ClassEntry> classEntriesByName) {
+        this.classEntriesByName = classEntriesByName;
+    }
+
+    /**
+     * Creates a new index by introspecting the given classes with {@link Introspector}.
+     */
+    public static BeanInfoIndex create(Collection<? extends Class<?>> classes) throws IntrospectionException {
+        NullArgumentException.check("classes", classes);
+        Map<String, ClassEntry> classEntriesByName = new LinkedHashMap<>();
+        for (Class<?> clazz : classes) {
+            BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
+
+            List<String[]> properties = new ArrayList<>();
+            PropertyDescriptor[] pds = beanInfo.getPropertyDescriptors();
+            if (pds != null) {
+                for (PropertyDescriptor pd : pds) {
+                    Method indexedReadMethod = pd instanceof IndexedPropertyDescriptor
+                            ? ((IndexedPropertyDescriptor) pd).getIndexedReadMethod() : null;
+                    if (pd.getReadMethod() != null || indexedReadMethod != null) {
+                        properties.add(new String[] {
+                                pd.getName(), toSignature(pd.getReadMethod()), toSignature(indexedReadMethod) });
+                    }
+                    // Properties without reader method are ignored by the BeansWrapper anyway
+                }
+            }
+
+            List<String> methods = new ArrayList<>();
+            MethodDescriptor[] mds = beanInfo.getMethodDescriptors();
+            if (mds != null) {
+                for (MethodDescriptor md : mds) {
+                    methods.add(toSignature(md.getMethod()));
+                }
+            }
+
+            classEntriesByName.put(clazz.getName(), new ClassEntry(getFingerprint(clazz), properties, methods));
+        }
+        return new BeanInfoIndex(classEntriesByName);
+    }
+
+    /**
+     * Loads an index earlier saved with {@link #save(Writer)}.
+     * 
+     * @throws IOException
+     *             If reading has failed, or if the content is malformed.
+     */
+    public static BeanInfoIndex load(Reader reader) throws IOException {
+        NullArgumentException.check("reader", reader);
+        BufferedReader bufferedReader = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+
+        String header = bufferedReader.readLine();
+        if (!HEADER.equals(header)) {
+            throw new IOException("Not a BeanInfoIndex file, or it has unsupported format version. The first line "
+                    + "should be " + StringUtil.jQuote(HEADER) + ", but was " + StringUtil.jQuote(header) + ".");
+        }
+
+        Map<String, ClassEntry> classEntriesByName = new LinkedHashMap<>();
+        List<String[]> properties = null;
+        List<String> methods = null;
+        String line;
+        int lineNumber = 1;
+        while ((line = bufferedReader.readLine()) != null) {
+            lineNumber++;
+            if (line.length() == 0) {
+                continue;
+            }
+            String[] fields = StringUtil.split(line, FIELD_SEPARATOR);
+            String lineType = fields[0];
+            if (lineType.equals(CLASS_LINE_TYPE) && fields.length == 3) {
+                properties = new ArrayList<>();
+                methods = new ArrayList<>();
+                classEntriesByName.put(fields[1], new ClassEntry(fields[2], properties, methods));
+            } else if (lineType.equals(PROPERTY_LINE_TYPE) && fields.length == 4 && properties != null) {
+                properties.add(new String[] { fields[1], fields[2], fields[3] });
+            } else if (lineType.equals(METHOD_LINE_TYPE) && fields.length == 2 && methods != null) {
+                methods.add(fields[1]);
+            } else {
+                throw new IOException("Malformed BeanInfoIndex file content at line " + lineNumber + ": "
+                        + StringUtil.jQuote(line));
+            }
+        }
+        return new BeanInfoIndex(classEntriesByName);
+    }
+
+    /**
+     * Saves the index in a line-based text format, which can be loaded with {@link #load(Reader)}. 
+     */
+    public void save(Writer writer) throws IOException {
+        NullArgumentException.check("writer", writer);
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Map.Entry<String, ClassEntry> classEntryEnt : classEntriesByName.entrySet()) {
+            ClassEntry classEntry = classEntryEnt.getValue();
+            writeLine(writer, CLASS_LINE_TYPE, classEntryEnt.getKey(), classEntry.fingerprint);
+            for (String[] property : classEntry.properties) {
+                writeLine(writer, PROPERTY_LINE_TYPE, property[0], property[1], property[2]);
+            }
+            for (String method : classEntry.methods) {
+                writeLine(writer, METHOD_LINE_TYPE, method);
+            }
+        }
+    }
+
+    private static void writeLine(Writer writer, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i != 0) {
+                writer.write(FIELD_SEPARATOR);
+            }
+            writer.write(fields[i]);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Returns the names of the indexed classes.
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(classEntriesByName.keySet());
+    }
+
+    /**
+     * Returns the {@link BeanInfo} for the class, or {@code null} if the class isn't in the index, or it has changed
+     * since it was indexed.
+     */
+    BeanInfo getBeanInfo(Class<?> clazz) {
+        ClassEntry classEntry = classEntriesByName.get(clazz.getName());
+        if (classEntry == null) {
+            return null;
+        }
+        if (!classEntry.fingerprint.equals(getFingerprint(clazz))) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Class " + clazz.getName() + " has changed since it was put into the BeanInfoIndex; "
+                        + "java.beans.Introspector will be used for it.");
+            }
+            return null;
+        }
+
+        Map<String, Method> methodsBySignature = new HashMap<>();
+        for (Method method : clazz.getMethods()) {
+            methodsBySignature.put(toSignature(method), method);
+        }
+        try {
+            final PropertyDescriptor[] pds = new PropertyDescriptor[classEntry.properties.size()];
+            for (int i = 0; i < pds.length; i++) {
+                String[] property = classEntry.properties.get(i);
+                Method readMethod = findMethod(methodsBySignature, property[1]);
+                Method indexedReadMethod = findMethod(methodsBySignature, property[2]);
+                pds[i] = indexedReadMethod != null
+                        ? new IndexedPropertyDescriptor(property[0], readMethod, null, indexedReadMethod, null)
+                        : new PropertyDescriptor(property[0], readMethod, null);
+            }
+
+            final MethodDescriptor[] mds = new MethodDescriptor[classEntry.methods.size()];
+            for (int i = 0; i < mds.length; i++) {
+                mds[i] = new MethodDescriptor(findMethod(methodsBySignature, classEntry.methods.get(i)));
+            }
+
+            return new SimpleBeanInfo() {
+                @Override
+                public PropertyDescriptor[] getPropertyDescriptors() {
+                    return pds;
+                }
+
+                @Override
+                public MethodDescriptor[] getMethodDescriptors() {
+                    return mds;
+                }
+            };
+        } catch (IntrospectionException | IllegalStateException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Couldn't restore BeanInfo of class " + clazz.getName() + " from the BeanInfoIndex; "
+                        + "java.beans.Introspector will be used for it.", e);
+            }
+            return null;
+        }
+    }
+
+    private static Method findMethod(Map<String, Method> methodsBySignature, String signature) {
+        if (signature.length() == 0) {
+            return null;
+        }
+        Method method = methodsBySignature.get(signature);
+        if (method == null) {
+            throw new IllegalStateException("No public method with signature " + StringUtil.jQuote(signature));
+        }
+        return method;
+    }
+
+    /**
+     * Returns the signature of the method, in a format like {@code "foo(int,java.lang.String)java.lang.Object"}, or
+     * {@code ""} for {@code null}.
+     */
+    private static String toSignature(Method method) {
+        if (method == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(method.getName()).append('(');
+        Class<?>[] paramTypes = method.getParameterTypes();
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append(paramTypes[i].getName());
+        }
+        sb.append(')').append(method.getReturnType().getName());
+        return sb.toString();
+    }
+
+    /**
+     * A 64 bit FNV-1a hash of the sorted public method signatures; it's for detecting changes, not for security.
+     */
+    private static String getFingerprint(Class<?> clazz) {
+        Method[] methods = clazz.getMethods();
+        String[] signatures = new String[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            signatures[i] = toSignature(methods[i]);
+        }
+        Arrays.sort(signatures);
+
+        long hash = 0xcbf29ce484222325L;
+        for (String signature : signatures) {
+            for (int i = 0; i < signature.length(); i++) {
+                hash ^= signature.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= ';';
+            hash *= 0x100000001b3L;
+        }
+        return Long.toHexString(hash);
+    }
+
+    private static final class ClassEntry {
+        private final String fingerprint;
+        /** Each item is a property name, read method signature, indexed read method signature triplet. */
+        private final List<String[]> properties;
+        private final List<String> methods;
+
+        ClassEntry(String fingerprint, List<String[]> properties, List<String> methods) {
+            this.fingerprint = fingerprint;
+            this.properties = properties;
+            this.methods = methods;
+        }
+    }
+
+}
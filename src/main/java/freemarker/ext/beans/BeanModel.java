@@ -141,13 +141,23 @@ implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel, Temp
     @Override
     public TemplateModel get(String key)
         throws TemplateModelException {
+        Map<Object, Object> classInfo = wrapper.getClassIntrospector().get(object.getClass());
+        return get(key, classInfo, classInfo.get(key));
+    }
+
+    /**
+     * Same as {@link #get(String)}, but with the class introspection data, and the member descriptor for the key
+     * already looked up, like by {@link _BeanMemberInlineCache}.
+     * 
+     * @param fd
+     *            The value that belongs to the key in the class introspection data; possibly {@code null}.
+     */
+    TemplateModel get(String key, Map<Object, Object> classInfo, Object fd) throws TemplateModelException {
         Class<?> clazz = object.getClass();
-        Map<Object, Object> classInfo = wrapper.getClassIntrospector().get(clazz);
         TemplateModel retval = null;
         
         try {
             if (wrapper.isMethodsShadowItems()) {
-                Object fd = classInfo.get(key);
                 if (fd != null) {
                     retval = invokeThroughDescriptor(fd, classInfo);
                 } else {
@@ -159,7 +169,6 @@ implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel, Temp
                 if (model != nullModel && model != UNKNOWN) {
                     return model;
                 }
-                Object fd = classInfo.get(key);
                 if (fd != null) {
                     retval = invokeThroughDescriptor(fd, classInfo);
                     if (retval == UNKNOWN && model == nullModel) {
@@ -206,6 +215,12 @@ implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel, Temp
     
     private TemplateModel invokeThroughDescriptor(Object desc, Map<Object, Object> classInfo)
             throws IllegalAccessException, InvocationTargetException, TemplateModelException {
+        if (desc instanceof FastPropertyDescriptor && ((FastPropertyDescriptor) desc).getIndexedReadMethod() == null) {
+            // The most common case, and as the result is never cached, we can skip the memberCache lookup.
+            FastPropertyDescriptor pd = (FastPropertyDescriptor) desc;
+            return wrapper.invokeMethod(object, pd.getReadMethod(), pd.getReadMethodInvoker(), null);
+        }
+
         // See if this particular instance has a cached implementation for the requested feature descriptor
         TemplateModel cachedModel;
         synchronized (this) {
@@ -222,24 +237,27 @@ implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel, Temp
             Method indexedReadMethod = pd.getIndexedReadMethod(); 
             if (indexedReadMethod != null) {
                 if (!wrapper.getPreferIndexedReadMethod() && (pd.getReadMethod()) != null) {
-                    resultModel = wrapper.invokeMethod(object, pd.getReadMethod(), null);
+                    resultModel = wrapper.invokeMethod(object, pd.getReadMethod(), pd.getReadMethodInvoker(), null);
                     // cachedModel remains null, as we don't cache these
                 } else {
                     resultModel = cachedModel = 
                         new SimpleMethodModel(object, indexedReadMethod, 
-                                ClassIntrospector.getArgTypes(classInfo, indexedReadMethod), wrapper);
+                                ClassIntrospector.getArgTypes(classInfo, indexedReadMethod),
+                                ClassIntrospector.getMethodHandle(classInfo, indexedReadMethod), wrapper);
                 }
             } else {
-                resultModel = wrapper.invokeMethod(object, pd.getReadMethod(), null);
+                resultModel = wrapper.invokeMethod(object, pd.getReadMethod(), pd.getReadMethodInvoker(), null);
                 // cachedModel remains null, as we don't cache these
             }
         } else if (desc instanceof Field) {
-            resultModel = wrapper.readField(object, (Field) desc);
+            Field field = (Field) desc;
+            resultModel = wrapper.readField(object, field, ClassIntrospector.getMethodHandle(classInfo, field));
             // cachedModel remains null, as we don't cache these
         } else if (desc instanceof Method) {
             Method method = (Method) desc;
             resultModel = cachedModel = new SimpleMethodModel(
-                    object, method, ClassIntrospector.getArgTypes(classInfo, method), wrapper);
+                    object, method, ClassIntrospector.getArgTypes(classInfo, method),
+                    ClassIntrospector.getMethodHandle(classInfo, method), wrapper);
         } else if (desc instanceof OverloadedMethods) {
             resultModel = cachedModel = new OverloadedMethodsModel(
                     object, (OverloadedMethods) desc, wrapper);
@@ -263,7 +281,7 @@ implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel, Temp
         }
     }
 
-    protected TemplateModel invokeGenericGet(Map/*<Object, Object>*/ classInfo, Class<?> clazz, String key)
+    protected TemplateModel invokeGenericGet(Map<Object, Object> classInfo, Class<?> clazz, String key)
             throws IllegalAccessException, InvocationTargetException,
         TemplateModelException {
         Method genericGet = (Method) classInfo.get(ClassIntrospector.GENERIC_GET_KEY);
@@ -271,7 +289,8 @@ implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel, Temp
             return UNKNOWN;
         }
 
-        return wrapper.invokeMethod(object, genericGet, new Object[] { key });
+        return wrapper.invokeMethod(
+                object, genericGet, ClassIntrospector.getMethodHandle(classInfo, genericGet), new Object[] { key });
     }
 
     protected TemplateModel wrap(Object obj)
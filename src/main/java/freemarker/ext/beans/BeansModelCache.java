@@ -20,17 +20,19 @@
 package freemarker.ext.beans;
 
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import freemarker.ext.util.ModelCache;
 import freemarker.ext.util.ModelFactory;
+import freemarker.template.ObjectWrapper;
 import freemarker.template.TemplateModel;
 
 public class BeansModelCache extends ModelCache {
-    private final Map<Class<?>, ModelFactory> classToFactory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ModelFactory> classToFactory = new ConcurrentHashMap<>();
     private final Set<String> mappedClassNames = new HashSet<>();
 
     private final BeansWrapper wrapper;
@@ -64,6 +66,10 @@ public class BeansModelCache extends ModelCache {
                         mappedClassNames.add(className);
                     }
                     factory = wrapper.getModelFactory(clazz);
+                    int accessorTableThreshold = wrapper.getAccessorTableThreshold();
+                    if (accessorTableThreshold != 0 && factory == StringModel.FACTORY) {
+                        factory = new WrappingCountingModelFactory(clazz, accessorTableThreshold);
+                    }
                     classToFactory.put(clazz, factory);
                 }
             }
@@ -71,4 +77,44 @@ public class BeansModelCache extends ModelCache {
         
         return factory.create(object, wrapper);
     }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        // The factories can hold BeanAccessorTable-s, which are based on the class introspection data.
+        synchronized (classToFactory) {
+            classToFactory.clear();
+            mappedClassNames.clear();
+        }
+    }
+
+    /**
+     * Creates {@link StringModel}-s, while counting how many times it was called, and when that reaches the
+     * {@link BeansWrapper#setAccessorTableThreshold(int) accessorTableThreshold}, replaces itself with an
+     * {@link AccessorTableModel.Factory}.
+     */
+    private final class WrappingCountingModelFactory implements ModelFactory {
+        private final Class<?> clazz;
+        private final int threshold;
+        private final AtomicInteger wrappingCount = new AtomicInteger();
+
+        WrappingCountingModelFactory(Class<?> clazz, int threshold) {
+            this.clazz = clazz;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public TemplateModel create(Object object, ObjectWrapper objectWrapper) {
+            // Only a single thread can reach the threshold exactly, so only that creates the table.
+            if (wrappingCount.incrementAndGet() == threshold) {
+                ModelFactory accessorTableModelFactory = new AccessorTableModel.Factory(
+                        BeanAccessorTable.create(wrapper.getClassIntrospector(), clazz));
+                // Does nothing if the cache was cleared meanwhile:
+                classToFactory.replace(clazz, this, accessorTableModelFactory);
+                return accessorTableModelFactory.create(object, objectWrapper);
+            }
+            return StringModel.FACTORY.create(object, objectWrapper);
+        }
+    }
+
 }
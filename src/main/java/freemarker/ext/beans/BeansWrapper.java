@@ -19,8 +19,10 @@
 
 package freemarker.ext.beans;
 
+import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
@@ -39,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import freemarker.core.BugException;
 import freemarker.core._DelayedFTLTypeDescription;
@@ -68,6 +71,7 @@ import freemarker.template.TemplateSequenceModel;
 import freemarker.template.Version;
 import freemarker.template._TemplateAPI;
 import freemarker.template.utility.ClassUtil;
+import freemarker.template.utility.NullArgumentException;
 import freemarker.template.utility.RichObjectWrapper;
 import freemarker.template.utility.WriteProtectable;
 
@@ -187,6 +191,14 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
     private boolean simpleMapWrapper;  // initialized from the BeansWrapperConfiguration
     private boolean strict;  // initialized from the BeansWrapperConfiguration
     private boolean preferIndexedReadMethod; // initialized from the BeansWrapperConfiguration
+    private int accessorTableThreshold; // initialized from the BeansWrapperConfiguration
+
+    /**
+     * If {@link #invokeMethod(Object, Method, Object[])} and {@link #readField(Object, Field)} are overridden, then
+     * {@link MethodHandle}-s can't be used instead of them, or else the overriding methods would be bypassed.
+     */
+    private final boolean invokeMethodOverridden;
+    private final boolean readFieldOverridden;
     
     private final Version incompatibleImprovements;
     
@@ -341,12 +353,16 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
         }
         
         this.incompatibleImprovements = bwConf.getIncompatibleImprovements();  // normalized
+
+        invokeMethodOverridden = isOverridden("invokeMethod", Object.class, Method.class, Object[].class);
+        readFieldOverridden = isOverridden("readField", Object.class, Field.class);
         
         simpleMapWrapper = bwConf.isSimpleMapWrapper();
         preferIndexedReadMethod =  bwConf.getPreferIndexedReadMethod();
         defaultDateType = bwConf.getDefaultDateType();
         outerIdentity = bwConf.getOuterIdentity() != null ? bwConf.getOuterIdentity() : this;
         strict = bwConf.isStrict();
+        accessorTableThreshold = bwConf.getAccessorTableThreshold();
         
         if (!writeProtected) {
             // As this is not a read-only BeansWrapper, the classIntrospector will be possibly replaced for a few times,
@@ -373,6 +389,28 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
         finalizeConstruction(writeProtected);
     }
 
+    /**
+     * Tells if a subclass has overridden a method of {@link BeansWrapper}; if that can't be decided, it returns
+     * {@code true}, as that's the safe assumption for the callers.
+     */
+    private boolean isOverridden(String methodName, Class<?>... paramTypes) {
+        try {
+            for (Class<?> thisClass = this.getClass(); thisClass != BeansWrapper.class;
+                    thisClass = thisClass.getSuperclass()) {
+                try {
+                    thisClass.getDeclaredMethod(methodName, paramTypes);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // Continue with the superclass
+                }
+            }
+            return false;
+        } catch (Throwable e) {
+            // The security manager sometimes doesn't allow this
+            return true;
+        }
+    }
+
     /**
      * Meant to be called after {@link BeansWrapper#BeansWrapper(BeansWrapperConfiguration, boolean, boolean)} when
      * its last argument was {@code false}; makes the instance read-only if necessary, then registers the model
@@ -626,6 +664,98 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
         }
     }
     
+    /**
+     * Sets if {@link MethodHandle}-s are used to call the methods and read the fields of the wrapped objects, instead
+     * of the Java reflection API ({@link Method#invoke(Object, Object...)}, {@link Field#get(Object)}). The
+     * {@link MethodHandle}-s are created when the class is introspected, which makes the introspection somewhat
+     * slower, but the member accesses from templates are then done without the access checks and other per-call
+     * overhead of the reflection API. The behavior (like which members are visible, the type conversions, and the
+     * exceptions) is the same either way. Defaults to {@code false}.
+     * 
+     * <p>If {@link #invokeMethod(Object, Method, Object[])} or {@link #readField(Object, Field)} is overridden in a
+     * subclass, then the affected kind of member is still accessed through that method, regardless of this setting.
+     * 
+     * @since 2.3.32
+     */
+    public void setUseMethodHandles(boolean useMethodHandles) {
+        checkModifiable();
+        
+        if (classIntrospector.getUseMethodHandles() != useMethodHandles) {
+            ClassIntrospectorBuilder builder = classIntrospector.createBuilder();
+            builder.setUseMethodHandles(useMethodHandles);
+            replaceClassIntrospector(builder);
+        }
+    }
+
+    /**
+     * See {@link #setUseMethodHandles(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public boolean getUseMethodHandles() {
+        return classIntrospector.getUseMethodHandles();
+    }
+
+    /**
+     * Sets the {@link BeanInfoIndex} to use instead of {@link Introspector} for the classes that are in the index. As
+     * calling {@link Introspector} is a considerable part of the class introspection cost, this speeds up the first
+     * accesses of the members of the indexed classes after startup. The index doesn't influence what's exposed, as all
+     * the other introspection settings are applied the same way. Defaults to {@code null}.
+     * 
+     * @since 2.3.32
+     */
+    public void setBeanInfoIndex(BeanInfoIndex beanInfoIndex) {
+        checkModifiable();
+        
+        if (classIntrospector.getBeanInfoIndex() != beanInfoIndex) {
+            ClassIntrospectorBuilder builder = classIntrospector.createBuilder();
+            builder.setBeanInfoIndex(beanInfoIndex);
+            replaceClassIntrospector(builder);
+        }
+    }
+
+    /**
+     * See {@link #setBeanInfoIndex(BeanInfoIndex)}.
+     * 
+     * @since 2.3.32
+     */
+    public BeanInfoIndex getBeanInfoIndex() {
+        return classIntrospector.getBeanInfoIndex();
+    }
+
+    /**
+     * Sets if value classes are introspected by discovering their members directly, instead of with
+     * {@link Introspector}. A value class is a final class that directly extends {@link Object} or
+     * {@code java.lang.Record} (Java 16+), whose instance fields are all final, and that has no {@link BeanInfo}
+     * class. For such classes the result is what {@link Introspector} would find, so the introspection is just
+     * cheaper, except that the accessor methods of record components are also exposed as properties. So for
+     * {@code record Point(int x, int y)}, {@code point.x} will return the value of the {@code x} component, instead
+     * of the {@code x()} method (as the property and the method have the same name, the property wins). All the other
+     * introspection settings (like the {@link MemberAccessPolicy} and the {@link MethodAppearanceFineTuner}) are
+     * applied as usual. Classes in the {@link #setBeanInfoIndex(BeanInfoIndex) BeanInfoIndex} are introspected based
+     * on the index regardless of this setting. Defaults to {@code false}.
+     * 
+     * @since 2.3.32
+     */
+    public void setDirectValueClassIntrospection(boolean directValueClassIntrospection) {
+        checkModifiable();
+        
+        if (classIntrospector.getDirectValueClassIntrospection() != directValueClassIntrospection) {
+            ClassIntrospectorBuilder builder = classIntrospector.createBuilder();
+            builder.setDirectValueClassIntrospection(directValueClassIntrospection);
+            replaceClassIntrospector(builder);
+        }
+    }
+
+    /**
+     * See {@link #setDirectValueClassIntrospection(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public boolean getDirectValueClassIntrospection() {
+        return classIntrospector.getDirectValueClassIntrospection();
+    }
+
     /**
      * Returns whether exposure of public instance fields of classes is 
      * enabled. See {@link #setExposeFields(boolean)} for details.
@@ -825,7 +955,9 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
      * this object wrapper. Default is {@code false}.
      * When set to {@code true}, calling {@link #wrap(Object)} multiple times for
      * the same object will likely return the same model (although there is
-     * no guarantee as the cache items can be cleared any time).
+     * no guarantee as the cache items can be cleared any time). Since 2.3.32 the cache has a fixed capacity,
+     * {@link ModelCache#DEFAULT_CAPACITY} models, and may evict a cached model to make room for another; see
+     * {@link ModelCache}.
      */
     public void setUseCache(boolean useCache) {
         checkModifiable();
@@ -838,6 +970,46 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
     public boolean getUseCache() {
         return modelCache.getUseCache();
     }
+
+    /**
+     * Sets after how many wrappings of the objects of the same class will the objects of that class be wrapped into
+     * models that find the class members of the class with a table that was created for that class in advance,
+     * instead of looking up the class introspection data of the class, and then the member in that. This speeds up
+     * {@link TemplateHashModel#get(String)} of the models of the frequently wrapped classes, while the rarely wrapped
+     * classes don't pay the cost of creating the table. Only affects the classes that would be wrapped into a
+     * {@link StringModel} (that is, generic JavaBeans, not {@link Map}-s, {@link Number}-s, etc.), and the models
+     * still behave exactly like a {@link StringModel}. The default is 0, which means that such tables are never
+     * created.
+     * 
+     * @param accessorTableThreshold
+     *            Non-negative; 0 disables the feature.
+     * 
+     * @since 2.3.32
+     */
+    public void setAccessorTableThreshold(int accessorTableThreshold) {
+        checkModifiable();
+        checkAccessorTableThreshold(accessorTableThreshold);
+        if (this.accessorTableThreshold != accessorTableThreshold) {
+            this.accessorTableThreshold = accessorTableThreshold;
+            // Drops the model factories that were chosen with the old value:
+            modelCache.clearCache();
+        }
+    }
+
+    /**
+     * See {@link #setAccessorTableThreshold(int)}.
+     * 
+     * @since 2.3.32
+     */
+    public int getAccessorTableThreshold() {
+        return accessorTableThreshold;
+    }
+
+    static void checkAccessorTableThreshold(int accessorTableThreshold) {
+        if (accessorTableThreshold < 0) {
+            throw new IllegalArgumentException("accessorTableThreshold can't be negative: " + accessorTableThreshold);
+        }
+    }
     
     /**
      * Sets the null model. This model is returned from the {@link #wrap(Object)} method whenever the wrapped object is
@@ -1556,6 +1728,23 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
             : getOuterIdentity().wrap(retval); 
     }
 
+    /**
+     * Same as {@link #invokeMethod(Object, Method, Object[])}, but uses the {@link MethodHandle} created by
+     * {@link MethodHandleUtil#createMethodInvoker(Method)}, if it's not {@code null}, and the above method wasn't
+     * overridden.
+     */
+    TemplateModel invokeMethod(Object object, Method method, MethodHandle methodInvoker, Object[] args)
+            throws InvocationTargetException, IllegalAccessException, TemplateModelException {
+        if (methodInvoker == null || invokeMethodOverridden) {
+            return invokeMethod(object, method, args);
+        }
+        Object retval = MethodHandleUtil.invokeMethod(methodInvoker, object, args);
+        return 
+            method.getReturnType() == void.class 
+            ? TemplateModel.NOTHING
+            : getOuterIdentity().wrap(retval); 
+    }
+
     /**
      * Reads the specified field, returns its value as {@link TemplateModel}.  All field reading done in templates
      * should go through this (assuming the target object was wrapped with this {@link ObjectWrapper}).
@@ -1574,6 +1763,19 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
         return getOuterIdentity().wrap(field.get(object));
     }
 
+    /**
+     * Same as {@link #readField(Object, Field)}, but uses the {@link MethodHandle} created by
+     * {@link MethodHandleUtil#createFieldReader(Field)}, if it's not {@code null}, and the above method wasn't
+     * overridden.
+     */
+    TemplateModel readField(Object object, Field field, MethodHandle fieldReader)
+            throws IllegalAccessException, TemplateModelException {
+        if (fieldReader == null || readFieldOverridden) {
+            return readField(object, field);
+        }
+        return getOuterIdentity().wrap(MethodHandleUtil.readField(fieldReader, object));
+    }
+
    /**
      * Returns a hash model that represents the so-called class static models.
      * Every class static model is itself a hash through which you can call
@@ -1668,6 +1870,33 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
         }
     }
 
+    /**
+     * Introspects the given classes in parallel, and puts the results into the class introspection cache, so that the
+     * first accesses of their members from templates won't have to do that. This is typically called during the
+     * application startup, with the classes that are known to be exposed to templates. Classes that are already in
+     * the cache are skipped.
+     * 
+     * <p>Note that if the class introspection cache is shared with other {@link BeansWrapper}-s (see
+     * {@link BeansWrapperBuilder}), those will see the preloaded data as well.
+     * 
+     * @param classes
+     *            The classes to introspect; duplicates are allowed.
+     * @param executor
+     *            Runs the introspection tasks; the parallelism is decided by this. This method returns after all tasks
+     *            were finished.
+     * 
+     * @throws InterruptedException
+     *             If the thread was interrupted while waiting for the tasks to finish.
+     * 
+     * @since 2.3.32
+     */
+    public void preloadClassIntrospectionCache(Collection<? extends Class<?>> classes, Executor executor)
+            throws InterruptedException {
+        NullArgumentException.check("classes", classes);
+        NullArgumentException.check("executor", executor);
+        classIntrospector.preload(classes, executor);
+    }
+
     /**
      * Removes the introspection data for a class from the cache.
      * Use this if you know that a class is not used anymore in templates.
@@ -1834,8 +2063,11 @@ public class BeansWrapper implements RichObjectWrapper, WriteProtectable {
                + "exposureLevel=" + classIntrospector.getExposureLevel() + ", "
                + "exposeFields=" + classIntrospector.getExposeFields() + ", "
                + "preferIndexedReadMethod=" + preferIndexedReadMethod + ", "
+               + "accessorTableThreshold=" + accessorTableThreshold + ", "
                + "treatDefaultMethodsAsBeanMembers="
                + classIntrospector.getTreatDefaultMethodsAsBeanMembers() + ", "
+               + "useMethodHandles=" + classIntrospector.getUseMethodHandles() + ", "
+               + "directValueClassIntrospection=" + classIntrospector.getDirectValueClassIntrospection() + ", "
                + "sharedClassIntrospCache="
                + (classIntrospector.isShared() ? "@" + System.identityHashCode(classIntrospector) : "none");
     }
@@ -51,6 +51,7 @@ public abstract class BeansWrapperConfiguration implements Cloneable {
     private ObjectWrapper outerIdentity = null;
     private boolean strict = false;
     private boolean useModelCache = false;
+    private int accessorTableThreshold = 0;
     // Attention!
     // - As this object is a cache key, non-normalized field values should be avoided.
     // - Fields with default values must be set until the end of the constructor to ensure that when the lookup happens,
@@ -112,6 +113,7 @@ public abstract class BeansWrapperConfiguration implements Cloneable {
         result = prime * result + (outerIdentity != null ? outerIdentity.hashCode() : 0);
         result = prime * result + (strict ? 1231 : 1237);
         result = prime * result + (useModelCache ? 1231 : 1237);
+        result = prime * result + accessorTableThreshold;
         result = prime * result + classIntrospectorBuilder.hashCode();
         return result;
     }
@@ -134,6 +136,7 @@ public abstract class BeansWrapperConfiguration implements Cloneable {
         if (outerIdentity != other.outerIdentity) return false;
         if (strict != other.strict) return false;
         if (useModelCache != other.useModelCache) return false;
+        if (accessorTableThreshold != other.accessorTableThreshold) return false;
         if (!classIntrospectorBuilder.equals(other.classIntrospectorBuilder)) return false;
         
         return true;
@@ -210,6 +213,23 @@ public abstract class BeansWrapperConfiguration implements Cloneable {
         this.useModelCache = useModelCache;
     }
 
+    /**
+     * @since 2.3.32
+     */
+    public int getAccessorTableThreshold() {
+        return accessorTableThreshold;
+    }
+
+    /**
+     * See {@link BeansWrapper#setAccessorTableThreshold(int)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setAccessorTableThreshold(int accessorTableThreshold) {
+        BeansWrapper.checkAccessorTableThreshold(accessorTableThreshold);
+        this.accessorTableThreshold = accessorTableThreshold;
+    }
+
     public Version getIncompatibleImprovements() {
         return incompatibleImprovements;
     }
@@ -250,6 +270,54 @@ public abstract class BeansWrapperConfiguration implements Cloneable {
         classIntrospectorBuilder.setTreatDefaultMethodsAsBeanMembers(treatDefaultMethodsAsBeanMembers);
     }
 
+    /**
+     * @since 2.3.32
+     */
+    public boolean getUseMethodHandles() {
+        return classIntrospectorBuilder.getUseMethodHandles();
+    }
+
+    /**
+     * See {@link BeansWrapper#setUseMethodHandles(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setUseMethodHandles(boolean useMethodHandles) {
+        classIntrospectorBuilder.setUseMethodHandles(useMethodHandles);
+    }
+
+    /**
+     * @since 2.3.32
+     */
+    public BeanInfoIndex getBeanInfoIndex() {
+        return classIntrospectorBuilder.getBeanInfoIndex();
+    }
+
+    /**
+     * See {@link BeansWrapper#setBeanInfoIndex(BeanInfoIndex)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setBeanInfoIndex(BeanInfoIndex beanInfoIndex) {
+        classIntrospectorBuilder.setBeanInfoIndex(beanInfoIndex);
+    }
+
+    /**
+     * @since 2.3.32
+     */
+    public boolean getDirectValueClassIntrospection() {
+        return classIntrospectorBuilder.getDirectValueClassIntrospection();
+    }
+
+    /**
+     * See {@link BeansWrapper#setDirectValueClassIntrospection(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setDirectValueClassIntrospection(boolean directValueClassIntrospection) {
+        classIntrospectorBuilder.setDirectValueClassIntrospection(directValueClassIntrospection);
+    }
+
     public MethodAppearanceFineTuner getMethodAppearanceFineTuner() {
         return classIntrospectorBuilder.getMethodAppearanceFineTuner();
     }
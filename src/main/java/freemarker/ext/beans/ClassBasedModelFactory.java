@@ -19,10 +19,9 @@
 
 package freemarker.ext.beans;
 
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import freemarker.core._DelayedJQuote;
 import freemarker.core._TemplateModelException;
@@ -38,7 +37,8 @@ abstract class ClassBasedModelFactory implements TemplateHashModel {
     private final BeansWrapper wrapper;
     
     private final Map<String,TemplateModel> cache = new ConcurrentHashMap<>();
-    private final Set<String> classIntrospectionsInProgress = new HashSet<>();
+    private final ConcurrentMap<String, PendingIntrospection<TemplateModel>> classIntrospectionsInProgress
+            = new ConcurrentHashMap<>();
     
     protected ClassBasedModelFactory(BeansWrapper wrapper) {
         this.wrapper = wrapper;
@@ -59,65 +59,57 @@ abstract class ClassBasedModelFactory implements TemplateHashModel {
     }
 
     private TemplateModel getInternal(String key) throws TemplateModelException, ClassNotFoundException {
-        {
+        while (true) {
             TemplateModel model = cache.get(key);
             if (model != null) return model;
-        }
 
-        final ClassIntrospector classIntrospector;
-        int classIntrospectorClearingCounter;
-        final Object sharedLock = wrapper.getSharedIntrospectionLock();
-        synchronized (sharedLock) {
-            TemplateModel model = cache.get(key);
-            if (model != null) return model;
-            
-            while (model == null && classIntrospectionsInProgress.contains(key)) {
-                // Another thread is already introspecting this class;
-                // waiting for its result.
-                try {
-                    sharedLock.wait();
-                    model = cache.get(key);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException("Class inrospection data lookup aborted: " + e);
-                }
+            PendingIntrospection<TemplateModel> pendingIntrosp = new PendingIntrospection<>();
+            PendingIntrospection<TemplateModel> otherPendingIntrosp
+                    = classIntrospectionsInProgress.putIfAbsent(key, pendingIntrosp);
+            if (otherPendingIntrosp != null) {
+                // Another thread is already introspecting this class; waiting for its result.
+                model = otherPendingIntrosp.await();
+                if (model != null) return model;
+                continue;  // The other thread has failed (or the class is unsuitable), so we retry
             }
-            if (model != null) return model;
-            
+
             // This will be the thread that introspects this class.
-            classIntrospectionsInProgress.add(key);
+            model = null;
+            try {
+                // Another thread might have finished introspecting this class since we have checked the cache.
+                model = cache.get(key);
+                if (model != null) return model;
 
-            // While the classIntrospector should not be changed from another thread, badly written apps can do that,
-            // and it's cheap to get the classIntrospector from inside the lock here:   
-            classIntrospector = wrapper.getClassIntrospector();
-            classIntrospectorClearingCounter = classIntrospector.getClearingCounter();
-        }
-        try {
-            final Class<?> clazz = ClassUtil.forName(key);
-            
-            // This is called so that we trigger the
-            // class-reloading detector. If clazz is a reloaded class,
-            // the wrapper will in turn call our clearCache method.
-            // TODO: Why do we check it now and only now?
-            classIntrospector.get(clazz);
-            
-            TemplateModel model = createModel(clazz);
-            // Warning: model will be null if the class is not good for the subclass.
-            // For example, EnumModels#createModel returns null if clazz is not an enum.
-            
-            if (model != null) {
-                synchronized (sharedLock) {
-                    // Save it into the cache, but only if nothing relevant has changed while we were outside the lock: 
-                    if (classIntrospector == wrapper.getClassIntrospector()
-                            && classIntrospectorClearingCounter == classIntrospector.getClearingCounter()) {  
-                        cache.put(key, model);
+                // While the classIntrospector should not be changed from another thread, badly written apps can do
+                // that, so we check if it was changed before we put the result into the cache.
+                final ClassIntrospector classIntrospector = wrapper.getClassIntrospector();
+                final int classIntrospectorClearingCounter = classIntrospector.getClearingCounter();
+
+                final Class<?> clazz = ClassUtil.forName(key);
+
+                // This is called so that we trigger the
+                // class-reloading detector. If clazz is a reloaded class,
+                // the wrapper will in turn call our clearCache method.
+                // TODO: Why do we check it now and only now?
+                classIntrospector.get(clazz);
+
+                model = createModel(clazz);
+                // Warning: model will be null if the class is not good for the subclass.
+                // For example, EnumModels#createModel returns null if clazz is not an enum.
+
+                if (model != null) {
+                    synchronized (wrapper.getSharedIntrospectionLock()) {
+                        // Save it into the cache, but only if nothing relevant has changed meanwhile:
+                        if (classIntrospector == wrapper.getClassIntrospector()
+                                && classIntrospectorClearingCounter == classIntrospector.getClearingCounter()) {
+                            cache.put(key, model);
+                        }
                     }
                 }
-            }
-            return model;
-        } finally {
-            synchronized (sharedLock) {
+                return model;
+            } finally {
                 classIntrospectionsInProgress.remove(key);
-                sharedLock.notifyAll();
+                pendingIntrosp.finish(model);
             }
         }
     }
@@ -25,15 +25,18 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.MethodDescriptor;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,6 +49,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import freemarker.core.BugException;
 import freemarker.core._JavaVersions;
@@ -134,6 +142,12 @@ class ClassIntrospector {
 
     /** Key in the class info Map to the Map that maps method to argument type arrays */
     private static final Object ARG_TYPES_BY_METHOD_KEY = new Object();
+    /**
+     * Key in the class info Map to the Map that maps methods and fields to the {@link MethodHandle}-s used to access
+     * them (see {@link MethodHandleUtil}); only present if {@link #useMethodHandles} is {@code true}. The read methods
+     * of properties aren't in this, as {@link FastPropertyDescriptor} stores those.
+     */
+    private static final Object METHOD_HANDLES_BY_MEMBER_KEY = new Object();
     /** Key in the class info Map to the object that represents the constructors (one or multiple due to overloading) */
     static final Object CONSTRUCTORS_KEY = new Object();
     /** Key in the class info Map to the get(String|Object) Method */
@@ -152,6 +166,9 @@ class ClassIntrospector {
     final MethodAppearanceFineTuner methodAppearanceFineTuner;
     final MethodSorter methodSorter;
     final boolean treatDefaultMethodsAsBeanMembers;
+    final boolean useMethodHandles;
+    final BeanInfoIndex beanInfoIndex;
+    final boolean directValueClassIntrospection;
     final Version incompatibleImprovements;
 
     /** See {@link #getHasSharedInstanceRestrictions()} */
@@ -166,14 +183,17 @@ class ClassIntrospector {
     private final Object sharedLock;
     private final Map<Class<?>, Map<Object, Object>> cache
             = new ConcurrentHashMap<>(0, 0.75f, 16);
-    private final Set<String> cacheClassNames = new HashSet<>(0);
-    private final Set<Class<?>> classIntrospectionsInProgress = new HashSet<>(0);
+    private final Set<String> cacheClassNames
+            = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(0, 0.75f, 16));
+    private final ConcurrentMap<Class<?>, PendingIntrospection<Map<Object, Object>>> classIntrospectionsInProgress
+            = new ConcurrentHashMap<>(0, 0.75f, 16);
 
     private final List<WeakReference<Object/*ClassBasedModelFactory|ModelCache>*/>> modelFactories
             = new LinkedList<>();
     private final ReferenceQueue<Object> modelFactoriesRefQueue = new ReferenceQueue<>();
 
-    private int clearingCounter;
+    /** Only modified while holding {@link #sharedLock}, but can be read without it. */
+    private volatile int clearingCounter;
 
     // -----------------------------------------------------------------------------------------------------------------
     // Instantiation:
@@ -193,6 +213,9 @@ class ClassIntrospector {
         this.methodAppearanceFineTuner = builder.getMethodAppearanceFineTuner();
         this.methodSorter = builder.getMethodSorter();
         this.treatDefaultMethodsAsBeanMembers = builder.getTreatDefaultMethodsAsBeanMembers();
+        this.useMethodHandles = builder.getUseMethodHandles();
+        this.beanInfoIndex = builder.getBeanInfoIndex();
+        this.directValueClassIntrospection = builder.getDirectValueClassIntrospection();
         this.incompatibleImprovements = builder.getIncompatibleImprovements();
 
         this.sharedLock = sharedLock;
@@ -225,50 +248,84 @@ class ClassIntrospector {
      *         {@link OverloadedMethods} or {@link Field} (but better check the source code...).
      */
     Map<Object, Object> get(Class<?> clazz) {
-        {
-            Map<Object, Object> introspData = cache.get(clazz);
-            if (introspData != null) return introspData;
-        }
-
-        String className;
-        synchronized (sharedLock) {
+        while (true) {
             Map<Object, Object> introspData = cache.get(clazz);
             if (introspData != null) return introspData;
 
-            className = clazz.getName();
-            if (cacheClassNames.contains(className)) {
-                onSameNameClassesDetected(className);
+            PendingIntrospection<Map<Object, Object>> pendingIntrosp = new PendingIntrospection<>();
+            PendingIntrospection<Map<Object, Object>> otherPendingIntrosp
+                    = classIntrospectionsInProgress.putIfAbsent(clazz, pendingIntrosp);
+            if (otherPendingIntrosp != null) {
+                // Another thread is already introspecting this class; waiting for its result.
+                introspData = otherPendingIntrosp.await();
+                if (introspData != null) return introspData;
+                continue;  // The other thread has failed, so we retry
             }
 
-            while (introspData == null && classIntrospectionsInProgress.contains(clazz)) {
-                // Another thread is already introspecting this class;
-                // waiting for its result.
-                try {
-                    sharedLock.wait();
-                    introspData = cache.get(clazz);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(
-                            "Class inrospection data lookup aborded: " + e);
+            // This will be the thread that introspects this class.
+            introspData = null;
+            try {
+                // Another thread might have finished introspecting this class since we have checked the cache.
+                introspData = cache.get(clazz);
+                if (introspData == null) {
+                    String className = clazz.getName();
+                    if (cacheClassNames.contains(className)) {
+                        onSameNameClassesDetected(className);
+                    }
+
+                    int clearingCounter = this.clearingCounter;
+                    introspData = createClassIntrospectionData(clazz);
+                    synchronized (sharedLock) {
+                        // Don't put outdated data into the cache if it was cleared meanwhile:
+                        if (clearingCounter == this.clearingCounter) {
+                            cache.put(clazz, introspData);
+                            cacheClassNames.add(className);
+                        }
+                    }
                 }
+                return introspData;
+            } finally {
+                classIntrospectionsInProgress.remove(clazz);
+                pendingIntrosp.finish(introspData);
             }
-            if (introspData != null) return introspData;
-
-            // This will be the thread that introspects this class.
-            classIntrospectionsInProgress.add(clazz);
         }
-        try {
-            Map<Object, Object> introspData = createClassIntrospectionData(clazz);
-            synchronized (sharedLock) {
-                cache.put(clazz, introspData);
-                cacheClassNames.add(className);
-            }
-            return introspData;
-        } finally {
-            synchronized (sharedLock) {
-                classIntrospectionsInProgress.remove(clazz);
-                sharedLock.notifyAll();
+    }
+
+    /**
+     * Corresponds to {@link BeansWrapper#preloadClassIntrospectionCache(Collection, Executor)}.
+     */
+    void preload(Collection<? extends Class<?>> classes, Executor executor) throws InterruptedException {
+        final CountDownLatch allTasksFinished = new CountDownLatch(classes.size());
+        final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        for (final Class<?> clazz : classes) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            get(clazz);
+                        } catch (Throwable e) {
+                            firstFailure.compareAndSet(null, e);
+                        } finally {
+                            allTasksFinished.countDown();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                firstFailure.compareAndSet(null, e);
+                allTasksFinished.countDown();
             }
         }
+        allTasksFinished.await();
+
+        Throwable failure = firstFailure.get();
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new BugException(failure);
+        }
     }
 
     /**
@@ -320,6 +377,9 @@ class ClassIntrospector {
             if ((field.getModifiers() & Modifier.STATIC) == 0) {
                 if (effClassMemberAccessPolicy.isFieldExposed(field)) {
                     introspData.put(field.getName(), field);
+                    if (useMethodHandles) {
+                        putMethodHandle(introspData, field, MethodHandleUtil.createFieldReader(field));
+                    }
                 }
             }
         }
@@ -329,7 +389,7 @@ class ClassIntrospector {
             Map<Object, Object> introspData, Class<?> clazz,
             Map<ExecutableMemberSignature, List<Method>> accessibleMethods,
             ClassMemberAccessPolicy effClassMemberAccessPolicy) throws IntrospectionException {
-        BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
+        BeanInfo beanInfo = getBeanInfo(clazz);
         List<PropertyDescriptor> pdas = getPropertyDescriptors(beanInfo, clazz);
         int pdasLength = pdas.size();
         // Reverse order shouldn't mater, but we keep it to not risk backward incompatibility.
@@ -350,6 +410,11 @@ class ClassIntrospector {
                 final Method method = getMatchingAccessibleMethod(mds.get(i).getMethod(), accessibleMethods);
                 if (method != null && effClassMemberAccessPolicy.isMethodExposed(method)) {
                     decision.setDefaults(method);
+                    if (beanInfo instanceof ValueClassBeanInfo
+                            && ((ValueClassBeanInfo) beanInfo).isRecordComponentAccessor(method)) {
+                        // The method has the same name as the property, so we let the property win.
+                        decision.setMethodShadowsProperty(false);
+                    }
                     if (methodAppearanceFineTuner != null) {
                         if (decisionInput == null) {
                             decisionInput = new MethodAppearanceDecisionInput();
@@ -375,8 +440,9 @@ class ClassIntrospector {
                             // Overloaded method - replace Method with a OverloadedMethods
                             OverloadedMethods overloadedMethods =
                                     new OverloadedMethods(is2321Bugfixed());
-                            overloadedMethods.addMethod((Method) previous);
-                            overloadedMethods.addMethod(method);
+                            overloadedMethods.addMethod(
+                                    (Method) previous, getMethodHandle(introspData, (Method) previous));
+                            overloadedMethods.addMethod(method, createMethodInvoker(method));
                             introspData.put(methodKey, overloadedMethods);
                             // Remove parameter type information (unless an indexed property reader needs it):
                             if (argTypesUsedByIndexerPropReaders == null
@@ -385,11 +451,12 @@ class ClassIntrospector {
                             }
                         } else if (previous instanceof OverloadedMethods) {
                             // Already overloaded method - add new overload
-                            ((OverloadedMethods) previous).addMethod(method);
+                            ((OverloadedMethods) previous).addMethod(method, createMethodInvoker(method));
                         } else if (decision.getMethodShadowsProperty()
                                 || !(previous instanceof FastPropertyDescriptor)) {
                             // Simple method (this far)
                             introspData.put(methodKey, method);
+                            putMethodHandle(introspData, method, createMethodInvoker(method));
                             Class<?>[] replaced = getArgTypesByMethod(introspData).put(method,
                                     method.getParameterTypes());
                             if (replaced != null) {
@@ -405,6 +472,22 @@ class ClassIntrospector {
         } // end if (exposureLevel < EXPOSE_PROPERTIES_ONLY)
     }
 
+    private BeanInfo getBeanInfo(Class<?> clazz) throws IntrospectionException {
+        if (beanInfoIndex != null) {
+            BeanInfo beanInfo = beanInfoIndex.getBeanInfo(clazz);
+            if (beanInfo != null) {
+                return beanInfo;
+            }
+        }
+        if (directValueClassIntrospection) {
+            BeanInfo beanInfo = ValueClassBeanInfo.create(clazz);
+            if (beanInfo != null) {
+                return beanInfo;
+            }
+        }
+        return Introspector.getBeanInfo(clazz);
+    }
+
     /**
      * Very similar to {@link BeanInfo#getPropertyDescriptors()}, but can deal with Java 8 default methods too.
      */
@@ -692,13 +775,15 @@ class ClassIntrospector {
             if (indexedReadMethod != null) {
                 getArgTypesByMethod(introspData).put(
                         indexedReadMethod, indexedReadMethod.getParameterTypes());
+                putMethodHandle(introspData, indexedReadMethod, createMethodInvoker(indexedReadMethod));
             }
         } else {
             indexedReadMethod = null;
         }
         
         if (readMethod != null || indexedReadMethod != null) {
-            introspData.put(pd.getName(), new FastPropertyDescriptor(readMethod, indexedReadMethod));
+            introspData.put(pd.getName(), new FastPropertyDescriptor(
+                    readMethod, indexedReadMethod, readMethod != null ? createMethodInvoker(readMethod) : null));
         }
     }
 
@@ -711,6 +796,7 @@ class ClassIntrospector {
         }
         if (genericGet != null && effClassMemberAccessPolicy.isMethodExposed(genericGet)) {
             introspData.put(GENERIC_GET_KEY, genericGet);
+            putMethodHandle(introspData, genericGet, createMethodInvoker(genericGet));
         }
     }
 
@@ -870,6 +956,27 @@ class ClassIntrospector {
         return BeansWrapper.is2321Bugfixed(incompatibleImprovements);
     }
 
+    /**
+     * @return {@code null} if {@link #useMethodHandles} is {@code false}, or the handle couldn't be created.
+     */
+    private MethodHandle createMethodInvoker(Method method) {
+        return useMethodHandles ? MethodHandleUtil.createMethodInvoker(method) : null;
+    }
+
+    private static void putMethodHandle(Map<Object, Object> classInfo, Member member, MethodHandle methodHandle) {
+        if (methodHandle == null) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Member, MethodHandle> methodHandles
+                = (Map<Member, MethodHandle>) classInfo.get(METHOD_HANDLES_BY_MEMBER_KEY);
+        if (methodHandles == null) {
+            methodHandles = new IdentityHashMap<>();
+            classInfo.put(METHOD_HANDLES_BY_MEMBER_KEY, methodHandles);
+        }
+        methodHandles.put(member, methodHandle);
+    }
+
     private static Map<Method, Class<?>[]> getArgTypesByMethod(Map<Object, Object> classInfo) {
         @SuppressWarnings("unchecked")
         Map<Method, Class<?>[]> argTypes = (Map<Method, Class<?>[]>) classInfo.get(ARG_TYPES_BY_METHOD_KEY);
@@ -952,9 +1059,7 @@ class ClassIntrospector {
      * Returns the number of events so far that could make class introspection data returned earlier outdated.
      */
     int getClearingCounter() {
-        synchronized (sharedLock) {
-            return clearingCounter;
-        }
+        return clearingCounter;
     }
 
     private void onSameNameClassesDetected(String className) {
@@ -1033,6 +1138,19 @@ class ClassIntrospector {
         return argTypesByMethod.get(method);
     }
 
+    /**
+     * Returns the {@link MethodHandle} (see {@link MethodHandleUtil}) to be used instead of reflection to access
+     * the {@link Method} or {@link Field} that's stored in the class info (the same object, not just an equal one).
+     * 
+     * @return {@code null} if reflection has to be used.
+     */
+    static MethodHandle getMethodHandle(Map<Object, Object> classInfo, Member member) {
+        @SuppressWarnings("unchecked")
+        Map<Member, MethodHandle> methodHandles
+                = (Map<Member, MethodHandle>) classInfo.get(METHOD_HANDLES_BY_MEMBER_KEY);
+        return methodHandles != null ? methodHandles.get(member) : null;
+    }
+
     /**
      * Returns the number of introspected methods/properties that should be available via the TemplateHashModel
      * interface.
@@ -1043,6 +1161,7 @@ class ClassIntrospector {
         if (map.containsKey(CONSTRUCTORS_KEY)) count--;
         if (map.containsKey(GENERIC_GET_KEY)) count--;
         if (map.containsKey(ARG_TYPES_BY_METHOD_KEY)) count--;
+        if (map.containsKey(METHOD_HANDLES_BY_MEMBER_KEY)) count--;
         return count;
     }
 
@@ -1055,6 +1174,7 @@ class ClassIntrospector {
         set.remove(CONSTRUCTORS_KEY);
         set.remove(GENERIC_GET_KEY);
         set.remove(ARG_TYPES_BY_METHOD_KEY);
+        set.remove(METHOD_HANDLES_BY_MEMBER_KEY);
         return set;
     }
 
@@ -1077,6 +1197,18 @@ class ClassIntrospector {
         return treatDefaultMethodsAsBeanMembers;
     }
 
+    boolean getUseMethodHandles() {
+        return useMethodHandles;
+    }
+
+    BeanInfoIndex getBeanInfoIndex() {
+        return beanInfoIndex;
+    }
+
+    boolean getDirectValueClassIntrospection() {
+        return directValueClassIntrospection;
+    }
+
     MethodAppearanceFineTuner getMethodAppearanceFineTuner() {
         return methodAppearanceFineTuner;
     }
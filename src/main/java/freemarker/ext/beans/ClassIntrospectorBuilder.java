@@ -45,6 +45,9 @@ final class ClassIntrospectorBuilder implements Cloneable {
     private boolean exposeFields;
     private MemberAccessPolicy memberAccessPolicy;
     private boolean treatDefaultMethodsAsBeanMembers;
+    private boolean useMethodHandles;
+    private BeanInfoIndex beanInfoIndex;
+    private boolean directValueClassIntrospection;
     private MethodAppearanceFineTuner methodAppearanceFineTuner;
     private MethodSorter methodSorter;
     // Attention:
@@ -59,6 +62,9 @@ final class ClassIntrospectorBuilder implements Cloneable {
         exposeFields = ci.exposeFields;
         memberAccessPolicy = ci.memberAccessPolicy;
         treatDefaultMethodsAsBeanMembers = ci.treatDefaultMethodsAsBeanMembers;
+        useMethodHandles = ci.useMethodHandles;
+        beanInfoIndex = ci.beanInfoIndex;
+        directValueClassIntrospection = ci.directValueClassIntrospection;
         methodAppearanceFineTuner = ci.methodAppearanceFineTuner;
         methodSorter = ci.methodSorter;
     }
@@ -97,6 +103,9 @@ final class ClassIntrospectorBuilder implements Cloneable {
         result = prime * result + incompatibleImprovements.hashCode();
         result = prime * result + (exposeFields ? 1231 : 1237);
         result = prime * result + (treatDefaultMethodsAsBeanMembers ? 1231 : 1237);
+        result = prime * result + (useMethodHandles ? 1231 : 1237);
+        result = prime * result + System.identityHashCode(beanInfoIndex);
+        result = prime * result + (directValueClassIntrospection ? 1231 : 1237);
         result = prime * result + exposureLevel;
         result = prime * result + memberAccessPolicy.hashCode();
         result = prime * result + System.identityHashCode(methodAppearanceFineTuner);
@@ -114,6 +123,9 @@ final class ClassIntrospectorBuilder implements Cloneable {
         if (!incompatibleImprovements.equals(other.incompatibleImprovements)) return false;
         if (exposeFields != other.exposeFields) return false;
         if (treatDefaultMethodsAsBeanMembers != other.treatDefaultMethodsAsBeanMembers) return false;
+        if (useMethodHandles != other.useMethodHandles) return false;
+        if (beanInfoIndex != other.beanInfoIndex) return false;
+        if (directValueClassIntrospection != other.directValueClassIntrospection) return false;
         if (exposureLevel != other.exposureLevel) return false;
         if (!memberAccessPolicy.equals(other.memberAccessPolicy)) return false;
         if (methodAppearanceFineTuner != other.methodAppearanceFineTuner) return false;
@@ -152,6 +164,54 @@ final class ClassIntrospectorBuilder implements Cloneable {
         this.treatDefaultMethodsAsBeanMembers = treatDefaultMethodsAsBeanMembers;
     }
 
+    /**
+     * @since 2.3.32
+     */
+    public boolean getUseMethodHandles() {
+        return useMethodHandles;
+    }
+
+    /**
+     * See {@link BeansWrapper#setUseMethodHandles(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setUseMethodHandles(boolean useMethodHandles) {
+        this.useMethodHandles = useMethodHandles;
+    }
+
+    /**
+     * @since 2.3.32
+     */
+    public BeanInfoIndex getBeanInfoIndex() {
+        return beanInfoIndex;
+    }
+
+    /**
+     * See {@link BeansWrapper#setBeanInfoIndex(BeanInfoIndex)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setBeanInfoIndex(BeanInfoIndex beanInfoIndex) {
+        this.beanInfoIndex = beanInfoIndex;
+    }
+
+    /**
+     * @since 2.3.32
+     */
+    public boolean getDirectValueClassIntrospection() {
+        return directValueClassIntrospection;
+    }
+
+    /**
+     * See {@link BeansWrapper#setDirectValueClassIntrospection(boolean)}.
+     * 
+     * @since 2.3.32
+     */
+    public void setDirectValueClassIntrospection(boolean directValueClassIntrospection) {
+        this.directValueClassIntrospection = directValueClassIntrospection;
+    }
+
     public MemberAccessPolicy getMemberAccessPolicy() {
         return memberAccessPolicy;
     }
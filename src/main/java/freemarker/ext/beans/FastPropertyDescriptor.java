@@ -19,6 +19,7 @@
 package freemarker.ext.beans;
 
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 
 /**
@@ -29,10 +30,17 @@ import java.lang.reflect.Method;
 final class FastPropertyDescriptor {
     private final Method readMethod;
     private final Method indexedReadMethod;
+    private final MethodHandle readMethodInvoker;
     
-    public FastPropertyDescriptor(Method readMethod, Method indexedReadMethod) {
+    /**
+     * @param readMethodInvoker
+     *            Created with {@link MethodHandleUtil#createMethodInvoker(Method)} from {@code readMethod}, or
+     *            {@code null} if reflection should be used to call {@code readMethod}.
+     */
+    public FastPropertyDescriptor(Method readMethod, Method indexedReadMethod, MethodHandle readMethodInvoker) {
         this.readMethod = readMethod;
         this.indexedReadMethod = indexedReadMethod;
+        this.readMethodInvoker = readMethodInvoker;
     }
 
     public Method getReadMethod() {
@@ -42,5 +50,12 @@ final class FastPropertyDescriptor {
     public Method getIndexedReadMethod() {
         return indexedReadMethod;
     }
+
+    /**
+     * @return {@code null} if reflection should be used to call the read method.
+     */
+    public MethodHandle getReadMethodInvoker() {
+        return readMethodInvoker;
+    }
     
 }
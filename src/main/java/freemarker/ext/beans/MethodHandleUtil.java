@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import freemarker.core.BugException;
+
+/**
+ * Creates and invokes the {@link MethodHandle}-s that are used instead of {@link Method#invoke(Object, Object...)} and
+ * {@link Field#get(Object)} when {@link BeansWrapper#setUseMethodHandles(boolean)} is {@code true}. The handles are
+ * created during class introspection, and have a uniform type: {@code (Object, Object[])Object} for methods, and
+ * {@code (Object)Object} for fields. They are semantically equivalent with the reflection calls they replace,
+ * including that exceptions thrown by the called method are wrapped into {@link InvocationTargetException}, and that
+ * unsuitable arguments cause {@link IllegalArgumentException}.
+ */
+final class MethodHandleUtil {
+
+    private static final MethodType METHOD_INVOKER_TYPE
+            = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final MethodType FIELD_READER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /** {@code (Throwable)InvocationTargetException} */
+    private static final MethodHandle NEW_INVOCATION_TARGET_EXCEPTION;
+    static {
+        try {
+            NEW_INVOCATION_TARGET_EXCEPTION = MethodHandles.publicLookup().findConstructor(
+                    InvocationTargetException.class, MethodType.methodType(void.class, Throwable.class));
+        } catch (Exception e) {
+            throw new BugException(e);
+        }
+    }
+
+    private MethodHandleUtil() {
+        // Not meant to be instantiated
+    }
+
+    /**
+     * Creates the invoker of the method, with {@code (Object, Object[])Object} type. For static methods the 1st
+     * argument is ignored. Void methods return {@code null}.
+     * 
+     * @return {@code null} if no {@link MethodHandle} can be created for the method (like because of the Java 9 module
+     *     restrictions); then the caller should fall back to reflection.
+     */
+    static MethodHandle createMethodInvoker(Method method) {
+        MethodHandle mh;
+        try {
+            mh = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+
+        // Wrap the exceptions thrown by the method itself, before argument conversions are added, so that errors
+        // caused by the conversions won't be mistaken for exceptions thrown by the method.
+        MethodType type = mh.type();
+        MethodHandle wrapAndRethrow = MethodHandles.filterReturnValue(
+                NEW_INVOCATION_TARGET_EXCEPTION,
+                MethodHandles.throwException(type.returnType(), InvocationTargetException.class));
+        mh = MethodHandles.catchException(mh, Throwable.class,
+                MethodHandles.dropArguments(wrapAndRethrow, 1, type.parameterList()));
+
+        if ((method.getModifiers() & Modifier.STATIC) != 0) {
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        int paramCount = method.getParameterTypes().length;
+        return mh
+                .asType(MethodType.genericMethodType(1 + paramCount))
+                .asSpreader(Object[].class, paramCount)
+                .asType(METHOD_INVOKER_TYPE);
+    }
+
+    /**
+     * Creates the reader of the non-static field, with {@code (Object)Object} type.
+     * 
+     * @return {@code null} if no {@link MethodHandle} can be created for the field; see
+     *     {@link #createMethodInvoker(Method)}.
+     */
+    static MethodHandle createFieldReader(Field field) {
+        try {
+            return MethodHandles.publicLookup().unreflectGetter(field).asType(FIELD_READER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invokes a handle created with {@link #createMethodInvoker(Method)}; behaves like
+     * {@link Method#invoke(Object, Object...)}.
+     */
+    static Object invokeMethod(MethodHandle methodInvoker, Object object, Object[] args)
+            throws InvocationTargetException {
+        try {
+            return methodInvoker.invokeExact(object, args);
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (ClassCastException | NullPointerException e) {
+            // Thrown by the argument conversions (exceptions thrown by the method itself were already wrapped).
+            IllegalArgumentException iae = new IllegalArgumentException("argument type mismatch");
+            iae.initCause(e);
+            throw iae;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BugException(e);
+        }
+    }
+
+    /**
+     * Invokes a handle created with {@link #createFieldReader(Field)}; behaves like {@link Field#get(Object)}.
+     */
+    static Object readField(MethodHandle fieldReader, Object object) {
+        try {
+            return fieldReader.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BugException(e);
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+/**
+ * Maps the classes of the actual arguments to the callable member that was chosen for them from a
+ * {@link OverloadedMethodsSubset}. This is a tree where the first level branches by the number of arguments, and each
+ * further level by the class of the argument at the corresponding position (as returned by
+ * {@link ArgumentTypes#getArgumentType(Object, boolean)}); the leaves are the chosen members. Unlike a hash map with
+ * {@link ArgumentTypes} key, looking up a member needs no allocation, and no hash calculation.
+ * 
+ * <p>The tree is grown on demand, as new combinations of argument classes occur. As a given call site usually only
+ * sees a few argument classes at a given position, the branches are scanned linearly. The nodes are immutable, and
+ * are replaced when a new branch is added to them, so {@link #get(Object[])} needs no locking.
+ */
+final class OverloadedDispatchTree {
+
+    private static final Object[] EMPTY_ARRAY = new Object[0];
+
+    private final boolean bugfixed;
+
+    /**
+     * Indexed by argument count; the elements are {@link Node}-s, except for 0 arguments, where it's directly the
+     * {@link MaybeEmptyCallableMemberDescriptor}.
+     */
+    private volatile Object[] rootsByArgCount = EMPTY_ARRAY;
+
+    OverloadedDispatchTree(boolean bugfixed) {
+        this.bugfixed = bugfixed;
+    }
+
+    /**
+     * @return The member stored for the classes of the arguments, or {@code null} if there's none stored yet.
+     */
+    MaybeEmptyCallableMemberDescriptor get(Object[] args) {
+        final Object[] roots = rootsByArgCount;
+        final int argCount = args.length;
+        if (argCount >= roots.length) {
+            return null;
+        }
+        Object node = roots[argCount];
+        for (int argIdx = 0; argIdx < argCount && node != null; argIdx++) {
+            node = ((Node) node).getChild(ArgumentTypes.getArgumentType(args[argIdx], bugfixed));
+        }
+        return (MaybeEmptyCallableMemberDescriptor) node;
+    }
+
+    /**
+     * Stores the member for the classes of the arguments. Calls must be synchronized externally.
+     */
+    void put(Object[] args, MaybeEmptyCallableMemberDescriptor memberDesc) {
+        final int argCount = args.length;
+        Object[] roots = rootsByArgCount;
+        if (argCount >= roots.length) {
+            Object[] newRoots = new Object[argCount + 1];
+            System.arraycopy(roots, 0, newRoots, 0, roots.length);
+            roots = newRoots;
+        } else {
+            roots = roots.clone();
+        }
+        roots[argCount] = with(roots[argCount], args, 0, memberDesc);
+        rootsByArgCount = roots;
+    }
+
+    /**
+     * Returns a copy of the subtree (which may be {@code null}) that also contains the path for the arguments starting
+     * from {@code argIdx}.
+     */
+    private Object with(Object node, Object[] args, int argIdx, MaybeEmptyCallableMemberDescriptor memberDesc) {
+        if (argIdx == args.length) {
+            return memberDesc;
+        }
+        Class<?> argType = ArgumentTypes.getArgumentType(args[argIdx], bugfixed);
+        Node n = (Node) node;
+        return n == null
+                ? new Node(new Class<?>[] { argType }, new Object[] { with(null, args, argIdx + 1, memberDesc) })
+                : n.with(argType, with(n.getChild(argType), args, argIdx + 1, memberDesc));
+    }
+
+    private static final class Node {
+
+        private final Class<?>[] argTypes;
+        private final Object[] children;
+
+        Node(Class<?>[] argTypes, Object[] children) {
+            this.argTypes = argTypes;
+            this.children = children;
+        }
+
+        Object getChild(Class<?> argType) {
+            final Class<?>[] argTypes = this.argTypes;
+            for (int i = 0; i < argTypes.length; i++) {
+                if (argTypes[i] == argType) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node with(Class<?> argType, Object child) {
+            int ln = argTypes.length;
+            for (int i = 0; i < ln; i++) {
+                if (argTypes[i] == argType) {
+                    Object[] newChildren = children.clone();
+                    newChildren[i] = child;
+                    return new Node(argTypes, newChildren);
+                }
+            }
+            Class<?>[] newArgTypes = new Class<?>[ln + 1];
+            System.arraycopy(argTypes, 0, newArgTypes, 0, ln);
+            newArgTypes[ln] = argType;
+            Object[] newChildren = new Object[ln + 1];
+            System.arraycopy(children, 0, newChildren, 0, ln);
+            newChildren[ln] = child;
+            return new Node(newArgTypes, newChildren);
+        }
+
+    }
+
+}
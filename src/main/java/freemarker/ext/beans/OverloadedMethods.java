@@ -19,6 +19,7 @@
 
 package freemarker.ext.beans;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.HashSet;
@@ -53,8 +54,16 @@ final class OverloadedMethods {
     }
     
     void addMethod(Method method) {
+        addMethod(method, null);
+    }
+
+    /**
+     * @param methodInvoker
+     *            See {@link MethodHandleUtil#createMethodInvoker(Method)}; {@code null} if reflection should be used.
+     */
+    void addMethod(Method method, MethodHandle methodInvoker) {
         final Class[] paramTypes = method.getParameterTypes();
-        addCallableMemberDescriptor(new ReflectionCallableMemberDescriptor(method, paramTypes));
+        addCallableMemberDescriptor(new ReflectionCallableMemberDescriptor(method, paramTypes, methodInvoker));
     }
 
     void addConstructor(Constructor constr) {
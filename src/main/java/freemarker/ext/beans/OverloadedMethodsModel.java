@@ -57,6 +57,15 @@ implements
     @Override
     public Object exec(List arguments)
     throws TemplateModelException {
+        return invoke(object, overloadedMethods, arguments, wrapper);
+    }
+
+    /**
+     * Does what {@link #exec(List)} does, without the need of creating an {@link OverloadedMethodsModel} for each
+     * object.
+     */
+    static Object invoke(Object object, OverloadedMethods overloadedMethods, List<?> arguments, BeansWrapper wrapper)
+            throws TemplateModelException {
         MemberAndArguments maa = overloadedMethods.getMemberAndArguments(arguments, wrapper);
         try {
             return maa.invokeMethod(wrapper, object);
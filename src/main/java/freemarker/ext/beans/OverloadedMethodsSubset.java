@@ -23,11 +23,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import freemarker.template.TemplateModelException;
 import freemarker.template.utility.ClassUtil;
 import freemarker.template.utility.NullArgumentException;
@@ -60,8 +57,7 @@ abstract class OverloadedMethodsSubset {
     
     // TODO: This can cause memory-leak when classes are re-loaded. However, first the genericClassIntrospectionCache
     // and such need to be fixed in this regard. 
-    private final Map/*<ArgumentTypes, MaybeEmptyCallableMemberDescriptor>*/ argTypesToMemberDescCache
-            = new ConcurrentHashMap(6, 0.75f, 1);
+    private final OverloadedDispatchTree argTypesToMemberDescCache;
     
     private final List/*<ReflectionCallableMemberDescriptor>*/ memberDescs = new LinkedList();
     
@@ -70,6 +66,7 @@ abstract class OverloadedMethodsSubset {
     
     OverloadedMethodsSubset(boolean bugfixed) {
         this.bugfixed = bugfixed;
+        argTypesToMemberDescCache = new OverloadedDispatchTree(bugfixed);
     }
     
     void addCallableMemberDescriptor(ReflectionCallableMemberDescriptor memberDesc) {
@@ -133,19 +130,15 @@ abstract class OverloadedMethodsSubset {
         return unwrappingHintsByParamCount;
     }
     
-    @SuppressFBWarnings(value="JLM_JSR166_UTILCONCURRENT_MONITORENTER",
-            justification="Locks for member descriptor creation only")
     final MaybeEmptyCallableMemberDescriptor getMemberDescriptorForArgs(Object[] args, boolean varArg) {
-        ArgumentTypes argTypes = new ArgumentTypes(args, bugfixed);
-        MaybeEmptyCallableMemberDescriptor memberDesc
-                = (MaybeEmptyCallableMemberDescriptor) argTypesToMemberDescCache.get(argTypes);
+        MaybeEmptyCallableMemberDescriptor memberDesc = argTypesToMemberDescCache.get(args);
         if (memberDesc == null) {
             // Synchronized so that we won't unnecessarily create the same member desc. for multiple times in parallel.
             synchronized (argTypesToMemberDescCache) {
-                memberDesc = (MaybeEmptyCallableMemberDescriptor) argTypesToMemberDescCache.get(argTypes);
+                memberDesc = argTypesToMemberDescCache.get(args);
                 if (memberDesc == null) {
-                    memberDesc = argTypes.getMostSpecific(memberDescs, varArg);
-                    argTypesToMemberDescCache.put(argTypes, memberDesc);
+                    memberDesc = new ArgumentTypes(args, bugfixed).getMostSpecific(memberDescs, varArg);
+                    argTypesToMemberDescCache.put(args, memberDesc);
                 }
             }
         }
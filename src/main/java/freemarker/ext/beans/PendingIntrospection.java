@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Represents an introspection (or other per-class computation) that's being done by a thread, so that other threads
+ * that need the same result can wait for that, instead of doing the same work in parallel. Used as the value in a
+ * {@link ConcurrentMap} whose key identifies the class, so threads that work with different classes don't block each
+ * other.
+ * 
+ * @param <T>
+ *            The type of the result
+ */
+final class PendingIntrospection<T> {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private T result;
+
+    /**
+     * Called by the thread that did the introspection, when it has finished, even if it has failed.
+     * 
+     * @param result
+     *            {@code null} if the introspection has failed, or it had no result to share.
+     */
+    void finish(T result) {
+        this.result = result;
+        done.countDown();
+    }
+
+    /**
+     * Waits until {@link #finish(Object)} is called.
+     * 
+     * @return The argument of {@link #finish(Object)}; if {@code null}, the caller should try to do the introspection
+     *         itself.
+     */
+    T await() {
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Class introspection data lookup aborted: " + e);
+        }
+        return result;
+    }
+
+}
@@ -19,6 +19,7 @@
 
 package freemarker.ext.beans;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
@@ -38,22 +39,31 @@ final class ReflectionCallableMemberDescriptor extends CallableMemberDescriptor
     /**
      * Don't modify this array!
      */
-    final Class[] paramTypes;
+    final Class<?>[] paramTypes;
+
+    /** See {@link MethodHandleUtil#createMethodInvoker(Method)}; {@code null} if reflection is used. */
+    private final MethodHandle methodInvoker;
     
-    ReflectionCallableMemberDescriptor(Method member, Class[] paramTypes) {
+    ReflectionCallableMemberDescriptor(Method member, Class<?>[] paramTypes) {
+        this(member, paramTypes, null);
+    }
+
+    ReflectionCallableMemberDescriptor(Method member, Class<?>[] paramTypes, MethodHandle methodInvoker) {
         this.member = member;
         this.paramTypes = paramTypes;
+        this.methodInvoker = methodInvoker;
     }
 
-    ReflectionCallableMemberDescriptor(Constructor member, Class[] paramTypes) {
+    ReflectionCallableMemberDescriptor(Constructor<?> member, Class<?>[] paramTypes) {
         this.member = member;
         this.paramTypes = paramTypes;
+        this.methodInvoker = null;
     }
 
     @Override
     TemplateModel invokeMethod(BeansWrapper bw, Object obj, Object[] args)
             throws TemplateModelException, InvocationTargetException, IllegalAccessException {
-        return bw.invokeMethod(obj, (Method) member, args);
+        return bw.invokeMethod(obj, (Method) member, methodInvoker, args);
     }
 
     @Override
@@ -83,7 +93,7 @@ final class ReflectionCallableMemberDescriptor extends CallableMemberDescriptor
     }
 
     @Override
-    Class[] getParamTypes() {
+    Class<?>[] getParamTypes() {
         return paramTypes;
     }
 
@@ -19,6 +19,7 @@
 
 package freemarker.ext.beans;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.util.Collections;
@@ -47,6 +48,7 @@ public final class SimpleMethodModel extends SimpleMethod
     TemplateSequenceModel,
     _UnexpectedTypeErrorExplainerTemplateModel {
     private final Object object;
+    private final MethodHandle methodInvoker;
     private final BeansWrapper wrapper;
 
     /**
@@ -56,10 +58,20 @@ public final class SimpleMethodModel extends SimpleMethod
      * @param argTypes Either pass in {@code Method#getParameterTypes() method.getParameterTypes()} here,
      *          or reuse an earlier result of that call (for speed). Not {@code null}.
      */
-    SimpleMethodModel(Object object, Method method, Class[] argTypes, 
+    SimpleMethodModel(Object object, Method method, Class<?>[] argTypes, 
+            BeansWrapper wrapper) {
+        this(object, method, argTypes, null, wrapper);
+    }
+
+    /**
+     * @param methodInvoker
+     *          See {@link MethodHandleUtil#createMethodInvoker(Method)}; {@code null} if reflection should be used.
+     */
+    SimpleMethodModel(Object object, Method method, Class<?>[] argTypes, MethodHandle methodInvoker,
             BeansWrapper wrapper) {
         super(method, argTypes);
         this.object = object;
+        this.methodInvoker = methodInvoker;
         this.wrapper = wrapper;
     }
 
@@ -69,13 +81,21 @@ public final class SimpleMethodModel extends SimpleMethod
     @Override
     public Object exec(List arguments)
         throws TemplateModelException {
+        return invoke(object, this, methodInvoker, arguments, wrapper);
+    }
+
+    /**
+     * Does what {@link #exec(List)} does, without the need of creating a {@link SimpleMethodModel} for each object.
+     */
+    static Object invoke(Object object, SimpleMethod method, MethodHandle methodInvoker, List<?> arguments,
+            BeansWrapper wrapper) throws TemplateModelException {
         try {
-            return wrapper.invokeMethod(object, (Method) getMember(), 
-                    unwrapArguments(arguments, wrapper));
+            return wrapper.invokeMethod(object, (Method) method.getMember(), methodInvoker,
+                    method.unwrapArguments(arguments, wrapper));
         } catch (TemplateModelException e) {
             throw e;
         } catch (Exception e) {
-            throw _MethodUtil.newInvocationTemplateModelException(object, getMember(), e);
+            throw _MethodUtil.newInvocationTemplateModelException(object, method.getMember(), e);
         }
     }
     
@@ -114,7 +134,7 @@ public final class SimpleMethodModel extends SimpleMethod
         }
         Method m = (Method) member;
         
-        final Class returnType = m.getReturnType();
+        final Class<?> returnType = m.getReturnType();
         if (returnType == null || returnType == void.class || returnType == Void.class) {
             return null;  // Calling it won't help
         }
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.ext.beans;
+
+import java.beans.BeanInfo;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.MethodDescriptor;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import freemarker.core.BugException;
+
+/**
+ * A {@link BeanInfo} that's created by discovering the members of a value class directly, instead of with
+ * {@link Introspector}; see {@link BeansWrapper#setDirectValueClassIntrospection(boolean)}. The result is the same
+ * as what {@link Introspector} would return, except that the accessor methods of the components of Java 16+ records
+ * are also exposed as properties.
+ * 
+ * <p>A value class is a final class that directly extends {@link Object} or {@code java.lang.Record}, whose instance
+ * fields are all final, and that has no {@link BeanInfo} class. As such classes have no super class to introspect,
+ * and no explicit {@link BeanInfo} to consider, what {@link Introspector} would do can be reproduced with a single
+ * pass over {@link Class#getMethods()}.
+ */
+final class ValueClassBeanInfo extends SimpleBeanInfo {
+
+    private static final String RECORD_CLASS_NAME = "java.lang.Record";
+    private static final String BEAN_INFO_CLASS_NAME_SUFFIX = "BeanInfo";
+
+    // Records can't be referred directly, as we must run on Java 7 too.
+    private static final Method GET_RECORD_COMPONENTS_METHOD;
+    private static final Method GET_ACCESSOR_METHOD;
+    static {
+        Method getRecordComponents;
+        Method getAccessor;
+        try {
+            getRecordComponents = Class.class.getMethod("getRecordComponents");
+            getAccessor = Class.forName("java.lang.reflect.RecordComponent").getMethod("getAccessor");
+        } catch (Exception e) {
+            // Java 15 or earlier
+            getRecordComponents = null;
+            getAccessor = null;
+        }
+        GET_RECORD_COMPONENTS_METHOD = getRecordComponents;
+        GET_ACCESSOR_METHOD = getAccessor;
+    }
+
+    private final PropertyDescriptor[] propertyDescriptors;
+    private final MethodDescriptor[] methodDescriptors;
+    private final Set<Method> recordComponentAccessors;
+
+    private ValueClassBeanInfo(
+            PropertyDescriptor[] propertyDescriptors, MethodDescriptor[] methodDescriptors,
+            Set<Method> recordComponentAccessors) {
+        this.propertyDescriptors = propertyDescriptors;
+        this.methodDescriptors = methodDescriptors;
+        this.recordComponentAccessors = recordComponentAccessors;
+    }
+
+    /**
+     * Returns the {@link BeanInfo} of the class, or {@code null} if it's not a value class (as defined in the class
+     * documentation), in which case {@link Introspector} has to be used.
+     */
+    static ValueClassBeanInfo create(Class<?> clazz) throws IntrospectionException {
+        if (!isValueClass(clazz)) {
+            return null;
+        }
+
+        Set<Method> recordComponentAccessors = getRecordComponentAccessors(clazz);
+
+        // Values are Method-s, or for indexed properties, Method[] { readMethod, indexedReadMethod }.
+        Map<String, Object> readMethodsByPropName = new LinkedHashMap<>();
+        for (Method accessor : recordComponentAccessors) {
+            readMethodsByPropName.put(accessor.getName(), accessor);
+        }
+
+        List<MethodDescriptor> mds = new ArrayList<>();
+        for (Method method : clazz.getMethods()) {
+            // Methods inherited from interfaces aren't returned by java.beans.Introspector either.
+            if (method.isBridge() || method.getDeclaringClass().isInterface()) {
+                continue;
+            }
+            mds.add(new MethodDescriptor(method));
+
+            if ((method.getModifiers() & Modifier.STATIC) == 0 && method.getReturnType() != void.class) {
+                Class<?>[] paramTypes = method.getParameterTypes();
+                boolean indexed = paramTypes.length == 1 && paramTypes[0] == int.class;
+                if (paramTypes.length == 0 || indexed) {
+                    String propName = _MethodUtil.getBeanPropertyNameFromReaderMethodName(
+                            method.getName(), method.getReturnType());
+                    if (propName != null) {
+                        addReadMethod(readMethodsByPropName, propName, method, indexed, recordComponentAccessors);
+                    }
+                }
+            }
+        }
+
+        List<PropertyDescriptor> pds = new ArrayList<>(readMethodsByPropName.size());
+        for (Map.Entry<String, Object> entry : readMethodsByPropName.entrySet()) {
+            Object readMethods = entry.getValue();
+            if (readMethods instanceof Method) {
+                pds.add(new PropertyDescriptor(entry.getKey(), (Method) readMethods, null));
+            } else {
+                Method readMethod = ((Method[]) readMethods)[0];
+                Method indexedReadMethod = ((Method[]) readMethods)[1];
+                if (readMethod != null
+                        && indexedReadMethod.getReturnType() != readMethod.getReturnType().getComponentType()) {
+                    // Like java.beans.Introspector, we say that the property is not indexed then.
+                    pds.add(new PropertyDescriptor(entry.getKey(), readMethod, null));
+                } else {
+                    pds.add(new IndexedPropertyDescriptor(entry.getKey(), readMethod, null, indexedReadMethod, null));
+                }
+            }
+        }
+
+        return new ValueClassBeanInfo(
+                pds.toArray(new PropertyDescriptor[pds.size()]),
+                mds.toArray(new MethodDescriptor[mds.size()]),
+                recordComponentAccessors);
+    }
+
+    private static void addReadMethod(Map<String, Object> readMethodsByPropName, String propName, Method method,
+            boolean indexed, Set<Method> recordComponentAccessors) {
+        Object prevReadMethods = readMethodsByPropName.get(propName);
+        if (prevReadMethods instanceof Method && recordComponentAccessors.contains(prevReadMethods)) {
+            // Record components win over the getter methods.
+            return;
+        }
+
+        Method prevReadMethod;
+        Method prevIndexedReadMethod;
+        if (prevReadMethods == null) {
+            prevReadMethod = null;
+            prevIndexedReadMethod = null;
+        } else if (prevReadMethods instanceof Method) {
+            prevReadMethod = (Method) prevReadMethods;
+            prevIndexedReadMethod = null;
+        } else {
+            prevReadMethod = ((Method[]) prevReadMethods)[0];
+            prevIndexedReadMethod = ((Method[]) prevReadMethods)[1];
+        }
+
+        if (indexed) {
+            readMethodsByPropName.put(propName, new Method[] { prevReadMethod, method });
+        } else {
+            // Like java.beans.Introspector, we prefer isFoo() over getFoo().
+            if (prevReadMethod != null && prevReadMethod.getName().startsWith("is")) {
+                return;
+            }
+            readMethodsByPropName.put(propName,
+                    prevIndexedReadMethod != null ? new Method[] { method, prevIndexedReadMethod } : method);
+        }
+    }
+
+    private static boolean isValueClass(Class<?> clazz) {
+        if (clazz.isInterface() || clazz.isArray() || clazz.isPrimitive()
+                || (clazz.getModifiers() & Modifier.FINAL) == 0) {
+            return false;
+        }
+
+        Class<?> superClass = clazz.getSuperclass();
+        if (superClass != Object.class && (superClass == null || !superClass.getName().equals(RECORD_CLASS_NAME))) {
+            return false;
+        }
+
+        for (Field field : clazz.getDeclaredFields()) {
+            int mod = field.getModifiers();
+            if ((mod & Modifier.STATIC) == 0 && (mod & Modifier.FINAL) == 0) {
+                return false;
+            }
+        }
+
+        return !hasBeanInfoClass(clazz);
+    }
+
+    /**
+     * Tells if {@link Introspector} would find an explicit {@link BeanInfo} class for the class.
+     */
+    private static boolean hasBeanInfoClass(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classExists(clazz.getName() + BEAN_INFO_CLASS_NAME_SUFFIX, classLoader)) {
+            return true;
+        }
+        String simpleBeanInfoClassName = clazz.getSimpleName() + BEAN_INFO_CLASS_NAME_SUFFIX;
+        for (String searchPackage : Introspector.getBeanInfoSearchPath()) {
+            if (classExists(searchPackage + "." + simpleBeanInfoClassName, classLoader)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean classExists(String className, ClassLoader classLoader) {
+        try {
+            Class.forName(className, false, classLoader);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            // Something is there, but we let java.beans.Introspector deal with it.
+            return true;
+        }
+    }
+
+    private static Set<Method> getRecordComponentAccessors(Class<?> clazz) {
+        if (GET_RECORD_COMPONENTS_METHOD == null || !clazz.getSuperclass().getName().equals(RECORD_CLASS_NAME)) {
+            return Collections.emptySet();
+        }
+        try {
+            Object[] recordComponents = (Object[]) GET_RECORD_COMPONENTS_METHOD.invoke(clazz);
+            if (recordComponents == null) {
+                return Collections.emptySet();
+            }
+            Set<Method> accessors = new LinkedHashSet<>();
+            for (Object recordComponent : recordComponents) {
+                Method accessor = (Method) GET_ACCESSOR_METHOD.invoke(recordComponent);
+                if (accessor != null && (accessor.getModifiers() & Modifier.PUBLIC) != 0) {
+                    accessors.add(accessor);
+                }
+            }
+            return accessors;
+        } catch (Exception e) {
+            throw new BugException("Failed to get the record components of " + clazz.getName(), e);
+        }
+    }
+
+    /**
+     * Tells if the method is the accessor of a record component, which is exposed as a property of the same name.
+     */
+    boolean isRecordComponentAccessor(Method method) {
+        return recordComponentAccessors.contains(method);
+    }
+
+    @Override
+    public PropertyDescriptor[] getPropertyDescriptors() {
+        return propertyDescriptors;
+    }
+
+    @Override
+    public MethodDescriptor[] getMethodDescriptors() {
+        return methodDescriptors;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * For internal use only; don't depend on this, there's no backward compatibility guarantee at all!
+ * 
+ * <p>An inline cache for a single {@code obj.key} or {@code obj.key(...)} expression in a template (a call site), that
+ * remembers what {@code key} was resolved to for the last few classes of {@code obj}, so that the class introspection
+ * data needn't be looked up on each evaluation. Only used for {@link BeanModel}-s whose {@link BeanModel#get(String)}
+ * works as in {@link BeanModel}; see {@link #isApplicable(TemplateModel)}.
+ * 
+ * <p>The cache entries are invalidated when the class introspection cache of the {@link ClassIntrospector} is cleared
+ * (or a class is removed from it), as with {@link BeansWrapper#clearClassIntrospectionCache()}.
+ * 
+ * <p>This class is thread-safe, but does no synchronization. The entries are immutable, and so even if multiple
+ * threads update the cache at the same time, it can at worst lose an entry, which will be added again later.
+ * 
+ * @since 2.3.32
+ */
+public final class _BeanMemberInlineCache {
+    
+    /** If this many receiver classes are cached, the call site is considered to be megamorphic, and we don't add more. */
+    private static final int MAX_ENTRIES = 4;
+
+    private final String key;
+    private Entry entries;
+
+    public _BeanMemberInlineCache(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Tells if the model is a {@link BeanModel} that can be used with the other methods of this class.
+     */
+    public static boolean isApplicable(TemplateModel model) {
+        if (model == null) {
+            return false;
+        }
+        // Subclasses can override get(String) or invokeGenericGet, so we can only allow known classes:
+        Class<?> modelClass = model.getClass();
+        return modelClass == StringModel.class || modelClass == BeanModel.class
+                || modelClass == AccessorTableModel.class
+                || modelClass == NumberModel.class || modelClass == DateModel.class
+                || modelClass == BooleanModel.class;
+    }
+
+    /**
+     * Same as {@link BeanModel#get(String)} with the key of this cache.
+     */
+    public TemplateModel get(BeanModel beanModel) throws TemplateModelException {
+        Entry entry = getEntry(beanModel);
+        return beanModel.get(key, entry.classInfo, entry.descriptor);
+    }
+
+    /**
+     * Tells if for this object {@link BeanModel#get(String)} would return a non-overloaded or overloaded Java method,
+     * in which case {@link #call(BeanModel, List)} can be used.
+     */
+    public boolean isMethod(BeanModel beanModel) {
+        Entry entry = getEntry(beanModel);
+        return (entry.method != null || entry.descriptor instanceof OverloadedMethods)
+                && beanModel.wrapper.isMethodsShadowItems();
+    }
+
+    /**
+     * Does the same as calling {@link BeanModel#get(String)} with the key of this cache, then calling
+     * {@link freemarker.template.TemplateMethodModelEx#exec(List)} on the result, but without creating the
+     * method model. Can only be called if {@link #isMethod(BeanModel)} has returned {@code true}.
+     */
+    public Object call(BeanModel beanModel, List<? extends TemplateModel> arguments) throws TemplateModelException {
+        Entry entry = getEntry(beanModel);
+        if (entry.method != null) {
+            return SimpleMethodModel.invoke(
+                    beanModel.object, entry.method, entry.methodInvoker, arguments, beanModel.wrapper);
+        } else {
+            return OverloadedMethodsModel.invoke(
+                    beanModel.object, (OverloadedMethods) entry.descriptor, arguments, beanModel.wrapper);
+        }
+    }
+
+    private Entry getEntry(BeanModel beanModel) {
+        ClassIntrospector classIntrospector = beanModel.wrapper.getClassIntrospector();
+        Class<?> clazz = beanModel.object.getClass();
+        // Must be read before the class introspection data is get, or else we could miss a clearing.
+        int clearingCounter = classIntrospector.getClearingCounter();
+
+        Entry headEntry = entries;
+        for (Entry entry = headEntry; entry != null; entry = entry.next) {
+            if (entry.clazz == clazz && entry.classIntrospector == classIntrospector
+                    && entry.clearingCounter == clearingCounter) {
+                return entry;
+            }
+        }
+
+        Map<Object, Object> classInfo = classIntrospector.get(clazz);
+        Entry newEntry;
+        if (headEntry == null
+                || headEntry.classIntrospector == classIntrospector && headEntry.clearingCounter != clearingCounter) {
+            // Empty, or was invalidated
+            newEntry = new Entry(classIntrospector, clearingCounter, clazz, classInfo, classInfo.get(key), null);
+        } else if (headEntry.length < MAX_ENTRIES) {
+            newEntry = new Entry(classIntrospector, clearingCounter, clazz, classInfo, classInfo.get(key), headEntry);
+        } else {
+            // Megamorphic; don't cache
+            return new Entry(classIntrospector, clearingCounter, clazz, classInfo, classInfo.get(key), null);
+        }
+        entries = newEntry;
+        return newEntry;
+    }
+
+    private static final class Entry {
+        private final ClassIntrospector classIntrospector;
+        private final int clearingCounter;
+        private final Class<?> clazz;
+        private final Map<Object, Object> classInfo;
+        /** The value that belongs to the key in {@link #classInfo}; maybe {@code null}. */
+        private final Object descriptor;
+        /** Non-{@code null} if {@link #descriptor} is a {@link Method}. */
+        private final SimpleMethod method;
+        private final MethodHandle methodInvoker;
+        private final Entry next;
+        private final int length;
+
+        Entry(ClassIntrospector classIntrospector, int clearingCounter, Class<?> clazz,
+                Map<Object, Object> classInfo, Object descriptor, Entry next) {
+            this.classIntrospector = classIntrospector;
+            this.clearingCounter = clearingCounter;
+            this.clazz = clazz;
+            this.classInfo = classInfo;
+            this.descriptor = descriptor;
+            if (descriptor instanceof Method) {
+                Method method = (Method) descriptor;
+                this.method = new SimpleMethod(method, ClassIntrospector.getArgTypes(classInfo, method));
+                this.methodInvoker = ClassIntrospector.getMethodHandle(classInfo, method);
+            } else {
+                this.method = null;
+                this.methodInvoker = null;
+            }
+            this.next = next;
+            this.length = next != null ? next.length + 1 : 1;
+        }
+    }
+
+}
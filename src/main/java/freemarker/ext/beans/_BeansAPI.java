@@ -48,6 +48,13 @@ public class _BeansAPI {
     public static String getAsClassicCompatibleString(BeanModel bm) {
         return bm.getAsClassicCompatibleString();
     }
+
+    /**
+     * @since 2.3.32
+     */
+    public static BeansWrapper getBeansWrapper(BeanModel bm) {
+        return bm.wrapper;
+    }
     
     public static Object newInstance(Class<?> pClass, Object[] args, BeansWrapper bw)
             throws NoSuchMethodException, IllegalArgumentException, InstantiationException,
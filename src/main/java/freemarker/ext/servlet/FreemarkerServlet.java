@@ -46,6 +46,7 @@ import freemarker.cache.FileTemplateLoader;
 import freemarker.cache.MultiTemplateLoader;
 import freemarker.cache.TemplateLoader;
 import freemarker.cache.WebappTemplateLoader;
+import freemarker.core.ByteOutputWriter;
 import freemarker.core.Configurable;
 import freemarker.core.Environment;
 import freemarker.core.OutputFormat;
@@ -231,6 +232,13 @@ import freemarker.template.utility.StringUtil;
  * error level, then throws an exception that bubbles up to the servlet container, which usually then creates a HTTP 500
  * "Internal server error" response (and maybe logs the event into the container log). See "Error handling" later for
  * more!</li>
+ *
+ * <li><strong>{@value #INIT_PARAM_BYTE_OUTPUT}</strong> (since 2.3.32): If {@code true}, the template output is written
+ * to the {@link HttpServletResponse#getOutputStream()} through a {@link ByteOutputWriter}, instead of to
+ * {@link HttpServletResponse#getWriter()}. Then the static text in the templates is encoded to the response charset
+ * only once (and cached), not for each request; see {@link ByteOutputWriter} for more. Defaults to {@code false}.
+ * Don't enable this if something during the template processing (like a JSP include, or a JSP custom tag) calls
+ * {@link HttpServletResponse#getWriter()}, as the servlet API doesn't allow using both.</li>
  * 
  * <li><strong>{@value #INIT_PARAM_META_INF_TLD_LOCATIONS}</strong> (since 2.3.22): Comma separated list of items, each
  * is either {@value #META_INF_TLD_LOCATION_WEB_INF_PER_LIB_JARS}, or {@value #META_INF_TLD_LOCATION_CLASSPATH}
@@ -395,6 +403,13 @@ public class FreemarkerServlet extends HttpServlet {
      * @since 2.3.22
      */
     public static final String INIT_PARAM_CLASSPATH_TLDS = "ClasspathTlds";
+
+    /**
+     * Init-param name - see the {@link FreemarkerServlet} class documentation about the init-params.
+     * 
+     * @since 2.3.32
+     */
+    public static final String INIT_PARAM_BYTE_OUTPUT = "ByteOutput";
     
     private static final String INIT_PARAM_DEBUG = "Debug";
 
@@ -503,6 +518,7 @@ public class FreemarkerServlet extends HttpServlet {
     private boolean noCache;
     private Integer bufferSize;
     private boolean exceptionOnMissingTemplate;
+    private boolean byteOutput;
     
     /**
      * @deprecated Not used anymore; to enable/disable debug logging, just set the logging level of the logging library
@@ -678,6 +694,8 @@ public class FreemarkerServlet extends HttpServlet {
                     overrideResponseLocale = initParamValueToEnum(value, OverrideResponseLocale.values());
                 } else if (name.equals(INIT_PARAM_EXCEPTION_ON_MISSING_TEMPLATE)) {
                     exceptionOnMissingTemplate = StringUtil.getYesNo(value);
+                } else if (name.equals(INIT_PARAM_BYTE_OUTPUT)) {
+                    byteOutput = StringUtil.getYesNo(value);
                 } else if (name.equals(INIT_PARAM_META_INF_TLD_LOCATIONS)) {;
                     metaInfTldSources = parseAsMetaInfTldLocations(value);
                 } else if (name.equals(INIT_PARAM_CLASSPATH_TLDS)) {;
@@ -869,14 +887,26 @@ public class FreemarkerServlet extends HttpServlet {
             if (preTemplateProcess(request, response, template, model)) {
                 try {
                     // Process the template
-                    Environment env = template.createProcessingEnvironment(model, response.getWriter());
+                    ByteOutputWriter byteOut = byteOutput
+                            ? new ByteOutputWriter(
+                                    response.getOutputStream(), Charset.forName(response.getCharacterEncoding()))
+                            : null;
+                    Environment env = template.createProcessingEnvironment(
+                            model, byteOut != null ? byteOut : response.getWriter());
                     if (responseCharacterEncoding != ResponseCharacterEncoding.LEGACY) {
                         String actualOutputCharset = response.getCharacterEncoding();
                         if (actualOutputCharset != null) {
                             env.setOutputEncoding(actualOutputCharset);
                         }
                     }
-                    processEnvironment(env, request, response);
+                    try {
+                        processEnvironment(env, request, response);
+                    } finally {
+                        if (byteOut != null) {
+                            // Not flush(), as that would commit the response.
+                            byteOut.flushBuffer();
+                        }
+                    }
                 } finally {
                     // Give subclasses a chance to hook into postprocessing
                     postTemplateProcess(request, response, template, model);
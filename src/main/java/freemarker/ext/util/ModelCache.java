@@ -19,10 +19,9 @@
 
 package freemarker.ext.util;
 
-import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
-import java.util.IdentityHashMap;
-import java.util.Map;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import freemarker.template.TemplateModel;
 import freemarker.template.TemplateModelAdapter;
@@ -30,29 +29,57 @@ import freemarker.template.TemplateModelAdapter;
 /**
  * Internally used by various wrapper implementations to implement model
  * caching.
+ * 
+ * <p>Since 2.3.32 the cache is a fixed size, lock-free table, where each wrapped object has two possible slots,
+ * chosen based on its identity hash code. When both slots are taken by other objects, one of them is evicted, so the
+ * cache never grows beyond its capacity. The wrapped objects are referred weakly, and the models softly, so the cache
+ * doesn't prevent garbage collection either. Reading the cache doesn't lock, nor allocates, so wrapping the same
+ * object again is cheap even if many threads are doing that.
  */
 public abstract class ModelCache {
+    
+    /**
+     * The number of cache slots used by {@link #ModelCache()}.
+     * 
+     * @since 2.3.32
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+    
+    private final int capacity;
     private boolean useCache = false;
-    private Map<Object, ModelReference> modelCache = null;
-    private ReferenceQueue<TemplateModel> refQueue = null;
+    private volatile AtomicReferenceArray<ModelReference> modelCache = null;
     
     protected ModelCache() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param capacity
+     *            The maximum number of models cached; rounded up to the next power of 2 (minimum 2). 
+     * 
+     * @since 2.3.32
+     */
+    protected ModelCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, but was " + capacity);
+        }
+        int roundedCapacity = 2;
+        while (roundedCapacity < capacity) {
+            roundedCapacity <<= 1;
+        }
+        this.capacity = roundedCapacity;
     }
     
     /**
      * Sets whether this wrapper caches model instances. Default is false.
-     * When set to true, calling {@link #getInstance(Object)} 
-     * multiple times for the same object will return the same model.
+     * When set to true, calling {@link #getInstance(Object)} multiple times for the same object will likely return
+     * the same model, but that's only best-effort. At most as many models are cached as the capacity given in the
+     * constructor ({@link #DEFAULT_CAPACITY} by default), and a cached model can be evicted any time, by another
+     * object that competes for the same two slots, or by garbage collection.
      */
     public synchronized void setUseCache(boolean useCache) {
         this.useCache = useCache;
-        if (useCache) {
-            modelCache = new IdentityHashMap<>();
-            refQueue = new ReferenceQueue<>();
-        } else {
-            modelCache = null;
-            refQueue = null;
-        }
+        modelCache = useCache ? new AtomicReferenceArray<ModelReference>(capacity) : null;
     }
 
     /**
@@ -69,11 +96,13 @@ public abstract class ModelCache {
         if (object instanceof TemplateModelAdapter) {
             return ((TemplateModelAdapter) object).getTemplateModel();
         }
-        if (useCache && isCacheable(object)) {
-            TemplateModel model = lookup(object);
+        AtomicReferenceArray<ModelReference> modelCache = this.modelCache;
+        if (modelCache != null && isCacheable(object)) {
+            int hash = System.identityHashCode(object);
+            TemplateModel model = lookup(modelCache, object, hash);
             if (model == null) {
                 model = create(object);
-                register(model, object);
+                register(modelCache, model, object, hash);
             }
             return model;
         } else {
@@ -85,59 +114,73 @@ public abstract class ModelCache {
     protected abstract boolean isCacheable(Object object);
     
     public void clearCache() {
+        AtomicReferenceArray<ModelReference> modelCache = this.modelCache;
         if (modelCache != null) {
-            synchronized (modelCache) {
-                modelCache.clear();
+            for (int i = 0; i < modelCache.length(); i++) {
+                modelCache.set(i, null);
             }
         }
     }
 
-    private final TemplateModel lookup(Object object) {
-        ModelReference ref = null;
+    private static TemplateModel lookup(AtomicReferenceArray<ModelReference> modelCache, Object object, int hash) {
         // NOTE: we're doing minimal synchronizations -- which can lead to
         // duplicate wrapper creation. However, this has no harmful side-effects and
         // is a lesser performance hit.
-        synchronized (modelCache) {
-            ref = modelCache.get(object);
+        int index = getFirstSlot(modelCache, hash);
+        TemplateModel model = getModel(modelCache.get(index), object, hash);
+        if (model == null) {
+            model = getModel(modelCache.get(index ^ 1), object, hash);
         }
+        return model;
+    }
 
-        if (ref != null)
-            return ref.getModel();
-
-        return null;
+    private static TemplateModel getModel(ModelReference ref, Object object, int hash) {
+        return ref != null && ref.hash == hash && ref.get() == object ? ref.getModel() : null;
     }
 
-    private final void register(TemplateModel model, Object object) {
-        synchronized (modelCache) {
-            // Remove cleared references
-            for (; ; ) {
-                ModelReference queuedRef = (ModelReference) refQueue.poll();
-                if (queuedRef == null) {
-                    break;
-                }
-                modelCache.remove(queuedRef.object);
+    private static void register(
+            AtomicReferenceArray<ModelReference> modelCache, TemplateModel model, Object object, int hash) {
+        int index = getFirstSlot(modelCache, hash);
+        ModelReference ref = modelCache.get(index);
+        if (ref != null && ref.isLive()) {
+            int otherIndex = index ^ 1;
+            ModelReference otherRef = modelCache.get(otherIndex);
+            // If both slots are taken, evict one of them; which one depends on the hash, to avoid always evicting the
+            // same slot when multiple objects compete for the same slots.
+            if (otherRef == null || !otherRef.isLive() || (hash & modelCache.length()) != 0) {
+                index = otherIndex;
             }
-            // Register new reference
-            modelCache.put(object, new ModelReference(model, object, refQueue));
         }
+        modelCache.set(index, new ModelReference(model, object, hash));
+    }
+
+    private static int getFirstSlot(AtomicReferenceArray<ModelReference> modelCache, int hash) {
+        // Spread the bits, as identity hash codes might not be distributed evenly in the low bits
+        int h = hash ^ (hash >>> 16);
+        return h & (modelCache.length() - 1);
     }
 
     /**
-     * A special soft reference that is registered in the modelCache.
-     * When it gets cleared (that is, the model became unreachable)
-     * it will remove itself from the model cache.
+     * A weak reference to the wrapped object, which also softly refers to the model. When either gets cleared, the
+     * entry is treated as missing, and will be overwritten.
      */
-    private static final class ModelReference extends SoftReference<TemplateModel> {
-        Object object;
+    private static final class ModelReference extends WeakReference<Object> {
+        final int hash;
+        final SoftReference<TemplateModel> modelRef;
 
-        ModelReference(TemplateModel ref, Object object, ReferenceQueue<TemplateModel> refQueue) {
-            super(ref, refQueue);
-            this.object = object;
+        ModelReference(TemplateModel model, Object object, int hash) {
+            super(object);
+            this.hash = hash;
+            this.modelRef = new SoftReference<>(model);
         }
 
         TemplateModel getModel() {
-            return this.get();
+            return modelRef.get();
+        }
+
+        boolean isLive() {
+            return get() != null && modelRef.get() != null;
         }
     }
 
-}
\ No newline at end of file
+}
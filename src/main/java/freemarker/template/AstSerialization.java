@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+import freemarker.core.OutputFormat;
+import freemarker.core.UnregisteredOutputFormatException;
+
+/**
+ * The object streams used by {@link Template#serializeAst()} and the matching {@link Template} constructor. The AST
+ * nodes refer to their {@link Template}, and to {@link OutputFormat}-s, which aren't serializable; these are written
+ * as references, and are resolved to the restored {@link Template}, and to the {@link OutputFormat}-s of its
+ * {@link Configuration} on reading. Only classes that can occur in an AST are allowed to be deserialized.
+ */
+final class AstSerialization {
+
+    private static final String[] ALLOWED_CLASS_NAME_PREFIXES = new String[] {
+            "freemarker.core.", "freemarker.template.", "java.lang.", "java.util.", "java.math." };
+
+    private AstSerialization() {
+        // Not meant to be instantiated
+    }
+
+    static final class Output extends ObjectOutputStream {
+
+        private final Template template;
+
+        Output(OutputStream out, Template template) throws IOException {
+            super(out);
+            this.template = template;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == template) {
+                return TemplateReference.INSTANCE;
+            }
+            if (obj instanceof OutputFormat) {
+                return new OutputFormatReference(((OutputFormat) obj).getName());
+            }
+            return obj;
+        }
+
+    }
+
+    static final class Input extends ObjectInputStream {
+
+        private final Template template;
+
+        Input(InputStream in, Template template) throws IOException {
+            super(in);
+            this.template = template;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String className = desc.getName();
+            if (className.startsWith("[")) {
+                int elementTypeIdx = className.lastIndexOf('[') + 1;
+                if (className.charAt(elementTypeIdx) != 'L') {
+                    // Array of primitives
+                    return super.resolveClass(desc);
+                }
+                className = className.substring(elementTypeIdx + 1);
+            }
+            for (String allowedPrefix : ALLOWED_CLASS_NAME_PREFIXES) {
+                if (className.startsWith(allowedPrefix)) {
+                    return super.resolveClass(desc);
+                }
+            }
+            throw new InvalidClassException(className, "Class not allowed in a serialized template AST");
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof TemplateReference) {
+                return template;
+            }
+            if (obj instanceof OutputFormatReference) {
+                String name = ((OutputFormatReference) obj).name;
+                try {
+                    return template.getConfiguration().getOutputFormat(name);
+                } catch (UnregisteredOutputFormatException e) {
+                    InvalidObjectException ioe = new InvalidObjectException(
+                            "Output format " + name + " is not registered in the Configuration");
+                    ioe.initCause(e);
+                    throw ioe;
+                }
+            }
+            return obj;
+        }
+
+    }
+
+    private static final class TemplateReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        static final TemplateReference INSTANCE = new TemplateReference();
+    }
+
+    private static final class OutputFormatReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        OutputFormatReference(String name) {
+            this.name = name;
+        }
+    }
+
+}
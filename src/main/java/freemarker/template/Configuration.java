@@ -43,10 +43,13 @@ import java.util.TimeZone;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
+import freemarker.cache.BackgroundTemplateUpdater;
 import freemarker.cache.CacheStorage;
 import freemarker.cache.ClassTemplateLoader;
 import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.ListableTemplateLoader;
 import freemarker.cache.MruCacheStorage;
 import freemarker.cache.MultiTemplateLoader;
 import freemarker.cache.SoftCacheStorage;
@@ -57,7 +60,12 @@ import freemarker.cache.TemplateLoader;
 import freemarker.cache.TemplateLookupContext;
 import freemarker.cache.TemplateLookupStrategy;
 import freemarker.cache.TemplateNameFormat;
+import freemarker.cache.TemplatePreloadResult;
+import freemarker.cache.TemplateSnapshot;
+import freemarker.cache.TemplateSourceMatcher;
+import freemarker.cache.TinyLfuCacheStorage;
 import freemarker.cache.URLTemplateLoader;
+import freemarker.cache._CacheAPI;
 import freemarker.core.BugException;
 import freemarker.core.CSSOutputFormat;
 import freemarker.core.CombinedMarkupOutputFormat;
@@ -995,6 +1003,8 @@ public class Configuration extends Configurable implements Cloneable, ParserConf
                 loader, storage, templateLookupStrategy, templateNameFormat, templateConfigurations, this);
         cache.clear(); // for fully BC behavior
         cache.setDelay(oldCache.getDelay());
+        cache.setBackgroundUpdater(oldCache.getBackgroundUpdater());
+        cache.setTemplateSnapshot(oldCache.getTemplateSnapshot());
         cache.setLocalizedLookup(localizedLookup);
     }
     
@@ -1671,7 +1681,8 @@ public class Configuration extends Configurable implements Cloneable, ParserConf
      * since the template last modification date was checked, FreeMarker will re-check the last modification date (this
      * could mean I/O), possibly reloading the template and updating the cache as a consequence (can mean even more
      * I/O). The {@link #getTemplate(String)} (or some of its overloads) call will only return after this all is
-     * done, so it will return the fresh template.
+     * done, so it will return the fresh template, unless {@link #setBackgroundTemplateUpdater(
+     * BackgroundTemplateUpdater)} was used.
      * 
      * @since 2.3.23
      */
@@ -1688,6 +1699,52 @@ public class Configuration extends Configurable implements Cloneable, ParserConf
         return cache.getDelay();
     }
     
+    /**
+     * Sets the object that checks and reloads the templates whose {@linkplain
+     * #setTemplateUpdateDelayMilliseconds(long) update delay} has expired on background threads, while the stale
+     * template is returned by {@link #getTemplate(String)} (and its overloads) without waiting. Defaults to
+     * {@code null}, which means that stale templates are updated synchronously. See
+     * {@link BackgroundTemplateUpdater} for more.
+     * 
+     * <p>The {@link BackgroundTemplateUpdater} can be shared by multiple {@link Configuration}-s. It's not shut down
+     * by FreeMarker; call {@link BackgroundTemplateUpdater#shutdown()} when you don't need it anymore.
+     * 
+     * @since 2.3.32
+     */
+    public void setBackgroundTemplateUpdater(BackgroundTemplateUpdater backgroundTemplateUpdater) {
+        cache.setBackgroundUpdater(backgroundTemplateUpdater);
+    }
+    
+    /**
+     * The getter pair of {@link #setBackgroundTemplateUpdater(BackgroundTemplateUpdater)}.
+     * 
+     * @since 2.3.32
+     */
+    public BackgroundTemplateUpdater getBackgroundTemplateUpdater() {
+        return cache.getBackgroundUpdater();
+    }
+    
+    /**
+     * Sets the {@link TemplateSnapshot} that stores already parsed templates, so that those needn't be parsed again
+     * when they are first loaded. Defaults to {@code null}, which means that all templates are parsed. A template is
+     * only restored from the snapshot if its source, and the settings that influence parsing are the same as when the
+     * snapshot was created, otherwise it's parsed as usual. See {@link TemplateSnapshot} for more.
+     * 
+     * @since 2.3.32
+     */
+    public void setTemplateSnapshot(TemplateSnapshot templateSnapshot) {
+        cache.setTemplateSnapshot(templateSnapshot);
+    }
+    
+    /**
+     * The getter pair of {@link #setTemplateSnapshot(TemplateSnapshot)}.
+     * 
+     * @since 2.3.32
+     */
+    public TemplateSnapshot getTemplateSnapshot() {
+        return cache.getTemplateSnapshot();
+    }
+    
     /**
      * Sets whether directives such as {@code if}, {@code else}, etc must be written as {@code #if}, {@code #else}, etc.
      * Defaults to {@code true}.
@@ -3180,6 +3237,42 @@ public class Configuration extends Configurable implements Cloneable, ParserConf
         cache.clear();
     }
     
+    /**
+     * Loads the templates that the {@linkplain #setTemplateLoader(TemplateLoader) template loader} lists, and that
+     * match the given {@link TemplateSourceMatcher}, into the template cache, in parallel. This is typically used to
+     * warm up the template cache before the application starts serving requests. The templates are loaded with
+     * {@link #getTemplate(String)}, so they are loaded with the default locale and encoding. Templates
+     * {@code #include}-d or {@code #import}-ed by the loaded templates are loaded as well, if their name is given
+     * with a string literal, even if they don't match.
+     * 
+     * <p>Note that the cache storage (see {@link #setCacheStorage(CacheStorage)}) must be able to hold all the
+     * templates, or else the preloading will be partially ineffective. 
+     * 
+     * @param matcher
+     *            Selects the templates to load; {@code null} if all listed templates should be loaded. Note that the
+     *            template loader might list files that aren't templates.
+     * @param executor
+     *            Runs the template loading tasks; the parallelism is decided by this. This method returns after all
+     *            tasks were finished.
+     * 
+     * @return The name and load time of each template, and the exceptions of the templates whose loading has failed.
+     *         Failures don't stop the preloading of the other templates.
+     * 
+     * @throws IllegalStateException
+     *             If the template loader doesn't implement {@link ListableTemplateLoader}.
+     * @throws IOException
+     *             If listing the templates has failed.
+     * @throws InterruptedException
+     *             If the thread was interrupted while waiting for the tasks to finish. 
+     * 
+     * @since 2.3.32
+     */
+    public TemplatePreloadResult preloadTemplates(TemplateSourceMatcher matcher, Executor executor)
+            throws IOException, InterruptedException {
+        NullArgumentException.check("executor", executor);
+        return _CacheAPI.preloadTemplates(this, matcher, executor);
+    }
+    
     /**
      * Equivalent to {@link
      * #removeTemplateFromCache(String, Locale, Object, String, boolean)
@@ -3354,30 +3447,53 @@ public class Configuration extends Configurable implements Cloneable, ParserConf
                 } if (value.indexOf('.') == -1) {
                     int strongSize = 0;
                     int softSize = 0;
-                    Map map = StringUtil.parseNameValuePairList(
-                            value, String.valueOf(Integer.MAX_VALUE));
+                    int tinyLfuSize = 0;
+                    long tinyLfuBytes = 0;
+                    // Compared by identity below, to know if the value was omitted:
+                    String omittedValue = String.valueOf(Integer.MAX_VALUE);
+                    Map map = StringUtil.parseNameValuePairList(value, omittedValue);
                     Iterator it = map.entrySet().iterator();
                     while (it.hasNext()) {
                         Map.Entry ent = (Map.Entry) it.next();
                         String pname = (String) ent.getKey();
-                        int pvalue;
+                        if (ent.getValue() == omittedValue && pname.regionMatches(true, 0, "tiny_lfu", 0, 8)) {
+                            // Unlike for "soft" and "strong", we don't allow unbounded size here.
+                            throw invalidSettingValueException(name, value);
+                        }
+                        long pvalue;
                         try {
-                            pvalue = Integer.parseInt((String) ent.getValue());
+                            pvalue = "tiny_lfu_bytes".equalsIgnoreCase(pname)
+                                    ? Long.parseLong((String) ent.getValue())
+                                    : Integer.parseInt((String) ent.getValue());
                         } catch (NumberFormatException e) {
                             throw invalidSettingValueException(name, value);
                         }
                         if ("soft".equalsIgnoreCase(pname)) {
-                            softSize = pvalue;
+                            softSize = (int) pvalue;
                         } else if ("strong".equalsIgnoreCase(pname)) {
-                            strongSize = pvalue;
+                            strongSize = (int) pvalue;
+                        } else if ("tiny_lfu".equalsIgnoreCase(pname)) {
+                            tinyLfuSize = (int) pvalue;
+                        } else if ("tiny_lfu_bytes".equalsIgnoreCase(pname)) {
+                            tinyLfuBytes = pvalue;
                         } else {
                             throw invalidSettingValueException(name, value);
                         }
                     }
-                    if (softSize == 0 && strongSize == 0) {
-                        throw invalidSettingValueException(name, value);
+                    if (tinyLfuSize != 0 || tinyLfuBytes != 0) {
+                        if (softSize != 0 || strongSize != 0 || (tinyLfuSize != 0 && tinyLfuBytes != 0)) {
+                            throw invalidSettingValueException(name, value);
+                        }
+                        setCacheStorage(tinyLfuSize != 0
+                                ? new TinyLfuCacheStorage(tinyLfuSize)
+                                : new TinyLfuCacheStorage(
+                                        tinyLfuBytes, TinyLfuCacheStorage.ESTIMATED_TEMPLATE_SIZE_WEIGHER));
+                    } else {
+                        if (softSize == 0 && strongSize == 0) {
+                            throw invalidSettingValueException(name, value);
+                        }
+                        setCacheStorage(new MruCacheStorage(strongSize, softSize));
                     }
-                    setCacheStorage(new MruCacheStorage(strongSize, softSize));
                 } else {
                     setCacheStorage((CacheStorage) _ObjectBuilderSettingEvaluator.eval(
                             value, CacheStorage.class, false, _SettingEvaluationEnvironment.getCurrent()));
@@ -23,6 +23,7 @@ import java.io.Serializable;
 import java.util.AbstractSequentialList;
 import java.util.List;
 
+import freemarker.core._RawValueSequenceModel;
 import freemarker.ext.util.WrapperTemplateModel;
 import freemarker.template.utility.ObjectWrapperWithAPISupport;
 import freemarker.template.utility.RichObjectWrapper;
@@ -48,7 +49,8 @@ import freemarker.template.utility.RichObjectWrapper;
  * @since 2.3.22
  */
 public class DefaultListAdapter extends WrappingTemplateModel implements TemplateSequenceModel,
-        AdapterTemplateModel, WrapperTemplateModel, TemplateModelWithAPISupport, Serializable {
+        AdapterTemplateModel, WrapperTemplateModel, TemplateModelWithAPISupport, _RawValueSequenceModel,
+        Serializable {
 
     protected final List list;
 
@@ -77,6 +79,19 @@ public class DefaultListAdapter extends WrappingTemplateModel implements Templat
         return index >= 0 && index < list.size() ? wrap(list.get(index)) : null;
     }
 
+    /**
+     * @since 2.3.32
+     */
+    @Override
+    public Object getRawValueOrModel(int index) throws TemplateModelException {
+        if (index < 0 || index >= list.size()) {
+            return null;
+        }
+        Object val = list.get(index);
+        ObjectWrapper ow = getObjectWrapper();
+        return ow instanceof DefaultObjectWrapper && ((DefaultObjectWrapper) ow).isRawValue(val) ? val : wrap(val);
+    }
+
     @Override
     public int size() throws TemplateModelException {
         return list.size();
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.SortedMap;
 
 import freemarker.core._DelayedJQuote;
+import freemarker.core._RawValueHashModel;
 import freemarker.core._TemplateModelException;
 import freemarker.ext.util.WrapperTemplateModel;
 import freemarker.template.utility.ObjectWrapperWithAPISupport;
@@ -46,7 +47,7 @@ import freemarker.template.utility.ObjectWrapperWithAPISupport;
  */
 public class DefaultMapAdapter extends WrappingTemplateModel
         implements TemplateHashModelEx2, AdapterTemplateModel, WrapperTemplateModel, TemplateModelWithAPISupport,
-        Serializable {
+        _RawValueHashModel, Serializable {
 
     private final Map map;
 
@@ -69,6 +70,18 @@ public class DefaultMapAdapter extends WrappingTemplateModel
 
     @Override
     public TemplateModel get(String key) throws TemplateModelException {
+        return (TemplateModel) get(key, false);
+    }
+
+    /**
+     * @since 2.3.32
+     */
+    @Override
+    public Object getRawValueOrModel(String key) throws TemplateModelException {
+        return get(key, true);
+    }
+
+    private Object get(String key, boolean rawValueAllowed) throws TemplateModelException {
         Object val;
         try {
             val = map.get(key);
@@ -116,7 +129,12 @@ public class DefaultMapAdapter extends WrappingTemplateModel
             }
         }
         
-        return wrap(val);
+        return rawValueAllowed && isRawValue(val) ? val : wrap(val);
+    }
+
+    private boolean isRawValue(Object val) {
+        ObjectWrapper ow = getObjectWrapper();
+        return ow instanceof DefaultObjectWrapper && ((DefaultObjectWrapper) ow).isRawValue(val);
     }
 
     @Override
@@ -30,6 +30,7 @@ import java.util.Set;
 
 import org.w3c.dom.Node;
 
+import freemarker.core.BugException;
 import freemarker.ext.beans.BeansWrapper;
 import freemarker.ext.beans.BeansWrapperConfiguration;
 import freemarker.ext.beans.DefaultMemberAccessPolicy;
@@ -76,6 +77,8 @@ public class DefaultObjectWrapper extends freemarker.ext.beans.BeansWrapper {
     private boolean domNodeSupport;
     private boolean jythonSupport;
     private final boolean useAdapterForEnumerations;
+    /** Whether {@link #wrap(Object)} isn't overridden, so we know how it wraps strings and numbers. */
+    private final boolean wrapMethodNotOverridden = isWrapMethodNotOverridden(getClass());
 
     /**
      * Creates a new instance with the incompatible-improvements-version specified in
@@ -175,6 +178,24 @@ public class DefaultObjectWrapper extends freemarker.ext.beans.BeansWrapper {
         JYTHON_WRAPPER = ow;
     }
 
+    private static boolean isWrapMethodNotOverridden(Class<?> wrapperClass) {
+        try {
+            return wrapperClass.getMethod("wrap", Object.class).getDeclaringClass() == DefaultObjectWrapper.class;
+        } catch (NoSuchMethodException e) {
+            throw new BugException(e);
+        }
+    }
+
+    /**
+     * Tells if the value would be wrapped into a {@link SimpleScalar} or {@link SimpleNumber} by {@link #wrap(Object)},
+     * in which case the {@link DefaultMapAdapter} and {@link DefaultListAdapter} can return the value itself from
+     * their {@code getRawValueOrModel} methods.
+     */
+    final boolean isRawValue(Object obj) {
+        return wrapMethodNotOverridden
+                && (obj instanceof String || obj instanceof Number && !(obj instanceof TemplateModel));
+    }
+
     /**
      * Wraps the parameter object to {@link TemplateModel} interface(s). Simple types like numbers, strings, booleans
      * and dates will be wrapped into the corresponding {@code SimpleXxx} classes (like {@link SimpleNumber}).
@@ -20,6 +20,8 @@
 package freemarker.template;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -81,8 +83,8 @@ public class Template extends Configurable {
 
     private static final int READER_BUFFER_SIZE = 4096;
     
-    private Map macros = new HashMap();
-    private List imports = new Vector();
+    private Map<String, Macro> macros = new HashMap<>();
+    private List<LibraryLoad> imports = new Vector<>();
     private TemplateElement rootElement;
     private String encoding, defaultNS;
     private Object customLookupCondition;
@@ -93,10 +95,10 @@ public class Template extends Configurable {
     private OutputFormat outputFormat;
     private final String name;
     private final String sourceName;
-    private final ArrayList lines = new ArrayList();
+    private final ArrayList<String> lines = new ArrayList<>();
     private final ParserConfiguration parserConfiguration;
-    private Map prefixToNamespaceURILookup = new HashMap();
-    private Map namespaceURIToPrefixLookup = new HashMap();
+    private Map<String, String> prefixToNamespaceURILookup = new HashMap<>();
+    private Map<String, String> namespaceURIToPrefixLookup = new HashMap<>();
     private Version templateLanguageVersion;
 
     /**
@@ -280,6 +282,59 @@ public class Template extends Configurable {
         prefixToNamespaceURILookup = Collections.unmodifiableMap(prefixToNamespaceURILookup);
     }
 
+    /**
+     * Restores a template from the output of {@link #serializeAst()}, instead of parsing its source. The parameters are
+     * the same as of {@link #Template(String, String, Reader, Configuration, ParserConfiguration, String)}, and must be
+     * equivalent with those that were used when the serialized template was created.
+     * 
+     * @throws IOException
+     *             If the serialized AST is corrupt, or isn't compatible with the current FreeMarker version or
+     *             {@link Configuration}.
+     */
+    Template(
+            String name, String sourceName, Configuration cfg, ParserConfiguration customParserConfiguration,
+            String encoding, byte[] serializedAst) throws IOException {
+        this(name, sourceName, cfg, customParserConfiguration);
+        
+        this.setEncoding(encoding);
+        try (AstSerialization.Input in = new AstSerialization.Input(
+                new ByteArrayInputStream(serializedAst), this)) {
+            rootElement = (TemplateElement) in.readObject();
+            macros = readObject(in);
+            imports = readObject(in);
+            List<String> restoredLines = readObject(in);
+            lines.addAll(restoredLines);
+            prefixToNamespaceURILookup = readObject(in);
+            namespaceURIToPrefixLookup = readObject(in);
+            defaultNS = (String) in.readObject();
+            Map<String, Object> customAttributes = readObject(in);
+            for (Map.Entry<String, Object> customAttribute : customAttributes.entrySet()) {
+                setCustomAttribute(customAttribute.getKey(), customAttribute.getValue());
+            }
+            outputFormat = (OutputFormat) in.readObject();
+            autoEscaping = in.readBoolean();
+            actualTagSyntax = in.readInt();
+            interpolationSyntax = in.readInt();
+            actualNamingConvention = in.readInt();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Failed to restore serialized template AST", e);
+        }
+        
+        DebuggerService.registerTemplate(this);
+        namespaceURIToPrefixLookup = Collections.unmodifiableMap(namespaceURIToPrefixLookup);
+        prefixToNamespaceURILookup = Collections.unmodifiableMap(prefixToNamespaceURILookup);
+    }
+
+    /**
+     * Reads an object written by {@link #serializeAst()}, where the static type of the written value was {@code T}.
+     * (As the deserialized classes are restricted by {@link AstSerialization.Input}, this can't be used to inject
+     * unexpected classes.)
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T readObject(AstSerialization.Input in) throws IOException, ClassNotFoundException {
+        return (T) in.readObject();
+    }
+
     /**
      * Equivalent to {@link #Template(String, Reader, Configuration)
      * Template(name, reader, null)}.
@@ -460,6 +515,35 @@ public class Template extends Configurable {
     */
     public Environment createProcessingEnvironment(Object dataModel, Writer out, ObjectWrapper wrapper)
     throws TemplateException, IOException {
+        return new Environment(this, wrapDataModel(dataModel, wrapper), out);
+    }
+
+    /**
+     * Same as {@link #createProcessingEnvironment(Object, Writer, ObjectWrapper)}, but if {@code reusedEnvironment}
+     * isn't {@code null}, instead of creating a new {@link Environment}, it resets and returns that; see
+     * {@link Environment#reset(Template, TemplateHashModel, Writer)}. This is useful when rendering templates in a
+     * high rate, like:
+     * 
+     * <pre>
+     * env = myTemplate.createProcessingEnvironment(root, out, null, env);
+     * env.process();</pre>
+     * 
+     * @param reusedEnvironment
+     *            An {@link Environment} that was created earlier (typically for the processing of another template
+     *            of the same {@link Configuration}), and isn't used anymore, or {@code null}.
+     * 
+     * @since 2.3.32
+     */
+    public Environment createProcessingEnvironment(Object dataModel, Writer out, ObjectWrapper wrapper,
+            Environment reusedEnvironment) throws TemplateException, IOException {
+        if (reusedEnvironment == null) {
+            return createProcessingEnvironment(dataModel, out, wrapper);
+        }
+        reusedEnvironment.reset(this, wrapDataModel(dataModel, wrapper), out);
+        return reusedEnvironment;
+    }
+
+    private TemplateHashModel wrapDataModel(Object dataModel, ObjectWrapper wrapper) throws TemplateModelException {
         final TemplateHashModel dataModelHash;
         if (dataModel instanceof TemplateHashModel) {
             dataModelHash = (TemplateHashModel) dataModel;
@@ -486,7 +570,7 @@ public class Template extends Configurable {
                 }
             }
         }
-        return new Environment(this, dataModelHash, out);
+        return dataModelHash;
     }
 
     /**
@@ -720,6 +804,41 @@ public class Template extends Configurable {
         this.autoEscaping = autoEscaping;
     }
     
+    /**
+     * Serializes the parsed template, so that it can be restored later without parsing with
+     * {@link #Template(String, String, Configuration, ParserConfiguration, String, byte[])}. This must be called
+     * directly after the template was parsed, before any settings were changed in it (such as by
+     * {@link TemplateConfiguration#apply(Template)}). The serialized form is only meant to be restored by the same
+     * FreeMarker version.
+     * 
+     * @throws java.io.NotSerializableException
+     *             If the template contains a value (like a custom attribute coming from the {@code #ftl} header) that
+     *             can't be serialized.
+     */
+    byte[] serializeAst() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AstSerialization.Output out = new AstSerialization.Output(bytes, this)) {
+            out.writeObject(rootElement);
+            out.writeObject(macros);
+            out.writeObject(imports);
+            out.writeObject(new ArrayList<>(lines));
+            out.writeObject(new HashMap<>(prefixToNamespaceURILookup));
+            out.writeObject(new HashMap<>(namespaceURIToPrefixLookup));
+            out.writeObject(defaultNS);
+            HashMap<String, Object> customAttributes = new HashMap<>();
+            for (String attName : getCustomAttributeNames()) {
+                customAttributes.put(attName, getCustomAttribute(attName));
+            }
+            out.writeObject(customAttributes);
+            out.writeObject(outputFormat);
+            out.writeBoolean(autoEscaping);
+            out.writeInt(actualTagSyntax);
+            out.writeInt(interpolationSyntax);
+            out.writeInt(actualNamingConvention);
+        }
+        return bytes.toByteArray();
+    }
+
     /**
      * Dump the raw template in canonical form.
      */
@@ -754,6 +873,17 @@ public class Template extends Configurable {
         imports.add(ll);
     }
 
+    /**
+     * Returns the number of characters in the template source (after tab expansion).
+     */
+    int getSourceLength() {
+        int length = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            length += lines.get(i).length();
+        }
+        return length;
+    }
+
     /**
      * Returns the template source at the location specified by the coordinates given, or {@code null} if unavailable.
      * A strange legacy in the behavior of this method is that it replaces tab characters with spaces according the
@@ -883,7 +1013,7 @@ public class Template extends Configurable {
             if (c == '\n' || c == '\r') {
                 if (lastChar == '\r' && c == '\n') { // CRLF under Windoze
                     int lastIndex = lines.size() - 1;
-                    String lastLine = (String) lines.get(lastIndex);
+                    String lastLine = lines.get(lastIndex);
                     lines.set(lastIndex, lastLine + '\n');
                 } else {
                     lineBuf.append((char) c);
@@ -967,7 +1097,7 @@ public class Template extends Configurable {
         if (prefix.equals("")) {
             return defaultNS == null ? "" : defaultNS;
         }
-        return (String) prefixToNamespaceURILookup.get(prefix);
+        return prefixToNamespaceURILookup.get(prefix);
     }
     
     /**
@@ -983,7 +1113,7 @@ public class Template extends Configurable {
         if (nsURI.equals(defaultNS)) {
             return "";
         }
-        return (String) namespaceURIToPrefixLookup.get(nsURI);
+        return namespaceURIToPrefixLookup.get(nsURI);
     }
     
     /**
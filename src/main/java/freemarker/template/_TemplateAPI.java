@@ -19,6 +19,7 @@
 
 package freemarker.template;
 
+import java.io.IOException;
 import java.util.Locale;
 import java.util.Set;
 import java.util.TimeZone;
@@ -29,6 +30,7 @@ import freemarker.cache.TemplateLookupStrategy;
 import freemarker.cache.TemplateNameFormat;
 import freemarker.core.Expression;
 import freemarker.core.OutputFormat;
+import freemarker.core.ParserConfiguration;
 import freemarker.core.TemplateObject;
 import freemarker.log.Logger;
 import freemarker.template.utility.NullArgumentException;
@@ -178,6 +180,16 @@ public class _TemplateAPI {
         t.setOutputFormat(outputFormat);
     }
 
+    public static byte[] serializeTemplateAst(Template t) throws IOException {
+        return t.serializeAst();
+    }
+
+    public static Template newTemplateFromSerializedAst(
+            String name, String sourceName, Configuration cfg, ParserConfiguration customParserConfiguration,
+            String encoding, byte[] serializedAst) throws IOException {
+        return new Template(name, sourceName, cfg, customParserConfiguration, encoding, serializedAst);
+    }
+
     public static void validateAutoEscapingPolicyValue(int autoEscaping) {
         if (autoEscaping != Configuration.ENABLE_IF_DEFAULT_AUTO_ESCAPING_POLICY
                 && autoEscaping != Configuration.ENABLE_IF_SUPPORTED_AUTO_ESCAPING_POLICY
@@ -235,5 +247,13 @@ public class _TemplateAPI {
     public static void setPreventStrippings(Configuration conf, boolean preventStrippings) {
         conf.setPreventStrippings(preventStrippings);
     }
+
+    public static boolean getPreventStrippings(Configuration conf) {
+        return conf.getPreventStrippings();
+    }
+
+    public static int getTemplateSourceLength(Template template) {
+        return template.getSourceLength();
+    }
     
 }
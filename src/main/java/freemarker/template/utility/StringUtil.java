@@ -51,6 +51,22 @@ public class StringUtil {
     private static final char[] HTML_APOS = new char[] { '&', '#', '3', '9', ';' };
     private static final char[] XML_APOS = new char[] { '&', 'a', 'p', 'o', 's', ';' };
 
+    /**
+     * Escaping lookup tables, used by {@link #escapeByTable(String, char[][])} and
+     * {@link #escapeByTable(String, char[][], Writer)}. The index is the character, the value is its escaped form, or
+     * {@code null} if it needn't be escaped. Characters beyond the end of the table needn't be escaped either.
+     */
+    private static final char[][] XML_ESCAPES = createMarkupEscapes(XML_APOS);
+    private static final char[][] XHTML_ESCAPES = createMarkupEscapes(HTML_APOS);
+    private static final char[][] XML_NA_ESCAPES = createMarkupEscapes(null);
+    private static final char[][] RTF_ESCAPES = createRTFEscapes();
+
+    /**
+     * The maximum length of the buffer used by {@link #escapeByTable(String, char[][], Writer)}; longer output is
+     * written in multiple chunks.
+     */
+    private static final int ESCAPING_BUFFER_MAX_LENGTH = 4096;
+
     /*
      *  For better performance most methods are folded down. Don't you scream... :)
      */
@@ -73,7 +89,7 @@ public class StringUtil {
      *  Replaces all '&gt;' '&lt;' '&amp;', "'" and '"' with entity reference
      */
     public static String XMLEnc(String s) {
-        return XMLOrHTMLEnc(s, true, true, XML_APOS);
+        return escapeByTable(s, XML_ESCAPES);
     }
 
     /**
@@ -82,7 +98,7 @@ public class StringUtil {
      * @since 2.3.24
      */
     public static void XMLEnc(String s, Writer out) throws IOException {
-        XMLOrHTMLEnc(s, XML_APOS, out);
+        escapeByTable(s, XML_ESCAPES, out);
     }
     
     /**
@@ -93,7 +109,7 @@ public class StringUtil {
      *  instead [see http://www.w3.org/TR/xhtml1/#C_16])
      */
     public static String XHTMLEnc(String s) {
-        return XMLOrHTMLEnc(s, true, true, HTML_APOS);
+        return escapeByTable(s, XHTML_ESCAPES);
     }
 
     /**
@@ -102,7 +118,7 @@ public class StringUtil {
      * @since 2.3.24
      */
     public static void XHTMLEnc(String s, Writer out) throws IOException {
-        XMLOrHTMLEnc(s, HTML_APOS, out);
+        escapeByTable(s, XHTML_ESCAPES, out);
     }
     
     private static String XMLOrHTMLEnc(String s, boolean escGT, boolean escQuot, char[] apos) {
@@ -204,32 +220,6 @@ public class StringUtil {
         return false;
     }
 
-    private static void XMLOrHTMLEnc(String s, char[] apos, Writer out) throws IOException {
-        int writtenEnd = 0;  // exclusive end
-        int ln = s.length();
-        for (int i = 0; i < ln; i++) {
-            char c = s.charAt(i);
-            if (c == '<' || c == '>' || c == '&' || c == '"' || c == '\'') {
-                int flushLn = i - writtenEnd;
-                if (flushLn != 0) {
-                    out.write(s, writtenEnd, flushLn);
-                }
-                writtenEnd = i + 1;
-                
-                switch (c) {
-                case '<': out.write(LT); break;
-                case '>': out.write(GT); break;
-                case '&': out.write(AMP); break;
-                case '"': out.write(QUOT); break;
-                default: out.write(apos); break;
-                }
-            }
-        }
-        if (writtenEnd < ln) {
-            out.write(s, writtenEnd, ln - writtenEnd);
-        }
-    }
-    
     /**
      * For efficiently copying very short char arrays.
      */
@@ -246,7 +236,7 @@ public class StringUtil {
      *  @see #XMLEnc(String)
      */
     public static String XMLEncNA(String s) {
-        return XMLOrHTMLEnc(s, true, true, null);
+        return escapeByTable(s, XML_NA_ESCAPES);
     }
 
     /**
@@ -272,69 +262,144 @@ public class StringUtil {
      *  Escapes all '\' '{' '}'.
      */
     public static String RTFEnc(String s) {
-        int ln = s.length();
-        
-        // First we find out if we need to escape, and if so, what the length of the output will be:
-        int firstEscIdx = -1;
-        int lastEscIdx = 0;
-        int plusOutLn = 0;
-        for (int i = 0; i < ln; i++) {
-            char c = s.charAt(i);
-            if (c == '{' || c == '}' || c == '\\') {
-                if (firstEscIdx == -1) {
-                    firstEscIdx = i;
-                }
-                lastEscIdx = i;
-                plusOutLn++;
-            }
-        }
-        
+        return escapeByTable(s, RTF_ESCAPES);
+    }
+    
+    /**
+     * Like {@link #RTFEnc(String)}, but writes the result into a {@link Writer}.
+     * 
+     * @since 2.3.24
+     */
+    public static void RTFEnc(String s, Writer out) throws IOException {
+        escapeByTable(s, RTF_ESCAPES, out);
+    }
+
+    /**
+     * Escapes the characters for which the table has a replacement; returns the argument itself if nothing had to be
+     * escaped.
+     */
+    private static String escapeByTable(String s, char[][] escapes) {
+        final int firstEscIdx = indexOfCharToEscape(s, 0, escapes);
         if (firstEscIdx == -1) {
             return s; // Nothing to escape
-        } else {
-            char[] esced = new char[ln + plusOutLn];
-            if (firstEscIdx != 0) {
-                s.getChars(0, firstEscIdx, esced, 0);
-            }
-            int dst = firstEscIdx;
-            for (int i = firstEscIdx; i <= lastEscIdx; i++) {
-                char c = s.charAt(i);
-                if (c == '{' || c == '}' || c == '\\') {
-                    esced[dst++] = '\\';
+        }
+
+        // Find out the length of the output:
+        final int ln = s.length();
+        final int tableLn = escapes.length;
+        int outLn = ln;
+        for (int i = firstEscIdx; i < ln; i++) {
+            final char c = s.charAt(i);
+            if (c < tableLn) {
+                char[] esc = escapes[c];
+                if (esc != null) {
+                    outLn += esc.length - 1;
                 }
-                esced[dst++] = c;
             }
-            if (lastEscIdx != ln - 1) {
-                s.getChars(lastEscIdx + 1, ln, esced, dst);
+        }
+
+        final char[] esced = new char[outLn];
+        s.getChars(0, firstEscIdx, esced, 0);
+        int dst = firstEscIdx;
+        for (int i = firstEscIdx; i < ln; i++) {
+            final char c = s.charAt(i);
+            final char[] esc = c < tableLn ? escapes[c] : null;
+            if (esc != null) {
+                dst = shortArrayCopy(esc, esced, dst);
+            } else {
+                esced[dst++] = c;
             }
-            
-            return String.valueOf(esced);
         }
+        return String.valueOf(esced);
     }
-    
+
     /**
-     * Like {@link #RTFEnc(String)}, but writes the result into a {@link Writer}.
-     * 
-     * @since 2.3.24
+     * Same as {@link #escapeByTable(String, char[][])}, but writes the result into a {@link Writer}. The escaped
+     * output is collected in a buffer, so the {@link Writer} is called only once per buffer full, instead of once per
+     * escaped character and once per unescaped run. If nothing has to be escaped, the {@link String} is written as is.
      */
-    public static void RTFEnc(String s, Writer out) throws IOException {
-        int writtenEnd = 0;  // exclusive end
-        int ln = s.length();
-        for (int i = 0; i < ln; i++) {
-            char c = s.charAt(i);
-            if (c == '{' || c == '}' || c == '\\') {
-                int flushLn = i - writtenEnd;
-                if (flushLn != 0) {
-                    out.write(s, writtenEnd, flushLn);
+    private static void escapeByTable(String s, char[][] escapes, Writer out) throws IOException {
+        int i = indexOfCharToEscape(s, 0, escapes);
+        if (i == -1) {
+            out.write(s); // Nothing to escape
+            return;
+        }
+
+        final int ln = s.length();
+        final char[] buf = new char[Math.min(ln + 32, ESCAPING_BUFFER_MAX_LENGTH)];
+        int dst = 0;
+        int runStart = 0;
+        while (true) {
+            // Copy the unescaped run before index i:
+            int runLn = i - runStart;
+            if (runLn != 0) {
+                if (dst + runLn > buf.length) {
+                    out.write(buf, 0, dst);
+                    dst = 0;
                 }
-                out.write('\\');
-                writtenEnd = i; // Not i + 1, so c will be written out later
+                if (runLn > buf.length) {
+                    out.write(s, runStart, runLn);
+                } else {
+                    s.getChars(runStart, i, buf, dst);
+                    dst += runLn;
+                }
+            }
+            if (i == ln) {
+                break;
+            }
+
+            // Here s.charAt(i) must be escaped.
+            char[] esc = escapes[s.charAt(i)];
+            if (dst + esc.length > buf.length) {
+                out.write(buf, 0, dst);
+                dst = 0;
+            }
+            dst = shortArrayCopy(esc, buf, dst);
+
+            runStart = i + 1;
+            i = indexOfCharToEscape(s, runStart, escapes);
+            if (i == -1) {
+                i = ln;
             }
         }
-        if (writtenEnd < ln) {
-            out.write(s, writtenEnd, ln - writtenEnd);
+        if (dst != 0) {
+            out.write(buf, 0, dst);
         }
     }
+
+    /**
+     * @return The index of the first character at or after {@code startIdx} that the table says must be escaped, or
+     *         -1 if there's none.
+     */
+    private static int indexOfCharToEscape(String s, int startIdx, char[][] escapes) {
+        final int ln = s.length();
+        final int tableLn = escapes.length;
+        for (int i = startIdx; i < ln; i++) {
+            final char c = s.charAt(i);
+            if (c < tableLn && escapes[c] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char[][] createMarkupEscapes(char[] apos) {
+        char[][] escapes = new char['>' + 1][];
+        escapes['<'] = LT;
+        escapes['>'] = GT;
+        escapes['&'] = AMP;
+        escapes['"'] = QUOT;
+        escapes['\''] = apos;
+        return escapes;
+    }
+
+    private static char[][] createRTFEscapes() {
+        char[][] escapes = new char['}' + 1][];
+        escapes['\\'] = new char[] { '\\', '\\' };
+        escapes['{'] = new char[] { '\\', '{' };
+        escapes['}'] = new char[] { '\\', '}' };
+        return escapes;
+    }
     
 
     /**
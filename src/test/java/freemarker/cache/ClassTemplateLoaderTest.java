@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class ClassTemplateLoaderTest {
+
+    @Test
+    public void testListTemplateNamesInDirectory() throws IOException {
+        Set<String> names = new ClassTemplateLoader(ClassTemplateLoaderTest.class, "/freemarker/test/templatesuite")
+                .listTemplateNames();
+        assertTrue(names.contains("templates/list.ftl"));
+        assertTrue(names.contains("expected/list.txt"));
+
+        Set<String> relativeNames = new ClassTemplateLoader(ClassTemplateLoaderTest.class, "../test/templatesuite")
+                .listTemplateNames();
+        assertEquals(names, relativeNames);
+    }
+
+    @Test
+    public void testListTemplateNamesInJar() throws IOException {
+        File jarFile = File.createTempFile("ClassTemplateLoaderTest", ".jar");
+        try {
+            try (JarOutputStream jarOut = new JarOutputStream(new FileOutputStream(jarFile))) {
+                jarOut.putNextEntry(new JarEntry("other/o.ftl"));
+                jarOut.putNextEntry(new JarEntry("tpl/"));
+                jarOut.putNextEntry(new JarEntry("tpl/t1.ftl"));
+                jarOut.write("1".getBytes(StandardCharsets.UTF_8));
+                jarOut.putNextEntry(new JarEntry("tpl/sub/"));
+                jarOut.putNextEntry(new JarEntry("tpl/sub/t2.ftl"));
+                jarOut.write("2".getBytes(StandardCharsets.UTF_8));
+            }
+
+            try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jarFile.toURI().toURL() }, null)) {
+                ClassTemplateLoader templateLoader = new ClassTemplateLoader(classLoader, "tpl");
+                assertEquals(ImmutableSet.of("t1.ftl", "sub/t2.ftl"), templateLoader.listTemplateNames());
+                assertNotNull(templateLoader.findTemplateSource("sub/t2.ftl"));
+            }
+        } finally {
+            jarFile.delete();
+        }
+    }
+
+}
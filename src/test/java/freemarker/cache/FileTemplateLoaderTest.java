@@ -30,6 +30,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Files;
 
 import freemarker.template.Configuration;
@@ -72,6 +73,71 @@ public class FileTemplateLoaderTest {
     }
     
     
+    @Test
+    public void testListTemplateNames() throws Exception {
+        FileUtils.write(new File(templateRootDir, "root.ftl"), "bar");
+        FileTemplateLoader templateLoader = (FileTemplateLoader) cfg.getTemplateLoader();
+        assertEquals(ImmutableSet.of("root.ftl", "sub1/sub2/t.ftl"), templateLoader.listTemplateNames());
+    }
+    
+    @Test
+    public void testWatchFileChanges() throws Exception {
+        FileTemplateLoader templateLoader = (FileTemplateLoader) cfg.getTemplateLoader();
+        templateLoader.setWatchFileChanges(true);
+        try {
+            cfg.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+            cfg.setLocalizedLookup(false);
+            
+            File tFile = new File(templateRootDir, "sub1/sub2/t.ftl");
+            assertEquals("foo", cfg.getTemplate("sub1/sub2/t.ftl").toString());
+            assertEquals("foo", cfg.getTemplate("sub1/sub2/t.ftl").toString());
+            
+            long changeVersion = templateLoader.getChangeVersion();
+            assertFalse(templateLoader.isChangedSince(tFile, changeVersion));
+            FileUtils.write(tFile, "bar");
+            tFile.setLastModified(tFile.lastModified() + 2000); // In case the file system time resolution is low
+            waitUntilChanged(templateLoader, tFile, changeVersion);
+            assertEquals("bar", cfg.getTemplate("sub1/sub2/t.ftl").toString());
+            
+            try {
+                cfg.getTemplate("sub1/sub3/t2.ftl");
+                fail();
+            } catch (TemplateNotFoundException e) {
+                // expected
+            }
+            changeVersion = templateLoader.getChangeVersion();
+            File t2File = new File(templateRootDir, "sub1/sub3/t2.ftl");
+            FileUtils.write(t2File, "baz");
+            waitUntilChanged(templateLoader, null, changeVersion);
+            assertEquals("baz", cfg.getTemplate("sub1/sub3/t2.ftl").toString());
+            
+            changeVersion = templateLoader.getChangeVersion();
+            assertTrue(tFile.delete());
+            waitUntilChanged(templateLoader, tFile, changeVersion);
+            try {
+                cfg.getTemplate("sub1/sub2/t.ftl");
+                fail();
+            } catch (TemplateNotFoundException e) {
+                // expected
+            }
+        } finally {
+            templateLoader.setWatchFileChanges(false);
+        }
+        assertEquals(-1, templateLoader.getChangeVersion());
+        assertTrue(templateLoader.isChangedSince(null, 0));
+    }
+    
+    private static void waitUntilChanged(FileTemplateLoader templateLoader, File file, long changeVersion)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!templateLoader.isChangedSince(file, changeVersion)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Change of " + file + " wasn't detected.");
+            }
+            Thread.sleep(50);
+        }
+    }
+    
     @Test
     public void testNotFound() throws Exception {
         for (int i = 0; i < 2; i++) {
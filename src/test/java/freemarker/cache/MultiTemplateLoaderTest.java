@@ -21,10 +21,13 @@ package freemarker.cache;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.net.URL;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
+
 public class MultiTemplateLoaderTest {
 
     @Test
@@ -44,6 +47,26 @@ public class MultiTemplateLoaderTest {
         assertNull(getTemplateContent(mtl, "neither.ftl"));
     }
 
+    @Test
+    public void testListTemplateNames() throws IOException {
+        StringTemplateLoader stl1 = new StringTemplateLoader();
+        stl1.putTemplate("1.ftl", "1");
+        stl1.putTemplate("both.ftl", "both 1");
+
+        StringTemplateLoader stl2 = new StringTemplateLoader();
+        stl2.putTemplate("2.ftl", "2");
+        stl2.putTemplate("both.ftl", "both 2");
+        
+        MultiTemplateLoader mtl = new MultiTemplateLoader(new TemplateLoader[] {
+                stl1, new URLTemplateLoader() {
+                    @Override
+                    protected URL getURL(String name) {
+                        return null;
+                    }
+                }, stl2 });
+        assertEquals(ImmutableSet.of("1.ftl", "2.ftl", "both.ftl"), mtl.listTemplateNames());
+    }
+
     @Test
     public void testSticky() throws IOException {
         testStickiness(true);
@@ -24,7 +24,16 @@ import static org.junit.Assert.*;
 import java.io.IOException;
 import java.io.Reader;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -419,6 +428,349 @@ public class TemplateCacheTest {
         }
     }
     
+    @Test
+    public void testConcurrentMissesLoadOnlyOnce() throws Exception {
+        BlockingTemplateLoader loader = new BlockingTemplateLoader();
+        loader.putTemplate("t.ftl", "${1}");
+        loader.putTemplate("other.ftl", "${2}");
+        final Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setLocalizedLookup(false);
+        
+        final int threadCount = 8;
+        final Template[] results = new Template[threadCount];
+        final Throwable[] failures = new Throwable[threadCount];
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int threadIdx = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        results[threadIdx] = cfg.getTemplate("t.ftl");
+                    } catch (Throwable e) {
+                        failures[threadIdx] = e;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        
+        loader.awaitReaderRequested();
+        // While "t.ftl" is being loaded, other templates can still be loaded:
+        assertEquals("other.ftl", cfg.getTemplate("other.ftl").getName());
+        Thread.sleep(100L); // Give the other threads time to pile up
+        loader.unblock();
+        
+        for (int i = 0; i < threadCount; i++) {
+            threads[i].join();
+            assertNull(failures[i]);
+            assertSame(results[0], results[i]);
+        }
+        assertEquals(2, loader.getReaderCount());
+    }
+
+    @Test
+    public void testConcurrentMissesShareFailure() throws Exception {
+        BlockingTemplateLoader loader = new BlockingTemplateLoader();
+        loader.putTemplate("t.ftl", "${");
+        final Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setLocalizedLookup(false);
+        
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    cfg.getTemplate("t.ftl");
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }
+        };
+        thread.start();
+        loader.awaitReaderRequested();
+        loader.unblock();
+        try {
+            cfg.getTemplate("t.ftl");
+            fail();
+        } catch (ParseException e) {
+            // Either we have waited for the other thread, or we have got its cached exception
+        } catch (IOException e) {
+            assertThat(e.getCause(), Matchers.instanceOf(ParseException.class));
+        }
+        thread.join();
+        assertThat(failure[0], Matchers.instanceOf(ParseException.class));
+        assertEquals(1, loader.getReaderCount());
+    }
+    
+    @Test
+    public void testBackgroundUpdate() throws Exception {
+        StringTemplateLoader loader = new StringTemplateLoader();
+        loader.putTemplate("t.ftl", "v1", 1);
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setLocalizedLookup(false);
+        cfg.setTemplateUpdateDelayMilliseconds(0);
+        ManualExecutor executor = new ManualExecutor();
+        RecordingBackgroundTemplateUpdater updater = new RecordingBackgroundTemplateUpdater(executor);
+        cfg.setBackgroundTemplateUpdater(updater);
+        
+        // Not in the cache yet, so it's loaded synchronously:
+        assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+        assertEquals(0, executor.tasks.size());
+        
+        loader.putTemplate("t.ftl", "v2", 2);
+        assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+        assertEquals(1, executor.tasks.size());
+        // Already being updated, so no new task:
+        assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+        assertEquals(1, executor.tasks.size());
+        
+        executor.runTasks();
+        assertEquals("v2", cfg.getTemplate("t.ftl").toString());
+        executor.runTasks();
+        
+        loader.putTemplate("t.ftl", "${", 3);
+        assertEquals("v2", cfg.getTemplate("t.ftl").toString());
+        executor.runTasks();
+        assertThat(updater.failures.get(0), Matchers.instanceOf(ParseException.class));
+        try {
+            cfg.getTemplate("t.ftl");
+            fail();
+        } catch (ParseException e) {
+            // expected, as failed loads aren't served in the background
+        }
+        
+        // Survives the re-creation of the TemplateCache:
+        cfg.setCacheStorage(new StrongCacheStorage());
+        assertSame(updater, cfg.getBackgroundTemplateUpdater());
+    }
+    
+    @Test
+    public void testSameKeyLookupDuringBackgroundUpdate() throws Exception {
+        final HookedTemplateLoader loader = new HookedTemplateLoader();
+        loader.putTemplate("t.ftl", "v1", 1);
+        final Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setLocalizedLookup(false);
+        cfg.setTemplateUpdateDelayMilliseconds(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        RecordingBackgroundTemplateUpdater updater = new RecordingBackgroundTemplateUpdater(executor);
+        cfg.setBackgroundTemplateUpdater(updater);
+        try {
+            assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+            
+            // Re-entrant lookup on the thread that does the background update; it mustn't wait for itself:
+            loader.putTemplate("t.ftl", "v2", 2);
+            final Template[] reentrantResult = new Template[1];
+            loader.getReaderHook = new HookedTemplateLoader.Hook() {
+                @Override
+                public void run() throws IOException {
+                    cfg.removeTemplateFromCache("t.ftl");
+                    reentrantResult[0] = cfg.getTemplate("t.ftl");
+                }
+            };
+            assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+            loader.awaitHookDone();
+            assertEquals("v2", reentrantResult[0].toString());
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // Only to wait until the background update is finished
+                }
+            }).get();
+            
+            // A miss on the thread that has started the background update must wait for it, not load again:
+            loader.putTemplate("t.ftl", "v3", 3);
+            final CountDownLatch hookStarted = new CountDownLatch(1);
+            final CountDownLatch unblockHook = new CountDownLatch(1);
+            loader.getReaderHook = new HookedTemplateLoader.Hook() {
+                @Override
+                public void run() throws IOException {
+                    hookStarted.countDown();
+                    try {
+                        unblockHook.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+            assertEquals("v2", cfg.getTemplate("t.ftl").toString());
+            hookStarted.await();
+            int readerCount = loader.readerCount.get();
+            cfg.removeTemplateFromCache("t.ftl");
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100L);
+                    } catch (InterruptedException e) {
+                        // Just unblock earlier
+                    }
+                    unblockHook.countDown();
+                }
+            }.start();
+            assertEquals("v3", cfg.getTemplate("t.ftl").toString());
+            assertEquals(readerCount, loader.readerCount.get());
+            assertEquals(Collections.emptyList(), updater.failures);
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Runs {@link #getReaderHook} (once) when {@link #getReader(Object, String)} is called.
+     */
+    private static class HookedTemplateLoader extends StringTemplateLoader {
+        
+        private volatile Hook getReaderHook;
+        private final AtomicInteger readerCount = new AtomicInteger();
+        private volatile CountDownLatch hookDoneLatch = new CountDownLatch(1);
+        
+        @Override
+        public Reader getReader(Object templateSource, String encoding) {
+            readerCount.incrementAndGet();
+            Hook hook = getReaderHook;
+            if (hook != null) {
+                getReaderHook = null;
+                try {
+                    hook.run();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    hookDoneLatch.countDown();
+                }
+            }
+            return super.getReader(templateSource, encoding);
+        }
+        
+        void awaitHookDone() throws InterruptedException {
+            assertTrue("Timeout; deadlock?", hookDoneLatch.await(10, TimeUnit.SECONDS));
+            hookDoneLatch = new CountDownLatch(1);
+        }
+        
+        interface Hook {
+            void run() throws IOException;
+        }
+        
+    }
+    
+    @Test
+    public void testChangeTrackingActivated() throws Exception {
+        ToggleableChangeTrackingTemplateLoader loader = new ToggleableChangeTrackingTemplateLoader();
+        loader.putTemplate("t.ftl", "v1", 1);
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setLocalizedLookup(false);
+        cfg.setTemplateUpdateDelayMilliseconds(3600000);
+        
+        assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+        // Change tracking isn't active, so the update delay applies:
+        loader.putTemplate("t.ftl", "v2", 2);
+        assertEquals("v1", cfg.getTemplate("t.ftl").toString());
+        
+        // Entries checked while change tracking was inactive are stale once it's active:
+        loader.changeVersion = 0;
+        assertEquals("v2", cfg.getTemplate("t.ftl").toString());
+        
+        // Now the entry is tracked:
+        loader.putTemplate("t.ftl", "v3", 3);
+        assertEquals("v2", cfg.getTemplate("t.ftl").toString());
+        loader.changeVersion = 1;
+        assertEquals("v3", cfg.getTemplate("t.ftl").toString());
+    }
+    
+    /**
+     * Reports changes with the {@link #changeVersion} set by the test; a template is considered to be changed if the
+     * change version was increased since.
+     */
+    private static class ToggleableChangeTrackingTemplateLoader extends StringTemplateLoader
+            implements ChangeTrackingTemplateLoader {
+        
+        private volatile long changeVersion = -1;
+
+        @Override
+        public long getChangeVersion() {
+            return changeVersion;
+        }
+
+        @Override
+        public boolean isChangedSince(Object templateSource, long changeVersion) {
+            return this.changeVersion == -1 || this.changeVersion > changeVersion;
+        }
+        
+    }
+    
+    private static class ManualExecutor implements Executor {
+        
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+        
+        void runTasks() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+        
+    }
+    
+    private static class RecordingBackgroundTemplateUpdater extends BackgroundTemplateUpdater {
+        
+        private final List<Throwable> failures = new ArrayList<>();
+
+        RecordingBackgroundTemplateUpdater(Executor executor) {
+            super(executor);
+        }
+
+        @Override
+        protected void handleUpdateFailure(String templateName, Locale locale, Throwable exception) {
+            failures.add(exception);
+        }
+        
+    }
+    
+    private static class BlockingTemplateLoader extends StringTemplateLoader {
+        
+        private final CountDownLatch readerRequestedLatch = new CountDownLatch(1);
+        private final CountDownLatch unblockLatch = new CountDownLatch(1);
+        private final AtomicInteger readerCount = new AtomicInteger();
+
+        @Override
+        public Reader getReader(Object templateSource, String encoding) {
+            readerCount.incrementAndGet();
+            if (templateSource.toString().startsWith("t.ftl")) {
+                readerRequestedLatch.countDown();
+                try {
+                    unblockLatch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return super.getReader(templateSource, encoding);
+        }
+        
+        void awaitReaderRequested() throws InterruptedException {
+            readerRequestedLatch.await();
+        }
+        
+        void unblock() {
+            unblockLatch.countDown();
+        }
+        
+        int getReaderCount() {
+            return readerCount.get();
+        }
+        
+    }
+    
     private static class MonitoredClassTemplateLoader extends ClassTemplateLoader {
         
         private Boolean lastTemplateSourceModification;
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import freemarker.core.ParseException;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateNotFoundException;
+
+public class TemplatePreloadTest {
+
+    @Test
+    public void testPreload() throws Exception {
+        StringTemplateLoader loader = new StringTemplateLoader();
+        loader.putTemplate("a.ftl", "<#include 'inc/b.inc'><#import '/lib/l.ftl' as l>${x}");
+        loader.putTemplate("inc/b.inc", "<#include 'c.inc'><#include x>");
+        loader.putTemplate("inc/c.inc", "c");
+        loader.putTemplate("lib/l.ftl", "<#include 'missing.inc'>");
+        loader.putTemplate("bad.ftl", "<#if>");
+        loader.putTemplate("notes.txt", "<#if>");
+        loader.putTemplate("unused.inc", "u");
+
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        TemplatePreloadResult result;
+        try {
+            result = cfg.preloadTemplates(new FileExtensionMatcher("ftl"), executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, TemplatePreloadResult.Entry> entriesByName = new HashMap<>();
+        for (TemplatePreloadResult.Entry entry : result.getEntries()) {
+            assertNull(entriesByName.put(entry.getTemplateName(), entry));
+        }
+        assertEquals(6, entriesByName.size());
+
+        assertLoaded(entriesByName.get("a.ftl"), false);
+        assertLoaded(entriesByName.get("lib/l.ftl"), false);
+        assertLoaded(entriesByName.get("inc/b.inc"), true);
+        assertLoaded(entriesByName.get("inc/c.inc"), true);
+        assertTrue(entriesByName.get("bad.ftl").getFailure() instanceof ParseException);
+        assertFalse(entriesByName.get("bad.ftl").isDependency());
+        assertTrue(entriesByName.get("lib/missing.inc").getFailure() instanceof TemplateNotFoundException);
+        assertTrue(entriesByName.get("lib/missing.inc").isDependency());
+        assertEquals(2, result.getFailedEntries().size());
+
+        // Served from the cache from now on:
+        loader.removeTemplate("a.ftl");
+        assertNotNull(cfg.getTemplate("a.ftl"));
+    }
+
+    private void assertLoaded(TemplatePreloadResult.Entry entry, boolean dependency) {
+        assertNotNull(entry);
+        assertNull(entry.getFailure());
+        assertEquals(dependency, entry.isDependency());
+        assertTrue(entry.getLoadTimeNanos() > 0);
+    }
+
+    @Test
+    public void testNonListableTemplateLoader() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(new URLTemplateLoader() {
+            @Override
+            protected URL getURL(String name) {
+                return null;
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            cfg.preloadTemplates(null, executor);
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(ListableTemplateLoader.class.getName()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
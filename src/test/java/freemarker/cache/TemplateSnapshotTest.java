@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateNotFoundException;
+
+public class TemplateSnapshotTest {
+
+    private static final String MAIN_FTL
+            = "<#ftl outputFormat='HTML' attributes={'a': 1, 'b': [1, 2]} nsPrefixes={'x': 'urn:x'}>"
+            + "<#import 'lib.ftl' as lib>"
+            + "<#macro m p={'k': 'v'}>${p.k}[<#nested>]</#macro>"
+            + "<#assign h = {'x': 1, 'y': 2}>"
+            + "<@m><#list h as k, v>${k}=${v}<#sep>, </#list></@m> "
+            + "<#if 1 < 2>${'<tag>'}</#if> ${lib.f(3)} ${[1, 2, 3]?join('-')} "
+            + "${(1..3)?size} ${.templateName}\n"
+            + "\tline2";
+    private static final String LIB_FTL = "<#function f x><#return x * 2></#function>";
+
+    private Configuration newConfiguration(StringTemplateLoader loader) {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTemplateLoader(loader);
+        cfg.setLocalizedLookup(false);
+        return cfg;
+    }
+
+    private StringTemplateLoader newTemplateLoader() {
+        StringTemplateLoader loader = new StringTemplateLoader();
+        loader.putTemplate("main.ftl", MAIN_FTL);
+        loader.putTemplate("lib.ftl", LIB_FTL);
+        return loader;
+    }
+
+    private static TemplateSnapshot saveAndLoad(TemplateSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.save(out);
+        return TemplateSnapshot.load(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static String process(Template template) throws TemplateException, IOException {
+        StringWriter out = new StringWriter();
+        template.process(null, out);
+        return out.toString();
+    }
+
+    @Test
+    public void testRestoredTemplateIsEquivalent() throws Exception {
+        StringTemplateLoader loader = newTemplateLoader();
+        Configuration cfg = newConfiguration(loader);
+        Template parsed = cfg.getTemplate("main.ftl");
+
+        TemplateSnapshot snapshot = saveAndLoad(
+                TemplateSnapshot.compile(cfg, Arrays.asList("main.ftl", "lib.ftl")));
+        assertEquals(ImmutableSet.of("main.ftl", "lib.ftl"), snapshot.getSourceNames());
+
+        Template restored = snapshot.restoreTemplate(
+                "main.ftl", "main.ftl", MAIN_FTL, cfg, null, cfg.getDefaultEncoding());
+        assertNotNull(restored);
+        assertNotSame(parsed, restored);
+        assertEquals(process(parsed), process(restored));
+        assertEquals(parsed.toString(), restored.toString());
+        assertEquals("HTML", restored.getOutputFormat().getName());
+        assertTrue(restored.getAutoEscaping());
+        assertEquals(1, ((Number) restored.getCustomAttribute("a")).intValue());
+        assertEquals("urn:x", restored.getNamespaceForPrefix("x"));
+        assertEquals(parsed.getSource(1, 2, 6, 2), restored.getSource(1, 2, 6, 2));
+        assertEquals(parsed.getMacros().keySet(), restored.getMacros().keySet());
+        assertSame(restored, restored.getRootTreeNode().getTemplate());
+
+        Configuration cfg2 = newConfiguration(loader);
+        cfg2.setTemplateSnapshot(snapshot);
+        assertEquals(process(parsed), process(cfg2.getTemplate("main.ftl")));
+    }
+
+    @Test
+    public void testFallsBackToParsingWhenOutdated() throws Exception {
+        StringTemplateLoader loader = newTemplateLoader();
+        Configuration cfg = newConfiguration(loader);
+        TemplateSnapshot snapshot = saveAndLoad(
+                TemplateSnapshot.compile(cfg, Collections.singleton("main.ftl")));
+
+        assertNull(snapshot.restoreTemplate(
+                "main.ftl", "main.ftl", MAIN_FTL + "x", cfg, null, cfg.getDefaultEncoding()));
+        assertNull(snapshot.restoreTemplate(
+                "main.ftl", "main.ftl", MAIN_FTL, cfg, null, "UTF-16"));
+        assertNull(snapshot.restoreTemplate(
+                "lib.ftl", "lib.ftl", LIB_FTL, cfg, null, cfg.getDefaultEncoding()));
+
+        Configuration cfg2 = newConfiguration(loader);
+        cfg2.setWhitespaceStripping(false);
+        assertNull(snapshot.restoreTemplate(
+                "main.ftl", "main.ftl", MAIN_FTL, cfg2, null, cfg2.getDefaultEncoding()));
+
+        StringTemplateLoader changedLoader = newTemplateLoader();
+        changedLoader.putTemplate("main.ftl", "changed");
+        Configuration cfg3 = newConfiguration(changedLoader);
+        cfg3.setTemplateSnapshot(snapshot);
+        assertEquals("changed", process(cfg3.getTemplate("main.ftl")));
+    }
+
+    @Test
+    public void testMissingTemplate() throws IOException {
+        Configuration cfg = newConfiguration(newTemplateLoader());
+        try {
+            TemplateSnapshot.compile(cfg, Collections.singleton("missing.ftl"));
+            fail();
+        } catch (TemplateNotFoundException e) {
+            assertEquals("missing.ftl", e.getTemplateName());
+        }
+    }
+
+    @Test
+    public void testNotASnapshot() {
+        try {
+            TemplateSnapshot.load(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.cache;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+
+public class TinyLfuCacheStorageTest {
+
+    @Test
+    public void testSizeLimit() {
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "v" + i);
+            assertTrue(cache.getSize() <= 100);
+        }
+        assertEquals(100, cache.getSize());
+        assertEquals(100, cache.getWeight());
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScan() {
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, "v");
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertEquals("v", cache.get("hot" + i));
+            }
+        }
+
+        // A long series of one-off entries:
+        for (int i = 0; i < 10000; i++) {
+            cache.put("cold" + i, "v");
+        }
+
+        int hotHits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot" + i) != null) {
+                hotHits++;
+            }
+        }
+        assertTrue("hotHits: " + hotHits, hotHits >= 45);
+    }
+
+    @Test
+    public void testPutReplacesValue() {
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(10);
+        cache.put("a", "1");
+        cache.put("a", "2");
+        assertEquals("2", cache.get("a"));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals(1, cache.getWeight());
+
+        cache.clear();
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getWeight());
+
+        cache.put("c", "3");
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void testWeightLimit() {
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(1000, new TinyLfuCacheStorage.Weigher() {
+            @Override
+            public long weigh(Object key, Object value) {
+                return ((String) value).length();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "1234567890");
+            assertTrue(cache.getWeight() <= 1000);
+        }
+        cache.put("big", new String(new char[2000]));
+        assertNull(cache.get("big"));
+        assertTrue(cache.getWeight() <= 1000);
+    }
+
+    @Test
+    public void testEstimatedTemplateSize() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        StringTemplateLoader loader = new StringTemplateLoader();
+        loader.putTemplate("small.ftl", "x");
+        loader.putTemplate("big.ftl", new String(new char[10000]).replace('\0', 'x'));
+        cfg.setTemplateLoader(loader);
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(
+                1000000, TinyLfuCacheStorage.ESTIMATED_TEMPLATE_SIZE_WEIGHER);
+        cfg.setCacheStorage(cache);
+
+        cfg.getTemplate("small.ftl");
+        long smallWeight = cache.getWeight();
+        cfg.getTemplate("big.ftl");
+        long bigWeight = cache.getWeight() - smallWeight;
+        assertTrue(bigWeight > 10000);
+        assertTrue(smallWeight < 1000);
+    }
+
+    @Test
+    public void testSetting() throws TemplateException {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+
+        cfg.setSetting(Configuration.CACHE_STORAGE_KEY, "tiny_lfu: 500");
+        TinyLfuCacheStorage cache = (TinyLfuCacheStorage) cfg.getCacheStorage();
+        assertEquals(500, cache.getMaximumWeight());
+
+        cfg.setSetting(Configuration.CACHE_STORAGE_KEY, "TINY_LFU_BYTES: 5000000000");
+        cache = (TinyLfuCacheStorage) cfg.getCacheStorage();
+        assertEquals(5000000000L, cache.getMaximumWeight());
+
+        cfg.setSetting(Configuration.CACHE_STORAGE_KEY, "strong: 10, soft");
+        assertTrue(cfg.getCacheStorage() instanceof MruCacheStorage);
+
+        for (String value : new String[] { "tiny_lfu: 10, soft", "tiny_lfu", "tiny_lfu_bytes", "TINY_LFU, strong: 1" }) {
+            try {
+                cfg.setSetting(Configuration.CACHE_STORAGE_KEY, value);
+                fail(value);
+            } catch (TemplateException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testSketchGrowsWithEntryCount() throws Exception {
+        TinyLfuCacheStorage cache = new TinyLfuCacheStorage(Integer.MAX_VALUE);
+        assertThat(getSketchTableLength(cache), lessThanOrEqualTo(64));
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertThat(getSketchTableLength(cache), allOf(greaterThanOrEqualTo(1000), lessThanOrEqualTo(2048)));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("v" + i, cache.get(i));
+        }
+    }
+
+    private static int getSketchTableLength(TinyLfuCacheStorage cache) throws Exception {
+        Field sketchField = TinyLfuCacheStorage.class.getDeclaredField("sketch");
+        sketchField.setAccessible(true);
+        Object sketch = sketchField.get(cache);
+        Field tableField = sketch.getClass().getDeclaredField("table");
+        tableField.setAccessible(true);
+        return ((long[]) tableField.get(sketch)).length;
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.ext.beans.MethodAppearanceFineTuner;
+import freemarker.ext.beans.BeansWrapper.MethodAppearanceDecision;
+import freemarker.ext.beans.BeansWrapper.MethodAppearanceDecisionInput;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.test.TemplateTest;
+
+/**
+ * Tests the inline caches of {@link Dot} and {@link MethodCall}; see {@link freemarker.ext.beans._BeanMemberInlineCache}.
+ */
+public class BeanMemberInlineCacheTest extends TemplateTest {
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        return new Configuration(Configuration.VERSION_2_3_31);
+    }
+
+    @Test
+    public void testPolymorphicCallSite() throws IOException, TemplateException {
+        addToDataModel("beans", new Object[] {
+                new A(), new B(), new A(), new C(), new D(), new E(), new F(), new B(), new F(), new A() });
+        assertOutput(
+                "<#list beans as b>${b.name}/${b.getName()}/${b.twice(1)}/${b.over(1)}/${b.over('s')};</#list>",
+                "A/A/2/i/s;B/B/4/i/s;A/A/2/i/s;C/C/6/i/s;D/D/8/i/s;E/E/10/i/s;F/F/12/i/s;B/B/4/i/s;F/F/12/i/s;"
+                + "A/A/2/i/s;");
+    }
+
+    @Test
+    public void testNonMethodMembers() throws IOException, TemplateException {
+        addToDataModel("b", new A());
+        assertOutput("<#assign m = b.twice>${m(2)} ${b.twice?isMethod?c} ${(b.noSuchMember)!'-'}", "4 true -");
+        assertOutput("${b.nullResult()!'null'}", "null");
+        assertErrorContains("${b.noSuchMethod()}", "noSuchMethod");
+        assertErrorContains("${b.twice()}", "takes 1 argument", "0 was given");
+        assertErrorContains("${b.name()}", "name");
+        assertErrorContains("${b.over(1, 2)}", "over");
+    }
+
+    @Test
+    public void testMethodsDontShadowItems() throws IOException, TemplateException {
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setMethodsShadowItems(false);
+        getConfiguration().setObjectWrapper(bw);
+        addToDataModel("b", new WithGenericGet());
+        assertOutput("${b.name} ${b.size} ${b.getName()}", "n generic-size n");
+    }
+
+    @Test
+    public void testInvalidatedOnClearClassIntrospectionCache() throws Exception {
+        final AtomicInteger introspectionCount = new AtomicInteger();
+        DefaultObjectWrapper ow = new DefaultObjectWrapper(Configuration.VERSION_2_3_31);
+        ow.setMethodAppearanceFineTuner(new MethodAppearanceFineTuner() {
+            @Override
+            public void process(MethodAppearanceDecisionInput in, MethodAppearanceDecision out) {
+                if (in.getMethod().getName().equals("twice")) {
+                    introspectionCount.incrementAndGet();
+                }
+            }
+        });
+        Configuration cfg = getConfiguration();
+        cfg.setObjectWrapper(ow);
+        Template t = new Template(null, "${b.name} ${b.twice(2)}", cfg);
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals("A 4", process(t));
+        }
+        assertEquals(1, introspectionCount.get());
+        
+        ow.clearClassIntrospectionCache();
+        assertEquals("A 4", process(t));
+        assertEquals(2, introspectionCount.get());
+        assertEquals("A 4", process(t));
+        assertEquals(2, introspectionCount.get());
+        
+        ow.removeFromClassIntrospectionCache(A.class);
+        assertEquals("A 4", process(t));
+        assertEquals(3, introspectionCount.get());
+    }
+
+    private String process(Template t) throws TemplateException, IOException {
+        StringWriter out = new StringWriter();
+        t.process(Collections.singletonMap("b", new A()), out);
+        return out.toString();
+    }
+
+    public static class A {
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        public int twice(int n) {
+            return n * 2 * (getName().charAt(0) - 'A' + 1);
+        }
+
+        public String over(int n) {
+            return "i";
+        }
+
+        public String over(String s) {
+            return "s";
+        }
+
+        public Object nullResult() {
+            return null;
+        }
+    }
+
+    public static class B extends A { }
+
+    public static class C extends A { }
+
+    public static class D extends A { }
+
+    public static class E extends A { }
+
+    public static class F extends A { }
+
+    public static class WithGenericGet {
+        public String getName() {
+            return "n";
+        }
+
+        public int size() {
+            return 1;
+        }
+
+        public Object get(String key) {
+            return key.equals("size") ? "generic-size" : null;
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+
+public class ByteOutputWriterTest {
+
+    private static final String[] CHARSETS = {
+            "UTF-8", "ISO-8859-1", "ISO-8859-2", "US-ASCII", "windows-1252", "UTF-16", "UTF-16LE", "Shift_JIS" };
+
+    private static final char[] CHAR_POOL = {
+            'a', 'b', 'Z', '0', ' ', '<', '\n', '\u0000', '\u007F', '\u0080', 'á', 'ÿ', 'ő', 'ű',
+            '€', 'あ', '�', '\uD83D', '\uDE00', '\uD800', '\uDFFF' };
+
+    @Test
+    public void testSameAsOutputStreamWriter() throws IOException {
+        Random rnd = new Random(1234);
+        for (String charsetName : CHARSETS) {
+            Charset charset = Charset.forName(charsetName);
+            for (int testIdx = 0; testIdx < 300; testIdx++) {
+                int bufferSize = rnd.nextBoolean() ? 16 + rnd.nextInt(20) : 8192;
+
+                ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+                ByteArrayOutputStream actualOut = new ByteArrayOutputStream();
+                Writer expectedW = new OutputStreamWriter(expectedOut, charset);
+                ByteOutputWriter actualW = new ByteOutputWriter(actualOut, charset, bufferSize);
+
+                int writeCount = rnd.nextInt(30);
+                for (int writeIdx = 0; writeIdx < writeCount; writeIdx++) {
+                    String s = randomString(rnd, rnd.nextInt(5) == 0 ? 2000 : 40);
+                    switch (rnd.nextInt(5)) {
+                    case 0:
+                        expectedW.write(s);
+                        actualW.write(s);
+                        break;
+                    case 1: {
+                        int off = s.isEmpty() ? 0 : rnd.nextInt(s.length());
+                        int len = rnd.nextInt(s.length() - off + 1);
+                        expectedW.write(s, off, len);
+                        actualW.write(s, off, len);
+                        break;
+                    }
+                    case 2: {
+                        char[] cs = s.toCharArray();
+                        int off = cs.length == 0 ? 0 : rnd.nextInt(cs.length);
+                        int len = rnd.nextInt(cs.length - off + 1);
+                        expectedW.write(cs, off, len);
+                        actualW.write(cs, off, len);
+                        break;
+                    }
+                    case 3:
+                        for (int i = 0; i < s.length() && i < 10; i++) {
+                            expectedW.write(s.charAt(i));
+                            actualW.write(s.charAt(i));
+                        }
+                        break;
+                    default:
+                        actualW.flushBuffer();
+                    }
+                }
+                expectedW.close();
+                actualW.close();
+
+                assertArrayEquals(charsetName + ", test " + testIdx,
+                        expectedOut.toByteArray(), actualOut.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testTemplateOutputSameAsOutputStreamWriter() throws IOException, TemplateException {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        Random rnd = new Random(4321);
+        for (int testIdx = 0; testIdx < 200; testIdx++) {
+            StringBuilder src = new StringBuilder();
+            int partCount = rnd.nextInt(8);
+            for (int partIdx = 0; partIdx < partCount; partIdx++) {
+                switch (rnd.nextInt(3)) {
+                case 0:
+                    src.append(randomString(rnd, 60).replace('<', '('));
+                    break;
+                case 1:
+                    src.append("${s").append(rnd.nextInt(3)).append('}');
+                    break;
+                default:
+                    src.append("<#list 1..2 as i>").append(randomString(rnd, 10).replace('<', '(')).append("${i}</#list>");
+                }
+            }
+            Template t = new Template(null, new StringReader(src.toString()), cfg);
+            Map<String, Object> dataModel = new HashMap<>();
+            dataModel.put("s0", "\uD83D");
+            dataModel.put("s1", "\uDE00");
+            dataModel.put("s2", randomString(rnd, 20));
+
+            for (String charsetName : CHARSETS) {
+                Charset charset = Charset.forName(charsetName);
+
+                ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+                Writer expectedW = new OutputStreamWriter(expectedOut, charset);
+                t.process(dataModel, expectedW);
+                expectedW.close();
+
+                // Process twice, so that the 2nd time the cached pre-encoded text is used.
+                for (int i = 0; i < 2; i++) {
+                    ByteArrayOutputStream actualOut = new ByteArrayOutputStream();
+                    ByteOutputWriter actualW = new ByteOutputWriter(actualOut, charset, 16 + rnd.nextInt(100));
+                    t.process(dataModel, actualW);
+                    actualW.close();
+
+                    assertArrayEquals(charsetName + ", test " + testIdx + ", source: " + src,
+                            expectedOut.toByteArray(), actualOut.toByteArray());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAlternatingCharsets() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        Template t = new Template(null, "árvíztűrő ${x} tükörfúrógép", cfg);
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("x", "€");
+        // More charsets than what the pre-encoded text cache holds, in multiple rounds:
+        for (int round = 0; round < 3; round++) {
+            for (String charsetName : CHARSETS) {
+                Charset charset = Charset.forName(charsetName);
+                ByteArrayOutputStream actualOut = new ByteArrayOutputStream();
+                ByteOutputWriter actualW = new ByteOutputWriter(actualOut, charset);
+                t.process(dataModel, actualW);
+                actualW.close();
+                assertArrayEquals(charsetName + ", round " + round,
+                        "árvíztűrő € tükörfúrógép".getBytes(charset), actualOut.toByteArray());
+            }
+        }
+
+        // The pre-encoded text cache mustn't be serialized with the AST (Charset isn't serializable):
+        assertTrue(Modifier.isTransient(TextBlock.class.getDeclaredField("preEncodedText").getModifiers()));
+    }
+
+    @Test
+    public void testFlushBufferKeepsPendingHighSurrogate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteOutputWriter w = new ByteOutputWriter(out, Charset.forName("UTF-8"));
+        w.write("a\uD83D");
+        w.flushBuffer();
+        assertArrayEquals(new byte[] { 'a' }, out.toByteArray());
+        w.write('\uDE00');
+        w.flushBuffer();
+        assertEquals("a😀", new String(out.toByteArray(), "UTF-8"));
+    }
+
+    @Test
+    public void testIllegalArguments() {
+        try {
+            new ByteOutputWriter(new ByteArrayOutputStream(), Charset.forName("UTF-8"), 15);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("15"));
+        }
+    }
+
+    private static String randomString(Random rnd, int maxLength) {
+        int ln = rnd.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(ln);
+        boolean asciiOnly = rnd.nextBoolean();
+        for (int i = 0; i < ln; i++) {
+            sb.append(asciiOnly && rnd.nextInt(10) != 0
+                    ? (char) ('a' + rnd.nextInt(26)) : CHAR_POOL[rnd.nextInt(CHAR_POOL.length)]);
+        }
+        return sb.toString();
+    }
+
+}
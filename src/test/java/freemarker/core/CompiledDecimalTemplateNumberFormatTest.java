@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.Version;
+import freemarker.test.TemplateTest;
+
+public class CompiledDecimalTemplateNumberFormatTest extends TemplateTest {
+
+    private static final String[] PATTERNS = {
+            "0", "0.##", "0.00", "#,##0.###", "#,##0.00;(#,##0.00)", "0.################", "00000.0",
+            "#", "#.#", ".00", "#,#00.0#", "#,####,##0.0", "0.#'%'", "'x'0.0' y'", "0%", "0.0‰",
+            "0.0;-", "#,##0.0##;neg#", "#.", "0.000000000000000000000000",
+            "0.00;; roundingMode=halfEven", "0.00;; roundingMode=halfUp", "0.00;; roundingMode=halfDown",
+            "0.0;; roundingMode=up", "0.0;; roundingMode=down", "0.0;; roundingMode=ceiling",
+            "0.0;; roundingMode=floor", "0;; roundingMode=halfUp", "#;; roundingMode=up",
+            "0.##;; multiplier=1000", "0.#;; multiplier=3 roundingMode=halfUp",
+            "0.0#;; decimalSeparator=',' groupingSeparator='_'", "#,##0.##;; groupingSeparator=' '",
+            "0.0;; infinity='oo' nan='-'", "0.00;; zeroDigit='٠'", "0.##;; minusSign='~'", "#,##0.;; percent='P'",
+    };
+
+    private static final Locale[] LOCALES = {
+            Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("de", "CH"), new Locale("ar", "EG"),
+            new Locale("hi", "IN"),
+    };
+
+    private static final Object[] SPECIAL_NUMBERS = {
+            0, -0.0, 0.0, 0.5, -0.5, 1.5, 2.5, -2.5, 0.125, 0.375, 1.005, 1.015, 2.675, -0.001, 0.05, 0.005,
+            0.0005, 0.0049, 0.0051, 0.45, 9.995, 99.5, 999999.5, 1e-5, 5e-5, 1.23456789e-8, 1e22, 1.5e22, 1e300,
+            -1e300, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, 0.1f, 1.1f, 3.3f, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE,
+            (byte) -12, (short) 1234, 9007199254740993L, 123456789012345678L, 4503599627370496.5,
+            new BigDecimal("0.5"), new BigDecimal("-2.50"), new BigDecimal("1.000"), new BigDecimal("0E-10"),
+            new BigDecimal("1E+3"), new BigDecimal("123456789012345678901234567890.123456789"),
+            new BigDecimal("-0.0000000000000000000000000005"), new BigDecimal("0.125"), new BigDecimal("0.0051"),
+            new BigInteger("123456789012345678901234567890"), BigInteger.valueOf(-5),
+    };
+
+    @Test
+    public void testMatchesDecimalFormat() throws Exception {
+        Random random = new Random(1234);
+        for (String pattern : PATTERNS) {
+            for (Locale locale : LOCALES) {
+                DecimalFormat df = (DecimalFormat) ExtendedDecimalFormatParser.parse(pattern, locale);
+                CompiledDecimalFormat cdf = CompiledDecimalFormat.compile(df);
+                assertNotNull(pattern, cdf);
+                for (Object n : SPECIAL_NUMBERS) {
+                    assertFormatMatches(df, cdf, (Number) n);
+                    if (n instanceof Double && !((Double) n).isNaN() && !((Double) n).isInfinite()) {
+                        assertFormatMatches(df, cdf, BigDecimal.valueOf((Double) n));
+                    }
+                }
+                for (int i = 0; i < 300; i++) {
+                    assertFormatMatches(df, cdf, randomNumber(random));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAliases() throws Exception {
+        Random random = new Random(5678);
+        for (Locale locale : LOCALES) {
+            for (NumberFormat nf : new NumberFormat[] {
+                    NumberFormat.getNumberInstance(locale), NumberFormat.getPercentInstance(locale),
+                    getCNumberFormat(Configuration.VERSION_2_3_0),
+                    getCNumberFormat(Configuration.VERSION_2_3_31) }) {
+                DecimalFormat df = (DecimalFormat) nf;
+                CompiledDecimalFormat cdf = CompiledDecimalFormat.compile(df);
+                assertNotNull(df.toPattern(), cdf);
+                for (Object n : SPECIAL_NUMBERS) {
+                    assertFormatMatches(df, cdf, (Number) n);
+                }
+                for (int i = 0; i < 300; i++) {
+                    assertFormatMatches(df, cdf, randomNumber(random));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        for (String pattern : new String[] { "0.0E0", "##0.##E0", "¤#,##0.00" }) {
+            assertNull(pattern,
+                    CompiledDecimalFormat.compile(
+                            (DecimalFormat) ExtendedDecimalFormatParser.parse(pattern, Locale.US)));
+        }
+        assertNull(CompiledDecimalFormat.compile((DecimalFormat) NumberFormat.getCurrencyInstance(Locale.US)));
+        DecimalFormat negativeMultiplierDf = new DecimalFormat("0.0");
+        negativeMultiplierDf.setMultiplier(-1);
+        assertNull(CompiledDecimalFormat.compile(negativeMultiplierDf));
+    }
+
+    @Test
+    public void testRoundingUnnecessary() throws Exception {
+        DecimalFormat df = (DecimalFormat) ExtendedDecimalFormatParser.parse(
+                "0.0;; roundingMode=unnecessary", Locale.US);
+        CompiledDecimalFormat cdf = CompiledDecimalFormat.compile(df);
+        assertFormatMatches(df, cdf, 1.5);
+        assertFormatMatches(df, cdf, 3);
+        assertFormatMatches(df, cdf, new BigDecimal("2.500"));
+        try {
+            cdf.format(1.25, new StringBuilder());
+            fail();
+        } catch (ArithmeticException e) {
+            // Expected
+        }
+    }
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setLocale(Locale.US);
+        cfg.setCustomNumberFormats(Collections.singletonMap(
+                "decimal", CompiledDecimalTemplateNumberFormatFactory.INSTANCE));
+        return cfg;
+    }
+
+    @Test
+    public void testInTemplates() throws IOException, TemplateException {
+        assertOutput("${1234.5?string.@decimal_number} ${0.255?string.@decimal_percent} "
+                + "${1234.5?string.@decimal_computer} ${1.005?string['@decimal #,##0.00']} "
+                + "${12?string.@decimal_currency}",
+                "1,234.5 26% 1234.5 1.00 $12.00");
+        assertOutput("<#setting number_format='@decimal 0.00;; roundingMode=halfUp'>${1.125} ${x}",
+                "1.13 2.00");
+        assertOutput("<#setting locale='de_DE'><#setting number_format='@decimal #,##0.##'>${1234.567}",
+                "1.234,57");
+        assertOutput("${1.5?string['@decimal 0.0;; roundingMode=unnecessary']}", "1.5");
+        assertErrorContains("${1.25?string['@decimal 0.0;; roundingMode=unnecessary']}", "Failed to format");
+        assertErrorContains("${1?string['@decimal 0.0;; foo=1']}", "foo");
+        assertOutput("${1000?string['@decimal 0.0E0']}", "1.0E3");
+    }
+
+    {
+        addToDataModel("x", 2);
+    }
+
+    private static NumberFormat getCNumberFormat(Version incompatibleImprovements) throws Exception {
+        return new Template(null, "", new Configuration(incompatibleImprovements))
+                .createProcessingEnvironment(null, new StringWriter())
+                .getCNumberFormat();
+    }
+
+    private static Number randomNumber(Random random) {
+        switch (random.nextInt(7)) {
+        case 0:
+            return random.nextInt();
+        case 1:
+            return random.nextLong() >> random.nextInt(64);
+        case 2:
+            return (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+        case 3:
+            // Short decimals with exact ties are the interesting cases for rounding
+            return (random.nextInt(200001) - 100000) / Math.pow(10, random.nextInt(6));
+        case 4:
+            return new BigDecimal(BigInteger.valueOf(random.nextLong()), random.nextInt(30) - 5);
+        case 5:
+            return (float) ((random.nextDouble() - 0.5) * 1000);
+        default:
+            return Double.longBitsToDouble(random.nextLong());
+        }
+    }
+
+    private static void assertFormatMatches(DecimalFormat df, CompiledDecimalFormat cdf, Number n) {
+        String expected;
+        try {
+            expected = df.format(n);
+        } catch (ArithmeticException e) {
+            expected = "ArithmeticException";
+        }
+        String actual;
+        try {
+            StringBuilder sb = new StringBuilder();
+            cdf.format(n, sb);
+            actual = sb.toString();
+        } catch (ArithmeticException e) {
+            actual = "ArithmeticException";
+        }
+        assertEquals("Pattern " + df.toPattern() + ", number " + n + " (" + n.getClass().getSimpleName() + ")",
+                expected, actual);
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateDirectiveBody;
+import freemarker.template.TemplateDirectiveModel;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+
+public class EnvironmentResetTest {
+
+    private final Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+    {
+        cfg.setLocale(Locale.US);
+    }
+
+    @Test
+    public void testStateDoesNotLeak() throws Exception {
+        Template t = new Template("t",
+                "${n} ${(g!'-')} ${(x!'-')} ${.locale}<#setting locale='de_DE'><#global g = 1><#assign x = 2>"
+                + "<#macro m>m</#macro>",
+                cfg);
+        Template t2 = new Template("t2", "${n} <#if m??>m<#else>-</#if> ${.locale}", cfg);
+
+        StringWriter out = new StringWriter();
+        Environment env = t.createProcessingEnvironment(Collections.singletonMap("n", 1.5), out);
+        env.setCustomAttribute("a", "A");
+        env.setNumberFormat("0.00");
+        env.process();
+        assertEquals("1.50 - - en_US", out.toString());
+        assertEquals(Locale.GERMANY, env.getLocale());
+        assertNotNull(env.getVariable("x"));
+
+        out = new StringWriter();
+        assertSame(env, t.createProcessingEnvironment(Collections.singletonMap("n", 2.5), out, null, env));
+        assertNull(env.getVariable("x"));
+        assertNull(env.getCustomAttribute("a"));
+        assertEquals(Locale.US, env.getLocale());
+        env.process();
+        assertEquals("2.5 - - en_US", out.toString());
+
+        out = new StringWriter();
+        t2.createProcessingEnvironment(Collections.singletonMap("n", 3), out, null, env).process();
+        assertEquals("3 - en_US", out.toString());
+        assertSame(t2, env.getMainTemplate());
+        assertSame(t2, env.getCurrentNamespace().getTemplate());
+    }
+
+    @Test
+    public void testRepeatedReuse() throws Exception {
+        Template t = new Template("t",
+                "<#macro m x><#local y = x * 2>${y}<#nested></#macro>"
+                + "<#list 1..n as i><@m i>;</@m></#list><#attempt>${noSuchVar}<#recover>E</#attempt>",
+                cfg);
+        Environment env = null;
+        for (int n = 1; n <= 3; n++) {
+            StringWriter out = new StringWriter();
+            env = t.createProcessingEnvironment(Collections.singletonMap("n", n), out, null, env);
+            env.process();
+            assertEquals(n == 1 ? "2;E" : n == 2 ? "2;4;E" : "2;4;6;E", out.toString());
+        }
+    }
+
+    @Test
+    public void testResetWhileProcessing() throws Exception {
+        final Template t = new Template("t", "<@reset />", cfg);
+        Environment env = t.createProcessingEnvironment(
+                Collections.singletonMap("reset", new TemplateDirectiveModel() {
+                    @Override
+                    public void execute(Environment env, Map params, TemplateModel[] loopVars,
+                            TemplateDirectiveBody body) throws TemplateException, IOException {
+                        env.reset(t, null, new StringWriter());
+                    }
+                }), new StringWriter());
+        try {
+            env.process();
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testOtherConfiguration() throws Exception {
+        Template t = new Template("t", "", cfg);
+        Template otherT = new Template("t", "", new Configuration(Configuration.VERSION_2_3_31));
+        Environment env = t.createProcessingEnvironment(null, new StringWriter());
+        try {
+            otherT.createProcessingEnvironment(null, new StringWriter(), null, env);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+}
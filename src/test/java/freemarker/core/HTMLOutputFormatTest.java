@@ -156,6 +156,52 @@ public class HTMLOutputFormatTest {
                 INSTANCE.concat(new TemplateHTMLOutputModel("<a>", null), new TemplateHTMLOutputModel(null, "<b>")));
     }
     
+    @Test
+    public void testConcatLong() throws Exception {
+        String a = repeat("<a>", 50);
+        String b = repeat("<b>", 50);
+        String escA = repeat("&lt;a&gt;", 50);
+        String escB = repeat("&lt;b&gt;", 50);
+
+        TemplateHTMLOutputModel mo = INSTANCE.concat(
+                new TemplateHTMLOutputModel(a, null), new TemplateHTMLOutputModel(b, null));
+        assertTrue(mo.isConcatenation());
+        assertFalse(INSTANCE.isEmpty(mo));
+        assertEquals(escA + escB, INSTANCE.getMarkupString(mo));
+        assertFalse(mo.isConcatenation());
+        assertMO(a + b, escA + escB, mo);
+
+        mo = INSTANCE.concat(new TemplateHTMLOutputModel(null, a), new TemplateHTMLOutputModel(b, null));
+        assertTrue(mo.isConcatenation());
+        StringWriter out = new StringWriter();
+        INSTANCE.output(mo, out);
+        assertEquals(a + escB, out.toString());
+        assertTrue(mo.isConcatenation()); // Output doesn't flatten
+        assertNull(INSTANCE.getSourcePlainText(mo));
+        assertMO(null, a + escB, mo);
+
+        // Long chain, which would be quadratic without lazy concatenation, and overflow the stack with recursion:
+        TemplateHTMLOutputModel item = INSTANCE.fromPlainTextByEscaping("<x>");
+        mo = INSTANCE.fromMarkup(repeat(" ", 200));
+        TemplateHTMLOutputModel mo2 = INSTANCE.fromPlainTextByEscaping("");
+        for (int i = 0; i < 100000; i++) {
+            mo = INSTANCE.concat(mo, item);
+            mo2 = INSTANCE.concat(item, mo2);
+        }
+        assertEquals(repeat(" ", 200) + repeat("&lt;x&gt;", 100000), INSTANCE.getMarkupString(mo));
+        assertTrue(mo2.isConcatenation());
+        assertFalse(INSTANCE.isEmpty(mo2));
+        assertEquals(repeat("<x>", 100000), INSTANCE.getSourcePlainText(mo2));
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
     @Test
     public void testEscaplePlainText() {
         assertEquals("", INSTANCE.escapePlainText(""));
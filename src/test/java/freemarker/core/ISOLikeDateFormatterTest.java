@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.SimpleDate;
+import freemarker.template.TemplateDateModel;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateNumberModel;
+import freemarker.template.utility.DateUtil;
+import freemarker.template.utility.DateUtil.DateToISO8601CalendarFactory;
+import freemarker.test.TemplateTest;
+
+public class ISOLikeDateFormatterTest extends TemplateTest {
+
+    private static final TimeZone[] TIME_ZONES = {
+            DateUtil.UTC, TimeZone.getTimeZone("GMT"), TimeZone.getTimeZone("Europe/Budapest"),
+            TimeZone.getTimeZone("America/New_York"), TimeZone.getTimeZone("Asia/Kolkata"),
+            TimeZone.getTimeZone("Australia/Lord_Howe"), TimeZone.getTimeZone("Pacific/Chatham"),
+            TimeZone.getTimeZone("Africa/Monrovia"), TimeZone.getTimeZone("GMT-09:30"),
+            TimeZone.getTimeZone("America/Sao_Paulo"),
+    };
+
+    private static final int[] ACCURACIES = {
+            DateUtil.ACCURACY_HOURS, DateUtil.ACCURACY_MINUTES, DateUtil.ACCURACY_SECONDS,
+            DateUtil.ACCURACY_MILLISECONDS, DateUtil.ACCURACY_MILLISECONDS_FORCED
+    };
+
+    private static final long[] SPECIAL_MILLIS = {
+            0, -1, 1, 999, -999, 1000, 86399999, 86400000, -86400000, -86400001, 951782400000L /* 2000-02-29 */,
+            -62135596800000L /* 0001-01-01 */, -62135596800001L, -62198755200000L /* 0000-01-01 */,
+            -62167219200000L, -377705116800000L, 253402300799999L /* 9999-12-31 */, 253402300800000L,
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 86400000L, Long.MIN_VALUE + 86400000L,
+            1616893200000L /* Budapest DST start, 2021 */, 1616893199999L, 1635642000000L /* DST end */,
+            1635641999999L, 1635645600000L, -2208988800000L, -3786825600000L,
+    };
+
+    private final DateToISO8601CalendarFactory calendarFactory = new DateUtil.TrivialDateToISO8601CalendarFactory();
+
+    @Test
+    public void testMatchesDateUtil() throws IOException {
+        Random random = new Random(1234);
+        for (TimeZone tz : TIME_ZONES) {
+            for (boolean xsMode : new boolean[] { false, true }) {
+                for (int accuracy : ACCURACIES) {
+                    for (int parts = 0; parts < 8; parts++) {
+                        boolean datePart = (parts & 1) != 0;
+                        boolean timePart = (parts & 2) != 0;
+                        boolean offsetPart = (parts & 4) != 0;
+                        if (!datePart && !timePart || !xsMode && !timePart && offsetPart) {
+                            continue;
+                        }
+                        ISOLikeDateFormatter formatter = new ISOLikeDateFormatter(
+                                datePart, timePart, offsetPart, accuracy, tz, xsMode);
+                        for (long millis : SPECIAL_MILLIS) {
+                            assertFormatMatches(formatter, new Date(millis),
+                                    datePart, timePart, offsetPart, accuracy, tz, xsMode);
+                        }
+                        // Sequential timestamps exercise the offset cache, including across DST changes.
+                        long millis = 1616800000000L + random.nextInt(1000);
+                        for (int i = 0; i < 400; i++) {
+                            millis += random.nextInt(3600000);
+                            assertFormatMatches(formatter, new Date(millis),
+                                    datePart, timePart, offsetPart, accuracy, tz, xsMode);
+                        }
+                        for (int i = 0; i < 200; i++) {
+                            assertFormatMatches(formatter, new Date(random.nextLong() >> random.nextInt(24)),
+                                    datePart, timePart, offsetPart, accuracy, tz, xsMode);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNullTimeZone() {
+        Date date = new Date(1635642000123L);
+        assertEquals("2021-10-31T01:00:00.123Z",
+                new ISOLikeDateFormatter(true, true, true, DateUtil.ACCURACY_MILLISECONDS, null, false).format(date));
+    }
+
+    @Test
+    public void testDirectOutput() throws IOException, TemplateException {
+        addToDataModel("d", new SimpleDate(new Date(1635642000123L), TemplateDateModel.DATETIME));
+        addToDataModel("dNoMs", new SimpleDate(new Date(1635642000000L), TemplateDateModel.DATETIME));
+        assertOutput("${d?string.iso} ${d?string.xs_u} ${dNoMs?string.iso_nz}",
+                "2021-10-31T01:00:00.123Z 2021-10-31T01:00:00.123Z 2021-10-31T01:00:00");
+        assertOutput("<#setting datetime_format='iso'><#setting time_zone='Europe/Budapest'>${d} ${d?string}",
+                "2021-10-31T02:00:00.123+01:00 2021-10-31T02:00:00.123+01:00");
+        assertOutput("<#ftl outputFormat='HTML'><#setting datetimeFormat='xs ms'>${d}",
+                "2021-10-31T01:00:00.123Z");
+        getConfiguration().setRegisteredCustomOutputFormats(Collections.singleton(DummyOutputFormat.INSTANCE));
+        // The "." must be escaped in this output format:
+        assertOutput("<#ftl outputFormat='dummy'><#setting datetimeFormat='iso'>${d} ${dNoMs}",
+                "2021-10-31T01:00:00\\.123Z 2021-10-31T01:00:00Z");
+        assertOutput("<#ftl outputFormat='dummy' autoEsc=false><#setting datetimeFormat='iso'>${d}",
+                "2021-10-31T01:00:00.123Z");
+        assertOutput("<#setting datetime_format='iso'><#escape x as x?upper_case>${d}</#escape>",
+                "2021-10-31T01:00:00.123Z");
+        // Like without the direct output, a number is printed as number, even if it's also a date:
+        addToDataModel("numAndDate", new NumberAndDate());
+        assertOutput("<#setting datetime_format='iso'><#setting number_format='0.#'>${numAndDate}", "1.5");
+    }
+
+    private static class NumberAndDate implements TemplateNumberModel, TemplateDateModel {
+
+        @Override
+        public Number getAsNumber() {
+            return 1.5;
+        }
+
+        @Override
+        public Date getAsDate() {
+            return new Date(0);
+        }
+
+        @Override
+        public int getDateType() {
+            return DATETIME;
+        }
+
+    }
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setTimeZone(DateUtil.UTC);
+        return cfg;
+    }
+
+    private void assertFormatMatches(ISOLikeDateFormatter formatter, Date date,
+            boolean datePart, boolean timePart, boolean offsetPart, int accuracy, TimeZone tz, boolean xsMode)
+            throws IOException {
+        String expected;
+        try {
+            expected = xsMode
+                    ? DateUtil.dateToXSString(date, datePart, timePart, offsetPart, accuracy, tz, calendarFactory)
+                    : DateUtil.dateToISO8601String(
+                            date, datePart, timePart, offsetPart, accuracy, tz, calendarFactory);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // DateUtil's buffer is too short for a time with milliseconds and an offset with seconds part.
+            return;
+        }
+        String message = tz.getID() + ", " + date.getTime();
+        assertEquals(message, expected, formatter.format(date));
+        StringWriter out = new StringWriter();
+        formatter.format(date, out);
+        assertEquals(message, expected, out.toString());
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModelException;
+import freemarker.test.TemplateTest;
+
+/**
+ * Tests the {@code +} operator where the result isn't concatenated eagerly, because of the length of the operands.
+ */
+public class LazyConcatenationTest extends TemplateTest {
+
+    private static final String LONG = repeat("x", 200);
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        Configuration cfg = super.createConfiguration();
+        cfg.setIncompatibleImprovements(Configuration.VERSION_2_3_31);
+        return cfg;
+    }
+
+    @Test
+    public void testStringConcatenation() throws IOException, TemplateException {
+        addToDataModel("long", LONG);
+        assertOutput("${long + 'a' + 1 + long}", LONG + "a1" + LONG);
+        assertOutput("${1 + long}", "1" + LONG);
+        assertOutput("<#assign s = long + 'a'>${s?length} ${s?substring(199)} ${(s == long + 'a')?c} ${s?is_string?c}",
+                "201 xa true true");
+        assertOutput("<#assign s = long + 'a'>${(s + s)?length}", "402");
+        assertOutput("<#assign s = 'a' + long>${s?starts_with('ax')?c} ${s?upper_case?substring(0, 2)}",
+                "true AX");
+
+        // Long chains; quadratic and/or stack overflow without care:
+        assertOutput("<#assign s = ''><#list 1..20000 as i><#assign s += i % 10></#list>"
+                + "${s?length?c} ${s?substring(0, 12)}",
+                "20000 123456789012");
+        assertOutput("<#assign s = ''><#list 1..20000 as i><#assign s = (i % 10) + s></#list>"
+                + "${s?length?c} ${s?substring(0, 12)}",
+                "20000 098765432109");
+    }
+
+    @Test
+    public void testMarkupConcatenation() throws IOException, TemplateException {
+        addToDataModel("long", LONG);
+        assertOutput("<#ftl outputFormat='HTML'>${'<' + long + '>'}", "&lt;" + LONG + "&gt;");
+        assertOutput("<#ftl outputFormat='HTML'>${'<p>'?noEsc + long + '<'}", "<p>" + LONG + "&lt;");
+        assertOutput("<#ftl outputFormat='HTML'>"
+                + "<#assign html = ''?noEsc><#list 1..10000 as i><#assign html += '<br>'?noEsc + i % 10></#list>"
+                + "${html?markupString?length?c} ${html?markupString?substring(0, 15)?noEsc} ${html?hasContent?c}",
+                "50000 <br>1<br>2<br>3 true");
+        assertOutput("<#ftl outputFormat='HTML'>"
+                + "<#assign html = '' + long?noEsc><#list 1..3 as i><#assign html += i + '<'></#list>${html}",
+                LONG + "1&lt;2&lt;3&lt;");
+
+        // Mixing with plain text and other output formats:
+        assertOutput("<#ftl outputFormat='HTML'><#assign html = '<'?esc + long>${(html + '>'?noEsc)?markupString?noEsc}",
+                "&lt;" + LONG + ">");
+        assertOutput("<#ftl outputFormat='HTML'>"
+                + "<#assign html = '<'?esc + long><#outputFormat 'XML'>${html + '<'}</#outputFormat>",
+                "&lt;" + LONG + "&lt;");
+        assertOutput("<#ftl outputFormat='HTML'>"
+                + "<#assign html = '<'?esc + long + '&'>${(html?markupString == '&lt;${long}&amp;')?c}",
+                "true");
+    }
+
+    @Test
+    public void testConcatenatingFlattenedConcatenation() throws IOException, TemplateException {
+        addToDataModel("long", LONG);
+        // After flattening, the content of the concatenation is stored differently than in other values:
+        assertOutput("<#ftl outputFormat='HTML'>"
+                + "<#assign s = '<'?esc + long><#assign _ = s?markupString><#assign s2 = s + '>'>${s2}",
+                "&lt;" + LONG + "&gt;");
+        assertOutput("<#ftl outputFormat='HTML'>"
+                + "<#assign s = '<p>'?noEsc + long><#assign _ = s?markupString><#assign s2 = s + '>'>${s2}",
+                "<p>" + LONG + "&gt;");
+    }
+
+    @Test
+    public void testContentOfNonConcatenationIsFinal() throws NoSuchFieldException {
+        assertTrue(Modifier.isFinal(
+                CommonTemplateMarkupOutputModel.class.getDeclaredField("plainTextContent").getModifiers()));
+    }
+
+    @Test
+    public void testConcatenationKeepsOutputFormatInstance() throws TemplateModelException {
+        CombinedMarkupOutputFormat format = new CombinedMarkupOutputFormat(
+                HTMLOutputFormat.INSTANCE, XMLOutputFormat.INSTANCE);
+        TemplateCombinedMarkupOutputModel mo = format.concat(
+                format.fromPlainTextByEscaping(LONG + "<"), format.fromMarkup("<br>"));
+        assertSame(format, mo.getOutputFormat());
+        assertEquals(LONG + "&amp;lt;<br>", format.getMarkupString(mo));
+        assertSame(format, format.concat(mo, mo).getOutputFormat());
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateDirectiveBody;
+import freemarker.template.TemplateDirectiveModel;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+import freemarker.test.TemplateTest;
+
+/**
+ * Tests the variable resolution rules of macro local variables, which are partially resolved on parse time; see
+ * {@link LocalVariableSlots}.
+ */
+public class MacroLocalVariableTest extends TemplateTest {
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        return new Configuration(Configuration.VERSION_2_3_31);
+    }
+
+    @Test
+    public void testParametersAndLocals() throws IOException, TemplateException {
+        assertOutput(
+                "<#macro m a b=a+1 others...>"
+                        + "<#local c = a + b>${a} ${b} ${c} ${others?size}<#local c++>${c}"
+                + "</#macro>"
+                + "<@m 1 /> <@m 1 5 7 8 />",
+                "1 2 3 04 1 5 6 27");
+        assertOutput(
+                "<#function f a><#local b = a * 2><#return b + 1></#function>${f(1)} ${f(10)}",
+                "3 21");
+        assertOutput(
+                "<#macro m n><#if n != 0>${n}<@m n - 1 />${n}</#if></#macro><@m 3 />",
+                "321123");
+    }
+
+    @Test
+    public void testCaptureAssignment() throws IOException, TemplateException {
+        assertOutput("<#macro m><#local x>[${1}]</#local>${x}</#macro><@m />", "[1]");
+    }
+
+    @Test
+    public void testNullArgument() throws IOException, TemplateException {
+        assertOutput("<#macro m a='d'>${a}</#macro><@m a=null />", "d");
+        assertErrorContains("<#macro m a>${a}</#macro><@m a=null />", "was specified, but had null");
+        assertOutput("<#assign x = 'ns'><#macro m>${x}<#local x = 'l'>${x}</#macro><@m />${x}", "nslns");
+    }
+
+    @Test
+    public void testShadowing() throws IOException, TemplateException {
+        assertOutput(
+                "<#macro m x><#list [1, 2] as x>${x}</#list>${x}<#list [3] as y>${x}${y}</#list></#macro><@m 0 />",
+                "12003");
+        assertOutput(
+                "<#macro m x><#list [1, 2] as x>${x_index}${x_has_next?c}</#list>${x}</#macro><@m 0 />",
+                "0true1false0");
+        assertOutput(
+                "<#macro m x><#list [1, 2]><#items as x>${x}</#items></#list>${x}</#macro><@m 0 />",
+                "120");
+        assertOutput(
+                "<#macro m x>${[1, 2]?map(x -> x * 10)?join(',')} ${x}</#macro><@m 0 />",
+                "10,20 0");
+        assertOutput(
+                "<#macro n><#nested 1></#macro>"
+                + "<#macro m x><@n ; x>${x}</@n>${x}</#macro><@m 0 />",
+                "10");
+    }
+
+    @Test
+    public void testNestedContentUsesCallerLocals() throws IOException, TemplateException {
+        assertOutput(
+                "<#macro inner x><#local y = 'inner'><#nested x></#macro>"
+                + "<#macro outer x><#local y = 'outer'><@inner 'ix' ; p>${x} ${y} ${p}</@inner></#macro>"
+                + "<@outer 'ox' />",
+                "ox outer ix");
+        assertOutput(
+                "<#macro m x><#if x != 0><@m x - 1>${x}</@m></#if><#nested></#macro><@m 2 />",
+                "12");
+    }
+
+    @Test
+    public void testWithArgs() throws IOException, TemplateException {
+        assertOutput(
+                "<#macro m a b><#local c = a + b>${c}</#macro>"
+                + "<#assign m2 = m?withArgs({'b': 10})><@m2 a=1 /> <@m2 a=2 b=3 />",
+                "11 5");
+    }
+
+    @Test
+    public void testDynamicallyAccessedLocals() throws IOException, TemplateException {
+        addToDataModel("setLocals", new TemplateDirectiveModel() {
+            @Override
+            public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody body)
+                    throws TemplateException, IOException {
+                env.setLocalVariable("x", new SimpleScalar(env.getLocalVariable("x") + "!"));
+                env.setLocalVariable("dyn", new SimpleScalar("d"));
+            }
+        });
+        addTemplate("inc.ftl", "${x}");
+        assertOutput(
+                "<#macro m x><@setLocals /><#include 'inc.ftl'> ${x} ${dyn} ${.vars['x']}</#macro><@m 'a' />",
+                "a! a! d a!");
+    }
+
+    @Test
+    public void testLocalsSpecialVariable() throws IOException, TemplateException {
+        assertOutput(
+                "<#macro m a b=2><#local c = 3><#assign l = .locals>"
+                + "<#list l?keys?sort as k>${k}=${l[k]}<#sep>, </#list>; <#local d = 4>${l.d}</#macro><@m 1 />",
+                "a=1, b=2, c=3; 4");
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import freemarker.ext.beans.ArrayModel;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultArrayAdapter;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+import freemarker.test.TemplateTest;
+
+/**
+ * Checks that the fast paths of {@link PrimitiveNumberArrays} give the same results as the generic implementation,
+ * which is used for a {@link List} that contains the same numbers.
+ */
+public class PrimitiveArrayBuiltInsTest extends TemplateTest {
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setBooleanFormat("c");
+        return cfg;
+    }
+
+    private static final String[] EXPRESSIONS = {
+            "s?min", "s?max",
+            "s?seq_contains(7)", "s?seq_contains(-1.0)", "s?seq_contains(0.5)", "s?seq_contains(123)",
+            "s?seq_contains(big)", "s?seq_contains('7')",
+            "s?seq_contains(i7)", "s?seq_contains(d7)", "s?seq_contains(bi7)", "s?seq_contains(0.1)",
+            "s?seq_contains(99999999999999999999999)", "s?seq_contains(bigLong)",
+            "s?seq_index_of(-1)", "s?seq_last_index_of(-1)", "s?seq_index_of(-1, 2)", "s?seq_last_index_of(-1, 2)",
+            "s?seq_index_of(-1, 100)", "s?seq_last_index_of(-1, -5)", "s?seq_index_of(2.5)",
+            "s?sort?join(', ')", "s?sort?reverse?join(', ')", "s?sort?min", "s?sort[0]"
+    };
+
+    @Test
+    public void testWithDefaultObjectWrapper() throws Exception {
+        test(new DefaultObjectWrapper(Configuration.VERSION_2_3_31), DefaultArrayAdapter.class);
+    }
+
+    @Test
+    public void testWithBeansWrapper() throws Exception {
+        test(new BeansWrapper(Configuration.VERSION_2_3_31), ArrayModel.class);
+    }
+
+    private void test(ObjectWrapper ow, Class<? extends TemplateModel> expectedArrayModelClass) throws Exception {
+        getConfiguration().setObjectWrapper(ow);
+        testArray(new int[] { 3, -1, 7, -1, 0, Integer.MAX_VALUE, Integer.MIN_VALUE }, expectedArrayModelClass);
+        testArray(new long[] { 3, -1, 7, -1, 0, Long.MAX_VALUE, Long.MIN_VALUE }, expectedArrayModelClass);
+        testArray(new double[] { 3, -1, 7, -1, 0, 2.5, 1e300, Double.NEGATIVE_INFINITY }, expectedArrayModelClass);
+        testArray(new double[] { 3, -1, 0, -0.0, 0, -1 }, expectedArrayModelClass);
+        testArray(new double[] { 3, -1, Double.NaN, 0.5 }, expectedArrayModelClass);
+        testArray(new int[] { 5 }, expectedArrayModelClass);
+        testArray(new int[0], expectedArrayModelClass);
+    }
+
+    private void testArray(Object array, Class<? extends TemplateModel> expectedArrayModelClass) throws Exception {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < java.lang.reflect.Array.getLength(array); i++) {
+            list.add(java.lang.reflect.Array.get(array, i));
+        }
+        addToDataModel("big", 1e300);
+        addToDataModel("i7", 7);
+        addToDataModel("d7", 7.0);
+        addToDataModel("bi7", BigInteger.valueOf(7));
+        addToDataModel("bigLong", Long.MAX_VALUE);
+        String arrayDesc = array.getClass().getSimpleName() + " " + list;
+
+        assertTrue(expectedArrayModelClass.isInstance(getConfiguration().getObjectWrapper().wrap(array)));
+        for (String exp : EXPRESSIONS) {
+            String ftl = "${" + exp + "}";
+            addToDataModel("s", list);
+            String expected = getOutputOrError(ftl);
+            addToDataModel("s", array);
+            assertEquals(arrayDesc + ", " + exp, expected, getOutputOrError(ftl));
+        }
+    }
+
+    private String getOutputOrError(String ftl) throws IOException {
+        try {
+            return getOutput(ftl);
+        } catch (TemplateException e) {
+            return "error";
+        }
+    }
+
+    @Test
+    public void testSortResultIsArrayBacked() throws Exception {
+        addToDataModel("s", new int[] { 3, 1, 2 });
+        assertOutput("<#assign sorted = s?sort>${sorted?join(', ')} ${sorted?seq_index_of(3)}", "1, 2, 3 2");
+        addToDataModel("s", new double[] { 1.5, Double.NaN });
+        assertErrorContains("${s?sort?join(', ')}", "?sort");
+    }
+
+}
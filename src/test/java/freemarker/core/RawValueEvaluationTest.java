@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.core;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultListAdapter;
+import freemarker.template.DefaultMapAdapter;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.test.TemplateTest;
+
+/**
+ * Tests the evaluation paths that use {@link _RawValueHashModel} and {@link _RawValueSequenceModel}.
+ */
+public class RawValueEvaluationTest extends TemplateTest {
+
+    @Override
+    protected Configuration createConfiguration() throws Exception {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setNumberFormat("0.##");
+        return cfg;
+    }
+
+    @Override
+    protected Object createDataModel() {
+        Map<Object, Object> m = new HashMap<>();
+        m.put("s", "a<b");
+        m.put("n", 1);
+        m.put("bd", new BigDecimal("2.50"));
+        m.put("nul", null);
+        m.put('c', "char key");
+        m.put("sub", new HashMap<>(m));
+        List<Object> l = new ArrayList<>(Arrays.asList("x", 2.5, null));
+        l.add(m);
+
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("m", m);
+        dataModel.put("l", l);
+        return dataModel;
+    }
+
+    @Test
+    public void testAdapters() throws TemplateModelException {
+        DefaultObjectWrapper ow = new DefaultObjectWrapper(Configuration.VERSION_2_3_31);
+        Map<String, Object> map = new HashMap<>();
+        map.put("s", "x");
+        map.put("n", 1);
+        map.put("b", true);
+        map.put("m", map);
+        _RawValueHashModel mapAdapter = (_RawValueHashModel) ow.wrap(map);
+        assertEquals("x", mapAdapter.getRawValueOrModel("s"));
+        assertEquals(1, mapAdapter.getRawValueOrModel("n"));
+        assertSame(mapAdapter.get("b"), mapAdapter.getRawValueOrModel("b"));
+        assertTrue(mapAdapter.getRawValueOrModel("m") instanceof DefaultMapAdapter);
+        assertNull(mapAdapter.getRawValueOrModel("noSuchKey"));
+
+        _RawValueSequenceModel listAdapter = (_RawValueSequenceModel) ow.wrap(Arrays.asList("x", 1, map));
+        assertEquals("x", listAdapter.getRawValueOrModel(0));
+        assertEquals(1, listAdapter.getRawValueOrModel(1));
+        assertTrue(listAdapter.getRawValueOrModel(2) instanceof DefaultMapAdapter);
+        assertNull(listAdapter.getRawValueOrModel(3));
+        assertNull(listAdapter.getRawValueOrModel(-1));
+
+        // A wrapper that overrides wrap(Object) can wrap strings and numbers differently:
+        DefaultObjectWrapper customOw = new DefaultObjectWrapper(Configuration.VERSION_2_3_31) {
+            @Override
+            public TemplateModel wrap(Object obj) throws TemplateModelException {
+                return obj instanceof String ? new SimpleScalar(((String) obj).toUpperCase()) : super.wrap(obj);
+            }
+        };
+        mapAdapter = (_RawValueHashModel) customOw.wrap(map);
+        assertEquals("X", ((SimpleScalar) mapAdapter.getRawValueOrModel("s")).getAsString());
+        listAdapter = (_RawValueSequenceModel) customOw.wrap(Arrays.asList("x"));
+        assertEquals("X", ((SimpleScalar) listAdapter.getRawValueOrModel(0)).getAsString());
+    }
+
+    @Test
+    public void testInterpolation() throws Exception {
+        assertOutput("${m.s} ${m['s']} ${m.n} ${m.bd} ${m.c} ${m.sub.s} ${l[0]} ${l[1]} ${l[3].n}",
+                "a<b a<b 1 2.5 char key a<b x 2.5 1");
+        assertOutput("${m.s + '!'} ${m.n + 1} ${m.nul!'-'} ${l[2]!'-'} ${l[9]!'-'}", "a<b! 2 - - -");
+        assertOutput("<#escape x as x?upper_case>${m.s}</#escape>", "A<B");
+        assertOutput("<#ftl output_format='HTML'>${m.s} ${m.sub['s']} ${l[3].s}", "a&lt;b a&lt;b a&lt;b");
+        assertOutput("<#ftl output_format='XML'><#setting number_format='0.000'>${m.n} ${l[1]}", "1.000 2.500");
+        assertErrorContains("${m.nul}", InvalidReferenceException.class, "m.nul");
+        assertErrorContains("${l[2]}", InvalidReferenceException.class, "l[2]");
+        assertErrorContains("${m.sub}", "m.sub", "hash");
+    }
+
+    @Test
+    public void testComparison() throws Exception {
+        assertOutput("${(m.n == 1)?c} ${(m.n != 1)?c} ${(m.n < 1.5)?c} ${(1 <= m.n)?c} ${(m.bd > l[1])?c}",
+                "true false true true false");
+        assertOutput("${(m.s == 'a<b')?c} ${(m.s != l[0])?c} ${(m['s'] == m.sub.s)?c}", "true true true");
+        assertOutput("<#if m.n == 1>yes</#if><#if m.s == 'x'>no</#if>", "yes");
+        assertErrorContains("${(m.s < l[0])?c}", "Can't use operator \"<\" on string values");
+        assertErrorContains("${(m.s == 1)?c}", "Can't compare values of these types",
+                "Left hand operand is a string", "Right hand operand is a number");
+        assertErrorContains("${(m.nul == 1)?c}", InvalidReferenceException.class, "m.nul");
+        assertErrorContains("${(m.n == m.sub)?c}", "Can't compare values of these types");
+    }
+
+    @Test
+    public void testCustomHashModel() throws Exception {
+        addToDataModel("h", new TemplateHashModel() {
+            @Override
+            public TemplateModel get(String key) {
+                return new SimpleScalar(key);
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return false;
+            }
+        });
+        assertOutput("${h.x} ${(h.x == 'x')?c} ${h['y']}", "x true y");
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.ext.beans;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateScalarModel;
+
+public class AccessorTableModelTest {
+
+    @Test
+    public void testThreshold() throws Exception {
+        BeansWrapperBuilder bwb = new BeansWrapperBuilder(Configuration.VERSION_2_3_31);
+        bwb.setAccessorTableThreshold(3);
+        bwb.setExposeFields(true);
+        BeansWrapper bw = bwb.build();
+        assertEquals(3, bw.getAccessorTableThreshold());
+
+        Bean bean = new Bean();
+        assertSame(StringModel.class, bw.wrap(bean).getClass());
+        assertSame(StringModel.class, bw.wrap(bean).getClass());
+        assertSame(AccessorTableModel.class, bw.wrap(bean).getClass());
+        assertSame(AccessorTableModel.class, bw.wrap(bean).getClass());
+
+        // Only generic beans are affected:
+        for (int i = 0; i < 5; i++) {
+            assertNotSame(AccessorTableModel.class, bw.wrap(Collections.emptyList()).getClass());
+        }
+    }
+
+    @Test
+    public void testSameBehavior() throws Exception {
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setAccessorTableThreshold(1);
+        bw.setExposeFields(true);
+
+        TemplateHashModel model = (TemplateHashModel) bw.wrap(new Bean());
+        assertSame(AccessorTableModel.class, model.getClass());
+        assertEquals("n", ((TemplateScalarModel) model.get("name")).getAsString());
+        assertEquals("f", ((TemplateScalarModel) model.get("field")).getAsString());
+        assertEquals("generic:foo", ((TemplateScalarModel) model.get("foo")).getAsString());
+        assertEquals("x!", bw.unwrap((TemplateModel) ((TemplateMethodModelEx) model.get("m")).exec(
+                Collections.singletonList(bw.wrap("x")))));
+        assertSame(model.get("m"), model.get("m"));
+        assertEquals("toString", ((TemplateScalarModel) model).getAsString());
+    }
+
+    @Test
+    public void testClearClassIntrospectionCache() throws Exception {
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setAccessorTableThreshold(2);
+
+        Bean bean = new Bean();
+        bw.wrap(bean);
+        TemplateHashModel model = (TemplateHashModel) bw.wrap(bean);
+        assertSame(AccessorTableModel.class, model.getClass());
+
+        bw.clearClassIntrospectionCache();
+        // The outdated table is not used anymore:
+        assertEquals("n", ((TemplateScalarModel) model.get("name")).getAsString());
+        // Counting restarts:
+        assertSame(StringModel.class, bw.wrap(bean).getClass());
+        assertSame(AccessorTableModel.class, bw.wrap(bean).getClass());
+    }
+
+    @Test
+    public void testSettingValidation() throws Exception {
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        try {
+            bw.setAccessorTableThreshold(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        bw.setAccessorTableThreshold(1);
+        assertSame(AccessorTableModel.class, bw.wrap(new Bean()).getClass());
+        bw.setAccessorTableThreshold(0);
+        assertSame(StringModel.class, bw.wrap(new Bean()).getClass());
+    }
+
+    @Test
+    public void testAccessorTable() {
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        BeanAccessorTable table = BeanAccessorTable.create(bw.getClassIntrospector(), Bean.class);
+        assertTrue(table.isUpToDate(bw.getClassIntrospector()));
+        for (Object key : table.getClassInfo().keySet()) {
+            if (key instanceof String) {
+                assertSame(table.getClassInfo().get(key), table.get(new String((String) key)));
+            }
+        }
+        assertNull(table.get("noSuchKey"));
+        bw.clearClassIntrospectionCache();
+        assertFalse(table.isUpToDate(bw.getClassIntrospector()));
+    }
+
+    public static class Bean {
+        public final String field = "f";
+
+        public String getName() {
+            return "n";
+        }
+
+        public String m(String s) {
+            return s + "!";
+        }
+
+        public String get(String key) {
+            return "generic:" + key;
+        }
+
+        @Override
+        public String toString() {
+            return "toString";
+        }
+    }
+
+}
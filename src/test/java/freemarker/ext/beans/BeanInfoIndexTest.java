@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateScalarModel;
+import freemarker.template.TemplateSequenceModel;
+
+public class BeanInfoIndexTest {
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        BeanInfoIndex index = BeanInfoIndex.create(Arrays.asList(C1.class, C2.class));
+        assertEquals(Arrays.asList(C1.class.getName(), C2.class.getName()),
+                Arrays.asList(index.getClassNames().toArray()));
+
+        String saved = save(index);
+        assertTrue(saved.contains("\nproperty\tname\tgetName()java.lang.String\t\n"));
+        assertTrue(saved.contains("\nproperty\titems\tgetItems()[Ljava.lang.String;\tgetItems(int)java.lang.String\n"));
+        assertTrue(saved.contains("\nmethod\tm(int,java.lang.String)java.lang.String\n"));
+
+        BeanInfoIndex loadedIndex = BeanInfoIndex.load(new StringReader(saved));
+        assertEquals(index.getClassNames(), loadedIndex.getClassNames());
+        assertEquals(saved, save(loadedIndex));
+    }
+
+    @Test
+    public void testIntrospectionWithIndex() throws Exception {
+        BeansWrapper bwWithoutIndex = new BeansWrapper(Configuration.VERSION_2_3_31);
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setBeanInfoIndex(BeanInfoIndex.load(new StringReader(
+                save(BeanInfoIndex.create(Arrays.asList(C1.class, C2.class))))));
+        assertNotNull(bw.getBeanInfoIndex());
+
+        for (Class<?> clazz : new Class<?>[] { C1.class, C2.class }) {
+            Map<Object, Object> expectedClassInfo = bwWithoutIndex.getClassIntrospector().get(clazz);
+            Map<Object, Object> classInfo = bw.getClassIntrospector().get(clazz);
+            assertEquals(toStringKeyed(expectedClassInfo), toStringKeyed(classInfo));
+        }
+
+        TemplateHashModel c1 = (TemplateHashModel) bw.wrap(new C1());
+        assertEquals("n", ((TemplateScalarModel) c1.get("name")).getAsString());
+        assertEquals(2, ((TemplateSequenceModel) c1.get("items")).size());
+    }
+
+    @Test
+    public void testIndexIsUsed() throws Exception {
+        String saved = save(BeanInfoIndex.create(Collections.singletonList(C1.class)));
+        // Renaming the property in the index, to see if the index was used:
+        saved = saved.replace("property\tname\t", "property\tnameFromIndex\t");
+
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setBeanInfoIndex(BeanInfoIndex.load(new StringReader(saved)));
+        TemplateHashModel c1 = (TemplateHashModel) bw.wrap(new C1());
+        assertEquals("n", ((TemplateScalarModel) c1.get("nameFromIndex")).getAsString());
+        assertNull(bw.unwrap(c1.get("name")));
+    }
+
+    @Test
+    public void testChangedClassIsIntrospectedNormally() throws Exception {
+        String saved = save(BeanInfoIndex.create(Collections.singletonList(C1.class)));
+        saved = saved.replace("property\tname\t", "property\tnameFromIndex\t");
+        // Simulates that the class has changed since it was indexed:
+        saved = saved.replaceFirst("(class\t[^\t]+\t)[0-9a-f]+", "$1123");
+
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setBeanInfoIndex(BeanInfoIndex.load(new StringReader(saved)));
+        TemplateHashModel c1 = (TemplateHashModel) bw.wrap(new C1());
+        assertEquals("n", ((TemplateScalarModel) c1.get("name")).getAsString());
+    }
+
+    @Test
+    public void testMalformedFile() throws Exception {
+        try {
+            BeanInfoIndex.load(new StringReader("foo\n"));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Not a BeanInfoIndex"));
+        }
+        String saved = save(BeanInfoIndex.create(Collections.singletonList(C1.class)));
+        try {
+            BeanInfoIndex.load(new StringReader(saved + "foo\tbar\n"));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Malformed"));
+        }
+    }
+
+    @Test
+    public void testPreloadClassIntrospectionCache() throws Exception {
+        BeansWrapper bw = new BeansWrapperBuilder(Configuration.VERSION_2_3_31).build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            bw.preloadClassIntrospectionCache(Arrays.asList(C1.class, C2.class, C1.class), executor);
+        } finally {
+            executor.shutdown();
+        }
+        int clearingCounter = bw.getClassIntrospector().getClearingCounter();
+        assertTrue(bw.getClassIntrospector().get(C1.class).containsKey("name"));
+        assertTrue(bw.getClassIntrospector().get(C2.class).containsKey("m"));
+        assertEquals(clearingCounter, bw.getClassIntrospector().getClearingCounter());
+    }
+
+    private static String save(BeanInfoIndex index) throws IOException {
+        StringWriter out = new StringWriter();
+        index.save(out);
+        return out.toString();
+    }
+
+    /**
+     * Converts the class introspection data to a comparable form; only the {@link String} keys are considered.
+     */
+    private static String toStringKeyed(Map<Object, Object> classInfo) {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : classInfo.entrySet()) {
+            if (entry.getKey() instanceof String) {
+                Object value = entry.getValue();
+                result.put((String) entry.getKey(),
+                        value instanceof FastPropertyDescriptor
+                                ? ((FastPropertyDescriptor) value).getReadMethod() + "/"
+                                        + ((FastPropertyDescriptor) value).getIndexedReadMethod()
+                                : value instanceof OverloadedMethods ? "overloaded"
+                                : String.valueOf(value));
+            }
+        }
+        return result.toString();
+    }
+
+    public static class C1 {
+        public String getName() {
+            return "n";
+        }
+
+        public String[] getItems() {
+            return new String[] { "a", "b" };
+        }
+
+        public String getItems(int index) {
+            return getItems()[index];
+        }
+    }
+
+    public static class C2 extends C1 {
+        public String m(int i, String s) {
+            return s + i;
+        }
+
+        public String m(String s) {
+            return s;
+        }
+
+        public boolean isFlag() {
+            return true;
+        }
+    }
+
+}
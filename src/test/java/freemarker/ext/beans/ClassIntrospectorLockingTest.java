@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import freemarker.ext.beans.BeansWrapper.MethodAppearanceDecision;
+import freemarker.ext.beans.BeansWrapper.MethodAppearanceDecisionInput;
+import freemarker.template.Configuration;
+
+public class ClassIntrospectorLockingTest {
+
+    @Test
+    public void testIntrospectionDoesntWaitForSharedLock() throws Exception {
+        final CountDownLatch introspectionStarted = new CountDownLatch(1);
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setMethodAppearanceFineTuner(new MethodAppearanceFineTuner() {
+            @Override
+            public void process(MethodAppearanceDecisionInput in, MethodAppearanceDecision out) {
+                introspectionStarted.countDown();
+            }
+        });
+        final ClassIntrospector ci = bw.getClassIntrospector();
+        ci.get(C1.class);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<Object, Object>> future;
+            synchronized (bw.getSharedIntrospectionLock()) {
+                assertNotNull(ci.get(C1.class));  // Cached, so it doesn't need the lock
+                future = executor.submit(new Callable<Map<Object, Object>>() {
+                    @Override
+                    public Map<Object, Object> call() throws Exception {
+                        return ci.get(C2.class);
+                    }
+                });
+                assertTrue(introspectionStarted.await(10, TimeUnit.SECONDS));
+            }
+            assertTrue(future.get().containsKey("m2"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameClassIsIntrospectedOnce() throws Exception {
+        final AtomicInteger introspectionCount = new AtomicInteger();
+        final CountDownLatch allThreadsStarted = new CountDownLatch(4);
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setMethodAppearanceFineTuner(new MethodAppearanceFineTuner() {
+            @Override
+            public void process(MethodAppearanceDecisionInput in, MethodAppearanceDecision out) {
+                if (in.getMethod().getName().equals("m1")) {
+                    introspectionCount.incrementAndGet();
+                    try {
+                        // Give the other threads a chance to try introspecting the same class
+                        allThreadsStarted.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        });
+        final ClassIntrospector ci = bw.getClassIntrospector();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Map<Object, Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(new Callable<Map<Object, Object>>() {
+                    @Override
+                    public Map<Object, Object> call() throws Exception {
+                        allThreadsStarted.countDown();
+                        return ci.get(C1.class);
+                    }
+                }));
+            }
+            Map<Object, Object> firstResult = futures.get(0).get();
+            for (Future<Map<Object, Object>> future : futures) {
+                assertSame(firstResult, future.get());
+            }
+            assertEquals(1, introspectionCount.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedIntrospectionIsRetried() throws Exception {
+        final AtomicInteger failuresLeft = new AtomicInteger(1);
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setMethodAppearanceFineTuner(new MethodAppearanceFineTuner() {
+            @Override
+            public void process(MethodAppearanceDecisionInput in, MethodAppearanceDecision out) {
+                if (failuresLeft.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Test failure");
+                }
+            }
+        });
+        ClassIntrospector ci = bw.getClassIntrospector();
+        try {
+            ci.get(C1.class);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Test failure", e.getMessage());
+        }
+        assertTrue(ci.get(C1.class).containsKey("m1"));
+    }
+
+    @Test
+    public void testClearingDuringIntrospection() throws Exception {
+        final CountDownLatch introspectionStarted = new CountDownLatch(1);
+        final CountDownLatch cacheCleared = new CountDownLatch(1);
+        final BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setMethodAppearanceFineTuner(new MethodAppearanceFineTuner() {
+            @Override
+            public void process(MethodAppearanceDecisionInput in, MethodAppearanceDecision out) {
+                if (introspectionStarted.getCount() != 0) {
+                    introspectionStarted.countDown();
+                    try {
+                        cacheCleared.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        });
+        final ClassIntrospector ci = bw.getClassIntrospector();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<Object, Object>> future = executor.submit(new Callable<Map<Object, Object>>() {
+                @Override
+                public Map<Object, Object> call() throws Exception {
+                    return ci.get(C1.class);
+                }
+            });
+            assertTrue(introspectionStarted.await(10, TimeUnit.SECONDS));
+            bw.clearClassIntrospectionCache();
+            cacheCleared.countDown();
+            Map<Object, Object> outdatedResult = future.get();
+            assertTrue(outdatedResult.containsKey("m1"));
+            // The result that was started before the clearing wasn't cached:
+            assertNotSame(outdatedResult, ci.get(C1.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static class C1 {
+        public void m1() { }
+    }
+
+    public static class C2 {
+        public void m2() { }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.test.TemplateTest;
+
+/**
+ * Tests {@link BeansWrapper#setUseMethodHandles(boolean)}; all templates must give the same result as with reflection.
+ */
+public class MethodHandleMemberAccessTest extends TemplateTest {
+
+    @Test
+    public void testMethodsAndProperties() throws IOException, TemplateException {
+        for (boolean useMethodHandles : new boolean[] { false, true }) {
+            setUp(useMethodHandles);
+            assertOutput("${b.name} ${b.count} ${b.valid?c} ${b.getName()} ${b.count + 1}", "foo 3 true foo 4");
+            assertOutput("${b.twice(21)} ${b.twice(2147483647)?c} ${b.concat('a', 'b')}", "42 4294967294 ab");
+            assertOutput("${b.format(1)} ${b.format('s')} ${b.format(1.5)}", "int s double");
+            assertOutput("${b.varargs()} ${b.varargs(1)} ${b.varargs(1, 2, 3)}", "0 1 3");
+            assertOutput("[${b.voidMethod()}] ${b.staticMethod()}", "[] static");
+            assertOutput("${b.item[1]} ${b.item(0)}", "i1 i0");
+            assertOutput("${b.nullValue()!'null'}", "null");
+        }
+    }
+
+    @Test
+    public void testFieldsAndGenericGet() throws IOException, TemplateException {
+        for (boolean useMethodHandles : new boolean[] { false, true }) {
+            setUp(useMethodHandles);
+            assertOutput("${m.f} ${m.x} ${m.yy}", "1 X YY");
+        }
+    }
+
+    @Test
+    public void testExceptions() throws IOException, TemplateException {
+        for (boolean useMethodHandles : new boolean[] { false, true }) {
+            setUp(useMethodHandles);
+            Throwable e = assertErrorContains("${b.fail('x')}", "Java method", "fail", "threw an exception");
+            assertEquals("x", getCauseOfType(e, IllegalStateException.class).getMessage());
+
+            e = assertErrorContains("${b.failChecked()}", "threw an exception");
+            assertEquals("checked", getCauseOfType(e, IOException.class).getMessage());
+        }
+    }
+
+    private static <T extends Throwable> T getCauseOfType(Throwable e, Class<T> causeClass) {
+        while (!causeClass.isInstance(e)) {
+            Throwable cause = e.getCause();
+            assertNotNull(cause);
+            // The exception thrown by the method must be wrapped once, like with Method.invoke
+            assertFalse(e instanceof InvocationTargetException && cause instanceof InvocationTargetException);
+            e = cause;
+        }
+        return causeClass.cast(e);
+    }
+
+    @Test
+    public void testOverriddenInvokeMethodIsRespected() throws IOException, TemplateException {
+        MonitoredObjectWrapper ow = new MonitoredObjectWrapper();
+        assertTrue(ow.getUseMethodHandles());
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setObjectWrapper(ow);
+        setConfiguration(cfg);
+        addToDataModel("m", new MapLike());
+        assertOutput("${m.f} ${m.x} ${m.size()}", "1 X 0");
+        assertEquals(ImmutableSet.of("MapLike.f", "MapLike.get()", "MapLike.size()"), ow.accessedMembers);
+    }
+
+    @Test
+    public void testSettingAffectsClassIntrospectorSharing() {
+        DefaultObjectWrapperBuilder builder = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_31);
+        DefaultObjectWrapper ow1 = builder.build();
+        builder.setUseMethodHandles(true);
+        DefaultObjectWrapper ow2 = builder.build();
+        DefaultObjectWrapper ow3 = builder.build();
+        assertFalse(ow1.getUseMethodHandles());
+        assertTrue(ow2.getUseMethodHandles());
+        assertSame(ow2, ow3);
+        assertNotSame(((BeansWrapper) ow1).getClassIntrospector(), ((BeansWrapper) ow2).getClassIntrospector());
+
+        DefaultObjectWrapper ow4 = new DefaultObjectWrapper(Configuration.VERSION_2_3_31);
+        ow4.setUseMethodHandles(true);
+        assertTrue(ow4.getUseMethodHandles());
+        assertTrue(((BeansWrapper) ow4).getClassIntrospector().getUseMethodHandles());
+    }
+
+    private void setUp(boolean useMethodHandles) {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        DefaultObjectWrapperBuilder owBuilder = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_31);
+        owBuilder.setUseMethodHandles(useMethodHandles);
+        owBuilder.setExposeFields(true);
+        cfg.setObjectWrapper(owBuilder.build());
+        setConfiguration(cfg);
+        addToDataModel("b", new Bean());
+        addToDataModel("m", new MapLike());
+    }
+
+    public static class Bean {
+
+        public String getName() {
+            return "foo";
+        }
+
+        public int getCount() {
+            return 3;
+        }
+
+        public boolean isValid() {
+            return true;
+        }
+
+        public String getItem(int i) {
+            return "i" + i;
+        }
+
+        public long twice(long n) {
+            return n * 2;
+        }
+
+        public String concat(String a, String b) {
+            return a + b;
+        }
+
+        public String format(int n) {
+            return "int";
+        }
+
+        public String format(double n) {
+            return "double";
+        }
+
+        public String format(String s) {
+            return s;
+        }
+
+        public int varargs(int... ns) {
+            return ns.length;
+        }
+
+        public void voidMethod() {
+            // Does nothing
+        }
+
+        public static String staticMethod() {
+            return "static";
+        }
+
+        public Object nullValue() {
+            return null;
+        }
+
+        public String fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public String failChecked() throws IOException {
+            throw new IOException("checked");
+        }
+
+    }
+
+    public static class MapLike {
+        public final int f = 1;
+
+        public String get(String key) {
+            return key.toUpperCase();
+        }
+
+        public int size() {
+            return 0;
+        }
+    }
+
+    private static class MonitoredObjectWrapper extends DefaultObjectWrapper {
+        private final Set<String> accessedMembers = Collections.synchronizedSet(new HashSet<String>());
+
+        MonitoredObjectWrapper() {
+            super(createBuilder(), true);
+        }
+
+        private static DefaultObjectWrapperBuilder createBuilder() {
+            DefaultObjectWrapperBuilder builder = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_31);
+            builder.setExposeFields(true);
+            builder.setUseMethodHandles(true);
+            return builder;
+        }
+
+        @Override
+        protected TemplateModel invokeMethod(Object object, Method method, Object[] args) throws
+                InvocationTargetException, IllegalAccessException, TemplateModelException {
+            accessedMembers.add(method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()");
+            return super.invokeMethod(object, method, args);
+        }
+
+        @Override
+        protected TemplateModel readField(Object object, Field field) throws IllegalAccessException,
+                TemplateModelException {
+            accessedMembers.add(field.getDeclaringClass().getSimpleName() + "." + field.getName());
+            return super.readField(object, field);
+        }
+    }
+
+}
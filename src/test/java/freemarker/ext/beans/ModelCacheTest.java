@@ -21,11 +21,20 @@ package freemarker.ext.beans;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import freemarker.ext.util.ModelCache;
 import freemarker.template.Configuration;
+import freemarker.template.SimpleScalar;
 import freemarker.template.TemplateModel;
 
 @RunWith(JUnit4.class)
@@ -61,6 +70,88 @@ public class ModelCacheTest {
         assertSame(bw.wrap(c), bw.wrap(c));
     }
 
+    @Test
+    public void modelCacheIsBounded() throws Exception {
+        TestModelCache cache = new TestModelCache(2);
+        cache.setUseCache(true);
+        
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            objects.add(new Object());
+        }
+        int reusedCount = 0;
+        for (int round = 0; round < 2; round++) {
+            for (Object obj : objects) {
+                TemplateModel model = cache.getInstance(obj);
+                assertEquals(obj.toString(), ((SimpleScalar) model).getAsString());
+                if (model == cache.getInstance(obj)) {
+                    reusedCount++;
+                }
+            }
+        }
+        // The last registered model always stays in the cache:
+        assertEquals(200, reusedCount);
+        // But most models had to be evicted, as only 2 fits:
+        assertTrue(cache.createCount > 150);
+        
+        cache.clearCache();
+        int createCount = cache.createCount;
+        cache.getInstance(objects.get(0));
+        assertEquals(createCount + 1, cache.createCount);
+    }
+    
+    @Test
+    public void modelCacheConcurrentUse() throws Exception {
+        final TestModelCache cache = new TestModelCache(64);
+        cache.setUseCache(true);
+        
+        final List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            objects.add(new Object());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int round = 0; round < 500; round++) {
+                            for (Object obj : objects) {
+                                assertEquals(obj.toString(), ((SimpleScalar) cache.getInstance(obj)).getAsString());
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
     static public class C { }
     
+    private static class TestModelCache extends ModelCache {
+        private volatile int createCount;
+        
+        TestModelCache(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        protected TemplateModel create(Object object) {
+            createCount++;
+            return new SimpleScalar(object.toString());
+        }
+
+        @Override
+        protected boolean isCacheable(Object object) {
+            return true;
+        }
+    }
+    
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package freemarker.ext.beans;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class OverloadedDispatchTreeTest {
+
+    private static final MaybeEmptyCallableMemberDescriptor M1 = EmptyCallableMemberDescriptor.NO_SUCH_METHOD;
+    private static final MaybeEmptyCallableMemberDescriptor M2 = EmptyCallableMemberDescriptor.AMBIGUOUS_METHOD;
+
+    @Test
+    public void testGetAndPut() {
+        OverloadedDispatchTree tree = new OverloadedDispatchTree(true);
+        assertNull(tree.get(new Object[0]));
+        assertNull(tree.get(new Object[] { "a" }));
+
+        tree.put(new Object[] { "a", 1 }, M1);
+        assertSame(M1, tree.get(new Object[] { "b", 2 }));
+        assertNull(tree.get(new Object[] { "b" }));
+        assertNull(tree.get(new Object[] { "b", 2L }));
+        assertNull(tree.get(new Object[] { 2, "b" }));
+        assertNull(tree.get(new Object[] { "b", 2, 3 }));
+
+        tree.put(new Object[] { "a", 1L }, M2);
+        assertSame(M1, tree.get(new Object[] { "b", 2 }));
+        assertSame(M2, tree.get(new Object[] { "b", 2L }));
+
+        tree.put(new Object[0], M2);
+        assertSame(M2, tree.get(new Object[0]));
+        assertSame(M1, tree.get(new Object[] { "b", 2 }));
+
+        tree.put(new Object[] { BigDecimal.ONE }, M1);
+        assertSame(M1, tree.get(new Object[] { BigDecimal.TEN }));
+        assertSame(M2, tree.get(new Object[] { "b", 2L }));
+
+        tree.put(new Object[] { "a", 1 }, M2);
+        assertSame(M2, tree.get(new Object[] { "b", 2 }));
+    }
+
+    @Test
+    public void testNullArguments() {
+        OverloadedDispatchTree tree = new OverloadedDispatchTree(true);
+        tree.put(new Object[] { null }, M1);
+        assertSame(M1, tree.get(new Object[] { null }));
+        assertNull(tree.get(new Object[] { new Object() }));
+
+        OverloadedDispatchTree legacyTree = new OverloadedDispatchTree(false);
+        legacyTree.put(new Object[] { null }, M1);
+        assertSame(M1, legacyTree.get(new Object[] { null }));
+        // Like with ArgumentTypes, before the bug fix null is treated as if it was an Object:
+        assertSame(M1, legacyTree.get(new Object[] { new Object() }));
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package freemarker.ext.beans;
+
+import static org.junit.Assert.*;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateScalarModel;
+import freemarker.template.TemplateSequenceModel;
+
+public class ValueClassIntrospectionTest {
+
+    @Test
+    public void testSameAsWithIntrospector() throws Exception {
+        BeansWrapper bwWithIntrospector = new BeansWrapper(Configuration.VERSION_2_3_31);
+        BeansWrapper bw = new BeansWrapper(Configuration.VERSION_2_3_31);
+        bw.setDirectValueClassIntrospection(true);
+        assertTrue(bw.getDirectValueClassIntrospection());
+
+        for (Class<?> clazz : new Class<?>[] { V1.class, V2.class, NotFinal.class }) {
+            Map<Object, Object> expectedClassInfo = bwWithIntrospector.getClassIntrospector().get(clazz);
+            Map<Object, Object> classInfo = bw.getClassIntrospector().get(clazz);
+            assertEquals(toStringKeyed(expectedClassInfo), toStringKeyed(classInfo));
+        }
+
+        TemplateHashModel v1 = (TemplateHashModel) bw.wrap(new V1());
+        assertEquals("n", ((TemplateScalarModel) v1.get("name")).getAsString());
+        assertEquals(2, ((TemplateSequenceModel) v1.get("items")).size());
+        assertEquals(Boolean.TRUE, bw.unwrap(v1.get("flag")));
+        assertEquals("d", ((TemplateScalarModel) v1.get("defaultName")).getAsString());
+        assertEquals("x1", bw.unwrap((TemplateModel) ((TemplateMethodModelEx) v1.get("m")).exec(
+                Arrays.asList(bw.wrap("x"), bw.wrap(1)))));
+    }
+
+    @Test
+    public void testValueClassDetection() throws Exception {
+        assertNotNull(ValueClassBeanInfo.create(V1.class));
+        assertNull(ValueClassBeanInfo.create(V2.class)); // Has BeanInfo class
+        assertNull(ValueClassBeanInfo.create(NotFinal.class));
+        assertNull(ValueClassBeanInfo.create(MutableField.class));
+        assertNull(ValueClassBeanInfo.create(HasSuperClass.class));
+        assertNull(ValueClassBeanInfo.create(I.class));
+        assertNull(ValueClassBeanInfo.create(int[].class));
+    }
+
+    @Test
+    public void testIndexedPropertyWithIncompatibleTypes() throws Exception {
+        ValueClassBeanInfo beanInfo = ValueClassBeanInfo.create(V3.class);
+        assertEquals(1, beanInfo.getPropertyDescriptors().length - 1 /* "class" */);
+        for (PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
+            assertFalse(pd instanceof IndexedPropertyDescriptor);
+        }
+    }
+
+    /**
+     * Converts the class introspection data to a comparable form; only the {@link String} keys are considered.
+     */
+    private static String toStringKeyed(Map<Object, Object> classInfo) {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : classInfo.entrySet()) {
+            if (entry.getKey() instanceof String) {
+                Object value = entry.getValue();
+                result.put((String) entry.getKey(),
+                        value instanceof FastPropertyDescriptor
+                                ? ((FastPropertyDescriptor) value).getReadMethod() + "/"
+                                        + ((FastPropertyDescriptor) value).getIndexedReadMethod()
+                                : value instanceof OverloadedMethods ? "overloaded"
+                                : String.valueOf(value));
+            }
+        }
+        return result.toString();
+    }
+
+    public interface I {
+        default String getDefaultName() {
+            return "d";
+        }
+    }
+
+    public static final class V1 implements I {
+        private final String name = "n";
+        private static int counter;
+
+        public String getName() {
+            return name;
+        }
+
+        public String[] getItems() {
+            return new String[] { "a", "b" };
+        }
+
+        public String getItems(int index) {
+            return getItems()[index];
+        }
+
+        public boolean isFlag() {
+            return true;
+        }
+
+        public boolean getFlag() {
+            return false;
+        }
+
+        public String getURL() {
+            return "u";
+        }
+
+        public String m(String s, int i) {
+            return s + i;
+        }
+
+        public String m(String s) {
+            return s;
+        }
+
+        public void getNothing() {
+            // Not a property
+        }
+
+        public static int getCounter() {
+            return counter;
+        }
+
+        @Override
+        public String toString() {
+            return "V1";
+        }
+    }
+
+    public static final class V2 {
+        public String getName() {
+            return "n";
+        }
+    }
+
+    public static class V2BeanInfo extends SimpleBeanInfo {
+        // Nothing is overridden, so Introspector falls back to reflection.
+    }
+
+    public static final class V3 {
+        public String[] getItems() {
+            return new String[0];
+        }
+
+        public Object getItems(int index) {
+            return null;
+        }
+    }
+
+    public static class NotFinal {
+        public String getName() {
+            return "n";
+        }
+    }
+
+    public static final class MutableField {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static final class HasSuperClass extends NotFinal {
+        // Nothing added
+    }
+
+}
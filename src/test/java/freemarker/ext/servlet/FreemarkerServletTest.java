@@ -57,6 +57,7 @@ public class FreemarkerServletTest {
     private static final String FOO_FTL = "foo.ftl";
     private static final String FOO_SRC_UTF8_FTL = "foo-src-utf8.ftl";
     private static final String FOO_OUT_UTF8_FTL = "foo-out-utf8.ftl";
+    private static final String NON_ASCII_FTL = "nonAscii.ftl";
     private static final String STD_OUTPUT_FORMAT_HTML_FTL = "stdOutputFormatHTML.ftl";
     private static final String STD_OUTPUT_FORMAT_XML_FTL = "stdOutputFormatXML.ftl";
     private static final String STD_OUTPUT_FORMAT_XHTML_FTL = "stdOutputFormatXHTML.ftl";
@@ -396,6 +397,42 @@ public class FreemarkerServletTest {
                 CONTENT_TYPE_ATTR_WITH_CHARSET_FTL);
     }
 
+    @Test
+    public void testByteOutputInitParam() throws Exception {
+        for (String charset : new String[] { "UTF-8", "ISO-8859-2", "US-ASCII", "UTF-16" }) {
+            String writerOutput = getResponseContent(NON_ASCII_FTL, charset, null);
+            assertEquals(writerOutput, getResponseContent(NON_ASCII_FTL, charset, "false"));
+            assertEquals(writerOutput, getResponseContent(NON_ASCII_FTL, charset, "true"));
+        }
+        assertThat(getResponseContent(NON_ASCII_FTL, "UTF-8", "true"), containsString("&lt;\u00FC&gt; \uD83D\uDE00"));
+    }
+
+    private String getResponseContent(String templateName, String charset, String byteOutputInitParam)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = createMockHttpServletRequest(servletContext, templateName, null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockServletConfig servletConfig = new MockServletConfig(servletContext);
+        servletConfig.addInitParameter(Configuration.DEFAULT_ENCODING_KEY, "UTF-8");
+        servletConfig.addInitParameter(INIT_PARAM_RESPONSE_CHARACTER_ENCODING,
+                FreemarkerServlet.INIT_PARAM_VALUE_FORCE_PREFIX + charset);
+        if (byteOutputInitParam != null) {
+            servletConfig.addInitParameter(INIT_PARAM_BYTE_OUTPUT, byteOutputInitParam);
+        }
+
+        TestFreemarkerServlet freemarkerServlet = new TestFreemarkerServlet();
+        try {
+            freemarkerServlet.init(servletConfig);
+            freemarkerServlet.doGet(request, response);
+
+            assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+            assertEquals(charset, response.getCharacterEncoding());
+            return response.getContentAsString();
+        } finally {
+            freemarkerServlet.destroy();
+        }
+    }
+
     private void assertResponseContentTypeEquals(
             String exptectContentType,
             String ctInitParam, String overrideCTInitParam,
@@ -572,6 +609,9 @@ public class FreemarkerServletTest {
                 tl.putTemplate(FOO_FTL, "foo");
                 tl.putTemplate(FOO_SRC_UTF8_FTL, "foo");
                 tl.putTemplate(FOO_OUT_UTF8_FTL, "foo");
+                tl.putTemplate(NON_ASCII_FTL,
+                        "<#ftl outputFormat='HTML'>\u00E1rv\u00EDzt\u0171r\u0151 ${'<\u00FC>'} \uD83D\uDE00"
+                        + "<#list 1..3 as i>[${i}\u20AC]</#list>");
                 tl.putTemplate(CONTENT_TYPE_ATTR_FTL, "<#ftl attributes={ 'content_type': 'text/plain' }>foo");
                 tl.putTemplate(CONTENT_TYPE_ATTR_WITH_CHARSET_FTL, "<#ftl attributes={ 'content_type': 'text/plain; charset=UTF-8' }>foo");
                 tl.putTemplate(OUTPUT_FORMAT_HEADER_FTL, "<#ftl outputFormat='plainText'>foo");
@@ -24,6 +24,7 @@ import static org.junit.Assert.*;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Random;
 import java.util.regex.Pattern;
 
 import org.hamcrest.Matchers;
@@ -384,6 +385,36 @@ public class StringUtilTest {
         assertEquals(expected, sw.toString());
     }
 
+    @Test
+    public void testEscapingLongStrings() throws IOException {
+        Random random = new Random(1234);
+        String alphabet = "ab <>&\"'{}\\\u00E1\u2028";
+        for (int i = 0; i < 300; i++) {
+            StringBuilder sb = new StringBuilder();
+            int ln = random.nextInt(3) == 0 ? random.nextInt(20) : random.nextInt(20000);
+            // Long unescaped runs are interesting for the chunking, so the alphabet is biased:
+            int specialCharChance = random.nextInt(4) == 0 ? 2 : random.nextInt(4) == 0 ? 5000 : 20;
+            for (int j = 0; j < ln; j++) {
+                sb.append(random.nextInt(specialCharChance) == 0
+                        ? alphabet.charAt(random.nextInt(alphabet.length()))
+                        : (char) ('a' + random.nextInt(26)));
+            }
+            String in = sb.toString();
+
+            String expected = in.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                    .replace("\"", "&quot;");
+            testXHTMLEnc(expected.replace("'", "&#39;"), in);
+            testXMLEnc(expected.replace("'", "&apos;"), in);
+            assertEquals(expected, StringUtil.XMLEncNA(in));
+
+            expected = in.replace("\\", "\\\\").replace("{", "\\{").replace("}", "\\}");
+            assertEquals(expected, StringUtil.RTFEnc(in));
+            StringWriter sw = new StringWriter();
+            StringUtil.RTFEnc(in, sw);
+            assertEquals(expected, sw.toString());
+        }
+    }
+
     @Test
     public void testXMLEncQAttr() throws IOException {
         String s = "";